@@ -13,12 +13,15 @@ import com.prismamc.trade.commands.TradeResponseCommand;
 import com.prismamc.trade.commands.TradeConfirmCommand;
 import com.prismamc.trade.commands.MyTradesCommand;
 import com.prismamc.trade.commands.ViewTradesCommand;
+import com.prismamc.trade.commands.TradeAdminCommand;
 import com.prismamc.trade.gui.lib.GUIListener;
 import com.prismamc.trade.listeners.PlayerJoinListener;
 import com.prismamc.trade.manager.ItemManager;
 import com.prismamc.trade.manager.MessageManager;
 import com.prismamc.trade.manager.MongoDBManager;
 import com.prismamc.trade.manager.PlayerDataManager;
+import com.prismamc.trade.manager.StorageManager;
+import com.prismamc.trade.manager.StorageManager.StorageType;
 import com.prismamc.trade.manager.TradeManager;
 import com.prismamc.trade.utils.FileUtil;
 
@@ -26,6 +29,7 @@ public class Plugin extends JavaPlugin implements Listener {
 
     private TradeManager tradeManager;
     private MongoDBManager mongoDBManager;
+    private StorageManager storageManager;
     private PlayerDataManager playerDataManager;
     private MessageManager messageManager;
     private ItemManager itemManager;
@@ -42,6 +46,8 @@ public class Plugin extends JavaPlugin implements Listener {
     private final MyTradesCommand myTradesCommand;
     @SuppressWarnings("unused") // Used via reflection
     private final ViewTradesCommand viewTradesCommand;
+    @SuppressWarnings("unused") // Used via reflection
+    private final TradeAdminCommand tradeAdminCommand;
 
     public Plugin() {
         this.tradeCommand = null;
@@ -50,15 +56,22 @@ public class Plugin extends JavaPlugin implements Listener {
         this.tradeConfirmCommand = null;
         this.myTradesCommand = null;
         this.viewTradesCommand = null;
+        this.tradeAdminCommand = null;
     }
 
     @Override
     public void onEnable() {
         try {
             this.configFile = new FileUtil(this, "config.yml");
-            initializeMongoDB();
+            StorageType storageType = StorageType.fromConfig(configFile.getConfig());
+            if (storageType == StorageType.MONGODB) {
+                initializeMongoDB();
+            }
+
+            if (storageType != StorageType.MONGODB || (mongoDBManager != null && mongoDBManager.isConnected())) {
+                this.storageManager = new StorageManager(this, storageType);
+                getLogger().info(String.format("Almacenamiento: %s", storageType.name().toLowerCase()));
 
-            if (mongoDBManager != null && mongoDBManager.isConnected()) {
                 this.playerDataManager = new PlayerDataManager(this);
                 this.messageManager = new MessageManager(this);
                 this.itemManager = new ItemManager(this);
@@ -101,6 +114,10 @@ public class Plugin extends JavaPlugin implements Listener {
             tradeManager.shutdown();
         }
 
+        if (storageManager != null) {
+            storageManager.close();
+        }
+
         if (mongoDBManager != null) {
             CompletableFuture.runAsync(() -> {
                 try {
@@ -149,6 +166,10 @@ public class Plugin extends JavaPlugin implements Listener {
             f.setAccessible(true);
             f.set(this, new ViewTradesCommand(this));
 
+            f = getClass().getDeclaredField("tradeAdminCommand");
+            f.setAccessible(true);
+            f.set(this, new TradeAdminCommand(this));
+
             getLogger().info("Comandos de trade registrados exitosamente!");
         } catch (Exception e) {
             getLogger().severe(String.format("Error al registrar comandos: %s", e.getMessage()));
@@ -170,6 +191,13 @@ public class Plugin extends JavaPlugin implements Listener {
         return mongoDBManager;
     }
 
+    public StorageManager getStorageManager() {
+        if (storageManager == null) {
+            throw new IllegalStateException("StorageManager no ha sido inicializado");
+        }
+        return storageManager;
+    }
+
     public FileUtil getConfigFile() {
         if (configFile == null) {
             throw new IllegalStateException("ConfigFile no ha sido inicializado");
@@ -0,0 +1,175 @@
+package com.prismamc.trade.commands;
+
+import org.bukkit.command.Command;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import com.prismamc.trade.Plugin;
+import com.prismamc.trade.commands.base.AMyCommand;
+import com.prismamc.trade.database.MongoMetrics;
+import com.prismamc.trade.manager.CacheManager;
+import com.prismamc.trade.manager.StorageManager.StorageType;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Comando de diagnóstico para administradores (también desde consola)
+ * /tradeadmin mongo [reset] muestra la latencia por comando y el estado del pool
+ * /tradeadmin cache [reset] muestra aciertos, fallos y cargas de la caché de trades por método
+ * /tradeadmin explain revisa el plan de ejecución de cada consulta
+ * /tradeadmin indexbench [trades] mide inserciones y actualizaciones con los
+ * índices actuales y con los redundantes de versiones anteriores, en la base de
+ * datos de pruebas mongodb.benchmark.database (nunca en la del servidor)
+ */
+public class TradeAdminCommand extends AMyCommand<Plugin> {
+
+    private static final String PERMISSION = "prismamc.trade.admin.stats";
+    private static final int DEFAULT_BENCHMARK_TRADES = 2000;
+    private static final int MAX_BENCHMARK_TRADES = 50000;
+
+    private final Plugin plugin;
+
+    public TradeAdminCommand(Plugin plugin) {
+        super(plugin, "tradeadmin");
+        this.plugin = plugin;
+        this.setDescription("Trade system diagnostics (Admin only)");
+        this.setUsage("/tradeadmin <mongo [reset] | cache [reset] | explain | indexbench [trades]>");
+        this.setAliases("tadmin");
+
+        if (this.registerCommand()) {
+            plugin.getLogger().info("TradeAdmin command registered successfully!");
+        }
+    }
+
+    @Override
+    public List<String> tabComplete(CommandSender sender, String alias, String[] args) {
+        if (!sender.hasPermission(PERMISSION)) {
+            return super.tabComplete(sender, alias, args);
+        }
+        Stream<String> options = switch (args.length) {
+            case 1 -> Stream.of("mongo", "cache", "explain", "indexbench");
+            case 2 -> args[0].equalsIgnoreCase("mongo") || args[0].equalsIgnoreCase("cache") ? Stream.of("reset")
+                    : Stream.empty();
+            default -> Stream.empty();
+        };
+        String input = args[args.length - 1].toLowerCase();
+        return options.filter(option -> option.startsWith(input)).collect(Collectors.toList());
+    }
+
+    @Override
+    public boolean onCommand(CommandSender sender, Command command, String label, String[] args) {
+        // La consola siempre tiene permiso
+        if (sender instanceof Player admin && !admin.hasPermission(PERMISSION)) {
+            plugin.getMessageManager().sendComponentMessage(admin, "admin.errors.no_permission");
+            return true;
+        }
+
+        if (args.length == 0) {
+            return false;
+        }
+
+        switch (args[0].toLowerCase()) {
+            case "mongo" -> showMongoMetrics(sender, args.length > 1 && args[1].equalsIgnoreCase("reset"));
+            case "cache" -> showCacheStats(sender, args.length > 1 && args[1].equalsIgnoreCase("reset"));
+            case "explain" -> auditQueryPlans(sender);
+            case "indexbench" -> benchmarkIndexes(sender, args.length > 1 ? args[1] : null);
+            default -> {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void showMongoMetrics(CommandSender sender, boolean reset) {
+        if (!usesMongo(sender)) {
+            return;
+        }
+
+        List<MongoMetrics> metrics = plugin.getMongoDBManager().getMetrics();
+        sender.sendMessage("§6MongoDB metrics (since last reset):");
+        metrics.forEach(client -> client.report().forEach(line -> sender.sendMessage("§7" + line)));
+
+        if (reset) {
+            metrics.forEach(MongoMetrics::reset);
+            sender.sendMessage("§aMetrics reset.");
+        }
+    }
+
+    private void showCacheStats(CommandSender sender, boolean reset) {
+        CacheManager cache = plugin.getTradeManager().getCacheManager();
+        sender.sendMessage("§6Trade cache (since last reset):");
+        cache.report().forEach(line -> sender.sendMessage("§7" + line));
+
+        if (reset) {
+            cache.getStats().reset();
+            sender.sendMessage("§aCache statistics reset.");
+        }
+    }
+
+    private void auditQueryPlans(CommandSender sender) {
+        if (!usesMongo(sender)) {
+            return;
+        }
+
+        sender.sendMessage("§6Running explain on every query shape...");
+        CompletableFuture.supplyAsync(() -> plugin.getMongoDBManager().auditQueryPlans())
+                .whenComplete((report, throwable) -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    if (throwable != null) {
+                        sender.sendMessage("§cQuery plan audit failed: " + throwable.getMessage());
+                        return;
+                    }
+                    report.forEach(line -> sender.sendMessage(color(line) + line));
+                }));
+    }
+
+    private void benchmarkIndexes(CommandSender sender, String tradesArg) {
+        if (!usesMongo(sender)) {
+            return;
+        }
+        String benchmarkDatabase = plugin.getMongoDBManager().getBenchmarkDatabaseName();
+        if (benchmarkDatabase == null) {
+            sender.sendMessage("§cConfigura mongodb.benchmark.database con una base de datos desechable"
+                    + " (distinta de la del servidor) para usar indexbench.");
+            return;
+        }
+
+        int tradeCount = DEFAULT_BENCHMARK_TRADES;
+        if (tradesArg != null) {
+            try {
+                tradeCount = Integer.parseInt(tradesArg);
+            } catch (NumberFormatException e) {
+                sender.sendMessage("§cNúmero de trades inválido: " + tradesArg);
+                return;
+            }
+        }
+        int trades = Math.max(1, Math.min(MAX_BENCHMARK_TRADES, tradeCount));
+
+        sender.sendMessage("§6Benchmarking trade writes with " + trades + " trades per index set in "
+                + benchmarkDatabase + "...");
+        CompletableFuture.supplyAsync(() -> plugin.getMongoDBManager().benchmarkTradeIndexes(trades))
+                .whenComplete((report, throwable) -> plugin.getServer().getScheduler().runTask(plugin, () -> {
+                    if (throwable != null) {
+                        sender.sendMessage("§cIndex benchmark failed: " + throwable.getMessage());
+                        return;
+                    }
+                    report.forEach(line -> sender.sendMessage("§7" + line));
+                }));
+    }
+
+    private static String color(String reportLine) {
+        if (reportLine.startsWith("[WARN]") || reportLine.startsWith("[ERROR]")) {
+            return "§c";
+        }
+        return reportLine.startsWith("[UNUSED]") ? "§e" : "§7";
+    }
+
+    private boolean usesMongo(CommandSender sender) {
+        if (plugin.getStorageManager().getType() != StorageType.MONGODB) {
+            sender.sendMessage("§cEl almacenamiento activo no es MongoDB.");
+            return false;
+        }
+        return true;
+    }
+}
@@ -85,10 +85,10 @@ public class TradeConfirmCommand extends AMyCommand<Plugin> {
                         UUID otherPlayerUUID = otherPlayerData.getUuid();
 
                         // Verify the trade exists and the player is part of it
-                        plugin.getTradeManager().getTradeInfo(tradeId)
-                                .thenAccept(tradeDocument -> {
+                        plugin.getTradeManager().getTradeSummary(tradeId)
+                                .thenAccept(tradeSummary -> {
                                     plugin.getServer().getScheduler().runTask(plugin, () -> {
-                                        if (tradeDocument == null) {
+                                        if (tradeSummary == null) {
                                             plugin.getMessageManager().sendComponentMessage(player,
                                                     "tradeconfirm.error.trade_not_found",
                                                     "trade_id", String.valueOf(tradeId));
@@ -96,8 +96,8 @@ public class TradeConfirmCommand extends AMyCommand<Plugin> {
                                         }
 
                                         // Verify the player is part of this trade
-                                        boolean isPlayer1 = tradeDocument.getPlayer1().equals(player.getUniqueId());
-                                        boolean isPlayer2 = tradeDocument.getPlayer2().equals(player.getUniqueId());
+                                        boolean isPlayer1 = tradeSummary.getPlayer1().equals(player.getUniqueId());
+                                        boolean isPlayer2 = tradeSummary.getPlayer2().equals(player.getUniqueId());
 
                                         if (!isPlayer1 && !isPlayer2) {
                                             plugin.getMessageManager().sendComponentMessage(player,
@@ -106,8 +106,8 @@ public class TradeConfirmCommand extends AMyCommand<Plugin> {
                                         }
 
                                         // Verify the other player is also part of this trade
-                                        boolean otherIsPlayer1 = tradeDocument.getPlayer1().equals(otherPlayerUUID);
-                                        boolean otherIsPlayer2 = tradeDocument.getPlayer2().equals(otherPlayerUUID);
+                                        boolean otherIsPlayer1 = tradeSummary.getPlayer1().equals(otherPlayerUUID);
+                                        boolean otherIsPlayer2 = tradeSummary.getPlayer2().equals(otherPlayerUUID);
 
                                         if (!otherIsPlayer1 && !otherIsPlayer2) {
                                             plugin.getMessageManager().sendComponentMessage(player,
@@ -117,10 +117,10 @@ public class TradeConfirmCommand extends AMyCommand<Plugin> {
                                         }
 
                                         // Verify trade is in ACTIVE state (ready for confirmation)
-                                        if (tradeDocument.getState() != TradeState.ACTIVE) {
+                                        if (tradeSummary.getState() != TradeState.ACTIVE) {
                                             plugin.getMessageManager().sendComponentMessage(player,
                                                     "tradeconfirm.error.trade_not_ready",
-                                                    "state", tradeDocument.getState().name());
+                                                    "state", tradeSummary.getState().name());
                                             return;
                                         }
 
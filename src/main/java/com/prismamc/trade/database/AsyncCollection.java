@@ -0,0 +1,191 @@
+package com.prismamc.trade.database;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * AsyncCollection - Future-based view of a MongoDB collection
+ * 
+ * This interface exposes the collection operations used by the trade system as
+ * CompletableFutures, so managers and GUIs are independent of the driver that
+ * executes them. Two implementations exist:
+ * - SyncCollectionAdapter: runs mongodb-driver-sync calls on a worker pool
+ * - ReactiveCollectionAdapter: uses mongodb-driver-reactivestreams and never
+ * blocks a thread while waiting for the server
+ * 
+ * The implementation is selected with {@code mongodb.driver} in config.yml.
+ * Futures may complete on driver threads, so callbacks must not block and must
+ * hop to the main thread before touching Bukkit state.
+ * 
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public interface AsyncCollection {
+
+    /**
+     * Finds documents matching a filter.
+     * 
+     * @param filter     Query filter
+     * @param projection Fields to include/exclude, or null for the whole document
+     * @param sort       Sort specification, or null for natural order
+     * @param limit      Maximum number of documents, or 0 for no limit
+     * @return Future containing the matching documents
+     */
+    CompletableFuture<List<Document>> find(Bson filter, Bson projection, Bson sort, int limit);
+
+    /**
+     * Finds the first document matching a filter.
+     * 
+     * @param filter     Query filter
+     * @param projection Fields to include/exclude, or null for the whole document
+     * @param sort       Sort specification, or null for natural order
+     * @return Future containing the document, or null if none matched
+     */
+    CompletableFuture<Document> findFirst(Bson filter, Bson projection, Bson sort);
+
+    /**
+     * Inserts a single document.
+     * 
+     * @param document Document to insert
+     * @return Future that completes when the insert is acknowledged
+     */
+    CompletableFuture<Void> insertOne(Document document);
+
+    /**
+     * Updates the first document matching a filter.
+     * 
+     * @param filter Query filter
+     * @param update Update document
+     * @return Future containing the update result
+     */
+    CompletableFuture<UpdateResult> updateOne(Bson filter, Bson update);
+
+    /**
+     * Updates the first document matching a filter with an aggregation pipeline.
+     * 
+     * @param filter   Query filter
+     * @param pipeline Update pipeline stages
+     * @return Future containing the update result
+     */
+    CompletableFuture<UpdateResult> updateOne(Bson filter, List<? extends Bson> pipeline);
+
+    /**
+     * Replaces the first document matching a filter.
+     * 
+     * @param filter      Query filter
+     * @param replacement Replacement document
+     * @param options     Replace options (e.g. upsert)
+     * @return Future containing the update result
+     */
+    CompletableFuture<UpdateResult> replaceOne(Bson filter, Document replacement, ReplaceOptions options);
+
+    /**
+     * Atomically updates the first document matching a filter with an
+     * aggregation pipeline and returns it.
+     * 
+     * @param filter   Query filter
+     * @param pipeline Update pipeline stages
+     * @param options  Projection, return document and upsert options
+     * @return Future containing the document, or null if none matched
+     */
+    CompletableFuture<Document> findOneAndUpdate(Bson filter, List<? extends Bson> pipeline,
+            FindOneAndUpdateOptions options);
+
+    /**
+     * Deletes the first document matching a filter.
+     * 
+     * @param filter Query filter
+     * @return Future containing the delete result
+     */
+    CompletableFuture<DeleteResult> deleteOne(Bson filter);
+
+    /**
+     * Deletes all documents matching a filter.
+     * 
+     * @param filter Query filter
+     * @return Future containing the delete result
+     */
+    CompletableFuture<DeleteResult> deleteMany(Bson filter);
+
+    /**
+     * Counts the documents matching a filter.
+     * 
+     * @param filter Query filter
+     * @return Future containing the count
+     */
+    CompletableFuture<Long> countDocuments(Bson filter);
+
+    /**
+     * Executes a bulk write.
+     * 
+     * @param writes  Write operations
+     * @param options Bulk write options (e.g. ordered)
+     * @return Future containing the bulk write result
+     */
+    CompletableFuture<BulkWriteResult> bulkWrite(List<? extends WriteModel<Document>> writes,
+            BulkWriteOptions options);
+
+    /**
+     * Finds the first document matching a filter and decodes it with the codec
+     * registered for the given class.
+     * 
+     * @param filter     Query filter
+     * @param projection Fields to include/exclude, or null for the whole document
+     * @param type       Class to decode into
+     * @param <T>        Decoded type
+     * @return Future containing the decoded document, or null if none matched
+     */
+    <T> CompletableFuture<T> findFirst(Bson filter, Bson projection, Class<T> type);
+
+    /**
+     * Finds documents matching a filter and decodes them with the codec
+     * registered for the given class.
+     * 
+     * @param filter     Query filter
+     * @param projection Fields to include/exclude, or null for the whole document
+     * @param type       Class to decode into
+     * @param <T>        Decoded type
+     * @return Future containing the decoded documents
+     */
+    <T> CompletableFuture<List<T>> find(Bson filter, Bson projection, Class<T> type);
+
+    /**
+     * Inserts a single object, encoded with the codec registered for its class.
+     * 
+     * @param document Object to insert
+     * @param type     Class whose codec encodes the object
+     * @param <T>      Encoded type
+     * @return Future that completes when the insert is acknowledged
+     */
+    <T> CompletableFuture<Void> insertOne(T document, Class<T> type);
+
+    /**
+     * Finds the first document matching a filter, returning the whole document.
+     * 
+     * @param filter Query filter
+     * @return Future containing the document, or null if none matched
+     */
+    default CompletableFuture<Document> findFirst(Bson filter) {
+        return findFirst(filter, null, (Bson) null);
+    }
+
+    /**
+     * Finds all documents matching a filter, returning whole documents.
+     * 
+     * @param filter Query filter
+     * @return Future containing the matching documents
+     */
+    default CompletableFuture<List<Document>> find(Bson filter) {
+        return find(filter, null, null, 0);
+    }
+}
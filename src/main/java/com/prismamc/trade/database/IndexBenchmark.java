@@ -0,0 +1,199 @@
+package com.prismamc.trade.database;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Updates;
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.utils.LatencyHistogram;
+import org.bson.Document;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * IndexBenchmark - Write cost of the trades index set
+ *
+ * Every index on trades is updated by each insert and by each update that
+ * changes an indexed field, so redundant indexes slow every trade down
+ * without speeding up any query. This benchmark measures that cost on the
+ * server the plugin actually uses: it replays the plugin's trade writes on a
+ * scratch collection in a dedicated benchmark database, once with the live
+ * trades indexes and once with the redundant indexes of earlier versions
+ * added back.
+ *
+ * Key Features:
+ * - Same documents and updates as the plugin: TradeDocument inserts, state
+ * changes with a new expiresAt, and acceptance flag updates
+ * - One write per round trip, as issued at runtime
+ * - Throughput and latency (LatencyHistogram) per operation and index set
+ * - A discarded warm-up run before the measured runs
+ * - The scratch collection is dropped afterwards; trades is only read for
+ * its index definitions
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class IndexBenchmark {
+
+    private static final String SCRATCH_COLLECTION = "trades_index_benchmark";
+
+    // Index spec fields that are not options of createIndexes
+    private static final Set<String> SPEC_METADATA = Set.of("v", "ns");
+
+    private final MongoDatabase database;
+    private final MongoCollection<Document> trades;
+    private final Map<String, Document> redundantIndexes;
+
+    /**
+     * Write throughput and latency of one run.
+     */
+    private static final class Result {
+        private final int indexCount;
+        private final LatencyHistogram inserts = new LatencyHistogram();
+        private final LatencyHistogram updates = new LatencyHistogram();
+        private long insertNanos;
+        private long updateNanos;
+
+        private Result(int indexCount) {
+            this.indexCount = indexCount;
+        }
+
+        private double insertsPerSecond() {
+            return inserts.getCount() * 1_000_000_000.0 / Math.max(1L, insertNanos);
+        }
+
+        private double updatesPerSecond() {
+            return updates.getCount() * 1_000_000_000.0 / Math.max(1L, updateNanos);
+        }
+    }
+
+    /**
+     * Constructs a new IndexBenchmark.
+     *
+     * @param database         Disposable database the scratch collection is
+     *                         created in, never the live one
+     * @param trades           The trades collection, whose indexes are copied
+     * @param redundantIndexes Keys of the indexes dropped as redundant, by name
+     */
+    public IndexBenchmark(MongoDatabase database, MongoCollection<Document> trades,
+            Map<String, Document> redundantIndexes) {
+        this.database = database;
+        this.trades = trades;
+        this.redundantIndexes = redundantIndexes;
+    }
+
+    /**
+     * Runs the benchmark. Blocks on the database for the duration of several
+     * thousand round trips; call it off the main thread.
+     *
+     * @param tradeCount Number of trades inserted and updated per run
+     * @return Report lines
+     */
+    public List<String> run(int tradeCount) {
+        List<Document> current = liveIndexSpecs();
+        Set<String> currentNames = current.stream()
+                .map(spec -> spec.getString("name"))
+                .collect(Collectors.toSet());
+        List<Document> previous = new ArrayList<>(current);
+        redundantIndexes.forEach((name, keys) -> {
+            if (!currentNames.contains(name)) {
+                previous.add(new Document("key", keys).append("name", name));
+            }
+        });
+
+        try {
+            measure(previous, Math.max(1, tradeCount / 10));
+            Result before = measure(previous, tradeCount);
+            Result after = measure(current, tradeCount);
+
+            List<String> report = new ArrayList<>();
+            report.add(String.format("%d trades per run (one insert and two updates each)", tradeCount));
+            report.add(describe("Previous", before));
+            report.add(describe("Current", after));
+            report.add(String.format("Current vs previous: inserts %+.1f%%, updates %+.1f%%",
+                    change(before.insertsPerSecond(), after.insertsPerSecond()),
+                    change(before.updatesPerSecond(), after.updatesPerSecond())));
+            return report;
+        } finally {
+            database.getCollection(SCRATCH_COLLECTION).drop();
+        }
+    }
+
+    /**
+     * @return Definitions of the live trades indexes, except _id
+     */
+    private List<Document> liveIndexSpecs() {
+        List<Document> specs = new ArrayList<>();
+        trades.listIndexes().forEach(index -> {
+            if (!"_id_".equals(index.getString("name"))) {
+                SPEC_METADATA.forEach(index::remove);
+                specs.add(index);
+            }
+        });
+        return specs;
+    }
+
+    /**
+     * Recreates the scratch collection with the given indexes and times the
+     * plugin's writes on it.
+     */
+    private Result measure(List<Document> indexSpecs, int tradeCount) {
+        MongoCollection<Document> scratch = database.getCollection(SCRATCH_COLLECTION);
+        scratch.drop();
+        database.createCollection(SCRATCH_COLLECTION);
+        if (!indexSpecs.isEmpty()) {
+            database.runCommand(new Document("createIndexes", SCRATCH_COLLECTION).append("indexes", indexSpecs));
+        }
+
+        // A small pool of players, so player indexes hold repeated keys as in
+        // production
+        List<UUID> players = new ArrayList<>();
+        for (int i = 0; i < Math.max(2, tradeCount / 10); i++) {
+            players.add(UUID.randomUUID());
+        }
+
+        Result result = new Result(indexSpecs.size());
+        long started = System.nanoTime();
+        for (int i = 0; i < tradeCount; i++) {
+            TradeDocument trade = new TradeDocument(i + 1L, players.get(i % players.size()),
+                    players.get((i + 1) % players.size()));
+            trade.setExpiresAt(new Date(System.currentTimeMillis() + 86_400_000L));
+            long start = System.nanoTime();
+            scratch.insertOne(trade.toDocument());
+            result.inserts.record(System.nanoTime() - start);
+        }
+        result.insertNanos = System.nanoTime() - started;
+
+        started = System.nanoTime();
+        for (int i = 0; i < tradeCount; i++) {
+            long start = System.nanoTime();
+            scratch.updateOne(Filters.eq("tradeId", i + 1L), Updates.combine(
+                    Updates.set("state", TradeState.ACTIVE.name()),
+                    Updates.set("expiresAt", new Date(System.currentTimeMillis() + 86_400_000L))));
+            result.updates.record(System.nanoTime() - start);
+
+            start = System.nanoTime();
+            scratch.updateOne(Filters.eq("tradeId", i + 1L), Updates.set("player1Accepted", true));
+            result.updates.record(System.nanoTime() - start);
+        }
+        result.updateNanos = System.nanoTime() - started;
+        return result;
+    }
+
+    private static String describe(String label, Result result) {
+        return String.format("%s (%d indexes): inserts %.0f/s p99=%.2fms, updates %.0f/s p99=%.2fms", label,
+                result.indexCount, result.insertsPerSecond(), result.inserts.getPercentileMillis(99),
+                result.updatesPerSecond(), result.updates.getPercentileMillis(99));
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0.0 : (after - before) * 100.0 / before;
+    }
+}
@@ -0,0 +1,177 @@
+package com.prismamc.trade.database;
+
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandSucceededEvent;
+import com.mongodb.event.ConnectionCheckOutFailedEvent;
+import com.mongodb.event.ConnectionCheckOutStartedEvent;
+import com.mongodb.event.ConnectionCheckedInEvent;
+import com.mongodb.event.ConnectionCheckedOutEvent;
+import com.mongodb.event.ConnectionClosedEvent;
+import com.mongodb.event.ConnectionCreatedEvent;
+import com.mongodb.event.ConnectionPoolCreatedEvent;
+import com.mongodb.event.ConnectionPoolListener;
+import com.prismamc.trade.utils.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * MongoMetrics - Driver command and connection pool instrumentation
+ *
+ * Registered on the MongoDB client settings as both a CommandListener and a
+ * ConnectionPoolListener, so it sees every command and every pool event of
+ * one client. The sync and reactive clients each get their own instance, so
+ * the pool gauges describe a single pool. Slow trades can then be attributed to the
+ * pool (long checkout waits, exhausted pool), the server (slow commands of
+ * one kind) or neither (the network or the plugin itself).
+ *
+ * Key Features:
+ * - Latency histogram and failure count per command name (find, update,
+ * findAndModify, ...)
+ * - Pool checkout wait histogram and checkout failures by reason
+ * - Pool gauges: open connections, connections in use, threads waiting
+ * - Plain-text report shared by the admin command and the periodic log
+ *
+ * Listener methods only touch LongAdders and atomics, so they add no
+ * contention to driver threads.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class MongoMetrics implements CommandListener, ConnectionPoolListener {
+
+    private final String clientName;
+    private final Map<String, CommandStats> commands;
+    private final LatencyHistogram checkoutWait;
+    private final Map<ConnectionCheckOutFailedEvent.Reason, LongAdder> checkoutFailures;
+    private final AtomicInteger maxPoolSize;
+    private final AtomicInteger openConnections;
+    private final AtomicInteger inUse;
+    private final AtomicInteger waiting;
+
+    /**
+     * Latency and failures of one command name.
+     */
+    private static final class CommandStats {
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    /**
+     * @param clientName Name of the instrumented client, shown in the report
+     */
+    public MongoMetrics(String clientName) {
+        this.clientName = clientName;
+        this.commands = new ConcurrentHashMap<>();
+        this.checkoutWait = new LatencyHistogram();
+        this.checkoutFailures = new ConcurrentHashMap<>();
+        this.maxPoolSize = new AtomicInteger();
+        this.openConnections = new AtomicInteger();
+        this.inUse = new AtomicInteger();
+        this.waiting = new AtomicInteger();
+    }
+
+    // Command events
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event) {
+        stats(event.getCommandName()).latency.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event) {
+        CommandStats stats = stats(event.getCommandName());
+        stats.latency.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+        stats.failures.increment();
+    }
+
+    // Pool events
+
+    @Override
+    public void connectionPoolCreated(ConnectionPoolCreatedEvent event) {
+        maxPoolSize.addAndGet(event.getSettings().getMaxSize());
+    }
+
+    @Override
+    public void connectionCreated(ConnectionCreatedEvent event) {
+        openConnections.incrementAndGet();
+    }
+
+    @Override
+    public void connectionClosed(ConnectionClosedEvent event) {
+        openConnections.decrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckOutStarted(ConnectionCheckOutStartedEvent event) {
+        waiting.incrementAndGet();
+    }
+
+    @Override
+    public void connectionCheckedOut(ConnectionCheckedOutEvent event) {
+        waiting.decrementAndGet();
+        inUse.incrementAndGet();
+        checkoutWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+    }
+
+    @Override
+    public void connectionCheckOutFailed(ConnectionCheckOutFailedEvent event) {
+        waiting.decrementAndGet();
+        checkoutWait.record(event.getElapsedTime(TimeUnit.NANOSECONDS));
+        checkoutFailures.computeIfAbsent(event.getReason(), reason -> new LongAdder()).increment();
+    }
+
+    @Override
+    public void connectionCheckedIn(ConnectionCheckedInEvent event) {
+        inUse.decrementAndGet();
+    }
+
+    /**
+     * @return Total number of commands recorded since the last reset
+     */
+    public long getCommandCount() {
+        return commands.values().stream().mapToLong(stats -> stats.latency.getCount()).sum();
+    }
+
+    /**
+     * Builds a readable report: pool state first, then one line per command
+     * name, busiest first.
+     *
+     * @return Report lines
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        long failures = checkoutFailures.values().stream().mapToLong(LongAdder::sum).sum();
+        lines.add(String.format("Pool (%s client): %d open / %d max, %d in use, %d waiting, %d checkout failures%s",
+                clientName, openConnections.get(), maxPoolSize.get(), inUse.get(), Math.max(0, waiting.get()), failures,
+                failures == 0 ? "" : " " + checkoutFailures));
+        lines.add("Checkout wait: " + checkoutWait.summary());
+
+        commands.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, CommandStats> entry) -> entry.getValue().latency.getCount()).reversed())
+                .forEach(entry -> lines.add(String.format("%s: %s failed=%d", entry.getKey(),
+                        entry.getValue().latency.summary(), entry.getValue().failures.sum())));
+        return lines;
+    }
+
+    /**
+     * Clears the histograms and counters. Pool gauges keep their values.
+     */
+    public void reset() {
+        commands.clear();
+        checkoutWait.reset();
+        checkoutFailures.clear();
+    }
+
+    private CommandStats stats(String commandName) {
+        return commands.computeIfAbsent(commandName, name -> new CommandStats());
+    }
+}
@@ -0,0 +1,83 @@
+package com.prismamc.trade.database;
+
+import org.reactivestreams.Publisher;
+import org.reactivestreams.Subscriber;
+import org.reactivestreams.Subscription;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PublisherFutures - Bridges Reactive Streams publishers to CompletableFutures
+ * 
+ * The subscribers request all elements up front and complete the future from
+ * the publisher's own signals, so no thread waits for the result.
+ * 
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public final class PublisherFutures {
+
+    private PublisherFutures() {
+    }
+
+    /**
+     * Collects every element emitted by a publisher.
+     * 
+     * @param publisher Source publisher
+     * @param <T>       Element type
+     * @return Future containing all emitted elements in order
+     */
+    public static <T> CompletableFuture<List<T>> toList(Publisher<T> publisher) {
+        CompletableFuture<List<T>> future = new CompletableFuture<>();
+        publisher.subscribe(new CollectingSubscriber<>(future));
+        return future;
+    }
+
+    /**
+     * Returns the first element emitted by a publisher.
+     * 
+     * @param publisher Source publisher
+     * @param <T>       Element type
+     * @return Future containing the first element, or null if the publisher
+     *         completed empty
+     */
+    public static <T> CompletableFuture<T> first(Publisher<T> publisher) {
+        return toList(publisher).thenApply(items -> items.isEmpty() ? null : items.get(0));
+    }
+
+    /**
+     * Subscriber that buffers all elements and completes a future on terminal
+     * signals. Reactive Streams guarantees signals are serial, so the buffer
+     * needs no synchronization.
+     */
+    private static final class CollectingSubscriber<T> implements Subscriber<T> {
+        private final CompletableFuture<List<T>> future;
+        private final List<T> items = new ArrayList<>();
+
+        private CollectingSubscriber(CompletableFuture<List<T>> future) {
+            this.future = future;
+        }
+
+        @Override
+        public void onSubscribe(Subscription subscription) {
+            subscription.request(Long.MAX_VALUE);
+        }
+
+        @Override
+        public void onNext(T item) {
+            items.add(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            future.completeExceptionally(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            future.complete(items);
+        }
+    }
+}
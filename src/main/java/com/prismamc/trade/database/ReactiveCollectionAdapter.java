@@ -0,0 +1,134 @@
+package com.prismamc.trade.database;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import com.mongodb.reactivestreams.client.FindPublisher;
+import com.mongodb.reactivestreams.client.MongoCollection;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * ReactiveCollectionAdapter - AsyncCollection backed by
+ * mongodb-driver-reactivestreams
+ * 
+ * Operations are issued on the driver's asynchronous transport and the
+ * returned futures complete from driver callbacks, so no thread is parked
+ * while the server responds. Thread count stays flat regardless of MongoDB
+ * latency.
+ * 
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class ReactiveCollectionAdapter implements AsyncCollection {
+
+    private final MongoCollection<Document> collection;
+
+    /**
+     * Constructs a new ReactiveCollectionAdapter.
+     * 
+     * @param collection Reactive Streams driver collection
+     */
+    public ReactiveCollectionAdapter(MongoCollection<Document> collection) {
+        this.collection = collection;
+    }
+
+    @Override
+    public CompletableFuture<List<Document>> find(Bson filter, Bson projection, Bson sort, int limit) {
+        return PublisherFutures.toList(prepare(collection, filter, projection, sort, limit));
+    }
+
+    @Override
+    public CompletableFuture<Document> findFirst(Bson filter, Bson projection, Bson sort) {
+        return PublisherFutures.first(prepare(collection, filter, projection, sort, 0).first());
+    }
+
+    @Override
+    public CompletableFuture<Void> insertOne(Document document) {
+        return PublisherFutures.first(collection.insertOne(document)).thenApply(result -> null);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> findFirst(Bson filter, Bson projection, Class<T> type) {
+        return PublisherFutures.first(
+                prepare(collection.withDocumentClass(type), filter, projection, null, 0).first());
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> find(Bson filter, Bson projection, Class<T> type) {
+        return PublisherFutures.toList(prepare(collection.withDocumentClass(type), filter, projection, null, 0));
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> insertOne(T document, Class<T> type) {
+        return PublisherFutures.first(collection.withDocumentClass(type).insertOne(document))
+                .thenApply(result -> null);
+    }
+
+    @Override
+    public CompletableFuture<UpdateResult> updateOne(Bson filter, Bson update) {
+        return PublisherFutures.first(collection.updateOne(filter, update));
+    }
+
+    @Override
+    public CompletableFuture<UpdateResult> updateOne(Bson filter, List<? extends Bson> pipeline) {
+        return PublisherFutures.first(collection.updateOne(filter, pipeline));
+    }
+
+    @Override
+    public CompletableFuture<UpdateResult> replaceOne(Bson filter, Document replacement, ReplaceOptions options) {
+        return PublisherFutures.first(collection.replaceOne(filter, replacement, options));
+    }
+
+    @Override
+    public CompletableFuture<Document> findOneAndUpdate(Bson filter, List<? extends Bson> pipeline,
+            FindOneAndUpdateOptions options) {
+        return PublisherFutures.first(collection.findOneAndUpdate(filter, pipeline, options));
+    }
+
+    @Override
+    public CompletableFuture<DeleteResult> deleteOne(Bson filter) {
+        return PublisherFutures.first(collection.deleteOne(filter));
+    }
+
+    @Override
+    public CompletableFuture<DeleteResult> deleteMany(Bson filter) {
+        return PublisherFutures.first(collection.deleteMany(filter));
+    }
+
+    @Override
+    public CompletableFuture<Long> countDocuments(Bson filter) {
+        return PublisherFutures.first(collection.countDocuments(filter));
+    }
+
+    @Override
+    public CompletableFuture<BulkWriteResult> bulkWrite(List<? extends WriteModel<Document>> writes,
+            BulkWriteOptions options) {
+        return PublisherFutures.first(collection.bulkWrite(writes, options));
+    }
+
+    /**
+     * Builds a find publisher with the optional projection, sort and limit applied.
+     */
+    private static <T> FindPublisher<T> prepare(MongoCollection<T> source, Bson filter, Bson projection, Bson sort,
+            int limit) {
+        FindPublisher<T> publisher = source.find(filter);
+        if (projection != null) {
+            publisher = publisher.projection(projection);
+        }
+        if (sort != null) {
+            publisher = publisher.sort(sort);
+        }
+        if (limit > 0) {
+            publisher = publisher.limit(limit);
+        }
+        return publisher;
+    }
+}
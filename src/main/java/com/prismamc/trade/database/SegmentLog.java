@@ -0,0 +1,422 @@
+package com.prismamc.trade.database;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+
+/**
+ * SegmentLog - Append-only record log on memory-mapped segment files
+ *
+ * Records are appended to fixed-size segment files mapped into memory with
+ * FileChannel.map, so an append is a memory copy and a read is a view of the
+ * mapping. When the active segment is full a new one is created. Each record
+ * is addressed by a location (segment number in the high 32 bits, offset in
+ * the low 32 bits) that the owner keeps in its own index.
+ *
+ * Key Features:
+ * - Record layout: payload length (int), type (byte), CRC32 of the payload
+ * (int), payload; the length is written last, so a record only becomes visible
+ * once it is complete
+ * - Crash recovery: on open every segment is scanned up to the first empty or
+ * corrupt record, and replay hands the records to the owner in append order
+ * - Live byte accounting per segment (owners report superseded records with
+ * markDead)
+ * - Compaction copies the live records of mostly dead segments to the end of
+ * the log and deletes the old files; a file that cannot be deleted yet (a
+ * mapped file on Windows stays locked until it is unmapped) still counts as
+ * part of the log until a later compaction deletes it
+ * - Mappings are flushed to disk by force, at an interval chosen by the owner
+ *
+ * Appends, markDead and compact synchronize on the log. Owners that must keep
+ * an index consistent with the log synchronize on it as well. Reads take no
+ * lock.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SegmentLog {
+
+    /** Length, type and CRC32 in front of every payload */
+    private static final int HEADER_SIZE = 9;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    private final Path directory;
+    private final int segmentSize;
+    private final Logger logger;
+    private final NavigableMap<Integer, Segment> segments;
+
+    // Compacted segments whose file could not be deleted yet, guarded by this
+    private final NavigableMap<Integer, Path> retired;
+
+    // Segments written since the last force, guarded by this
+    private final Set<Segment> dirty;
+    private Segment active;
+
+    /**
+     * Receives records during replay and compaction.
+     */
+    public interface RecordVisitor {
+        /**
+         * @param location Location of the record
+         * @param type     Record type given to append
+         * @param payload  Read-only view of the payload
+         */
+        void visit(long location, byte type, ByteBuffer payload);
+    }
+
+    /**
+     * Decides which records compaction keeps and learns where they moved.
+     */
+    public interface CompactionHandler {
+        /**
+         * @return True if the record is still needed
+         */
+        boolean isLive(long location, byte type, ByteBuffer payload);
+
+        /**
+         * Called after a live record was copied, while the log is locked.
+         */
+        void moved(long oldLocation, long newLocation, byte type, ByteBuffer payload);
+    }
+
+    /**
+     * Opens the log in the given directory, recovering the segments left by a
+     * previous run. Call replay to read them.
+     *
+     * @param directory   Directory holding the segment files
+     * @param segmentSize Size of new segment files in bytes
+     * @param logger      Logger for recovery and compaction messages
+     * @throws IOException if the directory or a segment cannot be opened
+     */
+    public SegmentLog(Path directory, int segmentSize, Logger logger) throws IOException {
+        this.directory = directory;
+        this.segmentSize = Math.max(64 * 1024, segmentSize);
+        this.logger = logger;
+        this.segments = new ConcurrentSkipListMap<>();
+        this.retired = new ConcurrentSkipListMap<>();
+        this.dirty = new HashSet<>();
+
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory,
+                SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                int id = Integer.parseInt(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length()));
+                Segment segment = Segment.open(id, file, 0);
+                segment.recover(logger);
+                segments.put(id, segment);
+            }
+        }
+
+        this.active = segments.isEmpty() ? createSegment(1, this.segmentSize) : segments.lastEntry().getValue();
+    }
+
+    /**
+     * Visits every record in append order. Every record starts out live; the
+     * visitor reports superseded ones with markDead.
+     *
+     * @param visitor Receives each record
+     */
+    public synchronized void replay(RecordVisitor visitor) {
+        for (Segment segment : segments.values()) {
+            segment.forEachRecord(visitor);
+        }
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param type    Record type, returned by replay
+     * @param payload Record payload
+     * @return Location of the new record
+     * @throws UncheckedIOException if a new segment cannot be created
+     */
+    public synchronized long append(byte type, byte[] payload) {
+        int size = HEADER_SIZE + payload.length;
+        if (active.capacity() - active.writePosition < size) {
+            try {
+                active = createSegment(active.id + 1, Math.max(segmentSize, size));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not create log segment", e);
+            }
+        }
+
+        int offset = active.write(type, payload);
+        dirty.add(active);
+        return location(active.id, offset);
+    }
+
+    /**
+     * Returns a read-only view of a record's payload. Takes no lock: a location
+     * looked up just before compaction moved the record fails here, and the
+     * caller should look the location up again.
+     *
+     * @param location Location returned by append
+     * @return The payload
+     * @throws IllegalStateException if the segment no longer exists
+     */
+    public ByteBuffer read(long location) {
+        Segment segment = segments.get(segmentId(location));
+        if (segment == null) {
+            throw new IllegalStateException("Log segment " + segmentId(location) + " no longer exists");
+        }
+        return segment.payload(offset(location));
+    }
+
+    /**
+     * Reports that a record was superseded and is no longer needed.
+     *
+     * @param location Location of the dead record
+     */
+    public synchronized void markDead(long location) {
+        Segment segment = segments.get(segmentId(location));
+        if (segment != null) {
+            segment.liveBytes -= segment.recordSize(offset(location));
+        }
+    }
+
+    /**
+     * Checks whether a record is in the oldest segment, i.e. no earlier record
+     * exists that it could supersede. Compacted segments whose file is still on
+     * disk count, since the next open replays them.
+     *
+     * @param location Location of the record
+     * @return True if the record is in the oldest segment
+     */
+    public boolean isInOldestSegment(long location) {
+        int id = segmentId(location);
+        return segments.firstKey() == id && (retired.isEmpty() || retired.firstKey() > id);
+    }
+
+    /**
+     * Rewrites full segments whose live fraction is below the threshold: live
+     * records are copied to the end of the log and the segment file is
+     * deleted.
+     *
+     * @param threshold Live fraction below which a segment is compacted
+     * @param handler   Decides which records are live and tracks moves
+     * @return Number of segments removed
+     */
+    public synchronized int compact(double threshold, CompactionHandler handler) {
+        deleteRetired();
+
+        List<Segment> candidates = new ArrayList<>();
+        for (Segment segment : segments.values()) {
+            if (segment != active && segment.liveBytes < threshold * segment.writePosition) {
+                candidates.add(segment);
+            }
+        }
+
+        int removed = 0;
+        for (Segment segment : candidates) {
+            segment.forEachRecord((location, type, payload) -> {
+                if (handler.isLive(location, type, payload)) {
+                    byte[] copy = new byte[payload.remaining()];
+                    payload.duplicate().get(copy);
+                    long newLocation = append(type, copy);
+                    handler.moved(location, newLocation, type, ByteBuffer.wrap(copy).asReadOnlyBuffer());
+                }
+            });
+
+            // Flush the copies before the originals disappear
+            force();
+            segments.remove(segment.id);
+            dirty.remove(segment);
+            try {
+                segment.close();
+                Files.deleteIfExists(segment.file);
+            } catch (IOException e) {
+                // Still replayed on the next open, so records that hide its
+                // contents must survive until the file is gone
+                retired.put(segment.id, segment.file);
+                logger.log(Level.WARNING, "Could not delete compacted log segment {0}, retrying later: {1}",
+                        new Object[] { segment.file.getFileName(), e.getMessage() });
+            }
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Retries deleting compacted segment files that were left behind.
+     */
+    private void deleteRetired() {
+        retired.values().removeIf(file -> {
+            try {
+                Files.deleteIfExists(file);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    /**
+     * Flushes the segments written since the last call to disk.
+     */
+    public synchronized void force() {
+        dirty.forEach(segment -> segment.buffer.force());
+        dirty.clear();
+    }
+
+    /**
+     * Flushes and closes every segment.
+     */
+    public synchronized void close() {
+        force();
+        deleteRetired();
+        for (Segment segment : segments.values()) {
+            try {
+                segment.close();
+            } catch (IOException e) {
+                logger.log(Level.WARNING, "Error closing log segment {0}: {1}",
+                        new Object[] { segment.file.getFileName(), e.getMessage() });
+            }
+        }
+    }
+
+    /**
+     * @return Number of segment files
+     */
+    public int getSegmentCount() {
+        return segments.size();
+    }
+
+    private Segment createSegment(int id, int size) throws IOException {
+        Path file = directory.resolve(String.format("%s%08d%s", SEGMENT_PREFIX, id, SEGMENT_SUFFIX));
+        Segment segment = Segment.open(id, file, size);
+        segments.put(id, segment);
+        return segment;
+    }
+
+    private static long location(int segmentId, int offset) {
+        return ((long) segmentId << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentId(long location) {
+        return (int) (location >>> 32);
+    }
+
+    private static int offset(long location) {
+        return (int) location;
+    }
+
+    /**
+     * One mapped segment file.
+     */
+    private static class Segment {
+        private final int id;
+        private final Path file;
+        private final FileChannel channel;
+        private final MappedByteBuffer buffer;
+
+        // Guarded by the log
+        private int writePosition;
+        private long liveBytes;
+
+        private Segment(int id, Path file, FileChannel channel, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.channel = channel;
+            this.buffer = buffer;
+        }
+
+        /**
+         * Maps a segment file, creating it with the given size if it does not
+         * exist. Existing files keep their size.
+         */
+        private static Segment open(int id, Path file, int size) throws IOException {
+            FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                    StandardOpenOption.WRITE);
+            long length = Math.max(channel.size(), size);
+            return new Segment(id, file, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, length));
+        }
+
+        private int capacity() {
+            return buffer.capacity();
+        }
+
+        /**
+         * Finds the end of the valid records. A record that is cut short or
+         * fails its checksum ends the segment; anything after it is
+         * overwritten by later appends.
+         */
+        private void recover(Logger logger) {
+            int position = 0;
+            while (position + HEADER_SIZE <= capacity()) {
+                int length = buffer.getInt(position);
+                if (length <= 0 || length > capacity() - position - HEADER_SIZE) {
+                    break;
+                }
+                if (checksum(position + HEADER_SIZE, length) != buffer.getInt(position + 5)) {
+                    logger.warning("Discarding corrupt record at " + file.getFileName() + ":" + position);
+                    break;
+                }
+                position += HEADER_SIZE + length;
+            }
+            writePosition = position;
+            liveBytes = position;
+        }
+
+        private int write(byte type, byte[] payload) {
+            int offset = writePosition;
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+
+            buffer.put(offset + 4, type);
+            buffer.putInt(offset + 5, (int) crc.getValue());
+            buffer.put(offset + HEADER_SIZE, payload);
+            // Written last: publishes the record to recovery
+            buffer.putInt(offset, payload.length);
+
+            writePosition += HEADER_SIZE + payload.length;
+            liveBytes += HEADER_SIZE + payload.length;
+            return offset;
+        }
+
+        private ByteBuffer payload(int offset) {
+            int length = buffer.getInt(offset);
+            return buffer.slice(offset + HEADER_SIZE, length).asReadOnlyBuffer();
+        }
+
+        private int recordSize(int offset) {
+            return HEADER_SIZE + buffer.getInt(offset);
+        }
+
+        private void forEachRecord(RecordVisitor visitor) {
+            int position = 0;
+            while (position < writePosition) {
+                visitor.visit(location(id, position), buffer.get(position + 4), payload(position));
+                position += recordSize(position);
+            }
+        }
+
+        private int checksum(int offset, int length) {
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset, length));
+            return (int) crc.getValue();
+        }
+
+        private void close() throws IOException {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.prismamc.trade.database;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.FindIterable;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.WriteModel;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * SyncCollectionAdapter - AsyncCollection backed by mongodb-driver-sync
+ * 
+ * Every operation is submitted to the given executor, which blocks one of its
+ * threads for the duration of the round trip. This keeps the previous
+ * threading behaviour and is the default backend.
+ * 
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class SyncCollectionAdapter implements AsyncCollection {
+
+    private final MongoCollection<Document> collection;
+    private final Executor executor;
+
+    /**
+     * Constructs a new SyncCollectionAdapter.
+     * 
+     * @param collection Sync driver collection
+     * @param executor   Executor that runs the blocking calls
+     */
+    public SyncCollectionAdapter(MongoCollection<Document> collection, Executor executor) {
+        this.collection = collection;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<List<Document>> find(Bson filter, Bson projection, Bson sort, int limit) {
+        return CompletableFuture.supplyAsync(
+                () -> prepare(collection, filter, projection, sort, limit).into(new ArrayList<>()), executor);
+    }
+
+    @Override
+    public CompletableFuture<Document> findFirst(Bson filter, Bson projection, Bson sort) {
+        return CompletableFuture.supplyAsync(() -> prepare(collection, filter, projection, sort, 0).first(), executor);
+    }
+
+    @Override
+    public CompletableFuture<Void> insertOne(Document document) {
+        return CompletableFuture.runAsync(() -> collection.insertOne(document), executor);
+    }
+
+    @Override
+    public <T> CompletableFuture<T> findFirst(Bson filter, Bson projection, Class<T> type) {
+        return CompletableFuture.supplyAsync(
+                () -> prepare(collection.withDocumentClass(type), filter, projection, null, 0).first(), executor);
+    }
+
+    @Override
+    public <T> CompletableFuture<List<T>> find(Bson filter, Bson projection, Class<T> type) {
+        return CompletableFuture.supplyAsync(
+                () -> prepare(collection.withDocumentClass(type), filter, projection, null, 0).into(new ArrayList<>()),
+                executor);
+    }
+
+    @Override
+    public <T> CompletableFuture<Void> insertOne(T document, Class<T> type) {
+        return CompletableFuture.runAsync(() -> collection.withDocumentClass(type).insertOne(document), executor);
+    }
+
+    @Override
+    public CompletableFuture<UpdateResult> updateOne(Bson filter, Bson update) {
+        return CompletableFuture.supplyAsync(() -> collection.updateOne(filter, update), executor);
+    }
+
+    @Override
+    public CompletableFuture<UpdateResult> updateOne(Bson filter, List<? extends Bson> pipeline) {
+        return CompletableFuture.supplyAsync(() -> collection.updateOne(filter, pipeline), executor);
+    }
+
+    @Override
+    public CompletableFuture<UpdateResult> replaceOne(Bson filter, Document replacement, ReplaceOptions options) {
+        return CompletableFuture.supplyAsync(() -> collection.replaceOne(filter, replacement, options), executor);
+    }
+
+    @Override
+    public CompletableFuture<Document> findOneAndUpdate(Bson filter, List<? extends Bson> pipeline,
+            FindOneAndUpdateOptions options) {
+        return CompletableFuture.supplyAsync(() -> collection.findOneAndUpdate(filter, pipeline, options), executor);
+    }
+
+    @Override
+    public CompletableFuture<DeleteResult> deleteOne(Bson filter) {
+        return CompletableFuture.supplyAsync(() -> collection.deleteOne(filter), executor);
+    }
+
+    @Override
+    public CompletableFuture<DeleteResult> deleteMany(Bson filter) {
+        return CompletableFuture.supplyAsync(() -> collection.deleteMany(filter), executor);
+    }
+
+    @Override
+    public CompletableFuture<Long> countDocuments(Bson filter) {
+        return CompletableFuture.supplyAsync(() -> collection.countDocuments(filter), executor);
+    }
+
+    @Override
+    public CompletableFuture<BulkWriteResult> bulkWrite(List<? extends WriteModel<Document>> writes,
+            BulkWriteOptions options) {
+        return CompletableFuture.supplyAsync(() -> collection.bulkWrite(writes, options), executor);
+    }
+
+    /**
+     * Builds a find iterable with the optional projection, sort and limit applied.
+     */
+    private static <T> FindIterable<T> prepare(MongoCollection<T> source, Bson filter, Bson projection, Bson sort,
+            int limit) {
+        FindIterable<T> iterable = source.find(filter);
+        if (projection != null) {
+            iterable = iterable.projection(projection);
+        }
+        if (sort != null) {
+            iterable = iterable.sort(sort);
+        }
+        if (limit > 0) {
+            iterable = iterable.limit(limit);
+        }
+        return iterable;
+    }
+}
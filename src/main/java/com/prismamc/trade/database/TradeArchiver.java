@@ -0,0 +1,208 @@
+package com.prismamc.trade.database;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoCursor;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.WriteModel;
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.Binary;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Logger;
+
+/**
+ * TradeArchiver - Moves finished trades into the trades_archive collection
+ *
+ * Finished trades are kept in trades forever and every trade index grows with
+ * them. This task moves trades that are finished and older than a configurable
+ * age into trades_archive, a compressed collection with only the indexes needed
+ * for history listings. Each archived document holds the trade's scalar fields
+ * together with both sides' item lists, so the trade_items documents are
+ * removed as well.
+ *
+ * Key Features:
+ * - Only CANCELLED trades and COMPLETED trades whose items were delivered to
+ * both players are archived; unclaimed items stay in the hot collections
+ * - Trades that still hold items (a cancelled trade whose items were not taken
+ * back yet) are skipped until the items are claimed, so the archive never
+ * shows items that were returned after it was written
+ * - Single cursor over the candidates in tradeId order, processed in batches
+ * - Copy first, then remove: an interrupted run only repeats the copy, and a
+ * trade is always readable from one of the two collections. The removal
+ * repeats the candidate filter, so a trade that changed in between is kept
+ * - Stops after the current batch when the plugin disconnects
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TradeArchiver implements Runnable {
+
+    private final MongoCollection<Document> trades;
+    private final MongoCollection<Document> tradeItems;
+    private final MongoCollection<Document> archive;
+    private final Logger logger;
+    private final long minAgeMillis;
+    private final int batchSize;
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a new TradeArchiver.
+     *
+     * @param trades       The trades collection
+     * @param tradeItems   The trade_items collection
+     * @param archive      The trades_archive collection
+     * @param logger       Logger for progress messages
+     * @param minAgeMillis Minimum trade age before it is archived
+     * @param batchSize    Number of trades moved per bulk write
+     */
+    public TradeArchiver(MongoCollection<Document> trades, MongoCollection<Document> tradeItems,
+            MongoCollection<Document> archive, Logger logger, long minAgeMillis, int batchSize) {
+        this.trades = trades;
+        this.tradeItems = tradeItems;
+        this.archive = archive;
+        this.logger = logger;
+        this.minAgeMillis = Math.max(0L, minAgeMillis);
+        this.batchSize = Math.max(1, batchSize);
+    }
+
+    /**
+     * Finished trades created before the cutoff: cancelled, or completed with
+     * both sides' items delivered.
+     *
+     * @param cutoffMillis Creation time limit (epoch milliseconds)
+     * @return Filter selecting the trades to archive
+     */
+    public static Bson candidatesFilter(long cutoffMillis) {
+        return Filters.and(
+                Filters.lt("timestamp", cutoffMillis),
+                Filters.or(
+                        Filters.eq("state", TradeState.CANCELLED.name()),
+                        Filters.and(
+                                Filters.eq("state", TradeState.COMPLETED.name()),
+                                Filters.eq("itemsSentToPlayer1", true),
+                                Filters.eq("itemsSentToPlayer2", true))));
+    }
+
+    /**
+     * Archives every finished trade older than the configured age.
+     */
+    @Override
+    public void run() {
+        Bson candidates = candidatesFilter(System.currentTimeMillis() - minAgeMillis);
+        int archived = 0;
+
+        try (MongoCursor<Document> cursor = trades.find(candidates)
+                .projection(Projections.exclude("_id", "expiresAt"))
+                .sort(Sorts.ascending("tradeId"))
+                .batchSize(batchSize)
+                .cursor()) {
+
+            List<Document> batch = new ArrayList<>();
+            while (!stopped && cursor.hasNext()) {
+                batch.add(cursor.next());
+                if (batch.size() >= batchSize) {
+                    archived += archiveBatch(batch, candidates);
+                    batch.clear();
+                }
+            }
+            if (!stopped && !batch.isEmpty()) {
+                archived += archiveBatch(batch, candidates);
+            }
+        } catch (Exception e) {
+            logger.warning("Error archiving trades: " + e.getMessage());
+        }
+
+        if (archived > 0) {
+            logger.info("Archived " + archived + " finished trades to trades_archive");
+        }
+    }
+
+    /**
+     * Copies a batch of trades with their items into the archive and removes
+     * them from trades and trade_items.
+     *
+     * @param batch      Trade documents read from the cursor
+     * @param candidates Filter the trades must still match to be removed
+     * @return Number of trades archived
+     */
+    private int archiveBatch(List<Document> batch, Bson candidates) {
+        Map<Long, Document> byId = new HashMap<>();
+        batch.forEach(doc -> byId.put(doc.getLong("tradeId"), doc));
+
+        // Attach both sides' items in the stored (binary or legacy) format;
+        // trades with items still to be taken back are left for a later run
+        for (Document itemDoc : tradeItems.find(Filters.in("tradeId", byId.keySet()))
+                .projection(Projections.include("tradeId", "side", "items"))) {
+            Long tradeId = itemDoc.getLong("tradeId");
+            Document trade = byId.get(tradeId);
+            if (trade == null) {
+                continue;
+            }
+            if (holdsItems(itemDoc.get("items"))) {
+                byId.remove(tradeId);
+            } else {
+                trade.put(itemDoc.getInteger("side") == 1 ? "player1Items" : "player2Items", itemDoc.get("items"));
+            }
+        }
+        if (byId.isEmpty()) {
+            return 0;
+        }
+
+        List<WriteModel<Document>> copies = new ArrayList<>();
+        for (Document doc : byId.values()) {
+            copies.add(new ReplaceOneModel<>(Filters.eq("tradeId", doc.getLong("tradeId")), doc,
+                    new ReplaceOptions().upsert(true)));
+        }
+
+        // Copy first, then remove: a crash in between only repeats the copy.
+        // Only trades still matching the candidate filter are removed; the
+        // copies of trades that changed in between are dropped again
+        Bson batchIds = Filters.in("tradeId", byId.keySet());
+        archive.bulkWrite(copies, new BulkWriteOptions().ordered(false));
+        trades.deleteMany(Filters.and(batchIds, candidates));
+
+        List<Long> kept = new ArrayList<>();
+        trades.find(batchIds).projection(Projections.include("tradeId"))
+                .forEach(doc -> kept.add(doc.getLong("tradeId")));
+        if (!kept.isEmpty()) {
+            archive.deleteMany(Filters.in("tradeId", kept));
+            kept.forEach(byId::remove);
+        }
+        if (!byId.isEmpty()) {
+            tradeItems.deleteMany(Filters.in("tradeId", byId.keySet()));
+        }
+        return byId.size();
+    }
+
+    /**
+     * Checks whether a stored item list (binary or legacy format) still holds
+     * items. An empty list is stored as empty binary.
+     *
+     * @param stored The items field of a trade_items document
+     * @return True if the list is not empty
+     */
+    private static boolean holdsItems(Object stored) {
+        if (stored instanceof Binary binary) {
+            return binary.getData().length > 0;
+        }
+        return stored != null && !TradeDocument.deserializeItems(stored).isEmpty();
+    }
+
+    /**
+     * Stops the task after the current batch.
+     */
+    public void stop() {
+        stopped = true;
+    }
+}
@@ -0,0 +1,110 @@
+package com.prismamc.trade.database;
+
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import org.bson.BsonReader;
+import org.bson.BsonType;
+import org.bson.BsonWriter;
+import org.bson.codecs.Codec;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.EncoderContext;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * TradeDocumentCodec - Direct BSON mapping for TradeDocument
+ * 
+ * Reads and writes the scalar fields of a trade straight from and to the BSON
+ * stream, so typed collections decode into TradeDocument without building an
+ * intermediate org.bson.Document.
+ * 
+ * Key Features:
+ * - Single pass over the BSON document, unknown fields are skipped
+ * - Accepts tradeId/timestamp stored as either int32 or int64
+ * - expiresAt is written as a BSON date (required by the TTL index) and
+ * omitted for trades that never expire
+ * - Item lists are not part of the trade document (see trade_items) and are
+ * left empty on decode
+ * 
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TradeDocumentCodec implements Codec<TradeDocument> {
+
+    @Override
+    public void encode(BsonWriter writer, TradeDocument trade, EncoderContext encoderContext) {
+        writer.writeStartDocument();
+        writer.writeInt64("tradeId", trade.getTradeId());
+        writer.writeString("player1", trade.getPlayer1().toString());
+        writer.writeString("player2", trade.getPlayer2().toString());
+        writer.writeString("state", trade.getState().name());
+        writer.writeInt64("timestamp", trade.getTimestamp());
+        writer.writeBoolean("itemsSentToPlayer1", trade.areItemsSentToPlayer1());
+        writer.writeBoolean("itemsSentToPlayer2", trade.areItemsSentToPlayer2());
+        writer.writeBoolean("player1Accepted", trade.isPlayer1Accepted());
+        writer.writeBoolean("player2Accepted", trade.isPlayer2Accepted());
+        if (trade.getExpiresAt() != null) {
+            writer.writeDateTime("expiresAt", trade.getExpiresAt().getTime());
+        }
+        writer.writeEndDocument();
+    }
+
+    @Override
+    public TradeDocument decode(BsonReader reader, DecoderContext decoderContext) {
+        long tradeId = 0;
+        UUID player1 = null;
+        UUID player2 = null;
+        TradeState state = TradeState.PENDING;
+        long timestamp = 0;
+        boolean itemsSentToPlayer1 = false;
+        boolean itemsSentToPlayer2 = false;
+        boolean player1Accepted = false;
+        boolean player2Accepted = false;
+        Date expiresAt = null;
+
+        reader.readStartDocument();
+        while (reader.readBsonType() != BsonType.END_OF_DOCUMENT) {
+            switch (reader.readName()) {
+                case "tradeId" -> tradeId = readLong(reader);
+                case "player1" -> player1 = UUID.fromString(reader.readString());
+                case "player2" -> player2 = UUID.fromString(reader.readString());
+                case "state" -> state = TradeState.valueOf(reader.readString());
+                case "timestamp" -> timestamp = readLong(reader);
+                case "itemsSentToPlayer1" -> itemsSentToPlayer1 = reader.readBoolean();
+                case "itemsSentToPlayer2" -> itemsSentToPlayer2 = reader.readBoolean();
+                case "player1Accepted" -> player1Accepted = reader.readBoolean();
+                case "player2Accepted" -> player2Accepted = reader.readBoolean();
+                case "expiresAt" -> expiresAt = readDate(reader);
+                default -> reader.skipValue();
+            }
+        }
+        reader.readEndDocument();
+
+        return new TradeDocument(tradeId, player1, player2, state, timestamp,
+                itemsSentToPlayer1, itemsSentToPlayer2, player1Accepted, player2Accepted, expiresAt);
+    }
+
+    @Override
+    public Class<TradeDocument> getEncoderClass() {
+        return TradeDocument.class;
+    }
+
+    /**
+     * Reads an expiry date, which is unset (null) for trades that never expire.
+     */
+    private static Date readDate(BsonReader reader) {
+        if (reader.getCurrentBsonType() == BsonType.DATE_TIME) {
+            return new Date(reader.readDateTime());
+        }
+        reader.skipValue();
+        return null;
+    }
+
+    /**
+     * Reads a numeric value written either as int32 or int64.
+     */
+    private static long readLong(BsonReader reader) {
+        return reader.getCurrentBsonType() == BsonType.INT32 ? reader.readInt32() : reader.readInt64();
+    }
+}
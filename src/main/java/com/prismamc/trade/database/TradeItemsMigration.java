@@ -0,0 +1,284 @@
+package com.prismamc.trade.database;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.DeleteOneModel;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.UpdateOptions;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.prismamc.trade.model.TradeDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * TradeItemsMigration - Moves inline item lists into the trade_items collection
+ *
+ * Older trade documents carry both sides' serialized items in player1Items and
+ * player2Items. This migration copies every non-empty list into trade_items
+ * as a {tradeId, side, items, expiresAt} document, converted to the binary
+ * item format, and then removes the inline fields. It runs in the background
+ * after startup; until it has finished, MongoTradeRepository still reads the
+ * inline lists of trades that have not been moved yet.
+ *
+ * Key Features:
+ * - Walks the trades collection in tradeId order, one batch at a time
+ * - Bulk upserts with $setOnInsert so items written by the new layout win
+ * - Idempotent: an interrupted run resumes on the next startup
+ * - Pause between batches to limit load; stops when the plugin disconnects
+ * - One-off expiry backfill for items documents migrated without the
+ * expiresAt of their trade, removing those whose trade no longer exists
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TradeItemsMigration implements Runnable {
+
+    // Trade documents that still carry inline item lists
+    public static final Bson INLINE_ITEMS_FILTER = Filters.or(Filters.exists("player1Items"),
+            Filters.exists("player2Items"));
+
+    // Marker in the counters collection recording a completed expiry backfill
+    private static final String EXPIRY_BACKFILL_MARKER = "tradeItemsExpiryBackfill";
+
+    // Items documents younger than this may belong to a trade still being
+    // inserted, so the backfill leaves them alone
+    private static final long BACKFILL_MIN_AGE_MILLIS = TimeUnit.MINUTES.toMillis(10);
+
+    private final MongoCollection<Document> trades;
+    private final MongoCollection<Document> tradeItems;
+    private final MongoCollection<Document> counters;
+    private final Logger logger;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final Runnable onFinished;
+    private volatile boolean finished;
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a new TradeItemsMigration.
+     *
+     * @param trades      The trades collection
+     * @param tradeItems  The trade_items collection
+     * @param counters    The counters collection (expiry backfill marker)
+     * @param logger      Logger for progress messages
+     * @param batchSize   Number of trades moved per bulk write
+     * @param pauseMillis Pause between batches in milliseconds
+     * @param onFinished  Called on the migration thread once no trade has inline
+     *                    items left
+     */
+    public TradeItemsMigration(MongoCollection<Document> trades, MongoCollection<Document> tradeItems,
+            MongoCollection<Document> counters, Logger logger, int batchSize, long pauseMillis,
+            Runnable onFinished) {
+        this.trades = trades;
+        this.tradeItems = tradeItems;
+        this.counters = counters;
+        this.logger = logger;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMillis = Math.max(0L, pauseMillis);
+        this.onFinished = onFinished;
+    }
+
+    /**
+     * Moves every inline item list, then runs the expiry backfill if it has
+     * not completed before.
+     */
+    @Override
+    public void run() {
+        try {
+            if (migrateInlineItems() && !stopped) {
+                finished = true;
+                onFinished.run();
+                backfillExpiry();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warning("Error migrating inline trade items: " + e.getMessage());
+        }
+    }
+
+    /**
+     * @return True once no trade document has inline items left
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Stops the task after the current batch.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    /**
+     * Builds the insert-if-absent write of one side's inline items. Also used
+     * by MongoTradeRepository to move a single trade before taking its items.
+     *
+     * @param tradeId   The ID of the trade
+     * @param side      1 for player1's items, 2 for player2's items
+     * @param items     Inline items in the legacy string format
+     * @param expiresAt Expiry of the trade, or null if it never expires
+     * @return The upsert, or null if there are no items to move
+     */
+    public static WriteModel<Document> itemsInsert(long tradeId, int side, String items, Date expiresAt) {
+        if (items == null || items.isEmpty()) {
+            return null;
+        }
+        // Expire together with the trade through the same TTL rule
+        Document inserted = new Document("items", TradeDocument.reencodeLegacy(items));
+        if (expiresAt != null) {
+            inserted.append("expiresAt", expiresAt);
+        }
+        return new UpdateOneModel<>(
+                Filters.and(Filters.eq("tradeId", tradeId), Filters.eq("side", side)),
+                new Document("$setOnInsert", inserted),
+                new UpdateOptions().upsert(true));
+    }
+
+    /**
+     * Moves inline items until no trade document has any left.
+     *
+     * @return True if the migration ran to the end, false if it was stopped
+     */
+    private boolean migrateInlineItems() throws InterruptedException {
+        long lastTradeId = Long.MIN_VALUE;
+        int migrated = 0;
+
+        while (!stopped) {
+            List<Document> batch = trades.find(Filters.and(Filters.gt("tradeId", lastTradeId), INLINE_ITEMS_FILTER))
+                    .projection(Projections.include("tradeId", "player1Items", "player2Items", "expiresAt"))
+                    .sort(Sorts.ascending("tradeId"))
+                    .limit(batchSize)
+                    .into(new ArrayList<>());
+
+            if (batch.isEmpty()) {
+                if (migrated > 0) {
+                    logger.info("Trade items migration completed: " + migrated + " trades migrated");
+                }
+                return true;
+            }
+
+            List<WriteModel<Document>> itemWrites = new ArrayList<>();
+            List<WriteModel<Document>> inlineRemovals = new ArrayList<>();
+
+            for (Document doc : batch) {
+                long tradeId = doc.getLong("tradeId");
+                Date expiresAt = doc.getDate("expiresAt");
+                for (int side = 1; side <= 2; side++) {
+                    WriteModel<Document> write = itemsInsert(tradeId, side, doc.getString("player" + side + "Items"),
+                            expiresAt);
+                    if (write != null) {
+                        itemWrites.add(write);
+                    }
+                }
+                inlineRemovals.add(new UpdateOneModel<>(
+                        Filters.eq("tradeId", tradeId),
+                        Updates.combine(Updates.unset("player1Items"), Updates.unset("player2Items"))));
+                lastTradeId = tradeId;
+            }
+
+            // Copy first, then remove: a crash in between only repeats the copy
+            if (!itemWrites.isEmpty()) {
+                tradeItems.bulkWrite(itemWrites, new BulkWriteOptions().ordered(false));
+            }
+            trades.bulkWrite(inlineRemovals, new BulkWriteOptions().ordered(false));
+
+            migrated += batch.size();
+            logger.info("Migrated inline items of " + migrated + " trades to trade_items");
+            pause();
+        }
+        return false;
+    }
+
+    /**
+     * Gives items documents written without an expiresAt field the expiry of
+     * their trade, and removes those whose trade no longer exists (its TTL
+     * removed the trade but not the items). Walks trade_items in _id order,
+     * examining one batch of documents per query, and records its completion
+     * so it runs only once.
+     */
+    private void backfillExpiry() throws InterruptedException {
+        if (counters.find(Filters.eq("_id", EXPIRY_BACKFILL_MARKER)).first() != null) {
+            return;
+        }
+
+        ObjectId cutoff = new ObjectId(new Date(System.currentTimeMillis() - BACKFILL_MIN_AGE_MILLIS));
+        ObjectId lastId = null;
+        int updated = 0;
+        int removed = 0;
+
+        while (!stopped) {
+            Bson range = lastId == null ? Filters.lt("_id", cutoff)
+                    : Filters.and(Filters.gt("_id", lastId), Filters.lt("_id", cutoff));
+            List<Document> batch = tradeItems.find(range)
+                    .projection(Projections.include("_id", "tradeId", "expiresAt"))
+                    .sort(Sorts.ascending("_id"))
+                    .limit(batchSize)
+                    .into(new ArrayList<>());
+
+            if (batch.isEmpty()) {
+                counters.insertOne(new Document("_id", EXPIRY_BACKFILL_MARKER).append("completedAt", new Date()));
+                if (updated > 0 || removed > 0) {
+                    logger.info("Trade items expiry backfill completed: " + updated + " updated, " + removed
+                            + " orphaned documents removed");
+                }
+                return;
+            }
+            lastId = batch.get(batch.size() - 1).getObjectId("_id");
+
+            List<Document> missing = batch.stream()
+                    .filter(doc -> !doc.containsKey("expiresAt"))
+                    .collect(Collectors.toList());
+            if (missing.isEmpty()) {
+                continue;
+            }
+
+            Map<Long, Document> parents = new HashMap<>();
+            trades.find(Filters.in("tradeId", missing.stream().map(doc -> doc.getLong("tradeId")).distinct()
+                    .collect(Collectors.toList())))
+                    .projection(Projections.include("tradeId", "expiresAt"))
+                    .forEach(parent -> parents.put(parent.getLong("tradeId"), parent));
+
+            List<WriteModel<Document>> writes = new ArrayList<>();
+            for (Document doc : missing) {
+                // Conditional, so an items document rewritten meanwhile is left alone
+                Bson unchanged = Filters.and(Filters.eq("_id", doc.getObjectId("_id")),
+                        Filters.exists("expiresAt", false));
+                Document parent = parents.get(doc.getLong("tradeId"));
+                if (parent != null) {
+                    // A trade that never expires stores null, which the TTL index ignores
+                    writes.add(new UpdateOneModel<>(unchanged, Updates.set("expiresAt", parent.getDate("expiresAt"))));
+                } else {
+                    writes.add(new DeleteOneModel<>(unchanged));
+                }
+            }
+
+            BulkWriteResult result = tradeItems.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+            updated += result.getModifiedCount();
+            removed += result.getDeletedCount();
+            pause();
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        if (pauseMillis > 0) {
+            Thread.sleep(pauseMillis);
+        }
+    }
+}
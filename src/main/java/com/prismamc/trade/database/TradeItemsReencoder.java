@@ -0,0 +1,129 @@
+package com.prismamc.trade.database;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.prismamc.trade.model.TradeDocument;
+import org.bson.BsonType;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bson.types.ObjectId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * TradeItemsReencoder - Background conversion of legacy item strings to BSON Binary
+ * 
+ * Item documents written before the binary format store their items as
+ * "RAW:"/"GZIP:" Base64 strings. This task rewrites them in the binary format
+ * in small batches while the server is running. Readers accept both formats,
+ * so the conversion can proceed at any pace.
+ * 
+ * Key Features:
+ * - Walks trade_items in _id ranges of one batch each, so every query
+ * examines at most one batch of documents however few legacy ones remain,
+ * and only rewrites string-typed items within the range
+ * - Re-encodes without deserializing items (Base64 decode plus header byte)
+ * - Conditional updates: an items document rewritten by the plugin since it
+ * was read is left alone
+ * - Pause between batches to limit load; stops when the plugin disconnects
+ * 
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TradeItemsReencoder implements Runnable {
+
+    private final MongoCollection<Document> tradeItems;
+    private final Logger logger;
+    private final int batchSize;
+    private final long pauseMillis;
+    private volatile boolean stopped;
+
+    /**
+     * Constructs a new TradeItemsReencoder.
+     * 
+     * @param tradeItems  The trade_items collection
+     * @param logger      Logger for progress messages
+     * @param batchSize   Number of documents re-encoded per bulk write
+     * @param pauseMillis Pause between batches in milliseconds
+     */
+    public TradeItemsReencoder(MongoCollection<Document> tradeItems, Logger logger, int batchSize,
+            long pauseMillis) {
+        this.tradeItems = tradeItems;
+        this.logger = logger;
+        this.batchSize = Math.max(1, batchSize);
+        this.pauseMillis = Math.max(0L, pauseMillis);
+    }
+
+    /**
+     * Re-encodes every legacy items document, one batch at a time.
+     */
+    @Override
+    public void run() {
+        ObjectId lastId = null;
+        int reencoded = 0;
+
+        try {
+            while (!stopped) {
+                // The next range ends batchSize documents further (an _id index scan)
+                Bson after = lastId == null ? new Document() : Filters.gt("_id", lastId);
+                Document rangeEnd = tradeItems.find(after)
+                        .projection(Projections.include("_id"))
+                        .sort(Sorts.ascending("_id"))
+                        .skip(batchSize - 1)
+                        .limit(1)
+                        .first();
+                Bson range = rangeEnd == null ? after
+                        : Filters.and(after, Filters.lte("_id", rangeEnd.getObjectId("_id")));
+
+                List<Document> legacyDocs = tradeItems.find(Filters.and(range, Filters.type("items", BsonType.STRING)))
+                        .projection(Projections.include("_id", "items"))
+                        .into(new ArrayList<>());
+
+                if (!legacyDocs.isEmpty()) {
+                    List<WriteModel<Document>> writes = new ArrayList<>();
+                    for (Document doc : legacyDocs) {
+                        String legacy = doc.getString("items");
+                        // Only replace the exact value that was read
+                        writes.add(new UpdateOneModel<>(
+                                Filters.and(Filters.eq("_id", doc.getObjectId("_id")), Filters.eq("items", legacy)),
+                                Updates.set("items", TradeDocument.reencodeLegacy(legacy))));
+                    }
+                    reencoded += tradeItems.bulkWrite(writes, new BulkWriteOptions().ordered(false))
+                            .getModifiedCount();
+                }
+
+                if (rangeEnd == null) {
+                    break;
+                }
+                lastId = rangeEnd.getObjectId("_id");
+
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            logger.warning("Error re-encoding trade items: " + e.getMessage());
+        }
+
+        if (reencoded > 0) {
+            logger.info("Re-encoded " + reencoded + " trade item documents to the binary format");
+        }
+    }
+
+    /**
+     * Stops the task after the current batch.
+     */
+    public void stop() {
+        stopped = true;
+    }
+}
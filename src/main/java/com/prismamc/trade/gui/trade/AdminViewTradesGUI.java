@@ -13,7 +13,9 @@ import com.prismamc.trade.model.TradeDocument;
 import com.prismamc.trade.manager.TradeManager.TradeState;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -28,6 +30,13 @@ public class AdminViewTradesGUI extends GUI {
     private List<TradeDocument> filteredTrades;
     private int currentPage = 0;
     private TradeFilter currentFilter = TradeFilter.ALL;
+    // Paginación del archivo: los trades archivados se cargan por páginas solo
+    // cuando se avanza más allá de la última página cargada
+    private long archiveCursor = Long.MAX_VALUE;
+    private boolean archiveExhausted = false;
+    private boolean loadingArchive = false;
+    private boolean hasArchivedTrades = false; // Cacheado por TradeManager
+    private final Set<Long> loadedTradeIds = new HashSet<>(); // Omite trades archivados con la GUI abierta
     private static final int ITEMS_PER_PAGE = 45;
     private static final int PREV_PAGE_SLOT = 45;
     private static final int NEXT_PAGE_SLOT = 53;
@@ -88,31 +97,35 @@ public class AdminViewTradesGUI extends GUI {
     }
 
     private CompletableFuture<Void> loadTrades() {
-        return CompletableFuture.supplyAsync(() -> {
-            List<TradeDocument> loadedTrades = new ArrayList<>();
-
-            try {
-                // Obtener TODOS los trades del jugador objetivo
-                plugin.getMongoDBManager().getTradesCollection()
-                        .find(new org.bson.Document("$or", List.of(
-                                new org.bson.Document("player1", targetPlayerData.getUuid().toString()),
-                                new org.bson.Document("player2", targetPlayerData.getUuid().toString()))))
-                        .forEach(doc -> {
-                            TradeDocument trade = new TradeDocument(doc);
-                            loadedTrades.add(trade);
-                        });
-
-            } catch (Exception e) {
-                plugin.getLogger().severe(String.format(
-                        "❌ ERROR loading trades for %s (Admin: %s): %s",
-                        targetPlayerData.getPlayerName(), owner.getName(), e.getMessage()));
-                e.printStackTrace();
-            }
+        // Obtener TODOS los trades del jugador objetivo (sin items)
+        CompletableFuture<Boolean> archiveCheck = plugin.getTradeManager()
+                .hasArchivedTrades(targetPlayerData.getUuid())
+                .exceptionally(throwable -> false);
+        return plugin.getTradeManager().getPlayerTradeHistory(targetPlayerData.getUuid())
+                .thenCombine(archiveCheck, (trades, hasArchive) -> {
+                    this.hasArchivedTrades = hasArchive;
+                    return trades;
+                })
+                .handle((trades, throwable) -> {
+                    List<TradeDocument> loadedTrades = new ArrayList<>();
 
-            this.allTrades = loadedTrades;
-            this.filteredTrades = new ArrayList<>(loadedTrades);
-            return null;
-        });
+                    if (throwable != null) {
+                        plugin.getLogger().severe(String.format(
+                                "❌ ERROR loading trades for %s (Admin: %s): %s",
+                                targetPlayerData.getPlayerName(), owner.getName(), throwable.getMessage()));
+                        throwable.printStackTrace();
+                    } else {
+                        loadedTrades.addAll(trades);
+                    }
+
+                    this.allTrades = loadedTrades;
+                    this.filteredTrades = new ArrayList<>(loadedTrades);
+                    this.archiveCursor = Long.MAX_VALUE;
+                    this.archiveExhausted = false;
+                    this.loadedTradeIds.clear();
+                    loadedTrades.forEach(trade -> loadedTradeIds.add(trade.getTradeId()));
+                    return null;
+                });
     }
 
     private void setupBorders() {
@@ -288,8 +301,63 @@ public class AdminViewTradesGUI extends GUI {
         return received ? "<green>Sí</green>" : "<red>No</red>";
     }
 
+    // Tras los trades cargados, el archivo cuenta como página siguiente si el
+    // jugador tiene trades archivados sin cargar
     private boolean hasNextPage() {
-        return (currentPage + 1) * ITEMS_PER_PAGE < filteredTrades.size();
+        return isPageLoaded(currentPage + 1) || canPageIntoArchive();
+    }
+
+    private boolean isPageLoaded(int page) {
+        return page * ITEMS_PER_PAGE < filteredTrades.size();
+    }
+
+    // Solo los trades finalizados se archivan
+    private boolean canPageIntoArchive() {
+        return hasArchivedTrades && !archiveExhausted
+                && currentFilter != TradeFilter.PENDING && currentFilter != TradeFilter.ACTIVE;
+    }
+
+    /**
+     * Carga páginas del archivo hasta que la página siguiente tenga algún trade
+     * del filtro actual (o se agote el archivo) y avanza a ella si es posible
+     */
+    private void loadArchivedTrades() {
+        loadingArchive = true;
+        plugin.getTradeManager().getArchivedTradeHistory(targetPlayerData.getUuid(), archiveCursor, ITEMS_PER_PAGE)
+                .handle((page, throwable) -> {
+                    plugin.getServer().getScheduler().runTask(plugin, () -> {
+                        if (throwable != null || page.size() < ITEMS_PER_PAGE) {
+                            archiveExhausted = true;
+                        }
+                        if (throwable == null && !page.isEmpty()) {
+                            archiveCursor = page.get(page.size() - 1).getTradeId();
+                            for (TradeDocument trade : page) {
+                                // Ya listado si se archivó después de cargar los trades
+                                if (!loadedTradeIds.add(trade.getTradeId())) {
+                                    continue;
+                                }
+                                allTrades.add(trade);
+                                if (matchesFilter(trade, currentFilter)) {
+                                    filteredTrades.add(trade);
+                                }
+                            }
+                        }
+
+                        loadingArchive = false;
+                        if (!isPageLoaded(currentPage + 1) && canPageIntoArchive()) {
+                            loadArchivedTrades();
+                            return;
+                        }
+                        if (isPageLoaded(currentPage + 1)) {
+                            currentPage++;
+                        }
+                        setupFilterButtons();
+                        updatePaginationButtons();
+                        setupInfoSign();
+                        displayTrades();
+                    });
+                    return null;
+                });
     }
 
     private void setupFilterButtons() {
@@ -429,6 +497,13 @@ public class AdminViewTradesGUI extends GUI {
         }
 
         if (clickedSlot == NEXT_PAGE_SLOT && hasNextPage()) {
+            if (!isPageLoaded(currentPage + 1)) {
+                // Más allá de la última página cargada: la siguiente viene del archivo
+                if (!loadingArchive) {
+                    loadArchivedTrades();
+                }
+                return;
+            }
             currentPage++;
             updatePaginationButtons();
             setupInfoSign();
@@ -457,6 +532,7 @@ public class AdminViewTradesGUI extends GUI {
         if (selectedFilter != null) {
             setCurrentFilter(selectedFilter);
             setupFilterButtons();
+            updatePaginationButtons();
             displayTrades();
             return;
         }
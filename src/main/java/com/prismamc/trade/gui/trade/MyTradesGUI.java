@@ -12,7 +12,9 @@ import com.prismamc.trade.model.TradeDocument;
 import com.prismamc.trade.manager.TradeManager.TradeState;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
 
@@ -78,6 +80,14 @@ public class MyTradesGUI extends GUI {
     private int currentPage = 0;
     private TradeFilter currentFilter = TradeFilter.ALL;
 
+    // Archive paging: archived trades are loaded one page at a time, only when
+    // the player pages past the last loaded page
+    private long archiveCursor = Long.MAX_VALUE;
+    private boolean archiveExhausted = false;
+    private boolean loadingArchive = false;
+    private boolean hasArchivedTrades = false; // Cached by TradeManager
+    private final Set<Long> loadedTradeIds = new HashSet<>(); // Skips trades archived while open
+
     // Optimized layout configuration for maximum trade display
     private static final int ITEMS_PER_PAGE = 45; // Maximum trades per page using main area
     private static final int PREV_PAGE_SLOT = 45;
@@ -179,30 +189,34 @@ public class MyTradesGUI extends GUI {
      * @return CompletableFuture that completes when all trades are loaded
      */
     private CompletableFuture<Void> loadTrades() {
-        return CompletableFuture.supplyAsync(() -> {
-            List<TradeDocument> loadedTrades = new ArrayList<>();
-
-            try {
-                // Retrieve ALL trade documents involving the player using MongoDB aggregation
-                plugin.getMongoDBManager().getTradesCollection()
-                        .find(new org.bson.Document("$or", List.of(
-                                new org.bson.Document("player1", owner.getUniqueId().toString()),
-                                new org.bson.Document("player2", owner.getUniqueId().toString()))))
-                        .forEach(doc -> {
-                            TradeDocument trade = new TradeDocument(doc);
-                            loadedTrades.add(trade); // Add ALL trades without filtering
-                        });
-
-            } catch (Exception e) {
-                plugin.getLogger()
-                        .severe(String.format("❌ ERROR loading trades for %s: %s", owner.getName(), e.getMessage()));
-                e.printStackTrace();
-            }
-
-            this.allTrades = loadedTrades;
-            this.filteredTrades = new ArrayList<>(loadedTrades); // Initially show all trades
-            return null;
-        });
+        // Retrieve ALL trades involving the player; item lists are loaded only
+        // when a trade is opened
+        CompletableFuture<Boolean> archiveCheck = plugin.getTradeManager().hasArchivedTrades(owner.getUniqueId())
+                .exceptionally(throwable -> false);
+        return plugin.getTradeManager().getPlayerTradeHistory(owner.getUniqueId())
+                .thenCombine(archiveCheck, (trades, hasArchive) -> {
+                    this.hasArchivedTrades = hasArchive;
+                    return trades;
+                })
+                .handle((trades, throwable) -> {
+                    List<TradeDocument> loadedTrades = new ArrayList<>();
+
+                    if (throwable != null) {
+                        plugin.getLogger().severe(String.format("❌ ERROR loading trades for %s: %s",
+                                owner.getName(), throwable.getMessage()));
+                        throwable.printStackTrace();
+                    } else {
+                        loadedTrades.addAll(trades); // Add ALL trades without filtering
+                    }
+
+                    this.allTrades = loadedTrades;
+                    this.filteredTrades = new ArrayList<>(loadedTrades); // Initially show all trades
+                    this.archiveCursor = Long.MAX_VALUE; // Archive pages are loaded on demand
+                    this.archiveExhausted = false;
+                    this.loadedTradeIds.clear();
+                    loadedTrades.forEach(trade -> loadedTradeIds.add(trade.getTradeId()));
+                    return null;
+                });
     }
 
     /**
@@ -414,12 +428,76 @@ public class MyTradesGUI extends GUI {
 
     /**
      * Determines if there are more pages available for navigation.
-     * This method calculates pagination state for navigation control.
+     * Past the loaded trades, the archive counts as a next page while the
+     * player is known to have archived trades that are not loaded yet.
      * 
      * @return True if additional pages exist, false otherwise
      */
     private boolean hasNextPage() {
-        return (currentPage + 1) * ITEMS_PER_PAGE < filteredTrades.size();
+        return isPageLoaded(currentPage + 1) || canPageIntoArchive();
+    }
+
+    /**
+     * @param page Zero-based page index
+     * @return True if the page holds at least one loaded trade
+     */
+    private boolean isPageLoaded(int page) {
+        return page * ITEMS_PER_PAGE < filteredTrades.size();
+    }
+
+    /**
+     * Determines whether more trades may be waiting in the archive. Only
+     * finished trades are archived, so the pending and active filters never
+     * reach it.
+     * 
+     * @return True if another archive page can be loaded for the current filter
+     */
+    private boolean canPageIntoArchive() {
+        return hasArchivedTrades && !archiveExhausted
+                && currentFilter != TradeFilter.PENDING && currentFilter != TradeFilter.ACTIVE;
+    }
+
+    /**
+     * Loads archive pages until the next page holds a trade for the current
+     * filter or the archive is exhausted, then moves to it if possible.
+     */
+    private void loadArchivedTrades() {
+        loadingArchive = true;
+        plugin.getTradeManager().getArchivedTradeHistory(owner.getUniqueId(), archiveCursor, ITEMS_PER_PAGE)
+                .handle((page, throwable) -> {
+                    plugin.getServer().getScheduler().runTask(plugin, () -> {
+                        if (throwable != null || page.size() < ITEMS_PER_PAGE) {
+                            archiveExhausted = true;
+                        }
+                        if (throwable == null && !page.isEmpty()) {
+                            archiveCursor = page.get(page.size() - 1).getTradeId();
+                            for (TradeDocument trade : page) {
+                                // Already listed if it was archived after the live trades loaded
+                                if (!loadedTradeIds.add(trade.getTradeId())) {
+                                    continue;
+                                }
+                                allTrades.add(trade);
+                                if (matchesFilter(trade, currentFilter)) {
+                                    filteredTrades.add(trade);
+                                }
+                            }
+                        }
+
+                        loadingArchive = false;
+                        if (!isPageLoaded(currentPage + 1) && canPageIntoArchive()) {
+                            loadArchivedTrades();
+                            return;
+                        }
+                        if (isPageLoaded(currentPage + 1)) {
+                            currentPage++;
+                        }
+                        updateFilterButtons();
+                        updatePaginationButtons();
+                        setupInfoSign();
+                        displayTrades();
+                    });
+                    return null;
+                });
     }
 
     /**
@@ -445,6 +523,13 @@ public class MyTradesGUI extends GUI {
         }
 
         if (clickedSlot == NEXT_PAGE_SLOT && hasNextPage()) {
+            if (!isPageLoaded(currentPage + 1)) {
+                // Past the last loaded page: the next page comes from the archive
+                if (!loadingArchive) {
+                    loadArchivedTrades();
+                }
+                return;
+            }
             currentPage++;
             updatePaginationButtons();
             setupInfoSign();
@@ -466,6 +551,7 @@ public class MyTradesGUI extends GUI {
         if (selectedFilter != null) {
             setCurrentFilter(selectedFilter);
             updateFilterButtons();
+            updatePaginationButtons();
             displayTrades();
             return;
         }
@@ -651,6 +737,33 @@ public class MyTradesGUI extends GUI {
         }
     }
 
+    /**
+     * Opens a read-only preview of the other player's items in a pending trade.
+     * 
+     * @param trade           The pending trade
+     * @param otherPlayerUUID The UUID of the other player in the trade
+     */
+    private void openPendingPreview(TradeDocument trade, UUID otherPlayerUUID) {
+        plugin.getTradeManager().getTradeItems(trade.getTradeId(), otherPlayerUUID)
+                .thenAccept(items -> {
+                    plugin.getServer().getScheduler().runTask(plugin, () -> {
+                        String otherPlayerName = plugin.getServer().getOfflinePlayer(otherPlayerUUID).getName();
+                        ViewTradeGUI viewTradeGUI = new ViewTradeGUI(
+                                owner, otherPlayerName, otherPlayerUUID, plugin, items, trade.getTradeId());
+                        viewTradeGUI.setOnlyPreview(true);
+                        viewTradeGUI.openInventory();
+                    });
+                })
+                .exceptionally(throwable -> {
+                    plugin.getLogger()
+                            .severe(String.format("Error loading trade items: %s",
+                                    throwable.getMessage()));
+                    plugin.getMessageManager().sendComponentMessage(owner,
+                            "mytrades.error.loading_trade_items");
+                    return null;
+                });
+    }
+
     /**
      * Handles clicks on individual trade items with context-sensitive actions.
      * This method provides comprehensive trade interaction based on the trade's
@@ -665,48 +778,32 @@ public class MyTradesGUI extends GUI {
 
         if (trade.getState() == TradeState.PENDING) {
             // Handle pending trades - check if player needs to add items
-            boolean needsToAddItems = false;
-
-            if (isPlayer1) {
-                // Player is initiator - check if items haven't been added yet
-                needsToAddItems = trade.getPlayer1Items().isEmpty();
-            } else {
-                // Player is target - check if items haven't been added yet
-                needsToAddItems = trade.getPlayer2Items().isEmpty();
-            }
-
-            if (needsToAddItems) {
-                // Open PreTradeGUI in response mode for item addition
-                // No need for other player to be online for this operation
-                String otherPlayerName = plugin.getServer().getOfflinePlayer(otherPlayerUUID).getName();
-
-                // Create PreTradeGUI using only necessary information
-                PreTradeGUI preTradeGUI = new PreTradeGUI(owner, otherPlayerName, otherPlayerUUID, plugin, true,
-                        trade.getTradeId());
-                preTradeGUI.openInventory();
-                return;
-            } else {
-                // Player already added items - show preview of other player's items
-                plugin.getTradeManager().getTradeItems(trade.getTradeId(), otherPlayerUUID)
-                        .thenAccept(items -> {
-                            plugin.getServer().getScheduler().runTask(plugin, () -> {
-                                String otherPlayerName = plugin.getServer().getOfflinePlayer(otherPlayerUUID).getName();
-                                ViewTradeGUI viewTradeGUI = new ViewTradeGUI(
-                                        owner, otherPlayerName, otherPlayerUUID, plugin, items, trade.getTradeId());
-                                viewTradeGUI.setOnlyPreview(true);
-                                viewTradeGUI.openInventory();
-                            });
-                        })
-                        .exceptionally(throwable -> {
-                            plugin.getLogger()
-                                    .severe(String.format("Error loading trade items: %s",
-                                            throwable.getMessage()));
-                            plugin.getMessageManager().sendComponentMessage(owner,
-                                    "mytrades.error.loading_trade_items");
-                            return null;
+            // (item lists are not part of the history query and are loaded here)
+            plugin.getTradeManager().hasTradeItems(trade.getTradeId(), owner.getUniqueId())
+                    .thenAccept(hasItems -> {
+                        plugin.getServer().getScheduler().runTask(plugin, () -> {
+                            if (!hasItems) {
+                                // Open PreTradeGUI in response mode for item addition
+                                // No need for other player to be online for this operation
+                                String otherPlayerName = plugin.getServer().getOfflinePlayer(otherPlayerUUID)
+                                        .getName();
+
+                                // Create PreTradeGUI using only necessary information
+                                PreTradeGUI preTradeGUI = new PreTradeGUI(owner, otherPlayerName, otherPlayerUUID,
+                                        plugin, true, trade.getTradeId());
+                                preTradeGUI.openInventory();
+                            } else {
+                                // Player already added items - show preview of other player's items
+                                openPendingPreview(trade, otherPlayerUUID);
+                            }
                         });
-                return;
-            }
+                    })
+                    .exceptionally(throwable -> {
+                        plugin.getLogger()
+                                .severe(String.format("Error loading trade items: %s", throwable.getMessage()));
+                        plugin.getMessageManager().sendComponentMessage(owner, "mytrades.error.loading_trade_items");
+                        return null;
+                    });
         } else if (trade.getState() == TradeState.ACTIVE) {
             // Open active trade GUI for confirmation
             plugin.getTradeManager().getTradeItems(trade.getTradeId(), otherPlayerUUID)
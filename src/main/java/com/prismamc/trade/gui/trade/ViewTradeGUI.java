@@ -950,7 +950,7 @@ public class ViewTradeGUI extends GUI {
             }
 
             // Attempt to add item to inventory
-            java.util.HashMap<Integer, org.bukkit.inventory.ItemStack> leftover = inventory.addItem(item);
+            java.util.HashMap<Integer, org.bukkit.inventory.ItemStack> leftover = inventory.addItem(item.clone());
 
             // Drop any overflow items on the ground
             if (!leftover.isEmpty()) {
@@ -4,7 +4,9 @@ import java.util.logging.Level;
 
 import org.bukkit.entity.Player;
 import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
 import org.bukkit.event.Listener;
+import org.bukkit.event.player.AsyncPlayerPreLoginEvent;
 import org.bukkit.event.player.PlayerJoinEvent;
 
 import com.prismamc.trade.Plugin;
@@ -19,6 +21,21 @@ public class PlayerJoinListener implements Listener {
         this.plugin = plugin;
     }
 
+    /**
+     * Starts loading the player's open trades into the trade cache while the
+     * login continues, so the work overlaps with loading the player into the
+     * world. Runs on the login thread; the load itself is asynchronous.
+     */
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void onAsyncPlayerPreLogin(AsyncPlayerPreLoginEvent event) {
+        if (event.getLoginResult() != AsyncPlayerPreLoginEvent.Result.ALLOWED
+                || !plugin.getConfigFile().getConfig().getBoolean("trades.cache.login-prefetch", true)) {
+            return;
+        }
+        // Failures are logged by TradeManager; the trades then load on first use
+        plugin.getTradeManager().prefetchPlayerTrades(event.getUniqueId());
+    }
+
     @EventHandler
     public void onPlayerJoin(PlayerJoinEvent event) {
         Player player = event.getPlayer();
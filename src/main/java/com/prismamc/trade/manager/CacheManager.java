@@ -1,149 +1,584 @@
 package com.prismamc.trade.manager;
 
+import com.prismamc.trade.manager.CacheStats.RemovalCause;
 import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.model.TradeSummary;
+import com.prismamc.trade.utils.FrequencySketch;
+import com.prismamc.trade.utils.LongHashSet;
+import com.prismamc.trade.utils.LongObjectMap;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
 
 /**
- * CacheManager - High-Performance In-Memory Cache System
- * 
- * This class provides a sophisticated caching mechanism for trade documents
- * with
- * automatic expiration, cleanup, and thread-safe operations. It implements a
- * time-based eviction policy to maintain optimal memory usage while providing
- * fast access to frequently used trade data.
- * 
+ * CacheManager - Size-bounded trade document cache (W-TinyLFU)
+ *
+ * Caches trade documents by trade ID, bounded by total weight rather than
+ * entry count. A trade weighs the serialized size of its two item lists plus a
+ * fixed overhead, so a few trades with full inventories count as much as many
+ * empty ones. When the bound is exceeded, entries are evicted using the
+ * W-TinyLFU policy:
+ * - New entries enter a small LRU window (1% of the weight)
+ * - Entries leaving the window join the probation segment of the main area,
+ * where the oldest probation entry is the eviction victim
+ * - A window entry only stays if it has been accessed more often recently
+ * than that victim, according to a FrequencySketch of all lookups, hits and
+ * misses alike
+ * - Probation entries accessed again move to the protected segment (80% of
+ * the main area), whose least recently used entries are demoted back to
+ * probation
+ *
  * Key Features:
- * - Thread-safe concurrent access using ConcurrentHashMap
- * - Automatic expiration based on last access time (LRU-like behavior)
- * - Background cleanup task to remove expired entries
- * - Memory-efficient storage with configurable expiration policies
- * - Graceful shutdown with proper resource cleanup
- * - Access time tracking for intelligent cache management
- * 
- * Performance Characteristics:
- * - O(1) average time complexity for get/put operations
- * - Automatic memory management to prevent memory leaks
- * - Periodic cleanup to maintain cache size
- * - Optimized for high-concurrency trade system environments
- * 
- * Configuration:
- * - Cache expiry: 30 minutes after last access
- * - Cleanup interval: Every 15 minutes
- * - Thread-safe for concurrent plugin operations
- * 
+ * - Same put/get/remove API as before, with the bound and expiry configurable
+ * - One-off lookups cannot flush frequently used trades
+ * - Entries still expire after a period without access, and as soon as the
+ * trade's own expiresAt passes (the database's TTL removes it then)
+ * - Expired entries are dropped within about a second by a hierarchical
+ * timing wheel, which only visits the entries due in the elapsed ticks
+ * instead of scanning the whole cache
+ * - Read-through: a miss starts one repository load per trade, shared by
+ * every concurrent lookup of that trade (single flight); a write to the trade
+ * while the load runs keeps the load's result out of the cache
+ * - Prefetch: a batch of trades read ahead of use (a player's open trades at
+ * login) is cached the same way, skipping trades written meanwhile
+ * - Lock-free reads; a read only updates the policy when the policy lock is
+ * free, and otherwise skips it (a lost reorder only weakens recency slightly)
+ * - Writes and evictions run under one lock, with O(1) work per entry
+ * - Entries are found through a LongObjectMap, so trade IDs are not boxed
+ * - Hit, miss, load and removal statistics per calling method (CacheStats)
+ *
  * @author Mansitoh
  * @version 1.0.0
  * @since 1.0.0
  */
 public class CacheManager {
 
-    // Core cache storage with thread-safe concurrent access
-    private final ConcurrentHashMap<Long, CacheEntry<TradeDocument>> cache;
+    /** Share of the maximum weight given to the admission window */
+    private static final double WINDOW_RATIO = 0.01;
 
-    // Background task executor for automatic cache maintenance
-    private final ScheduledExecutorService cleanupExecutor;
+    /** Share of the main area given to the protected segment */
+    private static final double PROTECTED_RATIO = 0.80;
 
-    /** Duration in minutes after which cache entries expire from last access */
-    private static final long CACHE_EXPIRY_MINUTES = 30;
+    /** Weight of a trade's scalar fields and the cache's own bookkeeping */
+    private static final int BASE_WEIGHT = 256;
 
-    /** Interval in minutes between automatic cleanup operations */
-    private static final int CLEANUP_INTERVAL_MINUTES = 15;
+    /** Weight assumed per entry when sizing the frequency sketch */
+    private static final int TYPICAL_WEIGHT = 1024;
 
     /**
-     * Constructs a new CacheManager instance.
-     * Initializes the concurrent cache storage and starts the background
-     * cleanup task for automatic memory management.
+     * Candidate frequency from which a losing candidate is still admitted
+     * once in 128 tries, so a crafted run of colliding keys cannot keep a
+     * victim in the cache forever
      */
-    public CacheManager() {
-        this.cache = new ConcurrentHashMap<>();
-        this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
-        startCleanupTask();
+    private static final int RANDOM_ADMISSION_FREQUENCY = 6;
+
+    /**
+     * Tick length of each timing wheel level as a power of two milliseconds:
+     * 1.02s, 65.5s, 69.9m, 18.6h and 3.1 days
+     */
+    private static final int[] WHEEL_SHIFTS = { 10, 16, 22, 26, 28 };
+
+    /**
+     * Buckets of each level; a level spans one tick of the next, and the last
+     * level holds every later deadline
+     */
+    private static final int[] WHEEL_BUCKETS = { 64, 64, 16, 4, 1 };
+
+    // Lookups (lock-free; written under evictionLock), and the policy
+    // structures, guarded by evictionLock
+    private final LongObjectMap<Node> data;
+    private final ReentrantLock evictionLock;
+    private final FrequencySketch sketch;
+    private final AccessQueue window;
+    private final AccessQueue probation;
+    private final AccessQueue protectedQueue;
+    private long windowWeight;
+    private long probationWeight;
+    private long protectedWeight;
+
+    private final long maximumWeight;
+    private final long windowMaximum;
+    private final long protectedMaximum;
+    private final long expireAfterAccessMillis;
+
+    // Entries bucketed by deadline, and the time the wheel was last advanced
+    // to; guarded by evictionLock
+    private final Node[][] wheel;
+    private long wheelTime;
+
+    // Background task executor for the timing wheel and the statistics log
+    private final ScheduledExecutorService cleanupExecutor;
+
+    private final CacheStats stats;
+
+    // Loads in progress, shared by concurrent lookups of the same trade. A
+    // write removes the trade's entry, so the stale result is not cached.
+    private final ConcurrentHashMap<Long, CompletableFuture<TradeDocument>> loading;
+    private final ConcurrentHashMap<Long, CompletableFuture<TradeSummary>> summaryLoading;
+
+    // Trades written since each prefetch in progress started, so their
+    // results are not cached; guarded by evictionLock
+    private final List<LongHashSet> prefetchWrites;
+
+    private enum Region {
+        WINDOW, PROBATION, PROTECTED
     }
 
     /**
-     * Starts the background cleanup task that automatically removes expired cache
-     * entries.
-     * This task runs periodically to maintain optimal memory usage and prevent
-     * memory leaks from long-running cache entries.
+     * Constructs a new CacheManager and starts the timing wheel.
+     *
+     * @param maximumWeight           Maximum total weight in bytes
+     * @param expireAfterAccessMillis Time without access after which an entry
+     *                                expires
+     * @param tickMillis              Interval between advances of the timing
+     *                                wheel
      */
-    private void startCleanupTask() {
-        cleanupExecutor.scheduleAtFixedRate(
-                this::cleanupExpiredEntries,
-                CLEANUP_INTERVAL_MINUTES,
-                CLEANUP_INTERVAL_MINUTES,
-                TimeUnit.MINUTES);
+    public CacheManager(long maximumWeight, long expireAfterAccessMillis, long tickMillis) {
+        this.data = new LongObjectMap<>(0);
+        this.evictionLock = new ReentrantLock();
+        this.maximumWeight = Math.max(1L, maximumWeight);
+        this.windowMaximum = Math.max(1L, (long) (this.maximumWeight * WINDOW_RATIO));
+        this.protectedMaximum = (long) ((this.maximumWeight - windowMaximum) * PROTECTED_RATIO);
+        this.expireAfterAccessMillis = expireAfterAccessMillis;
+        this.sketch = new FrequencySketch(this.maximumWeight / TYPICAL_WEIGHT);
+        this.window = new AccessQueue();
+        this.probation = new AccessQueue();
+        this.protectedQueue = new AccessQueue();
+        this.stats = new CacheStats();
+        this.loading = new ConcurrentHashMap<>();
+        this.summaryLoading = new ConcurrentHashMap<>();
+        this.prefetchWrites = new ArrayList<>();
+        this.wheel = new Node[WHEEL_BUCKETS.length][];
+        for (int level = 0; level < wheel.length; level++) {
+            wheel[level] = new Node[WHEEL_BUCKETS[level]];
+            for (int i = 0; i < wheel[level].length; i++) {
+                wheel[level][i] = newBucket();
+            }
+        }
+        this.wheelTime = now();
+        this.cleanupExecutor = Executors.newSingleThreadScheduledExecutor();
+        cleanupExecutor.scheduleAtFixedRate(this::cleanupExpiredEntries, tickMillis, tickMillis,
+                TimeUnit.MILLISECONDS);
     }
 
     /**
-     * Stores a trade document in the cache with the specified trade ID as the key.
-     * Creates a new cache entry with current timestamp for expiration tracking.
-     * This operation is thread-safe and can be called concurrently.
-     * 
+     * Stores a trade document, replacing any previous one for the trade, and
+     * evicts entries if the cache is over its weight. A trade heavier than the
+     * whole cache is not stored.
+     *
      * @param tradeId Unique identifier for the trade (cache key)
      * @param trade   TradeDocument to store in the cache
      */
     public void put(long tradeId, TradeDocument trade) {
-        cache.put(tradeId, new CacheEntry<>(trade));
+        int weight = BASE_WEIGHT + trade.getItemsWeight();
+        evictionLock.lock();
+        try {
+            invalidateLoads(tradeId);
+            insert(tradeId, trade, weight);
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * Inserts or replaces an entry and evicts as needed. Runs under
+     * evictionLock.
+     */
+    private void insert(long tradeId, TradeDocument trade, int weight) {
+        sketch.increment(tradeId);
+        Node node = data.get(tradeId);
+        if (weight > maximumWeight) {
+            if (node != null) {
+                discard(node, RemovalCause.SIZE);
+            }
+            return;
+        }
+
+        if (node != null) {
+            node.value = trade;
+            node.accessTime = System.currentTimeMillis();
+            addWeight(node.region, weight - node.weight);
+            node.weight = weight;
+            onAccess(node);
+            // The new document may expire earlier
+            unschedule(node);
+        } else {
+            node = new Node(tradeId, trade, weight);
+            data.put(tradeId, node);
+            node.region = Region.WINDOW;
+            window.addLast(node);
+            windowWeight += weight;
+        }
+        schedule(node);
+        evict();
     }
 
     /**
-     * Retrieves a trade document from the cache by trade ID.
-     * This method implements intelligent cache management:
-     * - Updates access time for retrieved entries (LRU-like behavior)
-     * - Automatically removes expired entries when accessed
-     * - Returns null for non-existent or expired entries
-     * 
+     * Retrieves a trade document, recording the lookup as made by an
+     * unnamed caller.
+     *
      * @param tradeId Unique identifier for the trade to retrieve
      * @return TradeDocument if found and not expired, null otherwise
      */
     public TradeDocument get(long tradeId) {
-        CacheEntry<TradeDocument> entry = cache.get(tradeId);
+        return get(tradeId, "other");
+    }
+
+    /**
+     * Retrieves a trade document. A hit extends the entry's lifetime, and every
+     * lookup counts towards the trade's frequency.
+     *
+     * @param tradeId Unique identifier for the trade to retrieve
+     * @param caller  Name of the method making the lookup, for statistics
+     * @return TradeDocument if found and not expired, null otherwise
+     */
+    public TradeDocument get(long tradeId, String caller) {
+        TradeDocument value = lookup(tradeId);
+        if (value != null) {
+            stats.recordHit(caller);
+        } else {
+            stats.recordMiss(caller);
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves a trade document, loading and caching it on a miss. Concurrent
+     * misses for the same trade share one load.
+     *
+     * @param tradeId Unique identifier for the trade to retrieve
+     * @param caller  Name of the method making the lookup, for statistics
+     * @param loader  Reads the trade with its items from the repository
+     * @return CompletableFuture containing the trade, or null if it does not
+     *         exist
+     */
+    public CompletableFuture<TradeDocument> get(long tradeId, String caller,
+            Supplier<CompletableFuture<TradeDocument>> loader) {
+        TradeDocument cached = get(tradeId, caller);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+
+        CompletableFuture<TradeDocument> flight = new CompletableFuture<>();
+        CompletableFuture<TradeDocument> existing = loading.putIfAbsent(tradeId, flight);
+        if (existing != null) {
+            stats.recordSharedLoad(caller);
+            return existing;
+        }
+
+        load(caller, loader).whenComplete((trade, throwable) -> {
+            // Serializing the items to weigh them happens outside the lock
+            int weight = trade != null ? BASE_WEIGHT + trade.getItemsWeight() : 0;
+            evictionLock.lock();
+            try {
+                // Cache the result unless a write invalidated the load
+                if (loading.remove(tradeId, flight) && trade != null && weight <= maximumWeight
+                        && !isExpired(trade, now()) && !data.containsKey(tradeId)) {
+                    insert(tradeId, trade, weight);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+            complete(flight, trade, throwable);
+        });
+        return flight;
+    }
 
-        if (entry != null && !entry.isExpired()) {
-            // Update access time to extend cache lifetime (LRU-like behavior)
-            entry.updateAccessTime();
-            return entry.getValue();
+    /**
+     * Retrieves the scalar fields of a trade: from the cached document, from a
+     * document load already in progress, or from a summary load shared by
+     * concurrent misses. Summaries are not cached, since they lack the items.
+     *
+     * @param tradeId Unique identifier for the trade
+     * @param caller  Name of the method making the lookup, for statistics
+     * @param loader  Reads the trade's summary from the repository
+     * @return CompletableFuture containing the summary, or null if the trade
+     *         does not exist
+     */
+    public CompletableFuture<TradeSummary> getSummary(long tradeId, String caller,
+            Supplier<CompletableFuture<TradeSummary>> loader) {
+        TradeDocument cached = get(tradeId, caller);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(new TradeSummary(cached));
+        }
+
+        CompletableFuture<TradeDocument> documentLoad = loading.get(tradeId);
+        if (documentLoad != null) {
+            stats.recordSharedLoad(caller);
+            return documentLoad.thenApply(trade -> trade != null ? new TradeSummary(trade) : null);
+        }
+
+        CompletableFuture<TradeSummary> flight = new CompletableFuture<>();
+        CompletableFuture<TradeSummary> existing = summaryLoading.putIfAbsent(tradeId, flight);
+        if (existing != null) {
+            stats.recordSharedLoad(caller);
+            return existing;
+        }
+
+        load(caller, loader).whenComplete((summary, throwable) -> {
+            summaryLoading.remove(tradeId, flight);
+            complete(flight, summary, throwable);
+        });
+        return flight;
+    }
+
+    /**
+     * Loads a batch of trades ahead of their lookups and caches those not
+     * already cached. A trade written while the batch is read is left out, as
+     * its loaded copy may be stale.
+     *
+     * @param caller Name of the method making the prefetch, for statistics
+     * @param loader Reads the trades with their items from the repository
+     * @return CompletableFuture containing the loaded trades that were not
+     *         written meanwhile, cached or not
+     */
+    public CompletableFuture<List<TradeDocument>> prefetch(String caller,
+            Supplier<CompletableFuture<List<TradeDocument>>> loader) {
+        LongHashSet written = new LongHashSet();
+        evictionLock.lock();
+        try {
+            prefetchWrites.add(written);
+        } finally {
+            evictionLock.unlock();
+        }
+
+        return load(caller, loader)
+                .thenApply(trades -> cachePrefetched(trades, written))
+                .whenComplete((fresh, throwable) -> {
+                    evictionLock.lock();
+                    try {
+                        prefetchWrites.remove(written);
+                    } finally {
+                        evictionLock.unlock();
+                    }
+                });
+    }
+
+    /**
+     * Caches the prefetched trades not written since the prefetch started and
+     * not already cached.
+     *
+     * @return The prefetched trades not written meanwhile
+     */
+    private List<TradeDocument> cachePrefetched(List<TradeDocument> trades, LongHashSet written) {
+        // Serializing the items to weigh them happens outside the lock
+        int[] weights = new int[trades.size()];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = BASE_WEIGHT + trades.get(i).getItemsWeight();
+        }
+
+        List<TradeDocument> fresh = new ArrayList<>(trades.size());
+        evictionLock.lock();
+        try {
+            long now = now();
+            for (int i = 0; i < weights.length; i++) {
+                TradeDocument trade = trades.get(i);
+                long tradeId = trade.getTradeId();
+                if (written.contains(tradeId)) {
+                    continue;
+                }
+                fresh.add(trade);
+                if (weights[i] <= maximumWeight && !isExpired(trade, now) && !data.containsKey(tradeId)) {
+                    insert(tradeId, trade, weights[i]);
+                }
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+        return fresh;
+    }
+
+    /**
+     * Runs a repository read made after a miss, recording its latency and
+     * outcome for the caller.
+     */
+    private <T> CompletableFuture<T> load(String caller, Supplier<CompletableFuture<T>> loader) {
+        long start = System.nanoTime();
+        CompletableFuture<T> future;
+        try {
+            future = loader.get();
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, throwable) -> stats.recordLoad(caller,
+                System.nanoTime() - start, throwable == null));
+    }
+
+    private static <T> void complete(CompletableFuture<T> flight, T value, Throwable throwable) {
+        if (throwable != null) {
+            flight.completeExceptionally(throwable);
+        } else {
+            flight.complete(value);
         }
+    }
+
+    /**
+     * Detaches the loads in progress for a trade that is being written, so
+     * their results are not cached, and marks it as written for the prefetches
+     * in progress. Later lookups start a new load. Runs under evictionLock.
+     */
+    private void invalidateLoads(long tradeId) {
+        loading.remove(tradeId);
+        summaryLoading.remove(tradeId);
+        prefetchWrites.forEach(written -> written.add(tradeId));
+    }
+
+    private TradeDocument lookup(long tradeId) {
+        Node node = data.get(tradeId);
+        long now = now();
 
-        // Remove expired entries immediately when accessed
-        if (entry != null && entry.isExpired()) {
-            cache.remove(tradeId);
+        if (node != null && (now - node.accessTime > expireAfterAccessMillis || isExpired(node.value, now))) {
+            evictionLock.lock();
+            try {
+                if (data.get(tradeId) == node) {
+                    discard(node, RemovalCause.EXPIRED);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+            return null;
         }
 
-        return null;
+        if (node != null) {
+            node.accessTime = now;
+        }
+        if (evictionLock.tryLock()) {
+            try {
+                sketch.increment(tradeId);
+                if (node != null && node.region != null) {
+                    onAccess(node);
+                }
+            } finally {
+                evictionLock.unlock();
+            }
+        }
+        return node != null ? node.value : null;
     }
 
     /**
      * Manually removes a trade document from the cache.
      * This is typically used when a trade is completed, cancelled,
      * or when immediate cache invalidation is required.
-     * 
+     *
      * @param tradeId Unique identifier for the trade to remove
      */
     public void remove(long tradeId) {
-        cache.remove(tradeId);
+        evictionLock.lock();
+        try {
+            invalidateLoads(tradeId);
+            Node node = data.get(tradeId);
+            if (node != null) {
+                discard(node, RemovalCause.EXPLICIT);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
     }
 
     /**
-     * Performs cleanup of all expired cache entries.
-     * This method is called automatically by the background cleanup task
-     * but can also be invoked manually for immediate cleanup.
-     * 
-     * Removes all entries that have exceeded the expiration time limit
-     * to maintain optimal memory usage and cache performance.
+     * Advances the timing wheel to the current time, removing every entry
+     * that has not been accessed within the expiry time or whose trade has
+     * passed its expiresAt. Only the buckets of the elapsed ticks are visited;
+     * an entry accessed since it was scheduled is moved to the bucket of its
+     * new deadline. Called by the background task every tick; lookups also
+     * drop expired entries.
      */
     public void cleanupExpiredEntries() {
-        cache.entrySet().removeIf(entry -> entry.getValue().isExpired());
+        evictionLock.lock();
+        try {
+            long previous = wheelTime;
+            long now = Math.max(now(), previous);
+            wheelTime = now;
+            for (int level = 0; level < wheel.length; level++) {
+                long previousTicks = previous >>> WHEEL_SHIFTS[level];
+                long currentTicks = now >>> WHEEL_SHIFTS[level];
+                // Higher levels only turn when this one has
+                if (currentTicks == previousTicks) {
+                    break;
+                }
+                expireBuckets(level, previousTicks, currentTicks, now);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @return Number of cached trades
+     */
+    public int size() {
+        return data.size();
+    }
+
+    /**
+     * @return Total weight of the cached trades in bytes
+     */
+    public long getWeightedSize() {
+        evictionLock.lock();
+        try {
+            return windowWeight + probationWeight + protectedWeight;
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * @return Maximum total weight in bytes
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * @return Hit, miss, load and removal counters
+     */
+    public CacheStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Builds a readable report: size and weight, then the statistics.
+     *
+     * @return Report lines
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        lines.add(String.format("Size: %d trades, %.1f / %.1f MB", size(), getWeightedSize() / 1048576.0,
+                maximumWeight / 1048576.0));
+        lines.addAll(stats.report());
+        return lines;
+    }
+
+    /**
+     * Logs a one-line summary of the lookups of each interval.
+     *
+     * @param logger         Logger for the summary
+     * @param intervalMillis Interval between summaries
+     */
+    public void startStatsLog(Logger logger, long intervalMillis) {
+        CacheStats.Snapshot[] previous = { stats.snapshot() };
+        cleanupExecutor.scheduleAtFixedRate(() -> {
+            CacheStats.Snapshot current = stats.snapshot();
+            logger.info(String.format("Trade cache: %s; %d trades, %.1f MB", CacheStats.intervalSummary(
+                    previous[0], current), size(), getWeightedSize() / 1048576.0));
+            previous[0] = current;
+        }, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
     }
 
     /**
      * Gracefully shuts down the cache manager and releases all resources.
      * This method should be called during plugin shutdown to ensure
      * proper cleanup of background tasks and prevent resource leaks.
-     * 
+     *
      * Shutdown process:
      * 1. Initiates shutdown of the cleanup executor
      * 2. Waits up to 60 seconds for graceful termination
@@ -163,60 +598,262 @@ public class CacheManager {
     }
 
     /**
-     * CacheEntry - Internal cache entry wrapper with expiration tracking
-     * 
-     * This inner class wraps cached values with metadata for expiration management.
-     * It tracks access times and provides expiration checking functionality
-     * to support the cache's time-based eviction policy.
-     * 
-     * @param <T> Type of the cached value
+     * @return True once the trade's expiresAt has passed
+     */
+    private static boolean isExpired(TradeDocument trade, long now) {
+        Date expiresAt = trade.getExpiresAt();
+        return expiresAt != null && expiresAt.getTime() <= now;
+    }
+
+    private static long now() {
+        return System.currentTimeMillis();
+    }
+
+    // Policy operations; all run under evictionLock
+
+    /**
+     * @return Time at which an entry expires: its last access plus the expiry
+     *         time, or the trade's expiresAt if that is earlier
+     */
+    private long deadline(Node node) {
+        long deadline = node.accessTime + expireAfterAccessMillis;
+        Date expiresAt = node.value.getExpiresAt();
+        return expiresAt != null ? Math.min(deadline, expiresAt.getTime()) : deadline;
+    }
+
+    /**
+     * @return Empty timing wheel bucket: a sentinel linked to itself
      */
-    private static class CacheEntry<T> {
+    private static Node newBucket() {
+        Node bucket = new Node(0L, null, 0);
+        bucket.timerPrev = bucket;
+        bucket.timerNext = bucket;
+        return bucket;
+    }
 
-        /** The cached value */
-        private final T value;
+    /**
+     * Links an entry into the bucket of its deadline: the lowest level whose
+     * span covers the time left, so the entry is revisited at or before its
+     * deadline.
+     */
+    private void schedule(Node node) {
+        // A deadline already passed goes to the current tick's bucket
+        long deadline = Math.max(deadline(node), wheelTime);
+        long remaining = deadline - wheelTime;
+        Node bucket = wheel[wheel.length - 1][0];
+        for (int level = 0; level < wheel.length - 1; level++) {
+            if (remaining < 1L << WHEEL_SHIFTS[level + 1]) {
+                long ticks = deadline >>> WHEEL_SHIFTS[level];
+                bucket = wheel[level][(int) (ticks & (wheel[level].length - 1))];
+                break;
+            }
+        }
+        node.timerPrev = bucket.timerPrev;
+        node.timerNext = bucket;
+        bucket.timerPrev.timerNext = node;
+        bucket.timerPrev = node;
+    }
 
-        /** Timestamp of last access for expiration calculation */
-        private long lastAccessTime;
+    private void unschedule(Node node) {
+        if (node.timerNext != null) {
+            node.timerPrev.timerNext = node.timerNext;
+            node.timerNext.timerPrev = node.timerPrev;
+            node.timerPrev = null;
+            node.timerNext = null;
+        }
+    }
 
-        /**
-         * Creates a new cache entry with the specified value.
-         * Initializes the last access time to the current timestamp.
-         * 
-         * @param value The value to cache
-         */
-        public CacheEntry(T value) {
+    /**
+     * Empties the buckets of a level from the previous tick to the current
+     * one (at most one full turn), removing the entries whose deadline has
+     * passed and rescheduling the rest, which then land on a lower level or a
+     * later bucket.
+     */
+    private void expireBuckets(int level, long previousTicks, long currentTicks, long now) {
+        Node[] buckets = wheel[level];
+        int mask = buckets.length - 1;
+        int start = (int) (previousTicks & mask);
+        int steps = (int) Math.min(currentTicks - previousTicks + 1, buckets.length);
+        for (int i = start; i < start + steps; i++) {
+            Node bucket = buckets[i & mask];
+            Node node = bucket.timerNext;
+            bucket.timerPrev = bucket;
+            bucket.timerNext = bucket;
+            while (node != bucket) {
+                Node next = node.timerNext;
+                node.timerPrev = null;
+                node.timerNext = null;
+                if (deadline(node) <= now) {
+                    discard(node, RemovalCause.EXPIRED);
+                } else {
+                    schedule(node);
+                }
+                node = next;
+            }
+        }
+    }
+
+    /**
+     * Moves an accessed entry: to the end of its window or protected queue, or
+     * from probation into the protected segment.
+     */
+    private void onAccess(Node node) {
+        switch (node.region) {
+            case WINDOW -> window.moveToEnd(node);
+            case PROTECTED -> protectedQueue.moveToEnd(node);
+            case PROBATION -> {
+                probation.remove(node);
+                probationWeight -= node.weight;
+                node.region = Region.PROTECTED;
+                protectedQueue.addLast(node);
+                protectedWeight += node.weight;
+
+                // Demote the least recently used protected entries
+                while (protectedWeight > protectedMaximum && protectedQueue.peekFirst() != node) {
+                    Node demoted = protectedQueue.peekFirst();
+                    protectedQueue.remove(demoted);
+                    protectedWeight -= demoted.weight;
+                    demoted.region = Region.PROBATION;
+                    probation.addLast(demoted);
+                    probationWeight += demoted.weight;
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves window overflow into probation, then evicts until the cache is
+     * within its weight, each time keeping the more frequently used of the
+     * newest probation entry (the candidate) and the oldest (the victim).
+     */
+    private void evict() {
+        while (windowWeight > windowMaximum) {
+            Node node = window.peekFirst();
+            window.remove(node);
+            windowWeight -= node.weight;
+            node.region = Region.PROBATION;
+            probation.addLast(node);
+            probationWeight += node.weight;
+        }
+
+        while (windowWeight + probationWeight + protectedWeight > maximumWeight) {
+            Node victim = probation.peekFirst();
+            Node candidate = probation.peekLast();
+            if (victim == null) {
+                // Probation is empty: fall back to plain LRU order
+                victim = protectedQueue.peekFirst() != null ? protectedQueue.peekFirst() : window.peekFirst();
+                discard(victim, RemovalCause.SIZE);
+            } else if (candidate == victim) {
+                discard(victim, RemovalCause.SIZE);
+            } else {
+                discard(admit(candidate.key, victim.key) ? victim : candidate, RemovalCause.SIZE);
+            }
+        }
+    }
+
+    /**
+     * @return True if the candidate should replace the victim
+     */
+    private boolean admit(long candidateKey, long victimKey) {
+        int candidateFrequency = sketch.frequency(candidateKey);
+        int victimFrequency = sketch.frequency(victimKey);
+        if (candidateFrequency > victimFrequency) {
+            return true;
+        }
+        if (candidateFrequency < RANDOM_ADMISSION_FREQUENCY) {
+            return false;
+        }
+        return ThreadLocalRandom.current().nextInt(128) == 0;
+    }
+
+    /**
+     * Unlinks an entry from its queue and the lookup map.
+     */
+    private void discard(Node node, RemovalCause cause) {
+        stats.recordRemoval(cause);
+        switch (node.region) {
+            case WINDOW -> window.remove(node);
+            case PROBATION -> probation.remove(node);
+            case PROTECTED -> protectedQueue.remove(node);
+        }
+        addWeight(node.region, -node.weight);
+        node.region = null;
+        unschedule(node);
+        data.remove(node.key, node);
+    }
+
+    private void addWeight(Region region, long delta) {
+        switch (region) {
+            case WINDOW -> windowWeight += delta;
+            case PROBATION -> probationWeight += delta;
+            case PROTECTED -> protectedWeight += delta;
+        }
+    }
+
+    /**
+     * Cache entry, linked into the queue of its region.
+     */
+    private static final class Node {
+        private final long key;
+        private volatile TradeDocument value;
+        private volatile long accessTime;
+        private int weight;
+
+        // Guarded by evictionLock; region is null once the entry is discarded
+        private Region region;
+        private Node prev;
+        private Node next;
+
+        // Links within a timing wheel bucket, null while unscheduled
+        private Node timerPrev;
+        private Node timerNext;
+
+        private Node(long key, TradeDocument value, int weight) {
+            this.key = key;
             this.value = value;
-            this.lastAccessTime = System.currentTimeMillis();
+            this.weight = weight;
+            this.accessTime = System.currentTimeMillis();
+        }
+    }
+
+    /**
+     * Doubly linked queue in access order, least recent first, with a sentinel
+     * head.
+     */
+    private static final class AccessQueue {
+        private final Node head;
+
+        private AccessQueue() {
+            this.head = new Node(0L, null, 0);
+            head.prev = head;
+            head.next = head;
+        }
+
+        private Node peekFirst() {
+            return head.next != head ? head.next : null;
+        }
+
+        private Node peekLast() {
+            return head.prev != head ? head.prev : null;
         }
 
-        /**
-         * Retrieves the cached value.
-         * 
-         * @return The cached value
-         */
-        public T getValue() {
-            return value;
+        private void addLast(Node node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
         }
 
-        /**
-         * Updates the last access time to the current timestamp.
-         * This extends the cache entry's lifetime and implements
-         * LRU-like behavior for frequently accessed entries.
-         */
-        public void updateAccessTime() {
-            this.lastAccessTime = System.currentTimeMillis();
+        private void remove(Node node) {
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
         }
 
-        /**
-         * Checks if this cache entry has expired based on the last access time.
-         * An entry is considered expired if it hasn't been accessed within
-         * the configured expiration time limit.
-         * 
-         * @return True if the entry has expired, false otherwise
-         */
-        public boolean isExpired() {
-            return System.currentTimeMillis() - lastAccessTime > TimeUnit.MINUTES.toMillis(CACHE_EXPIRY_MINUTES);
+        private void moveToEnd(Node node) {
+            remove(node);
+            addLast(node);
         }
     }
-}
\ No newline at end of file
+}
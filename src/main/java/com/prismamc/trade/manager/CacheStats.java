@@ -0,0 +1,210 @@
+package com.prismamc.trade.manager;
+
+import com.prismamc.trade.utils.LatencyHistogram;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * CacheStats - Hit, miss, load and eviction counters of CacheManager
+ *
+ * Every lookup names the TradeManager method that made it, so the report
+ * shows which methods the cache serves and which ones keep going to the
+ * database. Loads are the repository reads made after a miss; a shared load
+ * is a miss that joined a load already in progress for the same trade.
+ *
+ * Key Features:
+ * - Hits, misses, loads and shared loads per calling method, with load
+ * latency (LatencyHistogram) and load failures
+ * - Removals by cause: explicit, expired, or evicted for size
+ * - Report lines for the admin command, and a one-line summary of the
+ * change since a previous snapshot for the periodic log
+ *
+ * All counters are LongAdders, which stripe updates across cells, so
+ * recording adds no contention between threads.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class CacheStats {
+
+    /**
+     * Why an entry left the cache.
+     */
+    public enum RemovalCause {
+        /** Removed by the caller (trade deleted) */
+        EXPLICIT,
+        /** Not accessed within the expiry time */
+        EXPIRED,
+        /** Evicted to keep the cache within its weight */
+        SIZE
+    }
+
+    private final Map<String, MethodStats> methods;
+    private final Map<RemovalCause, LongAdder> removals;
+
+    /**
+     * Counters of one calling method.
+     */
+    private static final class MethodStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+        private final LatencyHistogram loads = new LatencyHistogram();
+        private final LongAdder loadFailures = new LongAdder();
+        private final LongAdder sharedLoads = new LongAdder();
+    }
+
+    /**
+     * Totals at one point in time, used to report the change over an interval.
+     */
+    public static final class Snapshot {
+        private final long hits;
+        private final long misses;
+        private final long loads;
+        private final long evictions;
+
+        private Snapshot(long hits, long misses, long loads, long evictions) {
+            this.hits = hits;
+            this.misses = misses;
+            this.loads = loads;
+            this.evictions = evictions;
+        }
+    }
+
+    public CacheStats() {
+        this.methods = new ConcurrentHashMap<>();
+        this.removals = new EnumMap<>(RemovalCause.class);
+        for (RemovalCause cause : RemovalCause.values()) {
+            removals.put(cause, new LongAdder());
+        }
+    }
+
+    public void recordHit(String caller) {
+        method(caller).hits.increment();
+    }
+
+    public void recordMiss(String caller) {
+        method(caller).misses.increment();
+    }
+
+    /**
+     * @param caller  Method that loaded the trade after a miss
+     * @param nanos   Duration of the load
+     * @param success False if the load failed
+     */
+    public void recordLoad(String caller, long nanos, boolean success) {
+        MethodStats stats = method(caller);
+        stats.loads.record(nanos);
+        if (!success) {
+            stats.loadFailures.increment();
+        }
+    }
+
+    /**
+     * @param caller Method whose miss joined a load already in progress
+     */
+    public void recordSharedLoad(String caller) {
+        method(caller).sharedLoads.increment();
+    }
+
+    public void recordRemoval(RemovalCause cause) {
+        removals.get(cause).increment();
+    }
+
+    /**
+     * @return Current totals
+     */
+    public Snapshot snapshot() {
+        long hits = 0;
+        long misses = 0;
+        long loads = 0;
+        for (MethodStats stats : methods.values()) {
+            hits += stats.hits.sum();
+            misses += stats.misses.sum();
+            loads += stats.loads.getCount();
+        }
+        return new Snapshot(hits, misses, loads, evictions());
+    }
+
+    /**
+     * One-line summary of the lookups since a previous snapshot.
+     *
+     * @param previous Snapshot taken at the start of the interval
+     * @param current  Snapshot taken at its end
+     * @return Summary line
+     */
+    public static String intervalSummary(Snapshot previous, Snapshot current) {
+        if (current.hits + current.misses < previous.hits + previous.misses) {
+            // Reset during the interval
+            previous = new Snapshot(0, 0, 0, 0);
+        }
+        long hits = current.hits - previous.hits;
+        long misses = current.misses - previous.misses;
+        return String.format("%d lookups, hit ratio %s, %d loads, %d evictions", hits + misses,
+                ratio(hits, misses), current.loads - previous.loads, current.evictions - previous.evictions);
+    }
+
+    /**
+     * Builds a readable report: totals and removals first, then one line per
+     * calling method, busiest first.
+     *
+     * @return Report lines
+     */
+    public List<String> report() {
+        List<String> lines = new ArrayList<>();
+        Snapshot totals = snapshot();
+        lines.add(String.format("Lookups: %d hits, %d misses, hit ratio %s, %d loads", totals.hits, totals.misses,
+                ratio(totals.hits, totals.misses), totals.loads));
+        lines.add(String.format("Removals: %d evicted (size), %d expired, %d explicit",
+                removals.get(RemovalCause.SIZE).sum(), removals.get(RemovalCause.EXPIRED).sum(),
+                removals.get(RemovalCause.EXPLICIT).sum()));
+
+        methods.entrySet().stream()
+                .sorted(Comparator.comparingLong(
+                        (Map.Entry<String, MethodStats> entry) -> lookups(entry.getValue())).reversed())
+                .forEach(entry -> {
+                    MethodStats stats = entry.getValue();
+                    String line = String.format("%s: %d hits, %d misses (%s)", entry.getKey(), stats.hits.sum(),
+                            stats.misses.sum(), ratio(stats.hits.sum(), stats.misses.sum()));
+                    if (stats.loads.getCount() > 0) {
+                        line += String.format(", loads %s failed=%d", stats.loads.summary(),
+                                stats.loadFailures.sum());
+                    }
+                    if (stats.sharedLoads.sum() > 0) {
+                        line += String.format(", shared=%d", stats.sharedLoads.sum());
+                    }
+                    lines.add(line);
+                });
+        return lines;
+    }
+
+    /**
+     * Clears every counter.
+     */
+    public void reset() {
+        methods.clear();
+        removals.values().forEach(LongAdder::reset);
+    }
+
+    private long evictions() {
+        return removals.get(RemovalCause.SIZE).sum() + removals.get(RemovalCause.EXPIRED).sum();
+    }
+
+    private MethodStats method(String caller) {
+        return methods.computeIfAbsent(caller, name -> new MethodStats());
+    }
+
+    private static long lookups(MethodStats stats) {
+        return stats.hits.sum() + stats.misses.sum();
+    }
+
+    private static String ratio(long hits, long misses) {
+        long lookups = hits + misses;
+        return lookups == 0 ? "n/a" : String.format("%.1f%%", hits * 100.0 / lookups);
+    }
+}
@@ -26,6 +26,8 @@ import java.util.concurrent.ConcurrentHashMap;
  */
 public class ItemManager {
         private final Plugin plugin;
+        // Only stored in MongoDB; null for other storage types, which use the
+        // built-in defaults
         private final MongoCollection<Document> itemsCollection;
         private final Map<String, CustomItem> itemCache;
 
@@ -57,7 +59,9 @@ public class ItemManager {
 
         public ItemManager(Plugin plugin) {
                 this.plugin = plugin;
-                this.itemsCollection = plugin.getMongoDBManager().getDatabase().getCollection("items");
+                this.itemsCollection = plugin.getStorageManager().getType() == StorageManager.StorageType.MONGODB
+                                ? plugin.getMongoDBManager().getDatabase().getCollection("items")
+                                : null;
                 this.itemCache = new ConcurrentHashMap<>();
 
                 // Initialize and load all items into memory
@@ -723,6 +727,11 @@ public class ItemManager {
          * Load all items from database into memory cache
          */
         private void loadAllItems() {
+                if (itemsCollection == null) {
+                        plugin.getLogger().info("Loaded " + itemCache.size() + " default items into memory cache");
+                        return;
+                }
+
                 CompletableFuture.runAsync(() -> {
                         try {
                                 // First, save any new default items to database
@@ -841,8 +850,10 @@ public class ItemManager {
                                 itemCache.put(itemId, newItem);
 
                                 // Update in database
-                                Document filter = new Document("itemId", itemId);
-                                itemsCollection.replaceOne(filter, newItem.toDocument());
+                                if (itemsCollection != null) {
+                                        Document filter = new Document("itemId", itemId);
+                                        itemsCollection.replaceOne(filter, newItem.toDocument());
+                                }
 
                                 return true;
                         } catch (Exception e) {
@@ -0,0 +1,112 @@
+package com.prismamc.trade.manager;
+
+import com.prismamc.trade.utils.BloomFilter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * KnownTradeIds - Bloom filter of every trade ID that exists
+ *
+ * Lets TradeManager reject a trade ID that was never stored without a
+ * database query. The filter is built from the repository's trade IDs and
+ * receives every trade created on this server; since a Bloom filter has no
+ * false negatives, an ID it does not contain does not exist. Until the first
+ * build completes, every ID is reported as possibly existing.
+ *
+ * Key Features:
+ * - Sized at twice the stored trade count (at least 10000) for a 1% false
+ * positive rate, so growth between rebuilds keeps the rate low
+ * - Deleted and expired trades stay in the filter until the next rebuild,
+ * which only costs a query for them
+ * - IDs added while a rebuild reads the repository are replayed onto the new
+ * filter, so they are never lost
+ *
+ * Trades created by other servers sharing the database are only known after
+ * the next rebuild, so the filter is only safe when one server uses the
+ * database; it is off by default (lookup.trade-id-filter.enabled).
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class KnownTradeIds {
+
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final long MIN_CAPACITY = 10_000L;
+
+    // Null until the first build completes
+    private volatile BloomFilter filter;
+
+    // IDs added since the running rebuild started, or null; guarded by this
+    private List<Long> addedDuringRebuild;
+    private long count;
+
+    /**
+     * Records a trade ID that now exists.
+     *
+     * @param tradeId The ID of the trade
+     */
+    public synchronized void add(long tradeId) {
+        if (filter != null) {
+            filter.put(tradeId);
+            count++;
+        }
+        if (addedDuringRebuild != null) {
+            addedDuringRebuild.add(tradeId);
+        }
+    }
+
+    /**
+     * @param tradeId The ID of the trade
+     * @return False if the trade certainly does not exist
+     */
+    public boolean mightExist(long tradeId) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(tradeId);
+    }
+
+    /**
+     * Starts recording added IDs; call before reading the repository.
+     */
+    public synchronized void beginRebuild() {
+        addedDuringRebuild = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the filter with one built from the repository's trade IDs and
+     * the IDs added since beginRebuild.
+     *
+     * @param tradeIds Every stored trade ID
+     */
+    public void rebuild(List<Long> tradeIds) {
+        BloomFilter built = new BloomFilter(Math.max(MIN_CAPACITY, tradeIds.size() * 2L), FALSE_POSITIVE_RATE);
+        tradeIds.forEach(built::put);
+
+        synchronized (this) {
+            long added = 0;
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.forEach(built::put);
+                added = addedDuringRebuild.size();
+            }
+            addedDuringRebuild = null;
+            count = tradeIds.size() + added;
+            filter = built;
+        }
+    }
+
+    /**
+     * Stops recording after a failed repository read; the current filter is
+     * kept.
+     */
+    public synchronized void abortRebuild() {
+        addedDuringRebuild = null;
+    }
+
+    /**
+     * @return Number of IDs added to the current filter, or -1 before the first
+     *         build
+     */
+    public synchronized long size() {
+        return filter != null ? count : -1L;
+    }
+}
@@ -1,10 +1,8 @@
 package com.prismamc.trade.manager;
 
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.model.Filters;
 import com.prismamc.trade.Plugin;
 import com.prismamc.trade.model.Message;
-import org.bson.Document;
+import com.prismamc.trade.repository.MessageRepository;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
 import com.prismamc.trade.model.PlayerData;
@@ -29,7 +27,7 @@ import java.util.concurrent.CompletableFuture;
  * - Multi-language support with player-specific language preferences
  * - Modern Adventure Components with MiniMessage formatting support
  * - Legacy ChatColor compatibility for older systems
- * - Database-backed message persistence with MongoDB integration
+ * - Message persistence through the MessageRepository selected by storage.type
  * - Organized message categorization for easy management
  * - Real-time message editing and updates
  * - Intelligent caching for optimal performance
@@ -55,7 +53,7 @@ public class MessageManager {
 
         // Core dependencies and storage
         private final Plugin plugin;
-        private final MongoCollection<Document> messagesCollection;
+        private final MessageRepository messageRepository;
         private final Map<String, Message> messageCache;
         private final Map<String, MessageCategory> messageCategories;
 
@@ -150,7 +148,7 @@ public class MessageManager {
          */
         public MessageManager(Plugin plugin) {
                 this.plugin = plugin;
-                this.messagesCollection = plugin.getMongoDBManager().getDatabase().getCollection("messages");
+                this.messageRepository = plugin.getStorageManager().getMessageRepository();
                 this.messageCache = new HashMap<>();
                 this.messageCategories = new HashMap<>();
                 this.miniMessage = MiniMessage.miniMessage();
@@ -877,18 +875,15 @@ public class MessageManager {
                                         String key = entry.getKey();
                                         try {
                                                 // Check if message already exists in database
-                                                Document existingMessage = messagesCollection
-                                                                .find(Filters.eq("key", key)).first();
+                                                Message existingMessage = messageRepository.find(key);
 
                                                 if (existingMessage == null) {
                                                         // Insert new default message
-                                                        Document doc = Document
-                                                                        .parse(entry.getValue().toDocument().toJson());
-                                                        messagesCollection.insertOne(doc);
+                                                        messageRepository.insert(entry.getValue());
                                                         plugin.getLogger().info("Added default message: " + key);
                                                 } else {
                                                         // Load existing message from database
-                                                        messageCache.put(key, new Message(existingMessage));
+                                                        messageCache.put(key, existingMessage);
                                                 }
                                         } catch (Exception e) {
                                                 plugin.getLogger().warning("Error processing message " + key + ": "
@@ -1149,10 +1144,7 @@ public class MessageManager {
                                 messageCache.put(key, updatedMessage);
 
                                 // Persist to database for permanent storage
-                                Document filter = new Document("key", key);
-                                Document update = new Document("$set",
-                                                new Document("translations." + language, newText));
-                                messagesCollection.updateOne(filter, update);
+                                messageRepository.updateTranslation(key, language, newText);
 
                                 return true;
                         } catch (Exception e) {
@@ -6,12 +6,33 @@ import com.mongodb.client.MongoClient;
 import com.mongodb.client.MongoClients;
 import com.mongodb.client.MongoCollection;
 import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.CreateCollectionOptions;
 import com.mongodb.client.model.IndexOptions;
 import com.mongodb.connection.ConnectionPoolSettings;
+import com.prismamc.trade.database.AsyncCollection;
+import com.prismamc.trade.database.IndexBenchmark;
+import com.prismamc.trade.database.MongoMetrics;
+import com.prismamc.trade.database.ReactiveCollectionAdapter;
+import com.prismamc.trade.database.SyncCollectionAdapter;
+import com.prismamc.trade.database.TradeArchiver;
+import com.prismamc.trade.database.TradeItemsMigration;
+import com.prismamc.trade.database.TradeDocumentCodec;
+import com.prismamc.trade.database.TradeItemsReencoder;
+import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.repository.QueryPlanAuditor;
 import org.bson.Document;
+import org.bson.codecs.configuration.CodecRegistries;
 import org.bukkit.configuration.file.FileConfiguration;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.logging.Logger;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 /**
  * MongoDBManager - MongoDB Database Connection and Management System
@@ -22,7 +43,8 @@ import java.util.concurrent.TimeUnit;
  * operations.
  * 
  * Key Features:
- * - Optimized connection pooling for high performance
+ * - Configurable connection pooling (mongodb.pool)
+ * - Command latency and pool metrics (MongoMetrics), logged periodically
  * - Automatic collection creation and management
  * - Comprehensive indexing strategy for query optimization
  * - Robust error handling and connection recovery
@@ -33,6 +55,15 @@ import java.util.concurrent.TimeUnit;
  * - trades: Trade transaction records and item data
  * - player_data: Player preferences and configuration
  * - messages: Localized message templates
+ * - trade_items: Serialized item lists of each trade side, kept out of trades
+ * - counters: Shared sequence counters (trade ID blocks)
+ * - trades_archive: Compressed cold tier for old finished trades and their items
+ * 
+ * Drivers:
+ * - The sync client is always created and used for setup and maintenance
+ * - Runtime operations go through AsyncCollection views backed either by the
+ * sync client ({@code mongodb.driver: sync}) or by a Reactive Streams client
+ * ({@code mongodb.driver: reactive}) that never blocks a thread
  * 
  * @author Mansitoh
  * @version 1.0.0
@@ -43,32 +74,73 @@ public class MongoDBManager {
     // Core MongoDB components
     private MongoClient mongoClient;
     private MongoDatabase database;
+    private String benchmarkDatabaseName;
 
     // Collection references for different data types
     private MongoCollection<Document> tradesCollection;
     private MongoCollection<Document> playerDataCollection;
     private MongoCollection<Document> messagesCollection;
+    private MongoCollection<Document> tradeItemsCollection;
+    private MongoCollection<Document> countersCollection;
+    private MongoCollection<Document> tradesArchiveCollection;
+
+    // Optional non-blocking client and future-based collection views
+    private com.mongodb.reactivestreams.client.MongoClient reactiveClient;
+    private AsyncCollection tradesAsync;
+    private AsyncCollection playerDataAsync;
+    private AsyncCollection tradeItemsAsync;
+    private AsyncCollection countersAsync;
+    private AsyncCollection tradesArchiveAsync;
+
+    // Background conversion of legacy item strings (null when disabled)
+    private TradeItemsReencoder itemsReencoder;
+    private TradeItemsMigration itemsMigration;
+
+    // Periodic archival of finished trades (null when disabled)
+    private volatile TradeArchiver tradeArchiver;
+    private volatile ScheduledExecutorService archiveExecutor;
+
+    // Command and pool instrumentation, one per client so pool gauges are not
+    // summed across pools (reactiveMetrics is null with the sync driver)
+    private final MongoMetrics metrics;
+    private MongoMetrics reactiveMetrics;
+    private ScheduledExecutorService metricsExecutor;
+
+    // Examined/returned ratio above which the query plan audit flags a query
+    private double auditMaxExaminedRatio = 10.0;
 
     // Logging system
     private final Logger logger;
 
-    // Connection pool configuration constants for optimal performance
+    // Connection pool defaults, overridden by the mongodb.pool section
     /** Minimum number of connections maintained in the pool */
-    private static final int MIN_CONNECTIONS_PER_HOST = 5;
+    private static final int DEFAULT_MIN_CONNECTIONS_PER_HOST = 5;
 
     /** Maximum number of connections allowed in the pool */
-    private static final int MAX_CONNECTIONS_PER_HOST = 20;
+    private static final int DEFAULT_MAX_CONNECTIONS_PER_HOST = 20;
 
     /** Maximum time to wait for an available connection (milliseconds) */
-    private static final int MAX_WAIT_TIME = 5000;
+    private static final int DEFAULT_MAX_WAIT_TIME = 5000;
 
     /**
      * Maximum time a connection can remain idle before being closed (milliseconds)
      */
-    private static final int MAX_CONNECTION_IDLE_TIME = 300000;
+    private static final int DEFAULT_MAX_CONNECTION_IDLE_TIME = 300000;
 
     /** Timeout for establishing new connections (milliseconds) */
-    private static final int CONNECTION_TIMEOUT = 5000;
+    private static final int DEFAULT_CONNECTION_TIMEOUT = 5000;
+
+    /**
+     * Trade indexes created by earlier versions, with their keys: prefixes of
+     * the player/state compound indexes and of trade_active_index, a timestamp
+     * index no query uses, and a direction variant of trade_active_index
+     */
+    private static final Map<String, Document> REDUNDANT_TRADE_INDEXES = Map.of(
+            "trade_player1_index", new Document("player1", 1),
+            "trade_player2_index", new Document("player2", 1),
+            "trade_state_index", new Document("state", 1),
+            "trade_timestamp_index", new Document("timestamp", -1),
+            "trade_expiration_index", new Document("state", 1).append("timestamp", 1));
 
     /**
      * Constructs a new MongoDBManager instance.
@@ -77,6 +149,7 @@ public class MongoDBManager {
      */
     public MongoDBManager(Logger logger) {
         this.logger = logger;
+        this.metrics = new MongoMetrics("sync");
     }
 
     /**
@@ -95,7 +168,13 @@ public class MongoDBManager {
             setupMongoClient(config);
             initializeDatabase(config);
             initializeCollections();
-            setupIndexes();
+            setupIndexes(config);
+            backfillPlayerNameLower();
+            initializeAsyncCollections(config);
+            startTradeItemsMigration(config);
+            startItemsReencoder(config);
+            startMetricsLog(config);
+            startQueryAudit(config);
             logger.info("MongoDB connection and initialization completed successfully!");
         } catch (Exception e) {
             logger.severe("Failed to initialize MongoDB: " + e.getMessage());
@@ -112,7 +191,7 @@ public class MongoDBManager {
      */
     private void setupMongoClient(FileConfiguration config) {
         String uri = config.getString("mongodb.connection-uri");
-        MongoClientSettings settings = createMongoClientSettings(config, uri);
+        MongoClientSettings settings = createMongoClientSettings(config, uri, metrics);
         mongoClient = MongoClients.create(settings);
     }
 
@@ -121,24 +200,35 @@ public class MongoDBManager {
      * configuration.
      * Supports both URI-based and parameter-based connection configuration.
      * 
-     * @param config Configuration object containing MongoDB settings
-     * @param uri    Optional connection URI (takes precedence over individual
-     *               parameters)
+     * @param config        Configuration object containing MongoDB settings
+     * @param uri           Optional connection URI (takes precedence over
+     *                      individual parameters)
+     * @param clientMetrics Instrumentation of the client being created
      * @return Configured MongoClientSettings instance
      */
-    private MongoClientSettings createMongoClientSettings(FileConfiguration config, String uri) {
-        // Configure connection pool for optimal performance under load
+    private MongoClientSettings createMongoClientSettings(FileConfiguration config, String uri,
+            MongoMetrics clientMetrics) {
+        // Configure connection pool from the mongodb.pool section
         ConnectionPoolSettings poolSettings = ConnectionPoolSettings.builder()
-                .minSize(MIN_CONNECTIONS_PER_HOST)
-                .maxSize(MAX_CONNECTIONS_PER_HOST)
-                .maxWaitTime(MAX_WAIT_TIME, TimeUnit.MILLISECONDS)
-                .maxConnectionIdleTime(MAX_CONNECTION_IDLE_TIME, TimeUnit.MILLISECONDS)
+                .minSize(config.getInt("mongodb.pool.min-size", DEFAULT_MIN_CONNECTIONS_PER_HOST))
+                .maxSize(config.getInt("mongodb.pool.max-size", DEFAULT_MAX_CONNECTIONS_PER_HOST))
+                .maxWaitTime(config.getLong("mongodb.pool.max-wait-ms", DEFAULT_MAX_WAIT_TIME),
+                        TimeUnit.MILLISECONDS)
+                .maxConnectionIdleTime(config.getLong("mongodb.pool.max-idle-ms", DEFAULT_MAX_CONNECTION_IDLE_TIME),
+                        TimeUnit.MILLISECONDS)
+                .addConnectionPoolListener(clientMetrics)
                 .build();
+        int connectTimeout = config.getInt("mongodb.pool.connect-timeout-ms", DEFAULT_CONNECTION_TIMEOUT);
 
         // Build base client settings with connection pool and socket configuration
         MongoClientSettings.Builder settingsBuilder = MongoClientSettings.builder()
                 .applyToConnectionPoolSettings(builder -> builder.applySettings(poolSettings))
-                .applyToSocketSettings(builder -> builder.connectTimeout(CONNECTION_TIMEOUT, TimeUnit.MILLISECONDS));
+                .applyToSocketSettings(builder -> builder.connectTimeout(connectTimeout, TimeUnit.MILLISECONDS))
+                .addCommandListener(clientMetrics)
+                // Decode trades straight into TradeDocument on typed collections
+                .codecRegistry(CodecRegistries.fromRegistries(
+                        MongoClientSettings.getDefaultCodecRegistry(),
+                        CodecRegistries.fromCodecs(new TradeDocumentCodec())));
 
         // Configure connection string - URI takes precedence over individual parameters
         if (uri != null && !uri.isEmpty()) {
@@ -186,6 +276,8 @@ public class MongoDBManager {
     private void initializeDatabase(FileConfiguration config) {
         String databaseName = config.getString("mongodb.database", "prismamc_trade");
         database = mongoClient.getDatabase(databaseName);
+        String benchmarkName = config.getString("mongodb.benchmark.database", "").trim();
+        benchmarkDatabaseName = benchmarkName.isEmpty() || benchmarkName.equals(databaseName) ? null : benchmarkName;
         verifyConnection();
     }
 
@@ -195,13 +287,17 @@ public class MongoDBManager {
      * references.
      * 
      * Collections created:
-     * - trades: Stores trade transaction data and item information
+     * - trades: Stores trade transaction data
      * - player_data: Stores player preferences, language settings, and
      * configurations
      * - messages: Stores localized message templates and translations
+     * - trade_items: Stores the serialized items of each trade side
+     * - counters: Stores shared sequence counters such as the trade ID block
+     * - trades_archive: Stores archived trades, created with zstd block
+     * compression
      */
     private void initializeCollections() {
-        String[] collections = { "trades", "player_data", "messages" };
+        String[] collections = { "trades", "player_data", "messages", "trade_items", "counters" };
 
         // Create collections if they don't exist
         for (String collectionName : collections) {
@@ -215,18 +311,227 @@ public class MongoDBManager {
             }
         }
 
+        createArchiveCollection();
+
         // Establish collection references for application use
         tradesCollection = database.getCollection("trades");
         playerDataCollection = database.getCollection("player_data");
         messagesCollection = database.getCollection("messages");
+        tradeItemsCollection = database.getCollection("trade_items");
+        countersCollection = database.getCollection("counters");
+        tradesArchiveCollection = database.getCollection("trades_archive");
+    }
+
+    /**
+     * Creates the trades_archive collection with zstd block compression. Archived
+     * trades are written once and read rarely, so the stronger compression
+     * trades a little CPU on history lookups for a much smaller footprint.
+     */
+    private void createArchiveCollection() {
+        try {
+            if (!collectionExists("trades_archive")) {
+                database.createCollection("trades_archive", new CreateCollectionOptions()
+                        .storageEngineOptions(new Document("wiredTiger",
+                                new Document("configString", "block_compressor=zstd"))));
+                logger.info("Created collection: trades_archive");
+            }
+        } catch (Exception e) {
+            logger.warning("Error creating collection trades_archive: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts moving item lists still stored inline in trade documents into the
+     * trade_items collection on a daemon thread, so startup does not wait for
+     * it. Until it has finished, the trade repository also reads inline items
+     * (see isTradeItemsMigrated). The trade archiver, which only looks at
+     * trade_items, is started once the migration has finished.
+     * 
+     * @param config Configuration containing the migration and archive settings
+     */
+    private void startTradeItemsMigration(FileConfiguration config) {
+        itemsMigration = new TradeItemsMigration(tradesCollection, tradeItemsCollection, countersCollection, logger,
+                config.getInt("trades.items-migration.batch-size", 200),
+                config.getLong("trades.items-migration.pause-ms", 50L),
+                () -> startTradeArchiver(config));
+        Thread thread = new Thread(itemsMigration, "PrismaMC-TradeItemsMigration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * @return True once no trade document stores its items inline any more
+     */
+    public boolean isTradeItemsMigrated() {
+        return itemsMigration == null || itemsMigration.isFinished();
+    }
+
+    /**
+     * Fills playerNameLower on player documents saved before the field
+     * existed, so case-insensitive lookups can use player_name_lower_index
+     * instead of a regex scan.
+     */
+    private void backfillPlayerNameLower() {
+        try {
+            long updated = playerDataCollection.updateMany(
+                    new Document("playerNameLower", new Document("$exists", false)),
+                    List.of(new Document("$set", new Document("playerNameLower",
+                            new Document("$toLower", "$playerName")))))
+                    .getModifiedCount();
+            if (updated > 0) {
+                logger.info("Added lowercase names to " + updated + " player documents");
+            }
+        } catch (Exception e) {
+            logger.warning("Error backfilling lowercase player names: " + e.getMessage());
+        }
+    }
+
+    /**
+     * Starts the background re-encoding of legacy Base64 item strings into the
+     * binary item format on a daemon thread.
+     * 
+     * @param config Configuration containing the re-encoder settings
+     */
+    private void startItemsReencoder(FileConfiguration config) {
+        if (!config.getBoolean("trades.items-reencode.enabled", true)) {
+            return;
+        }
+        itemsReencoder = new TradeItemsReencoder(tradeItemsCollection, logger,
+                config.getInt("trades.items-reencode.batch-size", 200),
+                config.getLong("trades.items-reencode.pause-ms", 100L));
+        Thread thread = new Thread(itemsReencoder, "PrismaMC-TradeItemsReencoder");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Schedules the archival of finished trades into trades_archive, configured
+     * in the trades.archive section. The first run starts shortly after the
+     * trade items migration has finished.
+     * 
+     * @param config Configuration containing the archive settings
+     */
+    private void startTradeArchiver(FileConfiguration config) {
+        if (!config.getBoolean("trades.archive.enabled", true)) {
+            return;
+        }
+        TradeArchiver archiver = new TradeArchiver(tradesCollection, tradeItemsCollection, tradesArchiveCollection,
+                logger, TimeUnit.DAYS.toMillis(config.getLong("trades.archive.after-days", 30L)),
+                config.getInt("trades.archive.batch-size", 500));
+        archiveExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrismaMC-TradeArchiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Published after the executor, which disconnect() shuts down once it sees the archiver
+        tradeArchiver = archiver;
+        long intervalMinutes = Math.max(1L,
+                TimeUnit.HOURS.toMinutes(config.getLong("trades.archive.interval-hours", 6L)));
+        archiveExecutor.scheduleWithFixedDelay(archiver, 1L, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Schedules the periodic metrics summary in the log, configured with
+     * mongodb.metrics.log-interval-minutes (0 disables it). Intervals without
+     * any command are skipped.
+     * 
+     * @param config Configuration containing the log interval
+     */
+    private void startMetricsLog(FileConfiguration config) {
+        long intervalMinutes = config.getLong("mongodb.metrics.log-interval-minutes", 15L);
+        if (intervalMinutes <= 0) {
+            return;
+        }
+        metricsExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrismaMC-MongoMetrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        metricsExecutor.scheduleWithFixedDelay(() -> {
+            List<MongoMetrics> active = getMetrics().stream()
+                    .filter(client -> client.getCommandCount() > 0)
+                    .collect(Collectors.toList());
+            if (active.isEmpty()) {
+                return;
+            }
+            logger.info("MongoDB metrics (since last reset):");
+            active.forEach(client -> client.report().forEach(line -> logger.info("  " + line)));
+        }, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    /**
+     * Runs the query plan audit once on a daemon thread when
+     * mongodb.diagnostics.audit-queries is enabled, logging the report.
+     * 
+     * @param config Configuration containing the diagnostics settings
+     */
+    private void startQueryAudit(FileConfiguration config) {
+        auditMaxExaminedRatio = config.getDouble("mongodb.diagnostics.max-examined-ratio", 10.0);
+        if (!config.getBoolean("mongodb.diagnostics.audit-queries", false)) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            logger.info("Query plan audit:");
+            auditQueryPlans().forEach(line -> logger.info("  " + line));
+        }, "PrismaMC-QueryPlanAudit");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Explains every query shape the plugin issues and reports COLLSCANs,
+     * in-memory sorts, high examined/returned ratios and unused indexes.
+     * Blocks on the database.
+     * 
+     * @return Report lines
+     */
+    public List<String> auditQueryPlans() {
+        return new QueryPlanAuditor(database, logger, auditMaxExaminedRatio).run();
+    }
+
+    /**
+     * Creates the future-based collection views used at runtime.
+     * With {@code mongodb.driver: reactive} a Reactive Streams client sharing the
+     * same connection settings is created; otherwise the views wrap the sync
+     * collections.
+     * 
+     * @param config Configuration containing the driver selection
+     */
+    private void initializeAsyncCollections(FileConfiguration config) {
+        String driver = config.getString("mongodb.driver", "sync");
+        String databaseName = config.getString("mongodb.database", "prismamc_trade");
+
+        if ("reactive".equalsIgnoreCase(driver)) {
+            String uri = config.getString("mongodb.connection-uri");
+            reactiveMetrics = new MongoMetrics("reactive");
+            reactiveClient = com.mongodb.reactivestreams.client.MongoClients
+                    .create(createMongoClientSettings(config, uri, reactiveMetrics));
+            com.mongodb.reactivestreams.client.MongoDatabase reactiveDatabase = reactiveClient
+                    .getDatabase(databaseName);
+
+            tradesAsync = new ReactiveCollectionAdapter(reactiveDatabase.getCollection("trades"));
+            playerDataAsync = new ReactiveCollectionAdapter(reactiveDatabase.getCollection("player_data"));
+            tradeItemsAsync = new ReactiveCollectionAdapter(reactiveDatabase.getCollection("trade_items"));
+            countersAsync = new ReactiveCollectionAdapter(reactiveDatabase.getCollection("counters"));
+            tradesArchiveAsync = new ReactiveCollectionAdapter(reactiveDatabase.getCollection("trades_archive"));
+            logger.info("Using reactive MongoDB driver for runtime operations");
+        } else {
+            tradesAsync = new SyncCollectionAdapter(tradesCollection, ForkJoinPool.commonPool());
+            playerDataAsync = new SyncCollectionAdapter(playerDataCollection, ForkJoinPool.commonPool());
+            tradeItemsAsync = new SyncCollectionAdapter(tradeItemsCollection, ForkJoinPool.commonPool());
+            countersAsync = new SyncCollectionAdapter(countersCollection, ForkJoinPool.commonPool());
+            tradesArchiveAsync = new SyncCollectionAdapter(tradesArchiveCollection, ForkJoinPool.commonPool());
+        }
     }
 
     /**
      * Sets up comprehensive database indexes for optimal query performance.
      * Creates both simple and compound indexes based on expected query patterns.
      * This method should be called after collection initialization.
+     * 
+     * @param config Configuration containing the index settings
      */
-    private void setupIndexes() {
+    private void setupIndexes(FileConfiguration config) {
         // Player Data Indexes - Optimized for frequent player lookups
         setupPlayerDataIndexes();
 
@@ -234,14 +539,20 @@ public class MongoDBManager {
         setupMessagesIndexes();
 
         // Trade Indexes - Optimized for trade queries and state management
-        setupTradeIndexes();
+        setupTradeIndexes(config.getBoolean("mongodb.indexes.drop-redundant", true));
+
+        // Trade Items Indexes - One document per trade side
+        setupTradeItemsIndexes();
+
+        // Trade Archive Indexes - History listings only
+        setupTradeArchiveIndexes();
     }
 
     /**
      * Creates optimized indexes for the player_data collection.
      * Indexes are designed to support common query patterns:
      * - Player UUID lookups (primary key)
-     * - Player name searches
+     * - Player name searches (exact and case-insensitive)
      * - Language-based filtering
      * - Update timestamp tracking
      */
@@ -253,6 +564,9 @@ public class MongoDBManager {
             // Index for player name searches and lookups
             createIndex(playerDataCollection, "playerName", "player_name_index");
 
+            // Index for case-insensitive name lookups on the normalized name
+            createIndex(playerDataCollection, "playerNameLower", "player_name_lower_index");
+
             // Compound index for language-based queries with player identification
             Document languageIndex = new Document()
                     .append("language", 1)
@@ -293,24 +607,25 @@ public class MongoDBManager {
     }
 
     /**
-     * Creates comprehensive indexes for the trades collection.
-     * Indexes are optimized for common trade system operations:
-     * - Trade ID lookups (primary key)
-     * - Player-based trade queries
-     * - State-based filtering
-     * - Timestamp-based sorting and cleanup
-     * - Compound queries for performance optimization
+     * Creates the indexes of the trades collection. Every index is updated on
+     * each insert and state change, so the set is limited to what the query
+     * catalogue (see QueryPlanAuditor) needs:
+     * - Trade ID lookups and the highest-ID query (unique tradeId)
+     * - Player queries, optionally filtered by state (player1/player2 compound
+     * indexes, whose prefixes also serve player-only filters)
+     * - State queries: open trades, expiry backfill and archive candidates
+     * (state + timestamp)
+     * - TTL expiry
+     * 
+     * @param dropRedundant Whether to drop indexes made redundant by this set
      */
-    private void setupTradeIndexes() {
+    private void setupTradeIndexes(boolean dropRedundant) {
         try {
-            // Simple indexes for basic queries
-            createUniqueIndex(tradesCollection, "tradeId", "trade_id_index");
-            createIndex(tradesCollection, "player1", "trade_player1_index");
-            createIndex(tradesCollection, "player2", "trade_player2_index");
-            createIndex(tradesCollection, "state", "trade_state_index");
-            createIndex(tradesCollection, "timestamp", "trade_timestamp_index", true);
+            if (dropRedundant) {
+                dropRedundantTradeIndexes();
+            }
 
-            // Compound indexes for optimized complex queries
+            createUniqueIndex(tradesCollection, "tradeId", "trade_id_index");
 
             // Index for player1 trades filtered by state, sorted by timestamp
             Document player1StateIndex = new Document()
@@ -326,22 +641,103 @@ public class MongoDBManager {
                     .append("timestamp", -1);
             createIndex(tradesCollection, player2StateIndex, "trade_player2_state_index");
 
-            // Index for active trades queries with timestamp sorting
+            // Index for state queries, with a timestamp range for archiving
             Document activeTradesIndex = new Document()
                     .append("state", 1)
                     .append("timestamp", -1);
             createIndex(tradesCollection, activeTradesIndex, "trade_active_index");
 
-            // Index for expired trade cleanup operations
-            Document expirationIndex = new Document()
-                    .append("state", 1)
-                    .append("timestamp", 1);
-            createIndex(tradesCollection, expirationIndex, "trade_expiration_index");
+            // TTL index removing trades once their expiresAt date has passed
+            createTtlIndex(tradesCollection, "trade_expires_at_ttl_index");
         } catch (Exception e) {
             logger.warning("Error setting up trade indexes: " + e.getMessage());
         }
     }
 
+    /**
+     * Drops trade indexes created by earlier versions that are prefixes or
+     * direction variants of the current ones.
+     */
+    private void dropRedundantTradeIndexes() {
+        Set<String> existing = new HashSet<>();
+        tradesCollection.listIndexes().forEach(index -> existing.add(index.getString("name")));
+        for (String indexName : REDUNDANT_TRADE_INDEXES.keySet()) {
+            if (!existing.contains(indexName)) {
+                continue;
+            }
+            try {
+                tradesCollection.dropIndex(indexName);
+                logger.info("Dropped redundant index: " + indexName);
+            } catch (Exception e) {
+                logger.warning("Error dropping index " + indexName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * @return Name of the dedicated benchmark database, or null if none is
+     *         configured (an empty name or the live database's name)
+     */
+    public String getBenchmarkDatabaseName() {
+        return benchmarkDatabaseName;
+    }
+
+    /**
+     * Measures trade insert and state update throughput on a scratch
+     * collection in the dedicated benchmark database, first with the live
+     * trades indexes and then with the redundant ones added back. The live
+     * database is only read for its index definitions. Blocks on the database.
+     * 
+     * @param tradeCount Number of trades inserted and updated per run
+     * @return Report lines
+     * @throws IllegalStateException If no benchmark database is configured
+     */
+    public List<String> benchmarkTradeIndexes(int tradeCount) {
+        if (benchmarkDatabaseName == null) {
+            throw new IllegalStateException("mongodb.benchmark.database is not set");
+        }
+        return new IndexBenchmark(mongoClient.getDatabase(benchmarkDatabaseName), tradesCollection,
+                REDUNDANT_TRADE_INDEXES).run(tradeCount);
+    }
+
+    /**
+     * Creates indexes for the trade_items collection.
+     * Each trade has at most one items document per side, looked up by
+     * (tradeId, side) or removed together by tradeId.
+     */
+    private void setupTradeItemsIndexes() {
+        try {
+            tradeItemsCollection.createIndex(
+                    new Document("tradeId", 1).append("side", 1),
+                    new IndexOptions().unique(true).name("trade_items_side_index"));
+            logger.info("Created unique index: trade_items_side_index");
+
+            // Items documents carry the expiresAt of their trade
+            createTtlIndex(tradeItemsCollection, "trade_items_expires_at_ttl_index");
+        } catch (Exception e) {
+            if (!e.getMessage().contains("already exists")) {
+                logger.warning("Error setting up trade items indexes: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Sets up indexes for the trades_archive collection. Only lookups by trade
+     * ID and per-player history pages (newest first) are served from the
+     * archive.
+     */
+    private void setupTradeArchiveIndexes() {
+        try {
+            createUniqueIndex(tradesArchiveCollection, "tradeId", "archive_trade_id_index");
+            createIndex(tradesArchiveCollection, new Document("player1", 1).append("tradeId", -1),
+                    "archive_player1_index");
+            createIndex(tradesArchiveCollection, new Document("player2", 1).append("tradeId", -1),
+                    "archive_player2_index");
+        } catch (Exception e) {
+            logger.warning("Error setting up trade archive indexes: " + e.getMessage());
+        }
+    }
+
     /**
      * Creates a simple ascending index on the specified field.
      * 
@@ -384,6 +780,28 @@ public class MongoDBManager {
         }
     }
 
+    /**
+     * Creates a partial TTL index on expiresAt. MongoDB's background monitor
+     * deletes a document once its expiresAt date has passed; documents whose
+     * expiresAt is unset or not a date are not indexed and never expire.
+     * 
+     * @param collection The collection to index
+     * @param indexName  Name for the index
+     */
+    private void createTtlIndex(MongoCollection<Document> collection, String indexName) {
+        try {
+            collection.createIndex(new Document("expiresAt", 1), new IndexOptions()
+                    .name(indexName)
+                    .expireAfter(0L, TimeUnit.SECONDS)
+                    .partialFilterExpression(new Document("expiresAt", new Document("$type", "date"))));
+            logger.info("Created TTL index: " + indexName);
+        } catch (Exception e) {
+            if (!e.getMessage().contains("already exists")) {
+                logger.warning("Error creating TTL index " + indexName + ": " + e.getMessage());
+            }
+        }
+    }
+
     /**
      * Creates a unique index on the specified field to enforce data integrity.
      * 
@@ -440,6 +858,26 @@ public class MongoDBManager {
      * disconnection.
      */
     public void disconnect() {
+        if (metricsExecutor != null) {
+            metricsExecutor.shutdown();
+        }
+        if (itemsMigration != null) {
+            itemsMigration.stop();
+        }
+        if (itemsReencoder != null) {
+            itemsReencoder.stop();
+        }
+        if (tradeArchiver != null) {
+            tradeArchiver.stop();
+            archiveExecutor.shutdown();
+        }
+        if (reactiveClient != null) {
+            try {
+                reactiveClient.close();
+            } catch (Exception e) {
+                logger.warning("Error closing reactive MongoDB connection: " + e.getMessage());
+            }
+        }
         if (mongoClient != null) {
             try {
                 mongoClient.close();
@@ -466,6 +904,16 @@ public class MongoDBManager {
         }
     }
 
+    /**
+     * Retrieves the command and connection pool metrics of each client.
+     * 
+     * @return MongoMetrics of the sync client, followed by those of the reactive
+     *         client when it is in use
+     */
+    public List<MongoMetrics> getMetrics() {
+        return reactiveMetrics != null ? List.of(metrics, reactiveMetrics) : List.of(metrics);
+    }
+
     /**
      * Retrieves the MongoDB database instance.
      * 
@@ -517,4 +965,93 @@ public class MongoDBManager {
         }
         return messagesCollection;
     }
+
+    /**
+     * Retrieves the trades collection typed to TradeDocument, decoded by
+     * TradeDocumentCodec without an intermediate Document.
+     * 
+     * @return MongoCollection of TradeDocument
+     * @throws IllegalStateException if the collection is not initialized
+     */
+    public MongoCollection<TradeDocument> getTradeDocumentsCollection() {
+        return getTradesCollection().withDocumentClass(TradeDocument.class);
+    }
+
+    /**
+     * Retrieves the future-based view of the trades collection.
+     * 
+     * @return AsyncCollection for trades data
+     * @throws IllegalStateException if the collection is not initialized
+     */
+    public AsyncCollection getTradesAsync() {
+        if (tradesAsync == null) {
+            throw new IllegalStateException("Trades collection not initialized");
+        }
+        return tradesAsync;
+    }
+
+    /**
+     * Retrieves the future-based view of the player data collection.
+     * 
+     * @return AsyncCollection for player data
+     * @throws IllegalStateException if the collection is not initialized
+     */
+    public AsyncCollection getPlayerDataAsync() {
+        if (playerDataAsync == null) {
+            throw new IllegalStateException("Player data collection not initialized");
+        }
+        return playerDataAsync;
+    }
+
+    /**
+     * Retrieves the trade items collection for item payload operations.
+     * 
+     * @return MongoCollection for trade item lists
+     * @throws IllegalStateException if the collection is not initialized
+     */
+    public MongoCollection<Document> getTradeItemsCollection() {
+        if (tradeItemsCollection == null) {
+            throw new IllegalStateException("Trade items collection not initialized");
+        }
+        return tradeItemsCollection;
+    }
+
+    /**
+     * Retrieves the future-based view of the trade items collection.
+     * 
+     * @return AsyncCollection for trade item lists
+     * @throws IllegalStateException if the collection is not initialized
+     */
+    public AsyncCollection getTradeItemsAsync() {
+        if (tradeItemsAsync == null) {
+            throw new IllegalStateException("Trade items collection not initialized");
+        }
+        return tradeItemsAsync;
+    }
+
+    /**
+     * Retrieves the future-based view of the counters collection.
+     * 
+     * @return AsyncCollection for sequence counters
+     * @throws IllegalStateException if the collection is not initialized
+     */
+    public AsyncCollection getCountersAsync() {
+        if (countersAsync == null) {
+            throw new IllegalStateException("Counters collection not initialized");
+        }
+        return countersAsync;
+    }
+
+    /**
+     * Retrieves the future-based view of the trades_archive collection.
+     * 
+     * @return AsyncCollection for archived trades
+     * @throws IllegalStateException if the collection is not initialized
+     */
+    public AsyncCollection getTradesArchiveAsync() {
+        if (tradesArchiveAsync == null) {
+            throw new IllegalStateException("Trades archive collection not initialized");
+        }
+        return tradesArchiveAsync;
+    }
 }
\ No newline at end of file
@@ -0,0 +1,289 @@
+package com.prismamc.trade.manager;
+
+import com.prismamc.trade.manager.TradeManager.TradeNotificationData;
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeSummary;
+import com.prismamc.trade.utils.LongHashSet;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+/**
+ * OpenTradeIndex - Open trades by player and state
+ *
+ * Keeps every pending and active trade in memory, indexed by player and
+ * state, so join notifications and the open trades of a player need no
+ * database query. TradeManager updates the index on every trade it creates,
+ * transitions or deletes. The index is rebuilt from the repository's open
+ * trades (one query) at startup and periodically. The periodic rebuild picks
+ * up transitions made by other servers sharing the database, so with several
+ * servers the index may lag by up to one resync interval. It only serves
+ * listings and notifications; checks that decide whether a trade may be
+ * created still query the database.
+ *
+ * Key Features:
+ * - Tracks every open trade (ID, players, state, expiresAt), so a transition
+ * only needs the trade ID
+ * - Per player, one LongHashSet of trade IDs per open state
+ * - Trades past their expiresAt are ignored by every read, as the database's
+ * TTL removes them, and dropped by the next rebuild
+ * - Players without open trades take no memory
+ * - Changes made while a rebuild query is in flight are replayed on top of
+ * its result, so they are not lost
+ *
+ * All methods synchronize on this; each touches a handful of entries (reads
+ * are bounded by the open trades of one player).
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class OpenTradeIndex {
+
+    private final Map<Long, OpenTrade> openTrades;
+    private final Map<UUID, PlayerTrades> players;
+
+    // Changes recorded since beginRebuild, or null when no rebuild is running
+    private List<Consumer<OpenTradeIndex>> changesDuringRebuild;
+
+    private static final class OpenTrade {
+        private final UUID player1;
+        private final UUID player2;
+        private TradeState state;
+        private Date expiresAt;
+
+        private OpenTrade(UUID player1, UUID player2, TradeState state, Date expiresAt) {
+            this.player1 = player1;
+            this.player2 = player2;
+            this.state = state;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired(long now) {
+            return expiresAt != null && expiresAt.getTime() <= now;
+        }
+    }
+
+    private static final class PlayerTrades {
+        private final LongHashSet pending = new LongHashSet();
+        private final LongHashSet active = new LongHashSet();
+
+        private LongHashSet of(TradeState state) {
+            return state == TradeState.PENDING ? pending : active;
+        }
+    }
+
+    public OpenTradeIndex() {
+        this.openTrades = new HashMap<>();
+        this.players = new HashMap<>();
+    }
+
+    /**
+     * Records the state of a trade whose players are known, adding or
+     * removing it as needed.
+     *
+     * @param tradeId   The ID of the trade
+     * @param player1   First player
+     * @param player2   Second player
+     * @param state     Current state of the trade
+     * @param expiresAt Time the database removes the trade, or null
+     */
+    public synchronized void track(long tradeId, UUID player1, UUID player2, TradeState state, Date expiresAt) {
+        record(index -> index.track(tradeId, player1, player2, state, expiresAt));
+        OpenTrade trade = openTrades.get(tradeId);
+        if (trade == null) {
+            if (isOpen(state)) {
+                trade = new OpenTrade(player1, player2, state, expiresAt);
+                openTrades.put(tradeId, trade);
+                link(tradeId, trade);
+            }
+            return;
+        }
+        applyState(tradeId, trade, state, expiresAt);
+    }
+
+    /**
+     * Records a state transition of a tracked trade. Trades not tracked here
+     * (created elsewhere since the last rebuild) are picked up by the next
+     * rebuild.
+     *
+     * @param tradeId   The ID of the trade
+     * @param state     New state
+     * @param expiresAt New expiry, or null
+     */
+    public synchronized void updateState(long tradeId, TradeState state, Date expiresAt) {
+        record(index -> index.updateState(tradeId, state, expiresAt));
+        OpenTrade trade = openTrades.get(tradeId);
+        if (trade != null) {
+            applyState(tradeId, trade, state, expiresAt);
+        }
+    }
+
+    /**
+     * Forgets a deleted trade.
+     *
+     * @param tradeId The ID of the trade
+     */
+    public synchronized void remove(long tradeId) {
+        record(index -> index.remove(tradeId));
+        OpenTrade trade = openTrades.remove(tradeId);
+        if (trade != null) {
+            unlink(tradeId, trade);
+        }
+    }
+
+    /**
+     * Starts recording changes, to be replayed by the next rebuild. Call it
+     * before querying the open trades.
+     */
+    public synchronized void beginRebuild() {
+        changesDuringRebuild = new ArrayList<>();
+    }
+
+    /**
+     * Replaces the index with the given open trades, then replays the changes
+     * recorded since beginRebuild.
+     *
+     * @param trades Every pending or active trade in storage
+     */
+    public synchronized void rebuild(List<TradeSummary> trades) {
+        List<Consumer<OpenTradeIndex>> changes = changesDuringRebuild;
+        changesDuringRebuild = null;
+        openTrades.clear();
+        players.clear();
+        long now = System.currentTimeMillis();
+        trades.forEach(trade -> {
+            if (trade.getExpiresAt() == null || trade.getExpiresAt().getTime() > now) {
+                track(trade.getTradeId(), trade.getPlayer1(), trade.getPlayer2(), trade.getState(),
+                        trade.getExpiresAt());
+            }
+        });
+        if (changes != null) {
+            changes.forEach(change -> change.accept(this));
+        }
+    }
+
+    /**
+     * Stops recording changes after a failed rebuild query.
+     */
+    public synchronized void abortRebuild() {
+        changesDuringRebuild = null;
+    }
+
+    /**
+     * @param playerUUID The player
+     * @return The player's pending and active trade counts
+     */
+    public synchronized TradeNotificationData get(UUID playerUUID) {
+        PlayerTrades trades = players.get(playerUUID);
+        if (trades == null) {
+            return new TradeNotificationData(0, 0);
+        }
+        long now = System.currentTimeMillis();
+        return new TradeNotificationData(countLive(trades.pending, now), countLive(trades.active, now));
+    }
+
+    /**
+     * @param playerUUID The player
+     * @param state      PENDING or ACTIVE
+     * @return IDs of the player's trades in that state, in ascending order
+     */
+    public synchronized List<Long> getTradeIds(UUID playerUUID, TradeState state) {
+        List<Long> tradeIds = new ArrayList<>();
+        PlayerTrades trades = players.get(playerUUID);
+        if (trades != null && isOpen(state)) {
+            addLive(trades.of(state), System.currentTimeMillis(), tradeIds);
+            tradeIds.sort(null);
+        }
+        return tradeIds;
+    }
+
+    /**
+     * @param playerUUID The player
+     * @return IDs of the player's pending and active trades, in ascending order
+     */
+    public synchronized List<Long> getOpenTradeIds(UUID playerUUID) {
+        List<Long> tradeIds = new ArrayList<>();
+        PlayerTrades trades = players.get(playerUUID);
+        if (trades != null) {
+            long now = System.currentTimeMillis();
+            addLive(trades.pending, now, tradeIds);
+            addLive(trades.active, now, tradeIds);
+            tradeIds.sort(null);
+        }
+        return tradeIds;
+    }
+
+    /**
+     * @return Number of open trades tracked
+     */
+    public synchronized int size() {
+        return openTrades.size();
+    }
+
+    private void applyState(long tradeId, OpenTrade trade, TradeState state, Date expiresAt) {
+        trade.expiresAt = expiresAt;
+        if (trade.state == state) {
+            return;
+        }
+        unlink(tradeId, trade);
+        if (isOpen(state)) {
+            trade.state = state;
+            link(tradeId, trade);
+        } else {
+            openTrades.remove(tradeId);
+        }
+    }
+
+    private void record(Consumer<OpenTradeIndex> change) {
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(change);
+        }
+    }
+
+    private void link(long tradeId, OpenTrade trade) {
+        players.computeIfAbsent(trade.player1, uuid -> new PlayerTrades()).of(trade.state).add(tradeId);
+        players.computeIfAbsent(trade.player2, uuid -> new PlayerTrades()).of(trade.state).add(tradeId);
+    }
+
+    private void unlink(long tradeId, OpenTrade trade) {
+        unlink(trade.player1, trade.state, tradeId);
+        unlink(trade.player2, trade.state, tradeId);
+    }
+
+    private void unlink(UUID playerUUID, TradeState state, long tradeId) {
+        PlayerTrades trades = players.get(playerUUID);
+        if (trades != null) {
+            trades.of(state).remove(tradeId);
+            if (trades.pending.isEmpty() && trades.active.isEmpty()) {
+                players.remove(playerUUID);
+            }
+        }
+    }
+
+    private int countLive(LongHashSet tradeIds, long now) {
+        int count = 0;
+        for (long tradeId : tradeIds.toArray()) {
+            if (!openTrades.get(tradeId).isExpired(now)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private void addLive(LongHashSet tradeIds, long now, List<Long> out) {
+        for (long tradeId : tradeIds.toArray()) {
+            if (!openTrades.get(tradeId).isExpired(now)) {
+                out.add(tradeId);
+            }
+        }
+    }
+
+    private static boolean isOpen(TradeState state) {
+        return state == TradeState.PENDING || state == TradeState.ACTIVE;
+    }
+}
@@ -1,19 +1,19 @@
 package com.prismamc.trade.manager;
 
-import com.mongodb.client.MongoCollection;
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.ReplaceOptions;
 import com.prismamc.trade.Plugin;
 import com.prismamc.trade.model.PlayerData;
-import org.bson.Document;
+import com.prismamc.trade.repository.PlayerDataRepository;
+import com.prismamc.trade.utils.NegativeCache;
 import org.bukkit.entity.Player;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * PlayerDataManager - Player Data Management and Persistence System
@@ -27,7 +27,7 @@ import java.util.concurrent.CompletableFuture;
  * Key Features:
  * - High-performance in-memory caching for frequently accessed player data
  * - Asynchronous database operations to prevent server blocking
- * - Optimized MongoDB queries using strategic database indexes
+ * - Storage through the PlayerDataRepository selected by storage.type
  * - Automatic player data creation for new players
  * - Language preference management and localization support
  * - Advanced player search capabilities (name-based, language-based)
@@ -35,7 +35,11 @@ import java.util.concurrent.CompletableFuture;
  * 
  * Data Management:
  * - Player UUID as primary identifier
- * - Player name tracking with case-insensitive search
+ * - Player name tracking with case-insensitive search, kept up to date when
+ * a player joins under a new name
+ * - Lowercase name to UUID map of every player seen this session
+ * - Names recently searched in vain are answered without a query until they
+ * expire or a player with that name joins
  * - Language preference storage for localization
  * - Automatic cache synchronization with database
  * 
@@ -47,21 +51,31 @@ public class PlayerDataManager {
 
     // Core dependencies
     private final Plugin plugin;
-    private final MongoCollection<Document> collection;
+    private final PlayerDataRepository repository;
 
     // In-memory cache for fast player data access
     private final Map<UUID, PlayerData> cache;
 
+    // Lowercase player name -> UUID, filled as players join and are looked up
+    private final Map<String, UUID> nameIndex;
+
+    // Lowercase names whose case-insensitive search recently found nothing
+    private final NegativeCache<String> missingNames;
+
     /**
      * Constructs a new PlayerDataManager instance.
-     * Initializes the MongoDB collection reference and player data cache.
+     * Initializes the player data repository reference and cache.
      * 
      * @param plugin The main plugin instance providing database access
      */
     public PlayerDataManager(Plugin plugin) {
         this.plugin = plugin;
-        this.collection = plugin.getMongoDBManager().getPlayerDataCollection();
+        this.repository = plugin.getStorageManager().getPlayerDataRepository();
         this.cache = new HashMap<>();
+        this.nameIndex = new ConcurrentHashMap<>();
+        this.missingNames = new NegativeCache<>(TimeUnit.SECONDS.toMillis(
+                plugin.getConfigFile().getConfig().getLong("lookup.negative-ttl-seconds", 30L)),
+                plugin.getConfigFile().getConfig().getInt("lookup.negative-max-entries", 10000));
     }
 
     /**
@@ -72,45 +86,44 @@ public class PlayerDataManager {
      * 3. Creates new player data if not found in database
      * 4. Caches the result for future access
      * 
-     * Uses database index hints for optimized query performance.
+     * On MongoDB the lookup is an equality match on the unique UUID index.
      * 
      * @param player The player whose data should be loaded
      * @return CompletableFuture containing the player's data
      */
     public CompletableFuture<PlayerData> loadPlayerData(Player player) {
-        return CompletableFuture.supplyAsync(() -> {
-            UUID uuid = player.getUniqueId();
-
-            // Check cache first for immediate response
-            if (cache.containsKey(uuid)) {
-                return cache.get(uuid);
-            }
+        UUID uuid = player.getUniqueId();
 
-            // Load from database using optimized UUID index
-            Document hint = new Document("uuid", 1);
-            Document doc = collection.find(Filters.eq("uuid", uuid.toString()))
-                    .hint(hint)
-                    .first();
+        // Check cache first for immediate response
+        PlayerData cached = cache.get(uuid);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
 
-            PlayerData playerData;
-            if (doc == null) {
+        // Load from storage using the UUID index
+        return repository.findByUuid(uuid).thenApply(stored -> {
+            PlayerData playerData = stored;
+            if (playerData == null) {
                 // Create new player data with default values for first-time players
                 playerData = new PlayerData(uuid, player.getName(), "en"); // Default language: English
                 savePlayerData(playerData);
-            } else {
-                // Convert database document to PlayerData object
-                playerData = documentToPlayerData(doc);
+            } else if (!player.getName().equals(playerData.getPlayerName())) {
+                // Name changed since the last session: keep name lookups current
+                nameIndex.remove(normalizeName(playerData.getPlayerName()), uuid);
+                playerData.setPlayerName(player.getName());
+                savePlayerData(playerData);
             }
 
             // Cache the data for subsequent fast access
             cache.put(uuid, playerData);
+            indexName(playerData);
             return playerData;
         });
     }
 
     /**
      * Saves player data to the database and updates the cache.
-     * Uses MongoDB's upsert functionality to insert or update as needed.
+     * The repository inserts or replaces the stored data as needed.
      * This operation is performed asynchronously to prevent blocking the main
      * thread.
      * 
@@ -118,22 +131,13 @@ public class PlayerDataManager {
      * @return CompletableFuture that completes when the save operation finishes
      */
     public CompletableFuture<Void> savePlayerData(PlayerData playerData) {
-        return CompletableFuture.runAsync(() -> {
-            // Create MongoDB document from player data
-            Document doc = new Document()
-                    .append("uuid", playerData.getUuid().toString())
-                    .append("playerName", playerData.getPlayerName())
-                    .append("language", playerData.getLanguage());
-
-            // Use upsert to insert new or update existing document
-            collection.replaceOne(
-                    Filters.eq("uuid", playerData.getUuid().toString()),
-                    doc,
-                    new ReplaceOptions().upsert(true));
-
-            // Update cache to maintain consistency
-            cache.put(playerData.getUuid(), playerData);
-        });
+        // Insert new or replace existing data
+        return repository.save(playerData)
+                // Update cache to maintain consistency
+                .thenRun(() -> {
+                    cache.put(playerData.getUuid(), playerData);
+                    indexName(playerData);
+                });
     }
 
     /**
@@ -148,21 +152,6 @@ public class PlayerDataManager {
         return CompletableFuture.runAsync(() -> cache.remove(uuid));
     }
 
-    /**
-     * Converts a MongoDB document to a PlayerData object.
-     * This method handles the data transformation from database format
-     * to application objects.
-     * 
-     * @param doc MongoDB document containing player data
-     * @return PlayerData object created from the document
-     */
-    private PlayerData documentToPlayerData(Document doc) {
-        return new PlayerData(
-                UUID.fromString(doc.getString("uuid")),
-                doc.getString("playerName"),
-                doc.getString("language"));
-    }
-
     /**
      * Retrieves player data from the cache without database access.
      * This method provides immediate access to cached player data.
@@ -194,7 +183,7 @@ public class PlayerDataManager {
 
     /**
      * Searches for players by their language preference.
-     * Uses the optimized compound index (language + uuid) for efficient queries.
+     * Served by the compound index (language + uuid).
      * Results are cached to improve performance for subsequent access.
      * 
      * This method is useful for:
@@ -207,22 +196,9 @@ public class PlayerDataManager {
      *         language
      */
     public CompletableFuture<List<PlayerData>> findPlayersByLanguage(String language) {
-        return CompletableFuture.supplyAsync(() -> {
-            List<PlayerData> players = new ArrayList<>();
-
-            // Use compound index hint for optimized query performance
-            Document hint = new Document("language", 1).append("uuid", 1);
-
-            collection.find(Filters.eq("language", language))
-                    .hint(hint)
-                    .forEach(doc -> {
-                        PlayerData playerData = documentToPlayerData(doc);
-                        players.add(playerData);
-
-                        // Update cache if player is not already cached
-                        cache.putIfAbsent(playerData.getUuid(), playerData);
-                    });
-
+        return repository.findByLanguage(language).thenApply(players -> {
+            // Update cache if player is not already cached
+            players.forEach(playerData -> cache.putIfAbsent(playerData.getUuid(), playerData));
             return players;
         });
     }
@@ -238,18 +214,12 @@ public class PlayerDataManager {
      * @return CompletableFuture containing the PlayerData if found, null otherwise
      */
     public CompletableFuture<PlayerData> findPlayerByName(String playerName) {
-        return CompletableFuture.supplyAsync(() -> {
-            // Use player name index hint for optimized query
-            Document hint = new Document("playerName", 1);
-            Document doc = collection.find(Filters.eq("playerName", playerName))
-                    .hint(hint)
-                    .first();
-
-            if (doc != null) {
-                PlayerData playerData = documentToPlayerData(doc);
-
+        // Equality match served by the player name index
+        return repository.findByName(playerName).thenApply(playerData -> {
+            if (playerData != null) {
                 // Cache the result for future access
                 cache.putIfAbsent(playerData.getUuid(), playerData);
+                indexName(playerData);
                 return playerData;
             }
 
@@ -259,9 +229,10 @@ public class PlayerDataManager {
 
     /**
      * Searches for a player by their name with case-insensitive matching.
-     * Uses MongoDB regex functionality to perform flexible name searches.
-     * This method is more resource-intensive than exact name matching but
-     * provides better user experience for administrative commands.
+     * Players seen this session are resolved through the in-memory name map
+     * (cache hit or UUID lookup); other names are matched on the stored
+     * lowercase name, which MongoDB serves from player_name_lower_index.
+     * Names that recently matched nobody are answered from memory.
      * 
      * Results are cached to improve performance for subsequent access.
      * 
@@ -274,23 +245,55 @@ public class PlayerDataManager {
      * @return CompletableFuture containing the PlayerData if found, null otherwise
      */
     public CompletableFuture<PlayerData> findPlayerByNameIgnoreCase(String playerName) {
-        return CompletableFuture.supplyAsync(() -> {
-            // Use regex for case-insensitive search with exact word matching
-            Document filter = new Document("playerName",
-                    new Document("$regex", "^" + java.util.regex.Pattern.quote(playerName) + "$")
-                            .append("$options", "i"));
-
-            Document doc = collection.find(filter).first();
-
-            if (doc != null) {
-                PlayerData playerData = documentToPlayerData(doc);
+        if (missingNames.contains(normalizeName(playerName))) {
+            return CompletableFuture.completedFuture(null);
+        }
+        UUID known = nameIndex.get(normalizeName(playerName));
+        if (known != null) {
+            PlayerData cached = cache.get(known);
+            if (cached != null && cached.getPlayerName().equalsIgnoreCase(playerName)) {
+                return CompletableFuture.completedFuture(cached);
+            }
+            return repository.findByUuid(known).thenCompose(playerData -> {
+                if (playerData != null && playerData.getPlayerName().equalsIgnoreCase(playerName)) {
+                    cache.putIfAbsent(playerData.getUuid(), playerData);
+                    return CompletableFuture.completedFuture(playerData);
+                }
+                // The name now belongs to someone else
+                nameIndex.remove(normalizeName(playerName), known);
+                return searchByNameIgnoreCase(playerName);
+            });
+        }
+        return searchByNameIgnoreCase(playerName);
+    }
 
+    private CompletableFuture<PlayerData> searchByNameIgnoreCase(String playerName) {
+        long stamp = missingNames.stamp();
+        return repository.findByNameIgnoreCase(playerName).thenApply(playerData -> {
+            if (playerData != null) {
                 // Cache the result for future access
                 cache.putIfAbsent(playerData.getUuid(), playerData);
+                indexName(playerData);
                 return playerData;
             }
 
+            missingNames.add(normalizeName(playerName), stamp);
             return null;
         });
     }
+
+    // Also runs when a player joins for the first time or under a new name,
+    // which makes the name findable again
+    private void indexName(PlayerData playerData) {
+        if (playerData.getPlayerName() != null) {
+            String name = normalizeName(playerData.getPlayerName());
+            nameIndex.put(name, playerData.getUuid());
+            missingNames.invalidate(name);
+        }
+    }
+
+    // Same normalization as the stored lowercase name
+    private static String normalizeName(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
 }
\ No newline at end of file
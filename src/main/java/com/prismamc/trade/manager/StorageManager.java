@@ -0,0 +1,175 @@
+package com.prismamc.trade.manager;
+
+import com.prismamc.trade.Plugin;
+import com.prismamc.trade.repository.EmbeddedStorage;
+import com.prismamc.trade.repository.InMemoryMessageRepository;
+import com.prismamc.trade.repository.InMemoryPlayerDataRepository;
+import com.prismamc.trade.repository.InMemoryTradeRepository;
+import com.prismamc.trade.repository.LogTradeRepository;
+import com.prismamc.trade.repository.MessageRepository;
+import com.prismamc.trade.repository.MongoMessageRepository;
+import com.prismamc.trade.repository.MongoPlayerDataRepository;
+import com.prismamc.trade.repository.MongoTradeRepository;
+import com.prismamc.trade.repository.PlayerDataRepository;
+import com.prismamc.trade.repository.TradeRepository;
+import org.bukkit.configuration.file.FileConfiguration;
+import java.io.File;
+import java.io.IOException;
+import java.util.Locale;
+
+/**
+ * StorageManager - Storage backend selection
+ *
+ * This class creates the repositories the managers persist through, according
+ * to storage.type in config.yml, and closes them when the plugin is disabled.
+ *
+ * Key Features:
+ * - mongodb: MongoDB collections (requires a connected MongoDBManager)
+ * - embedded: in-memory repositories saved to files in the plugin folder, for
+ * small servers without MongoDB
+ * - segment-log: trades in a memory-mapped append-only log, replayed on
+ * startup; player data and messages saved like embedded
+ * - memory: in-memory repositories only, nothing survives a restart; meant
+ * for load tests without database latency
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class StorageManager {
+
+    /**
+     * Storage backends selectable with storage.type.
+     */
+    public enum StorageType {
+        /** MongoDB collections */
+        MONGODB,
+        /** In-memory repositories saved to the plugin folder */
+        EMBEDDED,
+        /** Append-only trade log on memory-mapped files */
+        SEGMENT_LOG,
+        /** In-memory repositories, not persisted */
+        MEMORY;
+
+        /**
+         * Reads the storage type from the configuration.
+         *
+         * @param config Plugin configuration
+         * @return The configured storage type (MONGODB when unset)
+         * @throws IllegalArgumentException if the value is not a known type
+         */
+        public static StorageType fromConfig(FileConfiguration config) {
+            String type = config.getString("storage.type", "mongodb");
+            try {
+                return valueOf(type.trim().replace('-', '_').toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown storage.type '" + type
+                        + "' (expected mongodb, embedded, segment-log or memory)", e);
+            }
+        }
+    }
+
+    private final StorageType type;
+    private final TradeRepository tradeRepository;
+    private final PlayerDataRepository playerDataRepository;
+    private final MessageRepository messageRepository;
+
+    // File persistence for the embedded and segment-log backends (null otherwise)
+    private final EmbeddedStorage embeddedStorage;
+
+    /**
+     * Constructs the repositories of the given backend. For MONGODB the
+     * plugin's MongoDBManager must already be connected.
+     *
+     * @param plugin The main plugin instance
+     * @param type   The storage backend to use
+     */
+    public StorageManager(Plugin plugin, StorageType type) {
+        FileConfiguration config = plugin.getConfigFile().getConfig();
+        this.type = type;
+
+        switch (type) {
+            case MONGODB -> {
+                MongoDBManager mongoDBManager = plugin.getMongoDBManager();
+                this.embeddedStorage = null;
+                this.tradeRepository = new MongoTradeRepository(mongoDBManager, config, plugin.getLogger());
+                this.playerDataRepository = new MongoPlayerDataRepository(mongoDBManager.getPlayerDataAsync());
+                this.messageRepository = new MongoMessageRepository(mongoDBManager.getMessagesCollection());
+            }
+            case EMBEDDED -> {
+                this.embeddedStorage = createEmbeddedStorage(plugin, config);
+                this.tradeRepository = embeddedStorage.register("trades",
+                        new InMemoryTradeRepository(plugin.getLogger()));
+                this.playerDataRepository = embeddedStorage.register("player_data",
+                        new InMemoryPlayerDataRepository());
+                this.messageRepository = embeddedStorage.register("messages", new InMemoryMessageRepository());
+            }
+            case SEGMENT_LOG -> {
+                this.embeddedStorage = createEmbeddedStorage(plugin, config);
+                this.tradeRepository = createLogRepository(plugin, config);
+                this.playerDataRepository = embeddedStorage.register("player_data",
+                        new InMemoryPlayerDataRepository());
+                this.messageRepository = embeddedStorage.register("messages", new InMemoryMessageRepository());
+            }
+            default -> {
+                this.embeddedStorage = null;
+                this.tradeRepository = new InMemoryTradeRepository(plugin.getLogger());
+                this.playerDataRepository = new InMemoryPlayerDataRepository();
+                this.messageRepository = new InMemoryMessageRepository();
+            }
+        }
+    }
+
+    private static EmbeddedStorage createEmbeddedStorage(Plugin plugin, FileConfiguration config) {
+        return new EmbeddedStorage(
+                new File(plugin.getDataFolder(), config.getString("storage.embedded.directory", "data")),
+                config.getLong("storage.embedded.save-interval-seconds", 30L),
+                plugin.getLogger());
+    }
+
+    private static LogTradeRepository createLogRepository(Plugin plugin, FileConfiguration config) {
+        File directory = new File(plugin.getDataFolder(),
+                config.getString("storage.segment-log.directory", "trade-log"));
+        try {
+            return new LogTradeRepository(directory.toPath(),
+                    config.getInt("storage.segment-log.segment-size-mb", 16) * 1024 * 1024,
+                    config.getLong("storage.segment-log.sync-interval-ms", 1000L),
+                    config.getLong("storage.segment-log.compaction-interval-minutes", 10L),
+                    config.getDouble("storage.segment-log.compaction-threshold", 0.5),
+                    plugin.getLogger());
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not open trade log in " + directory, e);
+        }
+    }
+
+    /**
+     * Writes buffered trade updates, saves embedded data and stops background
+     * tasks. Called before MongoDB is disconnected.
+     */
+    public void close() {
+        tradeRepository.close();
+        if (embeddedStorage != null) {
+            embeddedStorage.close();
+        }
+    }
+
+    /** @return The active storage backend */
+    public StorageType getType() {
+        return type;
+    }
+
+    /** @return Repository for trades and their items */
+    public TradeRepository getTradeRepository() {
+        return tradeRepository;
+    }
+
+    /** @return Repository for player data */
+    public PlayerDataRepository getPlayerDataRepository() {
+        return playerDataRepository;
+    }
+
+    /** @return Repository for translated messages */
+    public MessageRepository getMessageRepository() {
+        return messageRepository;
+    }
+}
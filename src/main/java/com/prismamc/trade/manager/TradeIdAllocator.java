@@ -0,0 +1,134 @@
+package com.prismamc.trade.manager;
+
+import com.prismamc.trade.repository.TradeRepository;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * TradeIdAllocator - Cluster-safe hi/lo trade ID allocation
+ *
+ * This class hands out trade IDs from blocks reserved through the trade
+ * repository (the counters collection on MongoDB). Each reservation atomically
+ * advances a shared counter by the block size with a single round trip, so
+ * servers sharing the same database never receive overlapping ranges. IDs inside a block are handed out
+ * from an AtomicLong without further round trips.
+ *
+ * Key Features:
+ * - One database round trip per block of IDs
+ * - Counter seeded from the highest existing tradeId on first use, so IDs
+ * issued before the counter existed are never reused
+ * - Callers requesting an ID before the first block is reserved wait for it
+ * instead of receiving a provisional value
+ * - A single reservation in flight at a time; failed reservations are retried
+ * on the next request
+ *
+ * IDs left in a block when the server stops are skipped, never reissued.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TradeIdAllocator {
+
+    private final TradeRepository repository;
+    private final String counterName;
+    private final int blockSize;
+    private final Logger logger;
+
+    // Block IDs are currently handed out from (null until the first reservation)
+    private volatile Block current;
+
+    // Reservation in progress, guarded by this
+    private CompletableFuture<Void> reservation;
+    private boolean seeded;
+
+    /**
+     * Constructs a new TradeIdAllocator and starts reserving the first block.
+     *
+     * @param repository  Trade repository holding the counter and the trades
+     *                    whose highest ID seeds it
+     * @param counterName Name of the counter
+     * @param blockSize   Number of IDs reserved per round trip
+     * @param logger      Logger for reservation failures
+     */
+    public TradeIdAllocator(TradeRepository repository, String counterName, int blockSize, Logger logger) {
+        this.repository = repository;
+        this.counterName = counterName;
+        this.blockSize = Math.max(1, blockSize);
+        this.logger = logger;
+        reserveAfter(null);
+    }
+
+    /**
+     * Returns the next trade ID. Completes immediately while the current block
+     * has IDs left; otherwise completes once the next block is reserved.
+     *
+     * @return CompletableFuture containing a unique trade ID
+     */
+    public CompletableFuture<Long> nextId() {
+        Block block = current;
+        if (block != null) {
+            long id = block.next.getAndIncrement();
+            if (id <= block.last) {
+                return CompletableFuture.completedFuture(id);
+            }
+        }
+        return reserveAfter(block).thenCompose(v -> nextId());
+    }
+
+    /**
+     * Starts a reservation unless one is already running or another caller has
+     * already replaced the exhausted block.
+     *
+     * @param exhausted The block observed as exhausted, or null
+     * @return CompletableFuture that completes when a newer block is available
+     */
+    private synchronized CompletableFuture<Void> reserveAfter(Block exhausted) {
+        if (current != exhausted) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (reservation != null) {
+            return reservation;
+        }
+
+        CompletableFuture<Long> floor = seeded
+                ? CompletableFuture.completedFuture(0L)
+                : repository.findHighestTradeId();
+        CompletableFuture<Void> pending = floor
+                .thenCompose(value -> repository.reserveIds(counterName, value, blockSize))
+                .handle((last, error) -> {
+                    synchronized (this) {
+                        reservation = null;
+                        if (error != null) {
+                            logger.log(Level.SEVERE, "Error reserving trade ID block: {0}",
+                                    TradeManager.unwrap(error).getMessage());
+                            throw new IllegalStateException("Trade ID block could not be reserved", error);
+                        }
+                        seeded = true;
+                        current = new Block(last - blockSize + 1, last);
+                        return null;
+                    }
+                });
+
+        // The handler may already have run on this thread
+        if (!pending.isDone()) {
+            reservation = pending;
+        }
+        return pending;
+    }
+
+    /**
+     * Contiguous range of reserved IDs.
+     */
+    private static class Block {
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(long first, long last) {
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
@@ -1,25 +1,20 @@
 package com.prismamc.trade.manager;
 
-import com.mongodb.client.model.Filters;
-import com.mongodb.client.model.Updates;
-import com.mongodb.client.model.WriteModel;
-import com.mongodb.client.model.BulkWriteOptions;
-import com.mongodb.client.model.UpdateOneModel;
-import com.mongodb.bulk.BulkWriteResult;
 import com.prismamc.trade.Plugin;
 import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.model.TradeSummary;
+import com.prismamc.trade.repository.TradeRepository;
+import com.prismamc.trade.utils.NegativeCache;
 import org.bukkit.Bukkit;
+import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.entity.Player;
 import org.bukkit.inventory.ItemStack;
-import org.bson.Document;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.atomic.AtomicLong;
-import java.util.stream.Collectors;
-import com.mongodb.MongoException;
-import org.bukkit.scheduler.BukkitRunnable;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 
 /**
@@ -46,12 +41,34 @@ public class TradeManager {
 
     // Core dependencies
     private final Plugin plugin;
-    private final MongoDBManager mongoDBManager;
 
-    // Trade ID generation and caching
-    private final AtomicLong tradeIdGenerator;
+    // Trade storage selected by storage.type (MongoDB, embedded or in-memory)
+    private final TradeRepository repository;
+
+    // Trade ID allocation (hi/lo blocks shared across servers) and caching
+    private final TradeIdAllocator idAllocator;
     private final CacheManager cacheManager;
-    private final Map<UUID, List<Long>> playerTradesCache;
+
+    // Time a trade may stay in each state before the repository removes it
+    // (states without an entry never expire)
+    private final Map<TradeState, Long> expiryWindows;
+
+    // Open trades by player and state (join notifications, open trade lookups),
+    // kept current by every transition made here and resynchronized
+    // periodically
+    private final OpenTradeIndex openTradeIndex;
+    private volatile boolean indexLoaded;
+    private final ScheduledExecutorService indexExecutor;
+
+    // Trade IDs that do not exist: a Bloom filter of every stored ID (when
+    // enabled) and recent lookups that found nothing
+    private final KnownTradeIds knownTradeIds;
+    private final NegativeCache<Long> missingTrades;
+
+    // Recent answers to whether a player has archived trades, so history GUIs
+    // can show their next page button without querying the archive
+    private final NegativeCache<UUID> playersWithArchive;
+    private final NegativeCache<UUID> playersWithoutArchive;
 
     /**
      * Enumeration representing the various states a trade can be in
@@ -70,77 +87,372 @@ public class TradeManager {
 
     /**
      * Constructs a new TradeManager instance with the specified plugin.
-     * Initializes all required components including ID generator, cache manager,
-     * and starts background cleanup tasks.
+     * Initializes all required components including ID allocator and cache
+     * manager. Trades are stored through the repository selected by
+     * storage.type, which also removes expired trades, so no cleanup task is
+     * scheduled.
      * 
      * @param plugin The main plugin instance
      */
     public TradeManager(Plugin plugin) {
         this.plugin = plugin;
-        this.mongoDBManager = plugin.getMongoDBManager();
-        this.tradeIdGenerator = new AtomicLong(1);
-        this.cacheManager = new CacheManager();
-        this.playerTradesCache = new ConcurrentHashMap<>();
+        this.repository = plugin.getStorageManager().getTradeRepository();
+        this.idAllocator = createIdAllocator(plugin.getConfigFile().getConfig());
+        this.cacheManager = createCacheManager(plugin.getConfigFile().getConfig());
+        this.expiryWindows = loadExpiryWindows(plugin.getConfigFile().getConfig());
+        this.openTradeIndex = new OpenTradeIndex();
+        this.knownTradeIds = new KnownTradeIds();
+        this.missingTrades = new NegativeCache<>(TimeUnit.SECONDS.toMillis(
+                plugin.getConfigFile().getConfig().getLong("lookup.negative-ttl-seconds", 30L)),
+                plugin.getConfigFile().getConfig().getInt("lookup.negative-max-entries", 10000));
+        long archiveFlagTtl = TimeUnit.MINUTES.toMillis(
+                plugin.getConfigFile().getConfig().getLong("trades.archive.player-flag-minutes", 10L));
+        int archiveFlagEntries = plugin.getConfigFile().getConfig().getInt("lookup.negative-max-entries", 10000);
+        this.playersWithArchive = new NegativeCache<>(archiveFlagTtl, archiveFlagEntries);
+        this.playersWithoutArchive = new NegativeCache<>(archiveFlagTtl, archiveFlagEntries);
+        this.indexExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrismaMC-TradeIndex");
+            thread.setDaemon(true);
+            return thread;
+        });
 
         // Initialize systems
-        initializeIdGenerator();
-        startPeriodicCleanup();
+        backfillExpiry();
+        rebuildOpenTradeIndex();
+        startIndexResync(plugin.getConfigFile().getConfig());
+        startKnownTradeIds(plugin.getConfigFile().getConfig());
+    }
+
+    /**
+     * Creates the trade ID allocator, which starts reserving its first block of
+     * IDs immediately.
+     * 
+     * @param config Plugin configuration
+     * @return Allocator backed by the trade repository's counters
+     */
+    private TradeIdAllocator createIdAllocator(FileConfiguration config) {
+        return new TradeIdAllocator(
+                repository,
+                "tradeId",
+                config.getInt("trades.id-block-size", 100),
+                plugin.getLogger());
     }
 
     /**
-     * Initializes the trade ID generator by finding the highest existing trade ID
-     * in the database and setting the generator to the next available ID.
-     * This ensures no ID conflicts when creating new trades.
+     * Creates the trade document cache from the trades.cache section of the
+     * configuration.
+     * 
+     * @param config Plugin configuration
+     * @return Cache bounded by the configured weight
      */
-    private void initializeIdGenerator() {
-        CompletableFuture.runAsync(() -> {
+    private CacheManager createCacheManager(FileConfiguration config) {
+        CacheManager cache = new CacheManager(
+                config.getLong("trades.cache.max-weight-mb", 64L) * 1024L * 1024L,
+                TimeUnit.MINUTES.toMillis(config.getLong("trades.cache.expire-after-access-minutes", 30L)),
+                Math.max(100L, config.getLong("trades.cache.expiry-tick-ms", 1000L)));
+
+        long statsMinutes = config.getLong("trades.cache.stats-log-interval-minutes", 15L);
+        if (statsMinutes > 0) {
+            cache.startStatsLog(plugin.getLogger(), TimeUnit.MINUTES.toMillis(statsMinutes));
+        }
+        return cache;
+    }
+
+    /**
+     * Loads the expiry window of every trade state from the trades.expiry
+     * section of the configuration. A window of 0 disables expiry for that
+     * state.
+     * 
+     * @param config Plugin configuration
+     * @return Expiry windows in milliseconds keyed by state
+     */
+    private Map<TradeState, Long> loadExpiryWindows(FileConfiguration config) {
+        Map<TradeState, Long> windows = new EnumMap<>(TradeState.class);
+        for (TradeState state : TradeState.values()) {
+            long defaultHours = state == TradeState.PENDING || state == TradeState.ACTIVE ? 24L : 0L;
+            long hours = config.getLong("trades.expiry." + state.name().toLowerCase() + "-hours", defaultHours);
+            if (hours > 0) {
+                windows.put(state, hours * 3600000L);
+            }
+        }
+        return windows;
+    }
+
+    /**
+     * Computes the expiry date of a trade entering the given state.
+     * 
+     * @param state The state the trade is entering
+     * @return Expiry date, or null if trades in this state never expire
+     */
+    private Date expiryFor(TradeState state) {
+        Long window = expiryWindows.get(state);
+        return window != null ? new Date(System.currentTimeMillis() + window) : null;
+    }
+
+    /**
+     * Sets expiresAt on open trades created before expiry was tracked, counting
+     * the window from the trade's creation time.
+     */
+    private void backfillExpiry() {
+        repository.backfillExpiry(expiryWindows)
+                .thenAccept(updated -> {
+                    if (updated > 0) {
+                        plugin.getLogger().log(Level.INFO, "Set expiry on {0} existing trades", updated);
+                    }
+                })
+                .exceptionally(throwable -> {
+                    plugin.getLogger().log(Level.WARNING, "Error setting expiry on existing trades: {0}",
+                            unwrap(throwable).getMessage());
+                    return null;
+                });
+    }
+
+    /**
+     * Rebuilds the open trade index from the repository's open trades.
+     * 
+     * @return CompletableFuture that completes once the index is rebuilt
+     */
+    private CompletableFuture<Void> rebuildOpenTradeIndex() {
+        openTradeIndex.beginRebuild();
+        return repository.findOpenTrades()
+                .thenAccept(trades -> {
+                    openTradeIndex.rebuild(trades);
+                    indexLoaded = true;
+                })
+                .whenComplete((v, throwable) -> {
+                    if (throwable != null) {
+                        openTradeIndex.abortRebuild();
+                        plugin.getLogger().log(Level.WARNING, "Error loading open trade index: {0}",
+                                unwrap(throwable).getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Schedules the periodic rebuild of the open trade index, which picks up
+     * trades removed by expiry and transitions made by other servers.
+     * 
+     * @param config Plugin configuration
+     */
+    private void startIndexResync(FileConfiguration config) {
+        long minutes = config.getLong("trades.notifications.resync-minutes", 10L);
+        if (minutes <= 0) {
+            return;
+        }
+        indexExecutor.scheduleWithFixedDelay(() -> {
             try {
-                // Find the highest trade ID in the database
-                Document lastTrade = mongoDBManager.getTradesCollection()
-                        .find()
-                        .sort(new Document("tradeId", -1))
-                        .limit(1)
-                        .first();
-
-                if (lastTrade != null) {
-                    tradeIdGenerator.set(lastTrade.getLong("tradeId") + 1);
-                }
-            } catch (MongoException e) {
-                plugin.getLogger().log(Level.SEVERE, "Error initializing ID generator: {0}", e.getMessage());
+                rebuildOpenTradeIndex().join();
+            } catch (CompletionException e) {
+                // Already logged by rebuildOpenTradeIndex
             }
-        });
+        }, minutes, minutes, TimeUnit.MINUTES);
     }
 
     /**
-     * Starts a periodic cleanup task that removes expired trades from the database.
-     * Runs every hour and removes trades older than 24 hours that are still
-     * in PENDING or ACTIVE state.
+     * Rebuilds the filter of known trade IDs from the repository.
+     * 
+     * @return CompletableFuture that completes once the filter is rebuilt
      */
-    private void startPeriodicCleanup() {
-        // Clean up expired trades every hour
-        Bukkit.getScheduler().runTaskTimerAsynchronously(plugin, () -> {
+    private CompletableFuture<Void> rebuildKnownTradeIds() {
+        knownTradeIds.beginRebuild();
+        return repository.findAllTradeIds()
+                .thenAccept(knownTradeIds::rebuild)
+                .whenComplete((v, throwable) -> {
+                    if (throwable != null) {
+                        knownTradeIds.abortRebuild();
+                        plugin.getLogger().log(Level.WARNING, "Error loading known trade IDs: {0}",
+                                unwrap(throwable).getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Builds the filter of known trade IDs, if enabled, and schedules its
+     * periodic rebuild, which drops deleted trades and resizes the filter as
+     * the trade count grows.
+     * 
+     * @param config Plugin configuration
+     */
+    private void startKnownTradeIds(FileConfiguration config) {
+        if (!config.getBoolean("lookup.trade-id-filter.enabled", false)) {
+            return;
+        }
+        rebuildKnownTradeIds();
+
+        long minutes = config.getLong("lookup.trade-id-filter.rebuild-minutes", 30L);
+        if (minutes <= 0) {
+            return;
+        }
+        indexExecutor.scheduleWithFixedDelay(() -> {
             try {
-                long expiryTime = System.currentTimeMillis() - (3600000 * 24); // 24 hours ago
-                mongoDBManager.getTradesCollection().deleteMany(
-                        Filters.and(
-                                Filters.lt("timestamp", expiryTime),
-                                Filters.in("state", Arrays.asList(
-                                        TradeState.PENDING.name(),
-                                        TradeState.ACTIVE.name()))));
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.WARNING, "Error during periodic cleanup: {0}", e.getMessage());
+                rebuildKnownTradeIds().join();
+            } catch (CompletionException e) {
+                // Already logged by rebuildKnownTradeIds
             }
-        }, 20L * 3600, 20L * 3600); // Every hour (3600 seconds)
+        }, minutes, minutes, TimeUnit.MINUTES);
     }
 
     /**
      * Gracefully shuts down the TradeManager by cleaning up resources
-     * and stopping background tasks.
+     * and stopping background tasks. The repository is closed by the
+     * StorageManager.
      */
     public void shutdown() {
+        indexExecutor.shutdownNow();
         cacheManager.shutdown();
     }
 
+    /**
+     * @return The trade document cache, for its statistics
+     */
+    public CacheManager getCacheManager() {
+        return cacheManager;
+    }
+
+    /**
+     * Reads a trade through the cache. On a miss the trade is loaded with its
+     * items and cached; concurrent misses for the same trade share one query.
+     * 
+     * @param tradeId The ID of the trade
+     * @param caller  Name of the calling method, for the cache statistics
+     * @return CompletableFuture containing the trade, or null if it does not
+     *         exist
+     */
+    private CompletableFuture<TradeDocument> loadTrade(long tradeId, String caller) {
+        if (isKnownMissing(tradeId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long stamp = missingTrades.stamp();
+        return rememberMissing(tradeId, stamp, cacheManager.get(tradeId, caller, () -> repository.find(tradeId)));
+    }
+
+    /**
+     * Reads the scalar fields of a trade through the cache. On a miss a summary
+     * query skips the item lists; concurrent misses share one query.
+     * 
+     * @param tradeId The ID of the trade
+     * @param caller  Name of the calling method, for the cache statistics
+     * @return CompletableFuture containing the summary, or null if the trade does
+     *         not exist
+     */
+    private CompletableFuture<TradeSummary> loadSummary(long tradeId, String caller) {
+        if (isKnownMissing(tradeId)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        long stamp = missingTrades.stamp();
+        return rememberMissing(tradeId, stamp,
+                cacheManager.getSummary(tradeId, caller, () -> repository.findSummary(tradeId)));
+    }
+
+    /**
+     * Checks, without a query, whether a trade ID is known not to exist:
+     * absent from the filter of stored IDs, or recently looked up in vain.
+     * 
+     * @param tradeId The ID of the trade
+     * @return True if the trade certainly or recently did not exist
+     */
+    private boolean isKnownMissing(long tradeId) {
+        return !knownTradeIds.mightExist(tradeId) || missingTrades.contains(tradeId);
+    }
+
+    /**
+     * Remembers a lookup that found nothing, so repeated lookups of the same ID
+     * skip the query for a short time. Both find and findSummary fall back to
+     * the archive, so archived trades never end up here.
+     * 
+     * @param tradeId The ID of the trade
+     * @param stamp   Negative cache stamp taken before the lookup started
+     * @param lookup  The lookup
+     * @return The same result
+     */
+    private <T> CompletableFuture<T> rememberMissing(long tradeId, long stamp, CompletableFuture<T> lookup) {
+        return lookup.thenApply(result -> {
+            if (result == null) {
+                missingTrades.add(tradeId, stamp);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Retrieves the scalar fields of a trade from the cache or a summary query.
+     * 
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture containing the summary, or null if the trade does
+     *         not exist
+     */
+    private CompletableFuture<TradeSummary> resolveSummary(long tradeId) {
+        return loadSummary(tradeId, "resolveSummary");
+    }
+
+    /**
+     * Determines which side of a trade a player is on, using the cache or a
+     * summary query.
+     * 
+     * @param tradeId    The ID of the trade
+     * @param playerUUID The player to look up
+     * @return CompletableFuture containing 1 for player1, 2 otherwise, or null if
+     *         the trade does not exist
+     */
+    private CompletableFuture<Integer> resolveSide(long tradeId, UUID playerUUID) {
+        return resolveSummary(tradeId).thenApply(
+                summary -> summary == null ? null : summary.getPlayer1().equals(playerUUID) ? 1 : 2);
+    }
+
+    /**
+     * Caches a trade side's new item list if the trade is cached, otherwise
+     * drops any load of the trade still in progress. The cached trade is shared
+     * with readers, so the change is made on a copy that then replaces it.
+     * 
+     * @param tradeId The ID of the trade
+     * @param side    1 for player1, 2 for player2
+     * @param items   The side's items
+     */
+    private void updateCachedItems(long tradeId, int side, List<ItemStack> items) {
+        TradeDocument cached = cacheManager.get(tradeId, "updateCachedItems");
+        if (cached != null) {
+            TradeDocument updated = cached.copy();
+            if (side == 1) {
+                updated.setPlayer1Items(items);
+            } else {
+                updated.setPlayer2Items(items);
+            }
+            cacheManager.put(tradeId, updated);
+        } else {
+            cacheManager.remove(tradeId);
+        }
+    }
+
+    /**
+     * Sets the per-player field that belongs to the given player without reading
+     * the trade first. When the trade is cached the side is known locally and the
+     * value goes through updateFields; otherwise the repository picks the field
+     * by comparing player1 with the player.
+     * 
+     * @param tradeId      The ID of the trade
+     * @param playerUUID   The player the field belongs to
+     * @param player1Field Field used when the player is player1
+     * @param player2Field Field used otherwise
+     * @param value        Value to set
+     * @return CompletableFuture containing the cached trade (not yet modified), or
+     *         null on a cache miss
+     */
+    private CompletableFuture<TradeDocument> setPlayerField(long tradeId, UUID playerUUID, String player1Field,
+            String player2Field, Object value) {
+        TradeDocument cached = cacheManager.get(tradeId, "setPlayerField");
+        if (cached != null) {
+            String field = cached.getPlayer1().equals(playerUUID) ? player1Field : player2Field;
+            return repository.updateFields(tradeId, Map.of(field, value)).thenApply(v -> cached);
+        }
+
+        // A load that started before the write must not cache the old value
+        return repository.updatePlayerField(tradeId, playerUUID, player1Field, player2Field, value)
+                .thenApply(v -> {
+                    cacheManager.remove(tradeId);
+                    return null;
+                });
+    }
+
     /**
      * Creates a new trade between two players and stores it in the database.
      * The trade is initialized with PENDING state and empty item lists.
@@ -150,28 +462,26 @@ public class TradeManager {
      * @return CompletableFuture containing the generated trade ID
      */
     public CompletableFuture<Long> createNewTrade(UUID player1, UUID player2) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Generate unique trade ID
-                long tradeId = tradeIdGenerator.getAndIncrement();
-                TradeDocument tradeDoc = new TradeDocument(tradeId, player1, player2);
-
-                // Store in database
-                mongoDBManager.getTradesCollection().insertOne(tradeDoc.toDocument());
-
-                // Cache the new trade
+        // Take a unique trade ID from the reserved block (waits for the first
+        // block after startup)
+        return logFailure(idAllocator.nextId().thenCompose(tradeId -> {
+            TradeDocument tradeDoc = new TradeDocument(tradeId, player1, player2);
+            tradeDoc.setExpiresAt(expiryFor(TradeState.PENDING));
+
+            // Known before it is stored, so the filter never rejects it
+            knownTradeIds.add(tradeId);
+
+            // Store in database
+            return repository.insert(tradeDoc).thenApply(v -> {
+                // Cache the new trade; lookups that missed it before the insert
+                // are forgotten
+                missingTrades.invalidate(tradeId);
                 cacheManager.put(tradeId, tradeDoc);
-
-                // Update player trades cache for quick lookups
-                playerTradesCache.computeIfAbsent(player1, k -> new ArrayList<>()).add(tradeId);
-                playerTradesCache.computeIfAbsent(player2, k -> new ArrayList<>()).add(tradeId);
+                openTradeIndex.track(tradeId, player1, player2, TradeState.PENDING, tradeDoc.getExpiresAt());
 
                 return tradeId;
-            } catch (Exception e) {
-                logError("Error creating new trade", e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+            });
+        }), "Error creating new trade");
     }
 
     /**
@@ -182,24 +492,30 @@ public class TradeManager {
      * @return CompletableFuture that completes when the update is finished
      */
     public CompletableFuture<Void> updateTradeState(long tradeId, TradeState newState) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                // Update in database
-                mongoDBManager.getTradesCollection().updateOne(
-                        Filters.eq("tradeId", tradeId),
-                        Updates.set("state", newState.name()));
-
-                // Update cache if present
-                TradeDocument cached = cacheManager.get(tradeId);
-                if (cached != null) {
-                    cached.setState(newState);
-                    cacheManager.put(tradeId, cached);
-                }
-            } catch (Exception e) {
-                logError("Error updating trade state", e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+        // Entering a state restarts the expiry window (null when the state never
+        // expires)
+        Date expiresAt = expiryFor(newState);
+
+        // Update in database; the trade's items share its expiry
+        CompletableFuture<Void> future = repository.updateState(tradeId, newState, expiresAt)
+                .thenRun(() -> {
+                    // Update cache if present
+                    TradeDocument cached = cacheManager.get(tradeId, "updateTradeState");
+                    if (cached != null) {
+                        // Copy-on-write; readers may hold the cached instance
+                        TradeDocument updated = cached.copy();
+                        updated.setState(newState);
+                        updated.setExpiresAt(expiresAt);
+                        cacheManager.put(tradeId, updated);
+                        openTradeIndex.track(tradeId, cached.getPlayer1(), cached.getPlayer2(), newState,
+                                expiresAt);
+                    } else {
+                        // Drop any load that read the previous state
+                        cacheManager.remove(tradeId);
+                        openTradeIndex.updateState(tradeId, newState, expiresAt);
+                    }
+                });
+        return logFailure(future, "Error updating trade state");
     }
 
     /**
@@ -210,33 +526,9 @@ public class TradeManager {
      * @return CompletableFuture containing true if the trade is valid
      */
     public CompletableFuture<Boolean> isTradeValid(long tradeId) {
-        // First try cache for faster response
-        TradeDocument cached = cacheManager.get(tradeId);
-        if (cached != null) {
-            return CompletableFuture.completedFuture(
-                    cached.getState() != TradeState.CANCELLED &&
-                            cached.getState() != TradeState.COMPLETED);
-        }
-
-        // Fallback to database query
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Document doc = mongoDBManager.getTradesCollection()
-                        .find(Filters.eq("tradeId", tradeId))
-                        .first();
-
-                if (doc != null) {
-                    TradeDocument trade = new TradeDocument(doc);
-                    cacheManager.put(tradeId, trade);
-                    return trade.getState() != TradeState.CANCELLED &&
-                            trade.getState() != TradeState.COMPLETED;
-                }
-                return false;
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Error validating trade: {0}", e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+        // Cache first, then a summary query that skips the item lists
+        return logFailure(loadSummary(tradeId, "isTradeValid")
+                .thenApply(summary -> summary != null && summary.isOpen()), "Error validating trade");
     }
 
     /**
@@ -244,39 +536,27 @@ public class TradeManager {
      * performance.
      * This method is useful when multiple trades need to be updated simultaneously.
      * 
-     * @param trades List of TradeDocument objects to update
+     * @param tradeDocuments List of TradeDocument objects to update
      * @return CompletableFuture that completes when all updates are finished
      */
-    public CompletableFuture<Void> batchUpdateTrades(List<TradeDocument> trades) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                List<WriteModel<Document>> writes = new ArrayList<>();
-
-                // Prepare batch write operations
-                for (TradeDocument trade : trades) {
-                    writes.add(new UpdateOneModel<>(
-                            Filters.eq("tradeId", trade.getTradeId()),
-                            Updates.combine(
-                                    Updates.set("state", trade.getState().name()),
-                                    Updates.set("player1Items", trade.serializeItems(trade.getPlayer1Items())),
-                                    Updates.set("player2Items", trade.serializeItems(trade.getPlayer2Items())))));
-
-                    // Update cache
-                    cacheManager.put(trade.getTradeId(), trade);
-                }
+    public CompletableFuture<Void> batchUpdateTrades(List<TradeDocument> tradeDocuments) {
+        // Writing a state restarts its expiry window
+        tradeDocuments.forEach(trade -> trade.setExpiresAt(expiryFor(trade.getState())));
 
-                // Execute batch write if there are operations to perform
-                if (!writes.isEmpty()) {
-                    BulkWriteResult result = mongoDBManager.getTradesCollection()
-                            .bulkWrite(writes, new BulkWriteOptions().ordered(false));
-                    plugin.getLogger().log(Level.INFO, "Batch update completed: {0} documents modified",
-                            result.getModifiedCount());
-                }
-            } catch (Exception e) {
-                plugin.getLogger().log(Level.SEVERE, "Error in batch update: {0}", e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+        // Update cache
+        tradeDocuments.forEach(trade -> cacheManager.put(trade.getTradeId(), trade));
+
+        // Execute batch write if there are operations to perform
+        if (tradeDocuments.isEmpty()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        CompletableFuture<Void> future = repository.saveTrades(tradeDocuments)
+                .thenAccept(modified -> {
+                    tradeDocuments.forEach(trade -> openTradeIndex.track(trade.getTradeId(),
+                            trade.getPlayer1(), trade.getPlayer2(), trade.getState(), trade.getExpiresAt()));
+                    plugin.getLogger().log(Level.INFO, "Batch update completed: {0} documents modified", modified);
+                });
+        return logFailure(future, "Error in batch update");
     }
 
     /**
@@ -289,46 +569,16 @@ public class TradeManager {
      * @return CompletableFuture that completes when items are stored
      */
     public CompletableFuture<Void> storeTradeItems(long tradeId, UUID playerUUID, List<ItemStack> items) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    Document doc = mongoDBManager.getTradesCollection()
-                            .find(Filters.eq("tradeId", tradeId))
-                            .first();
-
-                    if (doc != null) {
-                        TradeDocument trade = new TradeDocument(doc);
-
-                        // Determine which field to update based on player
-                        String field = trade.getPlayer1().equals(playerUUID) ? "player1Items" : "player2Items";
-
-                        // Update trade document with new items
-                        if (trade.getPlayer1().equals(playerUUID)) {
-                            trade.setPlayer1Items(items);
-                        } else {
-                            trade.setPlayer2Items(items);
-                        }
-
-                        // Save to database
-                        mongoDBManager.getTradesCollection().updateOne(
-                                Filters.eq("tradeId", tradeId),
-                                Updates.set(field, trade.serializeItems(items)));
-
-                        // Update cache
-                        cacheManager.put(tradeId, trade);
-                    }
-                    future.complete(null);
-                } catch (Exception e) {
-                    logError("Error storing trade items", e.getMessage());
-                    future.completeExceptionally(e);
-                }
+        // Replace the player's items; the trade's scalar fields are not touched
+        return logFailure(resolveSummary(tradeId).thenCompose(summary -> {
+            if (summary == null) {
+                return CompletableFuture.completedFuture(null);
             }
-        }.runTaskAsynchronously(plugin);
-
-        return future;
+            int side = summary.getPlayer1().equals(playerUUID) ? 1 : 2;
+            return repository.storeItems(tradeId, side, items, summary.getExpiresAt())
+                    // Update cache if present
+                    .thenRun(() -> updateCachedItems(tradeId, side, items));
+        }), "Error storing trade items");
     }
 
     /**
@@ -340,43 +590,15 @@ public class TradeManager {
      * @return CompletableFuture containing the list of items
      */
     public CompletableFuture<List<ItemStack>> getTradeItems(long tradeId, UUID playerUUID) {
-        CompletableFuture<List<ItemStack>> future = new CompletableFuture<>();
-
-        // First try cache for better performance
-        TradeDocument cached = cacheManager.get(tradeId);
-        if (cached != null) {
-            List<ItemStack> items = cached.getPlayer1().equals(playerUUID) ? cached.getPlayer1Items()
-                    : cached.getPlayer2Items();
-            future.complete(new ArrayList<>(items));
-            return future;
-        }
-
-        // Fallback to database query
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    Document doc = mongoDBManager.getTradesCollection()
-                            .find(Filters.eq("tradeId", tradeId))
-                            .first();
-
-                    if (doc != null) {
-                        TradeDocument trade = new TradeDocument(doc);
-                        cacheManager.put(tradeId, trade);
-                        List<ItemStack> items = trade.getPlayer1().equals(playerUUID) ? trade.getPlayer1Items()
-                                : trade.getPlayer2Items();
-                        future.complete(new ArrayList<>(items));
-                    } else {
-                        future.complete(new ArrayList<>());
-                    }
-                } catch (Exception e) {
-                    logError("Error retrieving trade items", e.getMessage());
-                    future.completeExceptionally(e);
-                }
+        // Read through the cache
+        return logFailure(loadTrade(tradeId, "getTradeItems").thenApply(trade -> {
+            if (trade != null) {
+                List<ItemStack> items = trade.getPlayer1().equals(playerUUID) ? trade.getPlayer1Items()
+                        : trade.getPlayer2Items();
+                return new ArrayList<>(items);
             }
-        }.runTaskAsynchronously(plugin);
-
-        return future;
+            return new ArrayList<ItemStack>();
+        }), "Error retrieving trade items");
     }
 
     /**
@@ -388,47 +610,20 @@ public class TradeManager {
      * @return CompletableFuture containing the list of items that were removed
      */
     public CompletableFuture<List<ItemStack>> getAndRemoveTradeItems(long tradeId, UUID playerUUID) {
-        CompletableFuture<List<ItemStack>> future = new CompletableFuture<>();
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    Document doc = mongoDBManager.getTradesCollection()
-                            .find(Filters.eq("tradeId", tradeId))
-                            .first();
-
-                    if (doc != null) {
-                        TradeDocument trade = new TradeDocument(doc);
-                        String field = trade.getPlayer1().equals(playerUUID) ? "player1Items" : "player2Items";
-                        List<ItemStack> items = trade.getPlayer1().equals(playerUUID) ? trade.getPlayer1Items()
-                                : trade.getPlayer2Items();
-
-                        // Clear items from database
-                        mongoDBManager.getTradesCollection().updateOne(
-                                Filters.eq("tradeId", tradeId),
-                                Updates.set(field, trade.serializeItems(new ArrayList<>())));
-
-                        // Clear items from trade document and update cache
-                        if (trade.getPlayer1().equals(playerUUID)) {
-                            trade.setPlayer1Items(new ArrayList<>());
-                        } else {
-                            trade.setPlayer2Items(new ArrayList<>());
-                        }
-                        cacheManager.put(tradeId, trade);
-
-                        future.complete(items);
-                    } else {
-                        future.complete(new ArrayList<>());
-                    }
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                    plugin.getLogger().severe("Error retrieving and removing trade items: " + e.getMessage());
-                }
+        CompletableFuture<List<ItemStack>> future = resolveSide(tradeId, playerUUID).thenCompose(side -> {
+            if (side == null) {
+                return CompletableFuture.completedFuture(new ArrayList<ItemStack>());
             }
-        }.runTaskAsynchronously(plugin);
 
-        return future;
+            // Atomically clear the player's items and return the previous value,
+            // so two concurrent callers can never both receive the same items
+            return repository.takeItems(tradeId, side).thenApply(items -> {
+                // Clear items from cached trade document
+                updateCachedItems(tradeId, side, new ArrayList<>());
+                return items;
+            });
+        });
+        return logFailure(future, "Error retrieving and removing trade items");
     }
 
     /**
@@ -440,43 +635,15 @@ public class TradeManager {
      *         trade
      */
     public CompletableFuture<Boolean> hasTradeItems(long tradeId, UUID playerUUID) {
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
-
-        // First try cache
-        TradeDocument cached = cacheManager.get(tradeId);
-        if (cached != null) {
-            List<ItemStack> items = cached.getPlayer1().equals(playerUUID) ? cached.getPlayer1Items()
-                    : cached.getPlayer2Items();
-            future.complete(!items.isEmpty());
-            return future;
-        }
-
-        // Fallback to database query
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    Document doc = mongoDBManager.getTradesCollection()
-                            .find(Filters.eq("tradeId", tradeId))
-                            .first();
-
-                    if (doc != null) {
-                        TradeDocument trade = new TradeDocument(doc);
-                        cacheManager.put(tradeId, trade);
-                        List<ItemStack> items = trade.getPlayer1().equals(playerUUID) ? trade.getPlayer1Items()
-                                : trade.getPlayer2Items();
-                        future.complete(!items.isEmpty());
-                    } else {
-                        future.complete(false);
-                    }
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                    plugin.getLogger().severe("Error checking trade items: " + e.getMessage());
-                }
+        // Read through the cache
+        return logFailure(loadTrade(tradeId, "hasTradeItems").thenApply(trade -> {
+            if (trade != null) {
+                List<ItemStack> items = trade.getPlayer1().equals(playerUUID) ? trade.getPlayer1Items()
+                        : trade.getPlayer2Items();
+                return !items.isEmpty();
             }
-        }.runTaskAsynchronously(plugin);
-
-        return future;
+            return false;
+        }), "Error checking trade items");
     }
 
     /**
@@ -486,39 +653,10 @@ public class TradeManager {
      * @return CompletableFuture containing the current TradeState
      */
     public CompletableFuture<TradeState> getTradeState(long tradeId) {
-        CompletableFuture<TradeState> future = new CompletableFuture<>();
-
-        // First try cache
-        TradeDocument cached = cacheManager.get(tradeId);
-        if (cached != null) {
-            future.complete(cached.getState());
-            return future;
-        }
-
-        // Fallback to database query
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    Document doc = mongoDBManager.getTradesCollection()
-                            .find(Filters.eq("tradeId", tradeId))
-                            .first();
-
-                    if (doc != null) {
-                        TradeDocument trade = new TradeDocument(doc);
-                        cacheManager.put(tradeId, trade);
-                        future.complete(trade.getState());
-                    } else {
-                        future.complete(TradeState.CANCELLED);
-                    }
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                    plugin.getLogger().severe("Error getting trade state: " + e.getMessage());
-                }
-            }
-        }.runTaskAsynchronously(plugin);
-
-        return future;
+        // Cache first, then a summary query that skips the item lists
+        return logFailure(loadSummary(tradeId, "getTradeState").thenApply(
+                summary -> summary != null ? summary.getState() : TradeState.CANCELLED),
+                "Error getting trade state");
     }
 
     /**
@@ -529,41 +667,11 @@ public class TradeManager {
      * @return CompletableFuture containing a list of trade IDs
      */
     public CompletableFuture<List<Long>> getPlayerPendingTrades(UUID playerUUID) {
-        CompletableFuture<List<Long>> future = new CompletableFuture<>();
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    // Query for trades where player is involved and trade is pending or active
-                    List<Document> docs = mongoDBManager.getTradesCollection()
-                            .find(new Document("$or", Arrays.asList(
-                                    new Document("player1", playerUUID.toString()),
-                                    new Document("player2", playerUUID.toString()))).append("$or", Arrays.asList(
-                                            new Document("state", TradeState.PENDING.name()),
-                                            new Document("state", TradeState.ACTIVE.name()))))
-                            .into(new ArrayList<>());
-
-                    // Extract trade IDs
-                    List<Long> tradeIds = docs.stream()
-                            .map(doc -> doc.getLong("tradeId"))
-                            .collect(Collectors.toList());
-
-                    // Update cache with found trades
-                    docs.forEach(doc -> {
-                        TradeDocument trade = new TradeDocument(doc);
-                        cacheManager.put(trade.getTradeId(), trade);
-                    });
-
-                    future.complete(tradeIds);
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                    plugin.getLogger().severe("Error getting pending trades: " + e.getMessage());
-                }
-            }
-        }.runTaskAsynchronously(plugin);
-
-        return future;
+        // Served from the open trade index once it is loaded
+        if (indexLoaded) {
+            return CompletableFuture.completedFuture(openTradeIndex.getOpenTradeIds(playerUUID));
+        }
+        return logFailure(repository.findOpenTradeIds(playerUUID), "Error getting pending trades");
     }
 
     /**
@@ -574,41 +682,10 @@ public class TradeManager {
      * @return CompletableFuture containing true if players are in a trade together
      */
     public CompletableFuture<Boolean> arePlayersInTrade(UUID player1, UUID player2) {
-        CompletableFuture<Boolean> future = new CompletableFuture<>();
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    // Search for active trades between these two players
-                    Document doc = mongoDBManager.getTradesCollection()
-                            .find(new Document("$or", Arrays.asList(
-                                    new Document()
-                                            .append("player1", player1.toString())
-                                            .append("player2", player2.toString()),
-                                    new Document()
-                                            .append("player1", player2.toString())
-                                            .append("player2", player1.toString())))
-                                    .append("$or", Arrays.asList(
-                                            new Document("state", TradeState.PENDING.name()),
-                                            new Document("state", TradeState.ACTIVE.name()))))
-                            .first();
-
-                    // Cache the trade if found
-                    if (doc != null) {
-                        TradeDocument trade = new TradeDocument(doc);
-                        cacheManager.put(trade.getTradeId(), trade);
-                    }
-
-                    future.complete(doc != null);
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                    plugin.getLogger().severe("Error checking if players are in trade: " + e.getMessage());
-                }
-            }
-        }.runTaskAsynchronously(plugin);
-
-        return future;
+        // Always the database: this guards trade creation, and the open trade
+        // index may miss trades opened by other servers until its next resync
+        return logFailure(repository.hasOpenTrade(player1, player2),
+                "Error checking if players are in trade");
     }
 
     /**
@@ -618,39 +695,77 @@ public class TradeManager {
      * @return CompletableFuture containing the TradeDocument or null if not found
      */
     public CompletableFuture<TradeDocument> getTradeInfo(long tradeId) {
-        CompletableFuture<TradeDocument> future = new CompletableFuture<>();
+        // Read through the cache
+        return logFailure(loadTrade(tradeId, "getTradeInfo"), "Error getting trade information");
+    }
 
-        // First try cache
-        TradeDocument cached = cacheManager.get(tradeId);
-        if (cached != null) {
-            future.complete(cached);
-            return future;
-        }
+    /**
+     * Retrieves the scalar fields of a trade (players, state, timestamps and
+     * acceptance/delivery flags) without its item lists. Prefer this over
+     * getTradeInfo when the items are not needed.
+     * 
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture containing the TradeSummary or null if not found
+     */
+    public CompletableFuture<TradeSummary> getTradeSummary(long tradeId) {
+        // Cache first, then a summary query that skips the item lists
+        return logFailure(loadSummary(tradeId, "getTradeSummary"), "Error getting trade summary");
+    }
 
-        // Fallback to database query
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    Document doc = mongoDBManager.getTradesCollection()
-                            .find(Filters.eq("tradeId", tradeId))
-                            .first();
-
-                    if (doc != null) {
-                        TradeDocument trade = new TradeDocument(doc);
-                        cacheManager.put(tradeId, trade);
-                        future.complete(trade);
-                    } else {
-                        future.complete(null);
-                    }
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                    plugin.getLogger().severe("Error getting trade information: " + e.getMessage());
-                }
-            }
-        }.runTaskAsynchronously(plugin);
+    /**
+     * Retrieves every trade a player took part in for history listings, except
+     * archived trades (see getArchivedTradeHistory). Item lists are not loaded;
+     * use getTradeItems or hasTradeItems when a trade is opened.
+     * 
+     * @param playerUUID The UUID of the player
+     * @return CompletableFuture containing the trades with empty item lists
+     */
+    public CompletableFuture<List<TradeDocument>> getPlayerTradeHistory(UUID playerUUID) {
+        return logFailure(repository.findHistory(playerUUID), "Error loading trade history");
+    }
 
-        return future;
+    /**
+     * Retrieves one page of a player's archived trades, newest first. Pages are
+     * addressed by the lowest trade ID of the previous page, so each page is a
+     * single index range scan regardless of its depth. Item lists are not
+     * loaded.
+     * 
+     * @param playerUUID    The UUID of the player
+     * @param beforeTradeId Only trades with a lower ID are returned
+     *                      (Long.MAX_VALUE for the first page)
+     * @param limit         Maximum number of trades to return
+     * @return CompletableFuture containing the archived trades
+     */
+    public CompletableFuture<List<TradeDocument>> getArchivedTradeHistory(UUID playerUUID, long beforeTradeId,
+            int limit) {
+        return logFailure(repository.findArchivedHistory(playerUUID, beforeTradeId, limit),
+                "Error loading archived trade history");
+    }
+
+    /**
+     * Determines whether a player has any archived trades. Answers are
+     * remembered for trades.archive.player-flag-minutes, so repeated history
+     * views do not query the archive; a trade archived in the meantime shows
+     * up once the answer expires.
+     * 
+     * @param playerUUID The UUID of the player
+     * @return CompletableFuture containing true if the archive holds trades of
+     *         the player
+     */
+    public CompletableFuture<Boolean> hasArchivedTrades(UUID playerUUID) {
+        if (playersWithArchive.contains(playerUUID)) {
+            return CompletableFuture.completedFuture(true);
+        }
+        if (playersWithoutArchive.contains(playerUUID)) {
+            return CompletableFuture.completedFuture(false);
+        }
+
+        return logFailure(repository.findArchivedHistory(playerUUID, Long.MAX_VALUE, 1).thenApply(page -> {
+            // Neither cache is ever invalidated, so the current stamp is fine
+            NegativeCache<UUID> answers = page.isEmpty() ? playersWithoutArchive : playersWithArchive;
+            answers.add(playerUUID, answers.stamp());
+            return !page.isEmpty();
+        }), "Error checking archived trades");
     }
 
     /**
@@ -661,27 +776,13 @@ public class TradeManager {
      * @return CompletableFuture that completes when cleanup is finished
      */
     public CompletableFuture<Void> cleanupTrade(long tradeId) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    // Remove from database
-                    mongoDBManager.getTradesCollection().deleteOne(Filters.eq("tradeId", tradeId));
-
-                    // Remove from cache
+        // Remove from database
+        return logFailure(repository.delete(tradeId)
+                // Remove from cache and the open trade index
+                .thenRun(() -> {
                     cacheManager.remove(tradeId);
-
-                    future.complete(null);
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                    plugin.getLogger().severe("Error cleaning up trade: " + e.getMessage());
-                }
-            }
-        }.runTaskAsynchronously(plugin);
-
-        return future;
+                    openTradeIndex.remove(tradeId);
+                }), "Error cleaning up trade");
     }
 
     /**
@@ -695,43 +796,23 @@ public class TradeManager {
      * @return CompletableFuture that completes when the status is updated
      */
     public CompletableFuture<Void> updateItemsSentStatus(long tradeId, UUID playerUUID, boolean sent) {
-        CompletableFuture<Void> future = new CompletableFuture<>();
-
-        new BukkitRunnable() {
-            @Override
-            public void run() {
-                try {
-                    Document doc = mongoDBManager.getTradesCollection()
-                            .find(Filters.eq("tradeId", tradeId))
-                            .first();
-
-                    if (doc != null) {
-                        TradeDocument trade = new TradeDocument(doc);
-                        String field = trade.getPlayer1().equals(playerUUID) ? "itemsSentToPlayer1"
-                                : "itemsSentToPlayer2";
-
-                        // Update database
-                        mongoDBManager.getTradesCollection().updateOne(
-                                Filters.eq("tradeId", tradeId),
-                                Updates.set(field, sent));
-
-                        // Update cache
-                        if (trade.getPlayer1().equals(playerUUID)) {
-                            trade.setItemsSentToPlayer1(sent);
+        // Update database in a single update
+        return logFailure(setPlayerField(tradeId, playerUUID, "itemsSentToPlayer1", "itemsSentToPlayer2", sent)
+                .thenAccept(cached -> {
+                    // Update cache if present, copying the current entry (it may
+                    // have been replaced during the write) so readers never see a
+                    // half-applied change
+                    TradeDocument current = cached != null ? cacheManager.get(tradeId, "updateItemsSentStatus") : null;
+                    if (current != null) {
+                        TradeDocument updated = current.copy();
+                        if (updated.getPlayer1().equals(playerUUID)) {
+                            updated.setItemsSentToPlayer1(sent);
                         } else {
-                            trade.setItemsSentToPlayer2(sent);
+                            updated.setItemsSentToPlayer2(sent);
                         }
-                        cacheManager.put(tradeId, trade);
+                        cacheManager.put(tradeId, updated);
                     }
-                    future.complete(null);
-                } catch (Exception e) {
-                    future.completeExceptionally(e);
-                    plugin.getLogger().severe("Error updating items sent status: " + e.getMessage());
-                }
-            }
-        }.runTaskAsynchronously(plugin);
-
-        return future;
+                }), "Error updating items sent status");
     }
 
     /**
@@ -744,34 +825,23 @@ public class TradeManager {
      * @return CompletableFuture that completes when the acceptance is updated
      */
     public CompletableFuture<Void> updatePlayerAcceptance(long tradeId, UUID playerUUID, boolean accepted) {
-        return CompletableFuture.runAsync(() -> {
-            try {
-                Document doc = mongoDBManager.getTradesCollection()
-                        .find(Filters.eq("tradeId", tradeId))
-                        .first();
-
-                if (doc != null) {
-                    TradeDocument trade = new TradeDocument(doc);
-                    String field = trade.getPlayer1().equals(playerUUID) ? "player1Accepted" : "player2Accepted";
-
-                    // Update database
-                    mongoDBManager.getTradesCollection().updateOne(
-                            Filters.eq("tradeId", tradeId),
-                            Updates.set(field, accepted));
-
-                    // Update cache
-                    if (trade.getPlayer1().equals(playerUUID)) {
-                        trade.setPlayer1Accepted(accepted);
-                    } else {
-                        trade.setPlayer2Accepted(accepted);
+        // Update database in a single update
+        return logFailure(setPlayerField(tradeId, playerUUID, "player1Accepted", "player2Accepted", accepted)
+                .thenAccept(cached -> {
+                    // Update cache if present, copying the current entry (it may
+                    // have been replaced during the write) so readers never see a
+                    // half-applied change
+                    TradeDocument current = cached != null ? cacheManager.get(tradeId, "updatePlayerAcceptance") : null;
+                    if (current != null) {
+                        TradeDocument updated = current.copy();
+                        if (updated.getPlayer1().equals(playerUUID)) {
+                            updated.setPlayer1Accepted(accepted);
+                        } else {
+                            updated.setPlayer2Accepted(accepted);
+                        }
+                        cacheManager.put(tradeId, updated);
                     }
-                    cacheManager.put(tradeId, trade);
-                }
-            } catch (Exception e) {
-                logError("Error updating player acceptance", e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+                }), "Error updating player acceptance");
     }
 
     /**
@@ -782,33 +852,10 @@ public class TradeManager {
      * @return CompletableFuture containing true if the player has accepted
      */
     public CompletableFuture<Boolean> hasPlayerAccepted(long tradeId, UUID playerUUID) {
-        // First try cache
-        TradeDocument cached = cacheManager.get(tradeId);
-        if (cached != null) {
-            boolean accepted = cached.getPlayer1().equals(playerUUID) ? cached.isPlayer1Accepted()
-                    : cached.isPlayer2Accepted();
-            return CompletableFuture.completedFuture(accepted);
-        }
-
-        // Fallback to database query
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Document doc = mongoDBManager.getTradesCollection()
-                        .find(Filters.eq("tradeId", tradeId))
-                        .first();
-
-                if (doc != null) {
-                    TradeDocument trade = new TradeDocument(doc);
-                    cacheManager.put(tradeId, trade);
-                    return trade.getPlayer1().equals(playerUUID) ? trade.isPlayer1Accepted()
-                            : trade.isPlayer2Accepted();
-                }
-                return false;
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error checking player acceptance: " + e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+        // Cache first, then a summary query that skips the item lists
+        return logFailure(loadSummary(tradeId, "hasPlayerAccepted").thenApply(
+                summary -> summary != null && summary.hasAccepted(playerUUID)),
+                "Error checking player acceptance");
     }
 
     /**
@@ -819,31 +866,10 @@ public class TradeManager {
      * @return CompletableFuture containing true if both players have accepted
      */
     public CompletableFuture<Boolean> haveBothPlayersAccepted(long tradeId) {
-        // First try cache
-        TradeDocument cached = cacheManager.get(tradeId);
-        if (cached != null) {
-            return CompletableFuture.completedFuture(
-                    cached.isPlayer1Accepted() && cached.isPlayer2Accepted());
-        }
-
-        // Fallback to database query
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                Document doc = mongoDBManager.getTradesCollection()
-                        .find(Filters.eq("tradeId", tradeId))
-                        .first();
-
-                if (doc != null) {
-                    TradeDocument trade = new TradeDocument(doc);
-                    cacheManager.put(tradeId, trade);
-                    return trade.isPlayer1Accepted() && trade.isPlayer2Accepted();
-                }
-                return false;
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error checking both players acceptance: " + e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+        // Cache first, then a summary query that skips the item lists
+        return logFailure(loadSummary(tradeId, "haveBothPlayersAccepted").thenApply(
+                summary -> summary != null && summary.isPlayer1Accepted() && summary.isPlayer2Accepted()),
+                "Error checking both players acceptance");
     }
 
     /**
@@ -854,35 +880,45 @@ public class TradeManager {
      * @return CompletableFuture containing TradeNotificationData
      */
     public CompletableFuture<TradeNotificationData> getPlayerTradeNotifications(UUID playerId) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                int pendingCount = 0;
-                int activeCount = 0;
-
-                // Count pending trades where player is involved
-                Document pendingFilter = new Document("$and", Arrays.asList(
-                        new Document("$or", Arrays.asList(
-                                new Document("player1", playerId.toString()),
-                                new Document("player2", playerId.toString()))),
-                        new Document("state", TradeState.PENDING.name())));
-                pendingCount = (int) mongoDBManager.getTradesCollection().countDocuments(pendingFilter);
-
-                // Count active trades where player is involved
-                Document activeFilter = new Document("$and", Arrays.asList(
-                        new Document("$or", Arrays.asList(
-                                new Document("player1", playerId.toString()),
-                                new Document("player2", playerId.toString()))),
-                        new Document("state", TradeState.ACTIVE.name())));
-                activeCount = (int) mongoDBManager.getTradesCollection().countDocuments(activeFilter);
-
-                return new TradeNotificationData(pendingCount, activeCount);
-
-            } catch (Exception e) {
-                plugin.getLogger()
-                        .severe("Error getting trade notifications for player " + playerId + ": " + e.getMessage());
-                return new TradeNotificationData(0, 0);
-            }
-        });
+        // Served from the open trade index once it is loaded
+        if (indexLoaded) {
+            return CompletableFuture.completedFuture(openTradeIndex.get(playerId));
+        }
+
+        // Index not loaded yet (or every rebuild so far failed); both counts run
+        // concurrently
+        return repository.countTrades(playerId, TradeState.PENDING)
+                .thenCombine(repository.countTrades(playerId, TradeState.ACTIVE),
+                        (pendingCount, activeCount) -> new TradeNotificationData(
+                                pendingCount.intValue(), activeCount.intValue()))
+                .exceptionally(throwable -> {
+                    plugin.getLogger().severe("Error getting trade notifications for player " + playerId + ": "
+                            + unwrap(throwable).getMessage());
+                    return new TradeNotificationData(0, 0);
+                });
+    }
+
+    /**
+     * Loads a player's pending and active trades with their items in one batch
+     * and caches them, so the trades the player opens after logging in
+     * (/mytrades and the trade GUIs) are served from memory. The loaded trades
+     * are also recorded in the open trade index and the known trade IDs, since
+     * other servers may have created them.
+     * 
+     * @param playerUUID The UUID of the player
+     * @return CompletableFuture containing the number of open trades loaded
+     */
+    public CompletableFuture<Integer> prefetchPlayerTrades(UUID playerUUID) {
+        return logFailure(cacheManager.prefetch("prefetchPlayerTrades",
+                () -> repository.findOpenTradesWithItems(playerUUID)).thenApply(trades -> {
+                    trades.forEach(trade -> {
+                        knownTradeIds.add(trade.getTradeId());
+                        missingTrades.invalidate(trade.getTradeId());
+                        openTradeIndex.track(trade.getTradeId(), trade.getPlayer1(), trade.getPlayer2(),
+                                trade.getState(), trade.getExpiresAt());
+                    });
+                    return trades.size();
+                }), "Error prefetching player trades");
     }
 
     /**
@@ -951,112 +987,103 @@ public class TradeManager {
      *         completed
      */
     public CompletableFuture<Boolean> completeTrade(long tradeId) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // Retrieve trade information
-                Document doc = mongoDBManager.getTradesCollection()
-                        .find(Filters.eq("tradeId", tradeId))
-                        .first();
-
-                if (doc == null) {
-                    return false;
-                }
-
-                TradeDocument trade = new TradeDocument(doc);
-
-                // Verify trade is in ACTIVE state
-                if (trade.getState() != TradeState.ACTIVE) {
-                    return false;
-                }
-
-                // Update trade state to COMPLETED
-                trade.setState(TradeState.COMPLETED);
-
-                // Get player UUIDs and their respective items
-                UUID player1UUID = trade.getPlayer1();
-                UUID player2UUID = trade.getPlayer2();
-
-                // Get items each player will receive (items from the other player)
-                List<ItemStack> player1Items = trade.getPlayer1Items(); // Items player2 will receive
-                List<ItemStack> player2Items = trade.getPlayer2Items(); // Items player1 will receive
-
-                // Initialize delivery status
-                boolean player1ReceivedItems = false;
-                boolean player2ReceivedItems = false;
+        // Retrieve trade information; work on a copy so the cached trade only
+        // changes once the completion is saved
+        return loadTrade(tradeId, "completeTrade").<Boolean>thenCompose(loaded -> {
+            if (loaded == null) {
+                return CompletableFuture.completedFuture(false);
+            }
 
-                // Attempt to deliver items to player1 (items from player2)
-                Player player1Online = Bukkit.getPlayer(player1UUID);
-                if (player1Online != null && player1Online.isOnline()) {
-                    player1ReceivedItems = giveItemsToPlayer(player1Online, player2Items);
-                    if (player1ReceivedItems) {
-                        // Send success notification
-                        Bukkit.getScheduler().runTask(plugin, () -> {
-                            plugin.getMessageManager().sendComponentMessage(player1Online,
-                                    "trade.success.completion.items_received",
-                                    "trade_id", String.valueOf(tradeId));
-                        });
-                    }
+            // Verify trade is in ACTIVE state
+            if (loaded.getState() != TradeState.ACTIVE) {
+                return CompletableFuture.completedFuture(false);
+            }
+            TradeDocument trade = loaded.copy();
+
+            // Update trade state to COMPLETED
+            trade.setState(TradeState.COMPLETED);
+            trade.setExpiresAt(expiryFor(TradeState.COMPLETED));
+
+            // Get player UUIDs and their respective items
+            UUID player1UUID = trade.getPlayer1();
+            UUID player2UUID = trade.getPlayer2();
+
+            // Get items each player will receive (items from the other player)
+            List<ItemStack> player1Items = trade.getPlayer1Items(); // Items player2 will receive
+            List<ItemStack> player2Items = trade.getPlayer2Items(); // Items player1 will receive
+
+            // Initialize delivery status
+            boolean player1ReceivedItems = false;
+            boolean player2ReceivedItems = false;
+
+            // Attempt to deliver items to player1 (items from player2)
+            Player player1Online = Bukkit.getPlayer(player1UUID);
+            if (player1Online != null && player1Online.isOnline()) {
+                player1ReceivedItems = giveItemsToPlayer(player1Online, player2Items);
+                if (player1ReceivedItems) {
+                    // Send success notification
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        plugin.getMessageManager().sendComponentMessage(player1Online,
+                                "trade.success.completion.items_received",
+                                "trade_id", String.valueOf(tradeId));
+                    });
                 }
+            }
 
-                // Attempt to deliver items to player2 (items from player1)
-                Player player2Online = Bukkit.getPlayer(player2UUID);
-                if (player2Online != null && player2Online.isOnline()) {
-                    player2ReceivedItems = giveItemsToPlayer(player2Online, player1Items);
-                    if (player2ReceivedItems) {
-                        // Send success notification
-                        Bukkit.getScheduler().runTask(plugin, () -> {
-                            plugin.getMessageManager().sendComponentMessage(player2Online,
-                                    "trade.success.completion.items_received",
-                                    "trade_id", String.valueOf(tradeId));
-                        });
-                    }
+            // Attempt to deliver items to player2 (items from player1)
+            Player player2Online = Bukkit.getPlayer(player2UUID);
+            if (player2Online != null && player2Online.isOnline()) {
+                player2ReceivedItems = giveItemsToPlayer(player2Online, player1Items);
+                if (player2ReceivedItems) {
+                    // Send success notification
+                    Bukkit.getScheduler().runTask(plugin, () -> {
+                        plugin.getMessageManager().sendComponentMessage(player2Online,
+                                "trade.success.completion.items_received",
+                                "trade_id", String.valueOf(tradeId));
+                    });
                 }
+            }
 
-                // Update trade document with delivery status
-                trade.setItemsSentToPlayer1(player1ReceivedItems);
-                trade.setItemsSentToPlayer2(player2ReceivedItems);
-
-                // Manage items for players who didn't receive them immediately
-                if (!player1ReceivedItems) {
-                    // Player1 didn't receive items, keep player2's items for later retrieval
-                    trade.setPlayer2Items(player2Items);
-                } else {
-                    // Player1 received items, clear the list
-                    trade.setPlayer2Items(new ArrayList<>());
-                }
+            // Update trade document with delivery status
+            trade.setItemsSentToPlayer1(player1ReceivedItems);
+            trade.setItemsSentToPlayer2(player2ReceivedItems);
+
+            // Manage items for players who didn't receive them immediately
+            if (!player1ReceivedItems) {
+                // Player1 didn't receive items, keep player2's items for later retrieval
+                trade.setPlayer2Items(player2Items);
+            } else {
+                // Player1 received items, clear the list
+                trade.setPlayer2Items(new ArrayList<>());
+            }
 
-                if (!player2ReceivedItems) {
-                    // Player2 didn't receive items, keep player1's items for later retrieval
-                    trade.setPlayer1Items(player1Items);
-                } else {
-                    // Player2 received items, clear the list
-                    trade.setPlayer1Items(new ArrayList<>());
-                }
+            if (!player2ReceivedItems) {
+                // Player2 didn't receive items, keep player1's items for later retrieval
+                trade.setPlayer1Items(player1Items);
+            } else {
+                // Player2 received items, clear the list
+                trade.setPlayer1Items(new ArrayList<>());
+            }
 
-                // Update database with final trade state
-                mongoDBManager.getTradesCollection().updateOne(
-                        Filters.eq("tradeId", tradeId),
-                        Updates.combine(
-                                Updates.set("state", trade.getState().name()),
-                                Updates.set("itemsSentToPlayer1", trade.areItemsSentToPlayer1()),
-                                Updates.set("itemsSentToPlayer2", trade.areItemsSentToPlayer2()),
-                                Updates.set("player1Items", trade.serializeItems(trade.getPlayer1Items())),
-                                Updates.set("player2Items", trade.serializeItems(trade.getPlayer2Items()))));
+            boolean player1Received = player1ReceivedItems;
+            boolean player2Received = player2ReceivedItems;
 
+            // Update database with final trade state and the items left to claim
+            return repository.saveCompletion(trade).thenApply(v -> {
                 // Update cache
                 cacheManager.put(tradeId, trade);
+                openTradeIndex.updateState(tradeId, TradeState.COMPLETED, trade.getExpiresAt());
 
                 plugin.getLogger()
                         .info(String.format(
                                 "Trade %d completed - Player1 received items: %b, Player2 received items: %b",
-                                tradeId, player1ReceivedItems, player2ReceivedItems));
+                                tradeId, player1Received, player2Received));
 
                 return true;
-
-            } catch (Exception e) {
-                logError("Error completing trade", e.getMessage());
-                return false;
-            }
+            });
+        }).exceptionally(throwable -> {
+            logError("Error completing trade", unwrap(throwable).getMessage());
+            return false;
         });
     }
 
@@ -1107,6 +1134,33 @@ public class TradeManager {
         plugin.getLogger().log(Level.SEVERE, "{0}: {1}", new Object[] { message, details });
     }
 
+    /**
+     * Attaches error logging to a database future without changing its outcome.
+     * 
+     * @param future  The future to observe
+     * @param message The error message logged on failure
+     * @return The same future
+     */
+    private <T> CompletableFuture<T> logFailure(CompletableFuture<T> future, String message) {
+        return future.whenComplete((result, throwable) -> {
+            if (throwable != null) {
+                logError(message, unwrap(throwable).getMessage());
+            }
+        });
+    }
+
+    /**
+     * Unwraps the CompletionException added by dependent futures.
+     * 
+     * @param throwable The throwable a future completed with
+     * @return The underlying cause
+     */
+    static Throwable unwrap(Throwable throwable) {
+        return throwable instanceof CompletionException && throwable.getCause() != null
+                ? throwable.getCause()
+                : throwable;
+    }
+
     /**
      * Retrieves the items that a player should receive from a completed trade.
      * This method returns the items from the OTHER player (what this player should
@@ -1118,41 +1172,19 @@ public class TradeManager {
      *         receive
      */
     public CompletableFuture<List<ItemStack>> getTradeItemsForPlayer(long tradeId, UUID playerUUID) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // First try cache
-                TradeDocument cached = cacheManager.get(tradeId);
-                if (cached != null) {
-                    // Return items from the OTHER player (what this player should receive)
-                    List<ItemStack> itemsToReceive = cached.getPlayer1().equals(playerUUID)
-                            ? cached.getPlayer2Items() // If requesting player is player1, get player2's items
-                            : cached.getPlayer1Items(); // If requesting player is player2, get player1's items
-                    return new ArrayList<>(itemsToReceive);
-                }
-
-                // Fallback to database query
-                Document doc = mongoDBManager.getTradesCollection()
-                        .find(Filters.eq("tradeId", tradeId))
-                        .first();
-
-                if (doc != null) {
-                    TradeDocument trade = new TradeDocument(doc);
-                    cacheManager.put(tradeId, trade);
-
-                    // Return items from the OTHER player
-                    List<ItemStack> itemsToReceive = trade.getPlayer1().equals(playerUUID)
-                            ? trade.getPlayer2Items() // If requesting player is player1, get player2's items
-                            : trade.getPlayer1Items(); // If requesting player is player2, get player1's items
-
-                    return new ArrayList<>(itemsToReceive);
-                } else {
-                    return new ArrayList<>();
-                }
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error getting trade items for player: " + e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+        // Read through the cache
+        return logFailure(loadTrade(tradeId, "getTradeItemsForPlayer")
+                .thenApply(trade -> {
+                    if (trade != null) {
+                        // Return items from the OTHER player
+                        List<ItemStack> itemsToReceive = trade.getPlayer1().equals(playerUUID)
+                                ? trade.getPlayer2Items() // If requesting player is player1, get player2's items
+                                : trade.getPlayer1Items(); // If requesting player is player2, get player1's items
+
+                        return new ArrayList<>(itemsToReceive);
+                    }
+                    return new ArrayList<ItemStack>();
+                }), "Error getting trade items for player");
     }
 
     /**
@@ -1168,68 +1200,43 @@ public class TradeManager {
      * @return CompletableFuture containing the list of items available for claiming
      */
     public CompletableFuture<List<ItemStack>> getTradeItemsToReceive(long tradeId, UUID playerUUID) {
-        return CompletableFuture.supplyAsync(() -> {
-            try {
-                // First try cache
-                TradeDocument cached = cacheManager.get(tradeId);
-                if (cached != null) {
-                    // Verify trade is completed
-                    if (cached.getState() != TradeState.COMPLETED) {
-                        return new ArrayList<>();
-                    }
-
-                    // Check if player has already received their items
-                    boolean hasAlreadyReceived = cached.getPlayer1().equals(playerUUID)
-                            ? cached.areItemsSentToPlayer1()
-                            : cached.areItemsSentToPlayer2();
-
-                    if (hasAlreadyReceived) {
-                        return new ArrayList<>(); // Player already received items
-                    }
-
-                    // Return items from the OTHER player (what this player should receive)
-                    List<ItemStack> itemsToReceive = cached.getPlayer1().equals(playerUUID)
-                            ? cached.getPlayer2Items() // If requesting player is player1, get player2's items
-                            : cached.getPlayer1Items(); // If requesting player is player2, get player1's items
-                    return new ArrayList<>(itemsToReceive);
-                }
-
-                // Fallback to database query
-                Document doc = mongoDBManager.getTradesCollection()
-                        .find(Filters.eq("tradeId", tradeId))
-                        .first();
-
-                if (doc != null) {
-                    TradeDocument trade = new TradeDocument(doc);
-                    cacheManager.put(tradeId, trade);
-
-                    // Verify trade is completed
-                    if (trade.getState() != TradeState.COMPLETED) {
-                        return new ArrayList<>();
+        // Read through the cache
+        return logFailure(loadTrade(tradeId, "getTradeItemsToReceive")
+                .thenApply(trade -> {
+                    if (trade != null) {
+                        return itemsToReceive(trade, playerUUID);
                     }
+                    return new ArrayList<ItemStack>();
+                }), "Error getting trade items to receive for player");
+    }
 
-                    // Check if player has already received their items
-                    boolean hasAlreadyReceived = trade.getPlayer1().equals(playerUUID)
-                            ? trade.areItemsSentToPlayer1()
-                            : trade.areItemsSentToPlayer2();
+    /**
+     * Computes the unclaimed items a player should receive from a trade.
+     * 
+     * @param trade      The trade
+     * @param playerUUID The UUID of the player requesting items
+     * @return Items from the other player, or an empty list if the trade is not
+     *         completed or the items were already sent
+     */
+    private List<ItemStack> itemsToReceive(TradeDocument trade, UUID playerUUID) {
+        // Verify trade is completed
+        if (trade.getState() != TradeState.COMPLETED) {
+            return new ArrayList<>();
+        }
 
-                    if (hasAlreadyReceived) {
-                        return new ArrayList<>(); // Player already received items
-                    }
+        // Check if player has already received their items
+        boolean hasAlreadyReceived = trade.getPlayer1().equals(playerUUID)
+                ? trade.areItemsSentToPlayer1()
+                : trade.areItemsSentToPlayer2();
 
-                    // Return items from the OTHER player
-                    List<ItemStack> itemsToReceive = trade.getPlayer1().equals(playerUUID)
-                            ? trade.getPlayer2Items() // If requesting player is player1, get player2's items
-                            : trade.getPlayer1Items(); // If requesting player is player2, get player1's items
+        if (hasAlreadyReceived) {
+            return new ArrayList<>(); // Player already received items
+        }
 
-                    return new ArrayList<>(itemsToReceive);
-                } else {
-                    return new ArrayList<>();
-                }
-            } catch (Exception e) {
-                plugin.getLogger().severe("Error getting trade items to receive for player: " + e.getMessage());
-                throw new CompletionException(e);
-            }
-        });
+        // Return items from the OTHER player (what this player should receive)
+        List<ItemStack> itemsToReceive = trade.getPlayer1().equals(playerUUID)
+                ? trade.getPlayer2Items() // If requesting player is player1, get player2's items
+                : trade.getPlayer1Items(); // If requesting player is player2, get player1's items
+        return new ArrayList<>(itemsToReceive);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,371 @@
+package com.prismamc.trade.manager;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * TradeWriteJournal - Write-Behind Buffer for Trade Mutations
+ *
+ * This class collects field updates for trades in memory and writes them to
+ * MongoDB in periodic unordered bulk operations instead of issuing one
+ * round trip per mutation. Updates for the same trade are coalesced so that
+ * only the latest value of every field is written.
+ *
+ * Key Features:
+ * - Per-trade buffers merged into a single UpdateOneModel on flush
+ * - Periodic flushing on a dedicated background thread
+ * - Early flush when the number of buffered trades exceeds the limit
+ * - Hard cap on buffered trades; callers write directly while it is reached
+ * - Overlay of buffered fields onto documents read from the database
+ * - Forced synchronous flush on shutdown
+ *
+ * Failure Handling:
+ * - Transient errors re-queue the batch without overriding newer values
+ * - Per-document write errors are logged and dropped
+ * - Trades discarded during a flush are never re-queued
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class TradeWriteJournal {
+
+    // Buffered $set fields keyed by trade ID
+    private final ConcurrentHashMap<Long, Map<String, Object>> pending;
+
+    // Fields taken by the current flush whose bulk write has not returned yet
+    private final ConcurrentHashMap<Long, InFlight> inFlight;
+
+    // Bulk write path shared with MongoTradeRepository.saveTrades
+    private final Function<List<WriteModel<Document>>, CompletableFuture<BulkWriteResult>> bulkWriter;
+
+    // Background flusher
+    private final ScheduledExecutorService flushExecutor;
+    private final AtomicBoolean earlyFlushScheduled;
+    private final Object flushLock;
+
+    private final Logger logger;
+    private final int maxBatchSize;
+    private final int maxPendingTrades;
+    private final int maxBufferedTrades;
+
+    /**
+     * Constructs a new TradeWriteJournal and starts the periodic flusher.
+     *
+     * @param logger              Logger for flush diagnostics
+     * @param bulkWriter          Function executing an unordered bulk write
+     * @param flushIntervalMillis Interval between periodic flushes
+     * @param maxBatchSize        Maximum number of trades per bulk write
+     * @param maxPendingTrades    Number of buffered trades that triggers an early
+     *                            flush
+     * @param maxBufferedTrades   Number of buffered trades at which new trades
+     *                            are no longer accepted (at least
+     *                            maxPendingTrades)
+     */
+    public TradeWriteJournal(Logger logger,
+            Function<List<WriteModel<Document>>, CompletableFuture<BulkWriteResult>> bulkWriter,
+            long flushIntervalMillis, int maxBatchSize, int maxPendingTrades, int maxBufferedTrades) {
+        this.logger = logger;
+        this.bulkWriter = bulkWriter;
+        this.maxBatchSize = Math.max(1, maxBatchSize);
+        this.maxPendingTrades = Math.max(1, maxPendingTrades);
+        this.maxBufferedTrades = Math.max(this.maxPendingTrades, maxBufferedTrades);
+        this.pending = new ConcurrentHashMap<>();
+        this.inFlight = new ConcurrentHashMap<>();
+        this.earlyFlushScheduled = new AtomicBoolean(false);
+        this.flushLock = new Object();
+        this.flushExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrismaMC-TradeWriteJournal");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        long interval = Math.max(50L, flushIntervalMillis);
+        flushExecutor.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Buffers field updates for a trade. Values already buffered for the same
+     * fields are replaced, so only the latest value reaches the database.
+     * Nothing is buffered once the journal is shut down, or when the buffer
+     * is full and the trade has no buffered updates yet (a stalled database
+     * must not grow the buffer without bound); the caller then writes the
+     * fields itself.
+     *
+     * @param tradeId The ID of the trade to update
+     * @param fields  Field names and values to set
+     * @return True if the fields were buffered, false if the caller must write
+     *         them directly
+     */
+    public boolean enqueue(long tradeId, Map<String, Object> fields) {
+        if (flushExecutor.isShutdown()
+                || (pending.size() >= maxBufferedTrades && !pending.containsKey(tradeId))) {
+            return false;
+        }
+
+        pending.compute(tradeId, (id, buffered) -> {
+            Map<String, Object> merged = buffered != null ? buffered : new LinkedHashMap<>();
+            merged.putAll(fields);
+            return merged;
+        });
+
+        if (pending.size() >= maxPendingTrades && !flushExecutor.isShutdown()
+                && earlyFlushScheduled.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                earlyFlushScheduled.set(false);
+                flushQuietly();
+            });
+        }
+        return true;
+    }
+
+    /**
+     * Copies the buffered fields of a trade onto a document read from the
+     * database, so readers never observe values older than the buffer.
+     *
+     * @param tradeId The ID of the trade
+     * @param doc     Document to overlay (modified in place)
+     * @return The same document instance
+     */
+    public Document overlay(long tradeId, Document doc) {
+        if (doc != null) {
+            doc.putAll(snapshot(tradeId));
+        }
+        return doc;
+    }
+
+    /**
+     * Returns the buffered fields of a trade, including those of a bulk write
+     * still in flight, with the newest value of each field.
+     *
+     * @param tradeId The ID of the trade
+     * @return Copy of the buffered fields, or an empty map
+     */
+    public Map<String, Object> snapshot(long tradeId) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        InFlight flushing = inFlight.get(tradeId);
+        if (flushing != null) {
+            fields.putAll(flushing.fields);
+        }
+        pending.computeIfPresent(tradeId, (id, buffered) -> {
+            fields.putAll(buffered);
+            return buffered;
+        });
+        return fields;
+    }
+
+    /**
+     * Removes the buffered fields of a trade so callers that write the trade
+     * directly can fold them into their own write. The returned future waits
+     * for a bulk write already carrying this trade, so that late write cannot
+     * overwrite the caller's direct write. No thread is blocked while waiting.
+     *
+     * @param tradeId The ID of the trade
+     * @return Future containing the buffered fields, or an empty map
+     */
+    public CompletableFuture<Map<String, Object>> drain(long tradeId) {
+        Map<String, Object> removed = pending.remove(tradeId);
+        Map<String, Object> buffered = removed != null ? removed : new LinkedHashMap<>();
+
+        InFlight flushing = inFlight.get(tradeId);
+        if (flushing == null) {
+            return CompletableFuture.completedFuture(buffered);
+        }
+
+        return flushing.done.handle((result, error) -> {
+            // A failed flush re-queues its fields; they are older than ours
+            Map<String, Object> requeued = pending.remove(tradeId);
+            if (requeued == null) {
+                return buffered;
+            }
+            Map<String, Object> merged = new LinkedHashMap<>(requeued);
+            merged.putAll(buffered);
+            return merged;
+        });
+    }
+
+    /**
+     * Discards buffered updates for a trade that is being deleted. A bulk write
+     * already carrying the trade is marked so that, if it fails, its fields
+     * are not re-queued and written after the delete.
+     *
+     * @param tradeId The ID of the trade
+     */
+    public void discard(long tradeId) {
+        // Marked under the in-flight entry's lock, which requeue also takes
+        inFlight.computeIfPresent(tradeId, (id, flushing) -> {
+            flushing.discarded = true;
+            return flushing;
+        });
+        pending.remove(tradeId);
+    }
+
+    /**
+     * Writes every buffered trade to the database in unordered bulk writes of at
+     * most {@code maxBatchSize} operations.
+     *
+     * @return Number of trades written
+     */
+    public int flush() {
+        synchronized (flushLock) {
+            int written = 0;
+            List<Long> tradeIds = new ArrayList<>(pending.keySet());
+
+            for (int start = 0; start < tradeIds.size(); start += maxBatchSize) {
+                List<Long> chunk = tradeIds.subList(start, Math.min(start + maxBatchSize, tradeIds.size()));
+                Map<Long, Map<String, Object>> batch = new LinkedHashMap<>();
+                List<WriteModel<Document>> writes = new ArrayList<>();
+
+                for (Long tradeId : chunk) {
+                    // Register as in-flight atomically with the removal so drain() never
+                    // sees the trade in neither map while its write is outstanding
+                    pending.computeIfPresent(tradeId, (id, fields) -> {
+                        if (!fields.isEmpty()) {
+                            batch.put(id, fields);
+                            inFlight.put(id, new InFlight(fields));
+                        }
+                        return null;
+                    });
+                }
+
+                batch.forEach((tradeId, fields) -> writes.add(new UpdateOneModel<>(
+                        Filters.eq("tradeId", tradeId),
+                        new Document("$set", new Document(fields)))));
+
+                if (writes.isEmpty()) {
+                    continue;
+                }
+
+                try {
+                    BulkWriteResult result = bulkWriter.apply(writes).join();
+                    written += writes.size();
+                    logger.log(Level.FINE, "Write-behind flush completed: {0} trades, {1} modified",
+                            new Object[] { writes.size(), result.getModifiedCount() });
+                } catch (CompletionException e) {
+                    Throwable cause = e.getCause() != null ? e.getCause() : e;
+                    if (cause instanceof MongoBulkWriteException bulkError) {
+                        // Unordered: everything except the reported errors was applied
+                        logger.log(Level.SEVERE, "Write-behind flush dropped {0} failed trade updates: {1}",
+                                new Object[] { bulkError.getWriteErrors().size(), bulkError.getMessage() });
+                        written += writes.size() - bulkError.getWriteErrors().size();
+                    } else {
+                        logger.log(Level.WARNING, "Write-behind flush failed, re-queueing {0} trades: {1}",
+                                new Object[] { batch.size(), cause.getMessage() });
+                        requeue(batch);
+                    }
+                } finally {
+                    batch.keySet().forEach(tradeId -> {
+                        InFlight flushed = inFlight.remove(tradeId);
+                        if (flushed != null) {
+                            flushed.done.complete(null);
+                        }
+                    });
+                }
+            }
+            return written;
+        }
+    }
+
+    /**
+     * Gracefully stops the background flusher and performs a final synchronous
+     * flush so no buffered mutation is lost.
+     */
+    public void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            if (!flushExecutor.awaitTermination(10, TimeUnit.SECONDS)) {
+                flushExecutor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            flushExecutor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+
+        int written = flush();
+        if (!pending.isEmpty()) {
+            logger.log(Level.SEVERE, "Write-behind journal shut down with {0} unwritten trades", pending.size());
+        } else if (written > 0) {
+            logger.log(Level.INFO, "Write-behind journal flushed {0} trades on shutdown", written);
+        }
+    }
+
+    /**
+     * @return True if any trade has updates that are buffered or being written
+     */
+    public boolean hasBufferedUpdates() {
+        return !pending.isEmpty() || !inFlight.isEmpty();
+    }
+
+    /**
+     * @return Number of trades with buffered updates
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    /**
+     * Puts a failed batch back into the buffer. Values enqueued after the
+     * batch was drained take precedence over the failed ones, and trades
+     * discarded while the batch was in flight are skipped.
+     *
+     * @param batch Failed trade updates keyed by trade ID
+     */
+    private void requeue(Map<Long, Map<String, Object>> batch) {
+        batch.forEach((tradeId, failed) -> inFlight.computeIfPresent(tradeId, (id, flushing) -> {
+            if (!flushing.discarded) {
+                pending.merge(id, failed, (newer, older) -> {
+                    Map<String, Object> merged = new LinkedHashMap<>(older);
+                    merged.putAll(newer);
+                    return merged;
+                });
+            }
+            return flushing;
+        }));
+    }
+
+    /**
+     * Runs a flush from the background thread, never letting an exception
+     * cancel the scheduled task.
+     */
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (Exception e) {
+            logger.log(Level.SEVERE, "Unexpected error in write-behind flusher: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Fields handed to a running bulk write, with a future completed once that
+     * write has returned.
+     */
+    private static class InFlight {
+        private final Map<String, Object> fields;
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        // Set by discard; guarded by the inFlight map entry
+        private boolean discarded;
+
+        private InFlight(Map<String, Object> fields) {
+            this.fields = fields;
+        }
+    }
+}
@@ -3,10 +3,14 @@ package com.prismamc.trade.model;
 import com.prismamc.trade.manager.TradeManager.TradeState;
 import org.bukkit.inventory.ItemStack;
 import org.bson.Document;
+import org.bson.types.Binary;
+import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 import java.util.ArrayList;
-import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.Collections;
 import java.io.ByteArrayOutputStream;
 import java.io.ByteArrayInputStream;
 import java.util.Base64;
@@ -21,22 +25,34 @@ public class TradeDocument {
     private final UUID player1;
     private final UUID player2;
     private TradeState state;
-    private final List<ItemStack> player1Items;
-    private final List<ItemStack> player2Items;
+    // Unmodifiable; the setters replace them, so copies can share the lists
+    private volatile List<ItemStack> player1Items;
+    private volatile List<ItemStack> player2Items;
     private final long timestamp;
     private boolean itemsSentToPlayer1;
     private boolean itemsSentToPlayer2;
     private boolean player1Accepted;
     private boolean player2Accepted;
+    // Removed by the TTL index once reached; null means the trade never expires
+    private Date expiresAt;
+    // Serialized size of both item lists (-1 until computed, reset by the item
+    // setters); used by CacheManager to weigh the trade
+    private int itemsWeight = -1;
     private static final int COMPRESSION_THRESHOLD = 1024; // 1KB
 
+    // Binary item format: one header byte (format version in the high nibble,
+    // compression codec in the low nibble) followed by the payload
+    private static final int FORMAT_VERSION = 1;
+    private static final int CODEC_RAW = 0;
+    private static final int CODEC_GZIP = 1;
+
     public TradeDocument(long tradeId, UUID player1, UUID player2) {
         this.tradeId = tradeId;
         this.player1 = player1;
         this.player2 = player2;
         this.state = TradeState.PENDING;
-        this.player1Items = new CopyOnWriteArrayList<>();
-        this.player2Items = new CopyOnWriteArrayList<>();
+        this.player1Items = List.of();
+        this.player2Items = List.of();
         this.timestamp = System.currentTimeMillis();
         this.itemsSentToPlayer1 = false;
         this.itemsSentToPlayer2 = false;
@@ -50,14 +66,62 @@ public class TradeDocument {
         this.player2 = UUID.fromString(doc.getString("player2"));
         this.state = TradeState.valueOf(doc.getString("state"));
         this.timestamp = doc.getLong("timestamp");
-        this.player1Items = deserializeItems(doc.getString("player1Items"));
-        this.player2Items = deserializeItems(doc.getString("player2Items"));
+        this.player1Items = Collections.unmodifiableList(deserializeItems(doc.get("player1Items")));
+        this.player2Items = Collections.unmodifiableList(deserializeItems(doc.get("player2Items")));
         this.itemsSentToPlayer1 = doc.getBoolean("itemsSentToPlayer1", false);
         this.itemsSentToPlayer2 = doc.getBoolean("itemsSentToPlayer2", false);
         this.player1Accepted = doc.getBoolean("player1Accepted", false);
         this.player2Accepted = doc.getBoolean("player2Accepted", false);
+        this.expiresAt = doc.getDate("expiresAt");
+    }
+
+    // Used by TradeDocumentCodec; item lists start empty
+    public TradeDocument(long tradeId, UUID player1, UUID player2, TradeState state, long timestamp,
+            boolean itemsSentToPlayer1, boolean itemsSentToPlayer2, boolean player1Accepted,
+            boolean player2Accepted, Date expiresAt) {
+        this.tradeId = tradeId;
+        this.player1 = player1;
+        this.player2 = player2;
+        this.state = state;
+        this.player1Items = List.of();
+        this.player2Items = List.of();
+        this.timestamp = timestamp;
+        this.itemsSentToPlayer1 = itemsSentToPlayer1;
+        this.itemsSentToPlayer2 = itemsSentToPlayer2;
+        this.player1Accepted = player1Accepted;
+        this.player2Accepted = player2Accepted;
+        this.expiresAt = expiresAt;
+    }
+
+    // Applies buffered field updates (same names and values as toDocument)
+    public TradeDocument applyFields(Map<String, Object> fields) {
+        fields.forEach((field, value) -> {
+            switch (field) {
+                case "state" -> this.state = TradeState.valueOf((String) value);
+                case "itemsSentToPlayer1" -> this.itemsSentToPlayer1 = (Boolean) value;
+                case "itemsSentToPlayer2" -> this.itemsSentToPlayer2 = (Boolean) value;
+                case "player1Accepted" -> this.player1Accepted = (Boolean) value;
+                case "player2Accepted" -> this.player2Accepted = (Boolean) value;
+                case "expiresAt" -> this.expiresAt = (Date) value;
+                default -> {
+                }
+            }
+        });
+        return this;
+    }
+
+    // Independent copy; the unmodifiable item lists and their weight are shared
+    // until one side replaces them through a setter
+    public TradeDocument copy() {
+        TradeDocument copy = new TradeDocument(tradeId, player1, player2, state, timestamp,
+                itemsSentToPlayer1, itemsSentToPlayer2, player1Accepted, player2Accepted, expiresAt);
+        copy.player1Items = player1Items;
+        copy.player2Items = player2Items;
+        copy.itemsWeight = itemsWeight;
+        return copy;
     }
 
+    // Item lists are stored separately in the trade_items collection
     public Document toDocument() {
         return new Document()
                 .append("tradeId", tradeId)
@@ -65,51 +129,88 @@ public class TradeDocument {
                 .append("player2", player2.toString())
                 .append("state", state.name())
                 .append("timestamp", timestamp)
-                .append("player1Items", serializeItems(player1Items))
-                .append("player2Items", serializeItems(player2Items))
                 .append("itemsSentToPlayer1", itemsSentToPlayer1)
                 .append("itemsSentToPlayer2", itemsSentToPlayer2)
                 .append("player1Accepted", player1Accepted)
-                .append("player2Accepted", player2Accepted);
+                .append("player2Accepted", player2Accepted)
+                .append("expiresAt", expiresAt);
     }
 
-    public String serializeItems(List<ItemStack> items) {
+    public static Binary serializeItems(List<ItemStack> items) {
         if (items == null || items.isEmpty()) {
-            return "";
+            return new Binary(new byte[0]);
         }
 
-        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            try (ObjectOutputStream dataOutput = new ObjectOutputStream(outputStream)) {
-                dataOutput.writeInt(items.size());
-                for (ItemStack item : items) {
-                    if (item != null) {
-                        byte[] serializedItem = item.serializeAsBytes();
-                        dataOutput.writeInt(serializedItem.length);
-                        dataOutput.write(serializedItem);
-                    }
-                }
-            }
-
-            byte[] data = outputStream.toByteArray();
+        try {
+            byte[] data = encodePayload(items);
+            int codec = CODEC_RAW;
             if (data.length > COMPRESSION_THRESHOLD) {
                 // Comprimir si excede el umbral
-                ByteArrayOutputStream compressedStream = new ByteArrayOutputStream();
-                try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressedStream)) {
-                    gzipStream.write(data);
-                }
-                return "GZIP:" + Base64.getEncoder().encodeToString(compressedStream.toByteArray());
-            } else {
-                return "RAW:" + Base64.getEncoder().encodeToString(data);
+                data = gzip(data);
+                codec = CODEC_GZIP;
             }
+            return withHeader(codec, data);
         } catch (IOException e) {
             e.printStackTrace();
-            return "";
+            return new Binary(new byte[0]);
+        }
+    }
+
+    // Accepts the binary format as well as legacy "RAW:"/"GZIP:" Base64 strings.
+    // An unknown format version fails the read, so the stored items are never
+    // overwritten with an empty list
+    public static List<ItemStack> deserializeItems(Object stored) {
+        if (stored instanceof Binary binary) {
+            return deserializeBinary(binary.getData());
+        }
+        if (stored instanceof String legacy) {
+            return deserializeLegacy(legacy);
+        }
+        return new ArrayList<>();
+    }
+
+    // Converts a legacy Base64 string to the binary format without decoding the items
+    public static Binary reencodeLegacy(String legacy) {
+        if (legacy == null || legacy.isEmpty()) {
+            return new Binary(new byte[0]);
+        }
+
+        String[] parts = legacy.split(":", 2);
+        if (parts.length != 2) {
+            return new Binary(new byte[0]);
+        }
+
+        int codec = "GZIP".equals(parts[0]) ? CODEC_GZIP : CODEC_RAW;
+        return withHeader(codec, Base64.getDecoder().decode(parts[1]));
+    }
+
+    private static List<ItemStack> deserializeBinary(byte[] stored) {
+        List<ItemStack> items = new ArrayList<>();
+        if (stored == null || stored.length == 0) {
+            return items;
+        }
+
+        int version = (stored[0] >> 4) & 0x0F;
+        int codec = stored[0] & 0x0F;
+        if (version != FORMAT_VERSION) {
+            throw new IllegalStateException("Unsupported trade items format version: " + version);
+        }
+
+        try {
+            byte[] data = Arrays.copyOfRange(stored, 1, stored.length);
+            if (codec == CODEC_GZIP) {
+                data = gunzip(data);
+            }
+            return decodePayload(data);
+        } catch (Exception e) {
+            e.printStackTrace();
         }
+        return items;
     }
 
-    public List<ItemStack> deserializeItems(String base64) {
+    private static List<ItemStack> deserializeLegacy(String base64) {
         List<ItemStack> items = new ArrayList<>();
-        if (base64 == null || base64.isEmpty()) {
+        if (base64.isEmpty()) {
             return items;
         }
 
@@ -121,37 +222,77 @@ public class TradeDocument {
 
             byte[] data = Base64.getDecoder().decode(parts[1]);
             if ("GZIP".equals(parts[0])) {
-                ByteArrayOutputStream decompressedStream = new ByteArrayOutputStream();
-                try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(data))) {
-                    byte[] buffer = new byte[1024];
-                    int len;
-                    while ((len = gzipStream.read(buffer)) > 0) {
-                        decompressedStream.write(buffer, 0, len);
-                    }
-                }
-                data = decompressedStream.toByteArray();
+                data = gunzip(data);
             }
+            return decodePayload(data);
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        return items;
+    }
 
-            try (ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
-                    ObjectInputStream dataInput = new ObjectInputStream(inputStream)) {
+    private static Binary withHeader(int codec, byte[] data) {
+        byte[] stored = new byte[data.length + 1];
+        stored[0] = (byte) ((FORMAT_VERSION << 4) | codec);
+        System.arraycopy(data, 0, stored, 1, data.length);
+        return new Binary(stored);
+    }
 
-                int size = dataInput.readInt();
-                for (int i = 0; i < size; i++) {
-                    int itemLength = dataInput.readInt();
-                    byte[] itemData = new byte[itemLength];
-                    dataInput.readFully(itemData);
-                    ItemStack item = ItemStack.deserializeBytes(itemData);
+    private static byte[] encodePayload(List<ItemStack> items) throws IOException {
+        try (ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
+            try (ObjectOutputStream dataOutput = new ObjectOutputStream(outputStream)) {
+                dataOutput.writeInt(items.size());
+                for (ItemStack item : items) {
                     if (item != null) {
-                        items.add(item);
+                        byte[] serializedItem = item.serializeAsBytes();
+                        dataOutput.writeInt(serializedItem.length);
+                        dataOutput.write(serializedItem);
                     }
                 }
             }
-        } catch (Exception e) {
-            e.printStackTrace();
+            return outputStream.toByteArray();
+        }
+    }
+
+    private static List<ItemStack> decodePayload(byte[] data) throws IOException {
+        List<ItemStack> items = new ArrayList<>();
+        try (ByteArrayInputStream inputStream = new ByteArrayInputStream(data);
+                ObjectInputStream dataInput = new ObjectInputStream(inputStream)) {
+
+            int size = dataInput.readInt();
+            for (int i = 0; i < size; i++) {
+                int itemLength = dataInput.readInt();
+                byte[] itemData = new byte[itemLength];
+                dataInput.readFully(itemData);
+                ItemStack item = ItemStack.deserializeBytes(itemData);
+                if (item != null) {
+                    items.add(item);
+                }
+            }
         }
         return items;
     }
 
+    private static byte[] gzip(byte[] data) throws IOException {
+        ByteArrayOutputStream compressedStream = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressedStream)) {
+            gzipStream.write(data);
+        }
+        return compressedStream.toByteArray();
+    }
+
+    private static byte[] gunzip(byte[] data) throws IOException {
+        ByteArrayOutputStream decompressedStream = new ByteArrayOutputStream();
+        try (GZIPInputStream gzipStream = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            byte[] buffer = new byte[1024];
+            int len;
+            while ((len = gzipStream.read(buffer)) > 0) {
+                decompressedStream.write(buffer, 0, len);
+            }
+        }
+        return decompressedStream.toByteArray();
+    }
+
     // Getters
     public long getTradeId() {
         return tradeId;
@@ -197,29 +338,51 @@ public class TradeDocument {
         return player2Accepted;
     }
 
+    public int getItemsWeight() {
+        int weight = itemsWeight;
+        if (weight < 0) {
+            weight = serializedSize(player1Items) + serializedSize(player2Items);
+            itemsWeight = weight;
+        }
+        return weight;
+    }
+
+    private static int serializedSize(List<ItemStack> items) {
+        int size = 0;
+        for (ItemStack item : items) {
+            size += item.serializeAsBytes().length;
+        }
+        return size;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
     // Setters
     public void setState(TradeState state) {
         this.state = state;
     }
 
     public void setPlayer1Items(List<ItemStack> items) {
-        player1Items.clear();
-        if (items != null) {
-            player1Items.addAll(items.stream()
-                    .filter(item -> item != null && item.getType() != org.bukkit.Material.AIR)
-                    .map(ItemStack::clone)
-                    .toList());
-        }
+        player1Items = cloneItems(items);
+        itemsWeight = -1;
     }
 
     public void setPlayer2Items(List<ItemStack> items) {
-        player2Items.clear();
-        if (items != null) {
-            player2Items.addAll(items.stream()
-                    .filter(item -> item != null && item.getType() != org.bukkit.Material.AIR)
-                    .map(ItemStack::clone)
-                    .toList());
+        player2Items = cloneItems(items);
+        itemsWeight = -1;
+    }
+
+    // Unmodifiable list of clones without empty slots
+    private static List<ItemStack> cloneItems(List<ItemStack> items) {
+        if (items == null) {
+            return List.of();
         }
+        return items.stream()
+                .filter(item -> item != null && item.getType() != org.bukkit.Material.AIR)
+                .map(ItemStack::clone)
+                .toList();
     }
 
     public void setItemsSentToPlayer1(boolean sent) {
@@ -238,6 +401,10 @@ public class TradeDocument {
         this.player2Accepted = accepted;
     }
 
+    public void setExpiresAt(Date expiresAt) {
+        this.expiresAt = expiresAt;
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o)
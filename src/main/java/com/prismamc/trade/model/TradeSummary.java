@@ -0,0 +1,94 @@
+package com.prismamc.trade.model;
+
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import org.bson.Document;
+import java.util.Date;
+import java.util.UUID;
+
+public class TradeSummary {
+    private final long tradeId;
+    private final UUID player1;
+    private final UUID player2;
+    private final TradeState state;
+    private final long timestamp;
+    private final boolean itemsSentToPlayer1;
+    private final boolean itemsSentToPlayer2;
+    private final boolean player1Accepted;
+    private final boolean player2Accepted;
+    private final Date expiresAt;
+
+    // Built from a document projected without player1Items/player2Items
+    public TradeSummary(Document doc) {
+        this.tradeId = doc.getLong("tradeId");
+        this.player1 = UUID.fromString(doc.getString("player1"));
+        this.player2 = UUID.fromString(doc.getString("player2"));
+        this.state = TradeState.valueOf(doc.getString("state"));
+        this.timestamp = doc.getLong("timestamp");
+        this.itemsSentToPlayer1 = doc.getBoolean("itemsSentToPlayer1", false);
+        this.itemsSentToPlayer2 = doc.getBoolean("itemsSentToPlayer2", false);
+        this.player1Accepted = doc.getBoolean("player1Accepted", false);
+        this.player2Accepted = doc.getBoolean("player2Accepted", false);
+        this.expiresAt = doc.getDate("expiresAt");
+    }
+
+    public TradeSummary(TradeDocument trade) {
+        this.tradeId = trade.getTradeId();
+        this.player1 = trade.getPlayer1();
+        this.player2 = trade.getPlayer2();
+        this.state = trade.getState();
+        this.timestamp = trade.getTimestamp();
+        this.itemsSentToPlayer1 = trade.areItemsSentToPlayer1();
+        this.itemsSentToPlayer2 = trade.areItemsSentToPlayer2();
+        this.player1Accepted = trade.isPlayer1Accepted();
+        this.player2Accepted = trade.isPlayer2Accepted();
+        this.expiresAt = trade.getExpiresAt();
+    }
+
+    public long getTradeId() {
+        return tradeId;
+    }
+
+    public UUID getPlayer1() {
+        return player1;
+    }
+
+    public UUID getPlayer2() {
+        return player2;
+    }
+
+    public TradeState getState() {
+        return state;
+    }
+
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public boolean areItemsSentToPlayer1() {
+        return itemsSentToPlayer1;
+    }
+
+    public boolean areItemsSentToPlayer2() {
+        return itemsSentToPlayer2;
+    }
+
+    public boolean isPlayer1Accepted() {
+        return player1Accepted;
+    }
+
+    public boolean isPlayer2Accepted() {
+        return player2Accepted;
+    }
+
+    public Date getExpiresAt() {
+        return expiresAt;
+    }
+
+    public boolean isOpen() {
+        return state != TradeState.CANCELLED && state != TradeState.COMPLETED;
+    }
+
+    public boolean hasAccepted(UUID playerUUID) {
+        return player1.equals(playerUUID) ? player1Accepted : player2Accepted;
+    }
+}
@@ -0,0 +1,165 @@
+package com.prismamc.trade.repository;
+
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * EmbeddedStorage - File persistence for the in-memory repositories
+ *
+ * Lets small servers run without MongoDB. Each registered repository is saved
+ * to its own file in the plugin folder as a sequence of BSON documents (the
+ * same field layout as the MongoDB collections) and restored from it on
+ * startup.
+ *
+ * Key Features:
+ * - Periodic saves, skipped for repositories that did not change
+ * - Each file is written to a temporary file first and then atomically moved
+ * into place, so a crash never leaves a partially written file
+ * - Final save when the plugin is disabled
+ *
+ * Changes made after the last save are lost if the server crashes.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class EmbeddedStorage {
+
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    private final File directory;
+    private final Logger logger;
+    private final Map<String, Snapshottable> repositories;
+    private final Map<String, Long> savedModifications;
+    private final ScheduledExecutorService saveExecutor;
+
+    /**
+     * Constructs a new EmbeddedStorage and starts the periodic save.
+     *
+     * @param directory           Directory holding the data files
+     * @param saveIntervalSeconds Time between saves
+     * @param logger              Logger for load and save messages
+     */
+    public EmbeddedStorage(File directory, long saveIntervalSeconds, Logger logger) {
+        this.directory = directory;
+        this.logger = logger;
+        this.repositories = new ConcurrentHashMap<>();
+        this.savedModifications = new ConcurrentHashMap<>();
+        this.saveExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrismaMC-EmbeddedStorage");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IllegalStateException("Could not create storage directory " + directory);
+        }
+
+        long interval = Math.max(1L, saveIntervalSeconds);
+        saveExecutor.scheduleWithFixedDelay(this::saveAll, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Restores a repository from its file, if present, and saves it from now
+     * on.
+     *
+     * @param name       File name without extension
+     * @param repository The repository to persist
+     * @return The same repository
+     */
+    public <T extends Snapshottable> T register(String name, T repository) {
+        Path file = directory.toPath().resolve(name + ".bson");
+        if (Files.exists(file)) {
+            try {
+                List<Document> documents = read(file);
+                repository.restore(documents);
+                logger.info("Loaded " + documents.size() + " entries from " + file.getFileName());
+            } catch (IOException | RuntimeException e) {
+                throw new IllegalStateException("Could not read " + file, e);
+            }
+        }
+        savedModifications.put(name, repository.getModificationCount());
+        repositories.put(name, repository);
+        return repository;
+    }
+
+    /**
+     * Saves every repository changed since its last save.
+     */
+    public synchronized void saveAll() {
+        repositories.forEach((name, repository) -> {
+            long modifications = repository.getModificationCount();
+            if (modifications == savedModifications.getOrDefault(name, -1L)) {
+                return;
+            }
+            try {
+                write(directory.toPath().resolve(name + ".bson"), repository.snapshot());
+                savedModifications.put(name, modifications);
+            } catch (IOException | RuntimeException e) {
+                logger.log(Level.SEVERE, "Error saving {0}: {1}", new Object[] { name, e.getMessage() });
+            }
+        });
+    }
+
+    /**
+     * Stops the periodic save and saves pending changes.
+     */
+    public void close() {
+        saveExecutor.shutdown();
+        try {
+            saveExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        saveAll();
+    }
+
+    /**
+     * Writes documents to a temporary file and moves it over the target.
+     */
+    private static void write(Path file, List<Document> documents) throws IOException {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        for (Document doc : documents) {
+            CODEC.encode(new BsonBinaryWriter(buffer), doc, EncoderContext.builder().build());
+        }
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        Files.write(temp, buffer.toByteArray());
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads consecutive BSON documents; each starts with its own length.
+     */
+    private static List<Document> read(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        List<Document> documents = new ArrayList<>();
+        int offset = 0;
+        while (offset < data.length) {
+            int length = ByteBuffer.wrap(data, offset, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+            documents.add(new RawBsonDocument(data, offset, length).decode(CODEC));
+            offset += length;
+        }
+        return documents;
+    }
+}
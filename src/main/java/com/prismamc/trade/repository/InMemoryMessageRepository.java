@@ -0,0 +1,76 @@
+package com.prismamc.trade.repository;
+
+import com.prismamc.trade.model.Message;
+import org.bson.Document;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * InMemoryMessageRepository - Message storage in process memory
+ *
+ * Keeps messages in a ConcurrentHashMap keyed by message key. Without
+ * EmbeddedStorage this only holds the default messages, since edits are lost
+ * on restart.
+ *
+ * Key Features:
+ * - Translation updates replace the stored Message atomically
+ * - Contents can be saved and restored by EmbeddedStorage
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class InMemoryMessageRepository implements MessageRepository, Snapshottable {
+
+    private final Map<String, Message> messages = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+
+    @Override
+    public Message find(String key) {
+        return messages.get(key);
+    }
+
+    @Override
+    public void insert(Message message) {
+        if (messages.putIfAbsent(message.getKey(), message) != null) {
+            throw new IllegalStateException("Message " + message.getKey() + " already exists");
+        }
+        modifications.incrementAndGet();
+    }
+
+    @Override
+    public void updateTranslation(String key, String language, String text) {
+        Message updated = messages.computeIfPresent(key, (k, message) -> {
+            Map<String, String> translations = message.getTranslations();
+            translations.put(language, text);
+            return new Message(key, translations);
+        });
+        if (updated != null) {
+            modifications.incrementAndGet();
+        }
+    }
+
+    @Override
+    public List<Document> snapshot() {
+        return messages.values().stream()
+                .map(Message::toDocument)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void restore(List<Document> documents) {
+        messages.clear();
+        documents.forEach(doc -> {
+            Message message = new Message(doc);
+            messages.put(message.getKey(), message);
+        });
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modifications.get();
+    }
+}
@@ -0,0 +1,102 @@
+package com.prismamc.trade.repository;
+
+import com.prismamc.trade.model.PlayerData;
+import org.bson.Document;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * InMemoryPlayerDataRepository - Player data storage in process memory
+ *
+ * Keeps player data in a ConcurrentHashMap keyed by UUID. Entries are stored
+ * and returned as copies, so changes to a cached PlayerData only take effect
+ * through save.
+ *
+ * Key Features:
+ * - No database round trips; every future completes before it is returned
+ * - Name and language lookups scan the map, which is fine for the player
+ * counts of servers that run without MongoDB
+ * - Contents can be saved and restored by EmbeddedStorage
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class InMemoryPlayerDataRepository implements PlayerDataRepository, Snapshottable {
+
+    private final Map<UUID, PlayerData> players = new ConcurrentHashMap<>();
+    private final AtomicLong modifications = new AtomicLong();
+
+    @Override
+    public CompletableFuture<PlayerData> findByUuid(UUID uuid) {
+        return CompletableFuture.completedFuture(copy(players.get(uuid)));
+    }
+
+    @Override
+    public CompletableFuture<Void> save(PlayerData playerData) {
+        players.put(playerData.getUuid(), copy(playerData));
+        modifications.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerData>> findByLanguage(String language) {
+        return CompletableFuture.completedFuture(players.values().stream()
+                .filter(playerData -> language.equals(playerData.getLanguage()))
+                .map(InMemoryPlayerDataRepository::copy)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> findByName(String playerName) {
+        return CompletableFuture.completedFuture(players.values().stream()
+                .filter(playerData -> playerName.equals(playerData.getPlayerName()))
+                .findFirst()
+                .map(InMemoryPlayerDataRepository::copy)
+                .orElse(null));
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> findByNameIgnoreCase(String playerName) {
+        return CompletableFuture.completedFuture(players.values().stream()
+                .filter(playerData -> playerName.equalsIgnoreCase(playerData.getPlayerName()))
+                .findFirst()
+                .map(InMemoryPlayerDataRepository::copy)
+                .orElse(null));
+    }
+
+    @Override
+    public List<Document> snapshot() {
+        return players.values().stream()
+                .map(playerData -> new Document()
+                        .append("uuid", playerData.getUuid().toString())
+                        .append("playerName", playerData.getPlayerName())
+                        .append("language", playerData.getLanguage()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void restore(List<Document> documents) {
+        players.clear();
+        documents.forEach(doc -> {
+            UUID uuid = UUID.fromString(doc.getString("uuid"));
+            players.put(uuid, new PlayerData(uuid, doc.getString("playerName"), doc.getString("language")));
+        });
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modifications.get();
+    }
+
+    private static PlayerData copy(PlayerData playerData) {
+        return playerData != null
+                ? new PlayerData(playerData.getUuid(), playerData.getPlayerName(), playerData.getLanguage())
+                : null;
+    }
+}
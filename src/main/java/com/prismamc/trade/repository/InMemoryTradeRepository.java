@@ -0,0 +1,339 @@
+package com.prismamc.trade.repository;
+
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.model.TradeSummary;
+import org.bson.Document;
+import org.bukkit.inventory.ItemStack;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * InMemoryTradeRepository - Trade storage in process memory
+ *
+ * Keeps every trade in a ConcurrentHashMap keyed by trade ID. Stored trades are
+ * never modified in place: each update replaces the entry with a modified
+ * copy, so readers always see a consistent trade without taking a lock, and
+ * callers only ever receive copies.
+ *
+ * Key Features:
+ * - No database round trips; every future completes before it is returned
+ * - Lock-free reads, per-trade atomic updates (ConcurrentHashMap.compute)
+ * - Expired trades removed by a sweep every minute, like the TTL monitor
+ * - Contents can be saved and restored by EmbeddedStorage
+ *
+ * There is no archive tier: finished trades stay in the map until they expire
+ * or are removed.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class InMemoryTradeRepository implements TradeRepository, Snapshottable {
+
+    private final Map<Long, TradeDocument> trades;
+    private final Map<String, AtomicLong> counters;
+    private final AtomicLong modifications;
+    private final ScheduledExecutorService expiryExecutor;
+    private final Logger logger;
+
+    /**
+     * Constructs a new InMemoryTradeRepository and starts the expiry sweep.
+     *
+     * @param logger Logger for expiry messages
+     */
+    public InMemoryTradeRepository(Logger logger) {
+        this.trades = new ConcurrentHashMap<>();
+        this.counters = new ConcurrentHashMap<>();
+        this.modifications = new AtomicLong();
+        this.logger = logger;
+        this.expiryExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrismaMC-TradeExpiry");
+            thread.setDaemon(true);
+            return thread;
+        });
+        expiryExecutor.scheduleWithFixedDelay(this::removeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void close() {
+        expiryExecutor.shutdownNow();
+    }
+
+    /**
+     * Removes every trade whose expiry has passed.
+     */
+    private void removeExpired() {
+        Date now = new Date();
+        if (trades.values().removeIf(trade -> trade.getExpiresAt() != null && trade.getExpiresAt().before(now))) {
+            modifications.incrementAndGet();
+            logger.fine("Removed expired trades from memory");
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> findHighestTradeId() {
+        return CompletableFuture.completedFuture(
+                trades.keySet().stream().mapToLong(Long::longValue).max().orElse(0L));
+    }
+
+    @Override
+    public CompletableFuture<Long> reserveIds(String counterName, long floor, int count) {
+        return CompletableFuture.completedFuture(counters.computeIfAbsent(counterName, name -> new AtomicLong())
+                .updateAndGet(seq -> Math.max(seq, floor) + count));
+    }
+
+    @Override
+    public CompletableFuture<Long> backfillExpiry(Map<TradeState, Long> windows) {
+        AtomicLong updated = new AtomicLong();
+        trades.keySet().forEach(tradeId -> update(tradeId, trade -> {
+            Long window = windows.get(trade.getState());
+            if (trade.getExpiresAt() == null && window != null) {
+                trade.setExpiresAt(new Date(trade.getTimestamp() + window));
+                updated.incrementAndGet();
+            }
+        }));
+        return CompletableFuture.completedFuture(updated.get());
+    }
+
+    @Override
+    public CompletableFuture<Void> insert(TradeDocument trade) {
+        if (trades.putIfAbsent(trade.getTradeId(), trade.copy()) != null) {
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Trade " + trade.getTradeId() + " already exists"));
+        }
+        modifications.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<TradeDocument> find(long tradeId) {
+        TradeDocument trade = trades.get(tradeId);
+        return CompletableFuture.completedFuture(trade != null ? trade.copy() : null);
+    }
+
+    @Override
+    public CompletableFuture<TradeSummary> findSummary(long tradeId) {
+        TradeDocument trade = trades.get(tradeId);
+        return CompletableFuture.completedFuture(trade != null ? new TradeSummary(trade) : null);
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> findOpenTradeIds(UUID playerUUID) {
+        return CompletableFuture.completedFuture(select(trade -> involves(trade, playerUUID) && isOpen(trade))
+                .stream()
+                .map(TradeDocument::getTradeId)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasOpenTrade(UUID player1, UUID player2) {
+        return CompletableFuture.completedFuture(trades.values().stream().anyMatch(trade -> isOpen(trade)
+                && (trade.getPlayer1().equals(player1) && trade.getPlayer2().equals(player2)
+                        || trade.getPlayer1().equals(player2) && trade.getPlayer2().equals(player1))));
+    }
+
+    @Override
+    public CompletableFuture<List<TradeSummary>> findOpenTrades() {
+        return CompletableFuture.completedFuture(select(InMemoryTradeRepository::isOpen).stream()
+                .map(TradeSummary::new)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<List<TradeDocument>> findOpenTradesWithItems(UUID playerUUID) {
+        return CompletableFuture.completedFuture(select(trade -> involves(trade, playerUUID) && isOpen(trade))
+                .stream()
+                .map(TradeDocument::copy)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> findAllTradeIds() {
+        return CompletableFuture.completedFuture(new ArrayList<>(trades.keySet()));
+    }
+
+    @Override
+    public CompletableFuture<Long> countTrades(UUID playerUUID, TradeState state) {
+        return CompletableFuture.completedFuture(trades.values().stream()
+                .filter(trade -> trade.getState() == state && involves(trade, playerUUID))
+                .count());
+    }
+
+    @Override
+    public CompletableFuture<List<TradeDocument>> findHistory(UUID playerUUID) {
+        return CompletableFuture.completedFuture(select(trade -> involves(trade, playerUUID)).stream()
+                .map(InMemoryTradeRepository::withoutItems)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<List<TradeDocument>> findArchivedHistory(UUID playerUUID, long beforeTradeId,
+            int limit) {
+        return CompletableFuture.completedFuture(new ArrayList<>());
+    }
+
+    @Override
+    public CompletableFuture<Void> updateState(long tradeId, TradeState state, Date expiresAt) {
+        update(tradeId, trade -> {
+            trade.setState(state);
+            trade.setExpiresAt(expiresAt);
+        });
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> updateFields(long tradeId, Map<String, Object> fields) {
+        update(tradeId, trade -> trade.applyFields(fields));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> updatePlayerField(long tradeId, UUID playerUUID, String player1Field,
+            String player2Field, Object value) {
+        update(tradeId, trade -> trade.applyFields(
+                Map.of(trade.getPlayer1().equals(playerUUID) ? player1Field : player2Field, value)));
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Long> saveTrades(List<TradeDocument> tradeDocuments) {
+        long modified = tradeDocuments.stream()
+                .filter(source -> update(source.getTradeId(), trade -> {
+                    trade.setState(source.getState());
+                    trade.setExpiresAt(source.getExpiresAt());
+                    trade.setPlayer1Items(source.getPlayer1Items());
+                    trade.setPlayer2Items(source.getPlayer2Items());
+                }))
+                .count();
+        return CompletableFuture.completedFuture(modified);
+    }
+
+    @Override
+    public CompletableFuture<Void> saveCompletion(TradeDocument source) {
+        update(source.getTradeId(), trade -> {
+            trade.setState(source.getState());
+            trade.setItemsSentToPlayer1(source.areItemsSentToPlayer1());
+            trade.setItemsSentToPlayer2(source.areItemsSentToPlayer2());
+            trade.setExpiresAt(source.getExpiresAt());
+            trade.setPlayer1Items(source.getPlayer1Items());
+            trade.setPlayer2Items(source.getPlayer2Items());
+        });
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<Void> storeItems(long tradeId, int side, List<ItemStack> items, Date expiresAt) {
+        update(tradeId, trade -> {
+            if (side == 1) {
+                trade.setPlayer1Items(items);
+            } else {
+                trade.setPlayer2Items(items);
+            }
+        });
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public CompletableFuture<List<ItemStack>> takeItems(long tradeId, int side) {
+        AtomicReference<List<ItemStack>> taken = new AtomicReference<>(new ArrayList<>());
+        update(tradeId, trade -> {
+            taken.set(new ArrayList<>(side == 1 ? trade.getPlayer1Items() : trade.getPlayer2Items()));
+            if (side == 1) {
+                trade.setPlayer1Items(new ArrayList<>());
+            } else {
+                trade.setPlayer2Items(new ArrayList<>());
+            }
+        });
+        return CompletableFuture.completedFuture(taken.get());
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(long tradeId) {
+        if (trades.remove(tradeId) != null) {
+            modifications.incrementAndGet();
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    @Override
+    public List<Document> snapshot() {
+        return trades.values().stream()
+                .map(trade -> trade.toDocument()
+                        .append("player1Items", TradeDocument.serializeItems(trade.getPlayer1Items()))
+                        .append("player2Items", TradeDocument.serializeItems(trade.getPlayer2Items())))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void restore(List<Document> documents) {
+        trades.clear();
+        documents.forEach(doc -> {
+            TradeDocument trade = new TradeDocument(doc);
+            trades.put(trade.getTradeId(), trade);
+        });
+    }
+
+    @Override
+    public long getModificationCount() {
+        return modifications.get();
+    }
+
+    /**
+     * Replaces a stored trade with a modified copy.
+     *
+     * @param tradeId  The ID of the trade
+     * @param mutation Changes applied to the copy
+     * @return True if the trade exists
+     */
+    private boolean update(long tradeId, Consumer<TradeDocument> mutation) {
+        TradeDocument updated = trades.computeIfPresent(tradeId, (id, current) -> {
+            TradeDocument next = current.copy();
+            mutation.accept(next);
+            return next;
+        });
+        if (updated == null) {
+            return false;
+        }
+        modifications.incrementAndGet();
+        return true;
+    }
+
+    /**
+     * @return Stored trades matching the predicate (not copied)
+     */
+    private List<TradeDocument> select(Predicate<TradeDocument> predicate) {
+        return trades.values().stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    private static boolean involves(TradeDocument trade, UUID playerUUID) {
+        return trade.getPlayer1().equals(playerUUID) || trade.getPlayer2().equals(playerUUID);
+    }
+
+    private static boolean isOpen(TradeDocument trade) {
+        return trade.getState() == TradeState.PENDING || trade.getState() == TradeState.ACTIVE;
+    }
+
+    /**
+     * @return Copy of the trade's scalar fields with empty item lists
+     */
+    private static TradeDocument withoutItems(TradeDocument trade) {
+        return new TradeDocument(trade.getTradeId(), trade.getPlayer1(), trade.getPlayer2(), trade.getState(),
+                trade.getTimestamp(), trade.areItemsSentToPlayer1(), trade.areItemsSentToPlayer2(),
+                trade.isPlayer1Accepted(), trade.isPlayer2Accepted(), trade.getExpiresAt());
+    }
+}
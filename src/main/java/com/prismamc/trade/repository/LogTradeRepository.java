@@ -0,0 +1,630 @@
+package com.prismamc.trade.repository;
+
+import com.prismamc.trade.database.SegmentLog;
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.model.TradeSummary;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.bukkit.inventory.ItemStack;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * LogTradeRepository - Trade storage on a local append-only log
+ *
+ * Stores trades without any database server. Every change is appended to a
+ * SegmentLog (memory-mapped segment files) as a new record that supersedes the
+ * previous one. The scalar fields of each trade stay in memory for queries.
+ * Item lists stay in the log and are decoded only when a trade is loaded.
+ *
+ * Key Features:
+ * - Record types: trade fields, items of one side, delete marker, ID counter
+ * - In-memory index from trade ID (and side) to the location of the latest
+ * record
+ * - Crash recovery by replaying the segments on startup; a torn final record
+ * is discarded
+ * - Background tasks: flush the mappings to disk, compact segments that are
+ * mostly superseded records, remove expired trades (like the TTL monitor)
+ *
+ * Writes synchronize on the log so the index and the log change together.
+ * Reads take no lock. There is no archive tier.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class LogTradeRepository implements TradeRepository {
+
+    private static final byte TRADE = 1;
+    private static final byte ITEMS = 2;
+    private static final byte DELETE = 3;
+    private static final byte COUNTER = 4;
+
+    private static final DocumentCodec CODEC = new DocumentCodec();
+
+    private final SegmentLog log;
+    private final Map<Long, Entry> trades;
+    // Keyed by itemsKey(tradeId, side)
+    private final Map<Long, Long> itemLocations;
+    // Guarded by the log
+    private final Map<String, Counter> counters;
+    private final ScheduledExecutorService maintenance;
+    private final double compactionThreshold;
+    private final Logger logger;
+
+    /**
+     * Latest scalar fields of a trade (item lists empty) and their location.
+     */
+    private static final class Entry {
+        private final TradeDocument trade;
+        private final long location;
+
+        private Entry(TradeDocument trade, long location) {
+            this.trade = trade;
+            this.location = location;
+        }
+    }
+
+    private static final class Counter {
+        private final long seq;
+        private final long location;
+
+        private Counter(long seq, long location) {
+            this.seq = seq;
+            this.location = location;
+        }
+    }
+
+    /**
+     * Opens the log, replays it and starts the background tasks.
+     *
+     * @param directory                 Directory holding the segment files
+     * @param segmentSize               Size of each segment file in bytes
+     * @param syncIntervalMillis        Time between flushes to disk
+     * @param compactionIntervalMinutes Time between compaction runs
+     * @param compactionThreshold       Live fraction below which a segment is
+     *                                  rewritten
+     * @param logger                    Logger for recovery and maintenance
+     * @throws IOException if the segments cannot be opened
+     */
+    public LogTradeRepository(Path directory, int segmentSize, long syncIntervalMillis,
+            long compactionIntervalMinutes, double compactionThreshold, Logger logger) throws IOException {
+        this.log = new SegmentLog(directory, segmentSize, logger);
+        this.trades = new ConcurrentHashMap<>();
+        this.itemLocations = new ConcurrentHashMap<>();
+        this.counters = new HashMap<>();
+        this.compactionThreshold = compactionThreshold;
+        this.logger = logger;
+
+        long start = System.currentTimeMillis();
+        log.replay(this::apply);
+        removeOrphanItems();
+        logger.info(String.format("Trade log replayed: %d trades from %d segments in %dms",
+                trades.size(), log.getSegmentCount(), System.currentTimeMillis() - start));
+
+        this.maintenance = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "PrismaMC-TradeLog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long sync = Math.max(100L, syncIntervalMillis);
+        long compaction = Math.max(1L, compactionIntervalMinutes);
+        maintenance.scheduleWithFixedDelay(log::force, sync, sync, TimeUnit.MILLISECONDS);
+        maintenance.scheduleWithFixedDelay(this::compact, compaction, compaction, TimeUnit.MINUTES);
+        maintenance.scheduleWithFixedDelay(this::removeExpired, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @Override
+    public void close() {
+        maintenance.shutdown();
+        try {
+            maintenance.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        log.close();
+    }
+
+    /**
+     * Applies one replayed record to the index.
+     */
+    private void apply(long location, byte type, ByteBuffer payload) {
+        Document doc = decode(payload);
+        switch (type) {
+            case TRADE -> {
+                TradeDocument trade = new TradeDocument(doc);
+                Entry previous = trades.put(trade.getTradeId(), new Entry(trade, location));
+                if (previous != null) {
+                    log.markDead(previous.location);
+                }
+            }
+            case ITEMS -> {
+                Long previous = itemLocations.put(itemsKey(doc.getLong("tradeId"), doc.getInteger("side")),
+                        location);
+                if (previous != null) {
+                    log.markDead(previous);
+                }
+            }
+            case DELETE -> removeFromIndex(doc.getLong("tradeId"));
+            case COUNTER -> {
+                Counter previous = counters.put(doc.getString("_id"), new Counter(doc.getLong("seq"), location));
+                if (previous != null) {
+                    log.markDead(previous.location);
+                }
+            }
+            default -> logger.warning("Skipping unknown trade log record type " + type);
+        }
+    }
+
+    /**
+     * Drops item records whose trade no longer exists.
+     */
+    private void removeOrphanItems() {
+        itemLocations.entrySet().removeIf(item -> {
+            if (trades.containsKey(item.getKey() >> 1)) {
+                return false;
+            }
+            log.markDead(item.getValue());
+            return true;
+        });
+    }
+
+    /**
+     * Rewrites segments that are mostly superseded records.
+     */
+    private void compact() {
+        try {
+            int removed = log.compact(compactionThreshold, new SegmentLog.CompactionHandler() {
+                @Override
+                public boolean isLive(long location, byte type, ByteBuffer payload) {
+                    Document doc = decode(payload);
+                    return switch (type) {
+                        case TRADE -> {
+                            Entry entry = trades.get(doc.getLong("tradeId"));
+                            yield entry != null && entry.location == location;
+                        }
+                        case ITEMS -> {
+                            Long current = itemLocations.get(itemsKey(doc.getLong("tradeId"),
+                                    doc.getInteger("side")));
+                            yield current != null && current == location;
+                        }
+                        // Still hides the trade's records in older segments
+                        case DELETE -> !log.isInOldestSegment(location);
+                        case COUNTER -> {
+                            Counter counter = counters.get(doc.getString("_id"));
+                            yield counter != null && counter.location == location;
+                        }
+                        default -> false;
+                    };
+                }
+
+                @Override
+                public void moved(long oldLocation, long newLocation, byte type, ByteBuffer payload) {
+                    Document doc = decode(payload);
+                    switch (type) {
+                        case TRADE -> trades.computeIfPresent(doc.getLong("tradeId"),
+                                (id, entry) -> new Entry(entry.trade, newLocation));
+                        case ITEMS -> itemLocations.put(itemsKey(doc.getLong("tradeId"), doc.getInteger("side")),
+                                newLocation);
+                        case COUNTER -> counters.computeIfPresent(doc.getString("_id"),
+                                (name, counter) -> new Counter(counter.seq, newLocation));
+                        default -> {
+                        }
+                    }
+                }
+            });
+            if (removed > 0) {
+                logger.info("Compacted " + removed + " trade log segments");
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Error compacting trade log: {0}", e.getMessage());
+        }
+    }
+
+    /**
+     * Deletes every trade whose expiry has passed.
+     */
+    private void removeExpired() {
+        Date now = new Date();
+        List<Long> expired = trades.values().stream()
+                .filter(entry -> entry.trade.getExpiresAt() != null && entry.trade.getExpiresAt().before(now))
+                .map(entry -> entry.trade.getTradeId())
+                .collect(Collectors.toList());
+        try {
+            expired.forEach(this::remove);
+            if (!expired.isEmpty()) {
+                logger.fine("Removed " + expired.size() + " expired trades from the trade log");
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.SEVERE, "Error removing expired trades: {0}", e.getMessage());
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> findHighestTradeId() {
+        return CompletableFuture.completedFuture(
+                trades.keySet().stream().mapToLong(Long::longValue).max().orElse(0L));
+    }
+
+    @Override
+    public CompletableFuture<Long> reserveIds(String counterName, long floor, int count) {
+        return call(() -> {
+            synchronized (log) {
+                Counter current = counters.get(counterName);
+                long seq = Math.max(current != null ? current.seq : 0L, floor) + count;
+                long location = log.append(COUNTER, encode(new Document("_id", counterName).append("seq", seq)));
+                counters.put(counterName, new Counter(seq, location));
+                if (current != null) {
+                    log.markDead(current.location);
+                }
+                return seq;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> backfillExpiry(Map<TradeState, Long> windows) {
+        return call(() -> trades.keySet().stream()
+                .filter(tradeId -> {
+                    Entry entry = trades.get(tradeId);
+                    Long window = entry != null ? windows.get(entry.trade.getState()) : null;
+                    return window != null && entry.trade.getExpiresAt() == null
+                            && update(tradeId, trade -> trade.setExpiresAt(new Date(trade.getTimestamp() + window)));
+                })
+                .count());
+    }
+
+    @Override
+    public CompletableFuture<Void> insert(TradeDocument trade) {
+        return call(() -> {
+            synchronized (log) {
+                if (trades.containsKey(trade.getTradeId())) {
+                    throw new IllegalStateException("Trade " + trade.getTradeId() + " already exists");
+                }
+                writeTrade(trade.copy());
+                writeItems(trade.getTradeId(), 1, trade.getPlayer1Items());
+                writeItems(trade.getTradeId(), 2, trade.getPlayer2Items());
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<TradeDocument> find(long tradeId) {
+        return call(() -> {
+            Entry entry = trades.get(tradeId);
+            if (entry == null) {
+                return null;
+            }
+            TradeDocument trade = entry.trade.copy();
+            trade.setPlayer1Items(readItems(tradeId, 1));
+            trade.setPlayer2Items(readItems(tradeId, 2));
+            return trade;
+        });
+    }
+
+    @Override
+    public CompletableFuture<TradeSummary> findSummary(long tradeId) {
+        Entry entry = trades.get(tradeId);
+        return CompletableFuture.completedFuture(entry != null ? new TradeSummary(entry.trade) : null);
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> findOpenTradeIds(UUID playerUUID) {
+        return CompletableFuture.completedFuture(select(trade -> involves(trade, playerUUID) && isOpen(trade))
+                .stream()
+                .map(TradeDocument::getTradeId)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasOpenTrade(UUID player1, UUID player2) {
+        return CompletableFuture.completedFuture(trades.values().stream()
+                .map(entry -> entry.trade)
+                .anyMatch(trade -> isOpen(trade)
+                        && (trade.getPlayer1().equals(player1) && trade.getPlayer2().equals(player2)
+                                || trade.getPlayer1().equals(player2) && trade.getPlayer2().equals(player1))));
+    }
+
+    @Override
+    public CompletableFuture<List<TradeSummary>> findOpenTrades() {
+        return CompletableFuture.completedFuture(select(LogTradeRepository::isOpen).stream()
+                .map(TradeSummary::new)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<List<TradeDocument>> findOpenTradesWithItems(UUID playerUUID) {
+        return call(() -> select(trade -> involves(trade, playerUUID) && isOpen(trade))
+                .stream()
+                .map(stored -> {
+                    TradeDocument trade = stored.copy();
+                    trade.setPlayer1Items(readItems(trade.getTradeId(), 1));
+                    trade.setPlayer2Items(readItems(trade.getTradeId(), 2));
+                    return trade;
+                })
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> findAllTradeIds() {
+        return CompletableFuture.completedFuture(new ArrayList<>(trades.keySet()));
+    }
+
+    @Override
+    public CompletableFuture<Long> countTrades(UUID playerUUID, TradeState state) {
+        return CompletableFuture.completedFuture(trades.values().stream()
+                .map(entry -> entry.trade)
+                .filter(trade -> trade.getState() == state && involves(trade, playerUUID))
+                .count());
+    }
+
+    @Override
+    public CompletableFuture<List<TradeDocument>> findHistory(UUID playerUUID) {
+        return CompletableFuture.completedFuture(select(trade -> involves(trade, playerUUID)).stream()
+                .map(TradeDocument::copy)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<List<TradeDocument>> findArchivedHistory(UUID playerUUID, long beforeTradeId,
+            int limit) {
+        return CompletableFuture.completedFuture(new ArrayList<>());
+    }
+
+    @Override
+    public CompletableFuture<Void> updateState(long tradeId, TradeState state, Date expiresAt) {
+        return call(() -> {
+            update(tradeId, trade -> {
+                trade.setState(state);
+                trade.setExpiresAt(expiresAt);
+            });
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> updateFields(long tradeId, Map<String, Object> fields) {
+        return call(() -> {
+            update(tradeId, trade -> trade.applyFields(fields));
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> updatePlayerField(long tradeId, UUID playerUUID, String player1Field,
+            String player2Field, Object value) {
+        return call(() -> {
+            update(tradeId, trade -> trade.applyFields(
+                    Map.of(trade.getPlayer1().equals(playerUUID) ? player1Field : player2Field, value)));
+            return null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<Long> saveTrades(List<TradeDocument> tradeDocuments) {
+        return call(() -> tradeDocuments.stream()
+                .filter(source -> {
+                    synchronized (log) {
+                        if (!update(source.getTradeId(), trade -> {
+                            trade.setState(source.getState());
+                            trade.setExpiresAt(source.getExpiresAt());
+                        })) {
+                            return false;
+                        }
+                        writeItems(source.getTradeId(), 1, source.getPlayer1Items());
+                        writeItems(source.getTradeId(), 2, source.getPlayer2Items());
+                        return true;
+                    }
+                })
+                .count());
+    }
+
+    @Override
+    public CompletableFuture<Void> saveCompletion(TradeDocument source) {
+        return call(() -> {
+            synchronized (log) {
+                if (update(source.getTradeId(), trade -> {
+                    trade.setState(source.getState());
+                    trade.setItemsSentToPlayer1(source.areItemsSentToPlayer1());
+                    trade.setItemsSentToPlayer2(source.areItemsSentToPlayer2());
+                    trade.setExpiresAt(source.getExpiresAt());
+                })) {
+                    writeItems(source.getTradeId(), 1, source.getPlayer1Items());
+                    writeItems(source.getTradeId(), 2, source.getPlayer2Items());
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> storeItems(long tradeId, int side, List<ItemStack> items, Date expiresAt) {
+        return call(() -> {
+            synchronized (log) {
+                if (trades.containsKey(tradeId)) {
+                    writeItems(tradeId, side, items);
+                }
+                return null;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<ItemStack>> takeItems(long tradeId, int side) {
+        return call(() -> {
+            synchronized (log) {
+                List<ItemStack> items = readItems(tradeId, side);
+                if (!items.isEmpty()) {
+                    writeItems(tradeId, side, new ArrayList<>());
+                }
+                return items;
+            }
+        });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(long tradeId) {
+        return call(() -> {
+            remove(tradeId);
+            return null;
+        });
+    }
+
+    /**
+     * Appends a modified copy of a trade's scalar fields.
+     *
+     * @param tradeId  The ID of the trade
+     * @param mutation Changes applied to the copy
+     * @return True if the trade exists
+     */
+    private boolean update(long tradeId, Consumer<TradeDocument> mutation) {
+        synchronized (log) {
+            Entry current = trades.get(tradeId);
+            if (current == null) {
+                return false;
+            }
+            TradeDocument next = current.trade.copy();
+            mutation.accept(next);
+            writeTrade(next);
+            return true;
+        }
+    }
+
+    /**
+     * Appends a delete marker and drops the trade from the index.
+     */
+    private void remove(long tradeId) {
+        synchronized (log) {
+            if (trades.containsKey(tradeId)) {
+                log.append(DELETE, encode(new Document("tradeId", tradeId)));
+                removeFromIndex(tradeId);
+            }
+        }
+    }
+
+    // Caller holds the log lock (or is replaying)
+    private void removeFromIndex(long tradeId) {
+        Entry entry = trades.remove(tradeId);
+        if (entry != null) {
+            log.markDead(entry.location);
+        }
+        for (int side = 1; side <= 2; side++) {
+            Long items = itemLocations.remove(itemsKey(tradeId, side));
+            if (items != null) {
+                log.markDead(items);
+            }
+        }
+    }
+
+    // Caller holds the log lock; item lists of the trade are not written
+    private void writeTrade(TradeDocument trade) {
+        long location = log.append(TRADE, encode(trade.toDocument()));
+        trade.setPlayer1Items(new ArrayList<>());
+        trade.setPlayer2Items(new ArrayList<>());
+        Entry previous = trades.put(trade.getTradeId(), new Entry(trade, location));
+        if (previous != null) {
+            log.markDead(previous.location);
+        }
+    }
+
+    // Caller holds the log lock
+    private void writeItems(long tradeId, int side, List<ItemStack> items) {
+        long location = log.append(ITEMS, encode(new Document("tradeId", tradeId)
+                .append("side", side)
+                .append("items", TradeDocument.serializeItems(items))));
+        Long previous = itemLocations.put(itemsKey(tradeId, side), location);
+        if (previous != null) {
+            log.markDead(previous);
+        }
+    }
+
+    private List<ItemStack> readItems(long tradeId, int side) {
+        long key = itemsKey(tradeId, side);
+        Long location = itemLocations.get(key);
+        while (location != null) {
+            ByteBuffer payload;
+            try {
+                payload = log.read(location);
+            } catch (IllegalStateException e) {
+                // Compaction moved the record and dropped its segment after the
+                // lookup; the index already points at the copy
+                Long current = itemLocations.get(key);
+                if (location.equals(current)) {
+                    throw e;
+                }
+                location = current;
+                continue;
+            }
+            return TradeDocument.deserializeItems(decode(payload).get("items"));
+        }
+        return new ArrayList<>();
+    }
+
+    /**
+     * @return Stored trades matching the predicate (not copied, no items)
+     */
+    private List<TradeDocument> select(Predicate<TradeDocument> predicate) {
+        return trades.values().stream()
+                .map(entry -> entry.trade)
+                .filter(predicate)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Runs a storage operation, returning its failure as a failed future.
+     */
+    private static <T> CompletableFuture<T> call(Supplier<T> operation) {
+        try {
+            return CompletableFuture.completedFuture(operation.get());
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static long itemsKey(long tradeId, int side) {
+        return tradeId << 1 | (side - 1);
+    }
+
+    private static boolean involves(TradeDocument trade, UUID playerUUID) {
+        return trade.getPlayer1().equals(playerUUID) || trade.getPlayer2().equals(playerUUID);
+    }
+
+    private static boolean isOpen(TradeDocument trade) {
+        return trade.getState() == TradeState.PENDING || trade.getState() == TradeState.ACTIVE;
+    }
+
+    private static byte[] encode(Document doc) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        CODEC.encode(new BsonBinaryWriter(buffer), doc, EncoderContext.builder().build());
+        return buffer.toByteArray();
+    }
+
+    private static Document decode(ByteBuffer payload) {
+        return CODEC.decode(new BsonBinaryReader(payload.duplicate()), DecoderContext.builder().build());
+    }
+}
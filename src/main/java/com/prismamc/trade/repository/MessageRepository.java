@@ -0,0 +1,45 @@
+package com.prismamc.trade.repository;
+
+import com.prismamc.trade.model.Message;
+
+/**
+ * MessageRepository - Storage abstraction for translated messages
+ *
+ * MessageManager loads all messages once at startup from a background task and
+ * then serves them from memory, so this interface is synchronous.
+ *
+ * Key Features:
+ * - Lookup and insertion by message key
+ * - Single-translation updates that leave other languages untouched
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public interface MessageRepository {
+
+    /**
+     * Finds a message by key. Blocks until the message is read.
+     *
+     * @param key The message key
+     * @return The message, or null if not stored
+     */
+    Message find(String key);
+
+    /**
+     * Stores a new message. Blocks until the message is written.
+     *
+     * @param message The message to insert
+     */
+    void insert(Message message);
+
+    /**
+     * Sets one translation of a stored message. Blocks until the update is
+     * written.
+     *
+     * @param key      The message key
+     * @param language The language code
+     * @param text     The new translation
+     */
+    void updateTranslation(String key, String language, String text);
+}
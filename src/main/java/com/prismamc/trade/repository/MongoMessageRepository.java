@@ -0,0 +1,51 @@
+package com.prismamc.trade.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.model.Filters;
+import com.prismamc.trade.model.Message;
+import org.bson.Document;
+
+/**
+ * MongoMessageRepository - MongoDB storage for translated messages
+ *
+ * Stores one document per message key in the messages collection, with the
+ * translations in a sub-document keyed by language.
+ *
+ * Key Features:
+ * - Synchronous driver calls, made from MessageManager's background tasks
+ * - Translation updates set a single sub-document field
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class MongoMessageRepository implements MessageRepository {
+
+    private final MongoCollection<Document> messagesCollection;
+
+    /**
+     * Constructs a new MongoMessageRepository.
+     *
+     * @param messagesCollection The messages collection
+     */
+    public MongoMessageRepository(MongoCollection<Document> messagesCollection) {
+        this.messagesCollection = messagesCollection;
+    }
+
+    @Override
+    public Message find(String key) {
+        Document doc = messagesCollection.find(Filters.eq("key", key)).first();
+        return doc != null ? new Message(doc) : null;
+    }
+
+    @Override
+    public void insert(Message message) {
+        messagesCollection.insertOne(Document.parse(message.toDocument().toJson()));
+    }
+
+    @Override
+    public void updateTranslation(String key, String language, String text) {
+        messagesCollection.updateOne(new Document("key", key),
+                new Document("$set", new Document("translations." + language, text)));
+    }
+}
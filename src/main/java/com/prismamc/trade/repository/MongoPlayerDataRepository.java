@@ -0,0 +1,123 @@
+package com.prismamc.trade.repository;
+
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.ReplaceOptions;
+import com.prismamc.trade.database.AsyncCollection;
+import com.prismamc.trade.model.PlayerData;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+/**
+ * MongoPlayerDataRepository - MongoDB storage for player data
+ *
+ * Stores one document per player in the player_data collection.
+ *
+ * Key Features:
+ * - UUID lookups served by the unique uuid index
+ * - Exact name lookups served by the player name index
+ * - Case-insensitive name lookups served by the index on playerNameLower, a
+ * lowercase copy of the name written on every save
+ * - Language lookups served by the compound (language, uuid) index
+ * - Upserts, so saving never needs a prior read
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class MongoPlayerDataRepository implements PlayerDataRepository {
+
+    private final AsyncCollection collection;
+
+    /**
+     * Constructs a new MongoPlayerDataRepository.
+     *
+     * @param collection The player_data collection
+     */
+    public MongoPlayerDataRepository(AsyncCollection collection) {
+        this.collection = collection;
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> findByUuid(UUID uuid) {
+        return collection.findFirst(Filters.eq("uuid", uuid.toString()))
+                .thenApply(MongoPlayerDataRepository::documentToPlayerData);
+    }
+
+    @Override
+    public CompletableFuture<Void> save(PlayerData playerData) {
+        Document doc = new Document()
+                .append("uuid", playerData.getUuid().toString())
+                .append("playerName", playerData.getPlayerName())
+                .append("playerNameLower", normalizeName(playerData.getPlayerName()))
+                .append("language", playerData.getLanguage());
+
+        // Use upsert to insert new or update existing document
+        return collection.replaceOne(
+                Filters.eq("uuid", playerData.getUuid().toString()),
+                doc,
+                new ReplaceOptions().upsert(true))
+                .thenApply(result -> null);
+    }
+
+    @Override
+    public CompletableFuture<List<PlayerData>> findByLanguage(String language) {
+        return collection.find(Filters.eq("language", language)).thenApply(docs -> docs.stream()
+                .map(MongoPlayerDataRepository::documentToPlayerData)
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> findByName(String playerName) {
+        return collection.findFirst(Filters.eq("playerName", playerName))
+                .thenApply(MongoPlayerDataRepository::documentToPlayerData);
+    }
+
+    @Override
+    public CompletableFuture<PlayerData> findByNameIgnoreCase(String playerName) {
+        return collection.findFirst(nameIgnoreCaseFilter(playerName))
+                .thenApply(MongoPlayerDataRepository::documentToPlayerData);
+    }
+
+    /**
+     * Case-insensitive exact name match, shared with QueryPlanAuditor.
+     *
+     * @param playerName Name to look for
+     * @return Equality filter on the normalized name
+     */
+    public static Bson nameIgnoreCaseFilter(String playerName) {
+        return Filters.eq("playerNameLower", normalizeName(playerName));
+    }
+
+    /**
+     * Normalized form of a player name used for case-insensitive matching.
+     * Minecraft names are ASCII, so this matches MongoDB's $toLower used by
+     * the backfill.
+     *
+     * @param playerName Player name
+     * @return Lowercase name
+     */
+    public static String normalizeName(String playerName) {
+        return playerName.toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Converts a MongoDB document to a PlayerData object.
+     *
+     * @param doc MongoDB document containing player data, or null
+     * @return PlayerData object created from the document, or null
+     */
+    private static PlayerData documentToPlayerData(Document doc) {
+        if (doc == null) {
+            return null;
+        }
+        return new PlayerData(
+                UUID.fromString(doc.getString("uuid")),
+                doc.getString("playerName"),
+                doc.getString("language"));
+    }
+}
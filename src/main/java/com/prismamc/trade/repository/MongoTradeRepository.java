@@ -0,0 +1,781 @@
+package com.prismamc.trade.repository;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.BulkWriteOptions;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.FindOneAndUpdateOptions;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.ReplaceOneModel;
+import com.mongodb.client.model.ReplaceOptions;
+import com.mongodb.client.model.ReturnDocument;
+import com.mongodb.client.model.Sorts;
+import com.mongodb.client.model.UpdateManyModel;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.Updates;
+import com.mongodb.client.model.WriteModel;
+import com.prismamc.trade.database.AsyncCollection;
+import com.prismamc.trade.database.TradeItemsMigration;
+import com.prismamc.trade.manager.MongoDBManager;
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.manager.TradeWriteJournal;
+import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.model.TradeSummary;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import org.bukkit.configuration.file.FileConfiguration;
+import org.bukkit.inventory.ItemStack;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+import java.util.logging.Logger;
+import java.util.stream.Collectors;
+
+/**
+ * MongoTradeRepository - MongoDB storage for trades
+ *
+ * Stores each trade's scalar fields in the trades collection and each side's
+ * items in trade_items. Finished trades moved to trades_archive by the
+ * TradeArchiver are still found by ID and listed by findArchivedHistory.
+ *
+ * Key Features:
+ * - Trades decoded directly into TradeDocument by TradeDocumentCodec
+ * - Optional write-behind journal for field updates (trades.write-behind);
+ * buffered values are applied on every read
+ * - Expiry handled by the TTL indexes on expiresAt
+ * - Trade IDs reserved from the shared counters collection
+ * - Inline item lists of trades not yet moved by TradeItemsMigration are
+ * read as a fallback until the migration has finished
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class MongoTradeRepository implements TradeRepository {
+
+    // Non-blocking views of the collections (sync or reactive driver)
+    private final AsyncCollection trades;
+    private final AsyncCollection tradeItems;
+    private final AsyncCollection tradesArchive;
+    private final AsyncCollection counters;
+
+    // Write-behind buffer for trade mutations (null when disabled)
+    private final TradeWriteJournal writeJournal;
+
+    // False while TradeItemsMigration is still moving inline item lists
+    private final BooleanSupplier itemsMigrated;
+
+    // Everything except inline item lists left by trades not yet migrated
+    private static final Bson SUMMARY_PROJECTION = Projections.exclude("player1Items", "player2Items");
+    private static final Bson TRADE_ID_PROJECTION = Projections.fields(Projections.include("tradeId"),
+            Projections.excludeId());
+    private static final Bson INLINE_ITEMS_PROJECTION = Projections.include("tradeId", "player1Items",
+            "player2Items", "expiresAt");
+
+    /**
+     * Constructs a new MongoTradeRepository on a connected MongoDBManager.
+     *
+     * @param mongoDBManager Connected MongoDB manager
+     * @param config         Plugin configuration (trades.write-behind section)
+     * @param logger         Logger for write-behind diagnostics
+     */
+    public MongoTradeRepository(MongoDBManager mongoDBManager, FileConfiguration config, Logger logger) {
+        this.trades = mongoDBManager.getTradesAsync();
+        this.tradeItems = mongoDBManager.getTradeItemsAsync();
+        this.tradesArchive = mongoDBManager.getTradesArchiveAsync();
+        this.counters = mongoDBManager.getCountersAsync();
+        this.writeJournal = createWriteJournal(config, logger);
+        this.itemsMigrated = mongoDBManager::isTradeItemsMigrated;
+    }
+
+    /**
+     * Creates the write-behind journal from the trades.write-behind section of
+     * the configuration.
+     *
+     * @param config Plugin configuration
+     * @param logger Logger for flush diagnostics
+     * @return Configured journal, or null if write-behind is disabled
+     */
+    private TradeWriteJournal createWriteJournal(FileConfiguration config, Logger logger) {
+        if (!config.getBoolean("trades.write-behind.enabled", false)) {
+            return null;
+        }
+        return new TradeWriteJournal(
+                logger,
+                this::executeBulkWrite,
+                config.getLong("trades.write-behind.flush-interval-ms", 500L),
+                config.getInt("trades.write-behind.max-batch-size", 500),
+                config.getInt("trades.write-behind.max-pending-trades", 1000),
+                config.getInt("trades.write-behind.max-buffered-trades", 5000));
+    }
+
+    // Query filters, shared with QueryPlanAuditor so the audited shapes are
+    // exactly the ones issued here
+
+    /** Open (pending or active) trades the player takes part in */
+    public static Bson openTradesFilter(UUID playerUUID) {
+        return Filters.and(involvesFilter(playerUUID), openStateFilter());
+    }
+
+    /** Open trades between two players, in either order */
+    public static Bson openTradeBetweenFilter(UUID player1, UUID player2) {
+        return Filters.and(
+                Filters.or(
+                        Filters.and(Filters.eq("player1", player1.toString()),
+                                Filters.eq("player2", player2.toString())),
+                        Filters.and(Filters.eq("player1", player2.toString()),
+                                Filters.eq("player2", player1.toString()))),
+                openStateFilter());
+    }
+
+    /** Item lists of several trades */
+    public static Bson itemsOfTradesFilter(Collection<Long> tradeIds) {
+        return Filters.in("tradeId", tradeIds);
+    }
+
+    /** The given trades, if they still store items inline */
+    public static Bson inlineItemsFilter(Collection<Long> tradeIds) {
+        return Filters.and(Filters.in("tradeId", tradeIds), TradeItemsMigration.INLINE_ITEMS_FILTER);
+    }
+
+    /** Every open trade */
+    public static Bson allOpenTradesFilter() {
+        return openStateFilter();
+    }
+
+    /** Trades of the player in one state */
+    public static Bson countFilter(UUID playerUUID, TradeState state) {
+        return Filters.and(involvesFilter(playerUUID), Filters.eq("state", state.name()));
+    }
+
+    /** Every trade of the player */
+    public static Bson historyFilter(UUID playerUUID) {
+        return involvesFilter(playerUUID);
+    }
+
+    /** Archived trades of the player older than the given trade ID */
+    public static Bson archivedHistoryFilter(UUID playerUUID, long beforeTradeId) {
+        return Filters.and(involvesFilter(playerUUID), Filters.lt("tradeId", beforeTradeId));
+    }
+
+    /** Trades in a state that have no expiry date yet */
+    public static Bson backfillFilter(TradeState state) {
+        return Filters.and(Filters.eq("state", state.name()), Filters.exists("expiresAt", false));
+    }
+
+    private static Bson involvesFilter(UUID playerUUID) {
+        return Filters.or(Filters.eq("player1", playerUUID.toString()),
+                Filters.eq("player2", playerUUID.toString()));
+    }
+
+    private static Bson openStateFilter() {
+        return Filters.in("state", TradeState.PENDING.name(), TradeState.ACTIVE.name());
+    }
+
+    @Override
+    public void close() {
+        if (writeJournal != null) {
+            writeJournal.shutdown();
+        }
+    }
+
+    @Override
+    public CompletableFuture<Long> findHighestTradeId() {
+        return trades.findFirst(new Document(), new Document("tradeId", 1), new Document("tradeId", -1))
+                .thenApply(lastTrade -> lastTrade != null ? lastTrade.getLong("tradeId") : 0L);
+    }
+
+    @Override
+    public CompletableFuture<Long> reserveIds(String counterName, long floor, int count) {
+        List<Document> pipeline = Arrays.asList(new Document("$set", new Document("seq",
+                new Document("$add", Arrays.asList(
+                        new Document("$max", Arrays.asList("$seq", floor)),
+                        (long) count)))));
+
+        return counters.findOneAndUpdate(Filters.eq("_id", counterName), pipeline,
+                new FindOneAndUpdateOptions()
+                        .projection(Projections.include("seq"))
+                        .returnDocument(ReturnDocument.AFTER)
+                        .upsert(true))
+                .thenApply(doc -> ((Number) doc.get("seq")).longValue());
+    }
+
+    @Override
+    public CompletableFuture<Long> backfillExpiry(Map<TradeState, Long> windows) {
+        List<WriteModel<Document>> writes = new ArrayList<>();
+        windows.forEach((state, window) -> writes.add(new UpdateManyModel<>(
+                backfillFilter(state),
+                List.of(new Document("$set", new Document("expiresAt",
+                        new Document("$toDate", new Document("$add", Arrays.asList("$timestamp", window)))))))));
+        if (writes.isEmpty()) {
+            return CompletableFuture.completedFuture(0L);
+        }
+
+        return trades.bulkWrite(writes, new BulkWriteOptions().ordered(false))
+                .thenApply(result -> (long) result.getModifiedCount());
+    }
+
+    @Override
+    public CompletableFuture<Void> insert(TradeDocument trade) {
+        return trades.insertOne(trade, TradeDocument.class);
+    }
+
+    /**
+     * Finds a trade by ID with any buffered write-behind updates applied on top
+     * of the stored values. The item lists of both sides are read from
+     * trade_items in parallel. Trades no longer in the trades collection are
+     * looked up in the archive.
+     */
+    @Override
+    public CompletableFuture<TradeDocument> find(long tradeId) {
+        return trades.findFirst(Filters.eq("tradeId", tradeId), SUMMARY_PROJECTION, TradeDocument.class)
+                .thenApply(trade -> trade != null && writeJournal != null
+                        ? trade.applyFields(writeJournal.snapshot(tradeId))
+                        : trade)
+                .thenCombine(findItems(List.of(tradeId), Filters.eq("tradeId", tradeId)), (trade, itemDocs) -> {
+                    if (trade != null) {
+                        itemDocs.forEach(itemDoc -> {
+                            List<ItemStack> items = TradeDocument.deserializeItems(itemDoc.get("items"));
+                            if (itemDoc.getInteger("side") == 1) {
+                                trade.setPlayer1Items(items);
+                            } else {
+                                trade.setPlayer2Items(items);
+                            }
+                        });
+                    }
+                    return trade;
+                })
+                .thenCompose(trade -> trade != null
+                        ? CompletableFuture.completedFuture(trade)
+                        : findArchivedTrade(tradeId));
+    }
+
+    /**
+     * Finds an archived trade by ID. Archived documents embed both sides' item
+     * lists.
+     *
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture containing the trade, or null if not archived
+     */
+    private CompletableFuture<TradeDocument> findArchivedTrade(long tradeId) {
+        return tradesArchive.findFirst(Filters.eq("tradeId", tradeId))
+                .thenApply(doc -> doc != null ? new TradeDocument(doc) : null);
+    }
+
+    /**
+     * Falls back to the archive like find, so archived trades are never
+     * reported (and negatively cached) as missing. The archive copy is written
+     * before the trade is removed, so a trade is always in one of the two.
+     */
+    @Override
+    public CompletableFuture<TradeSummary> findSummary(long tradeId) {
+        return trades.findFirst(Filters.eq("tradeId", tradeId), SUMMARY_PROJECTION, (Bson) null).thenCompose(doc -> {
+            if (doc == null) {
+                return findArchivedSummary(tradeId);
+            }
+            if (writeJournal != null) {
+                writeJournal.overlay(tradeId, doc);
+            }
+            return CompletableFuture.completedFuture(new TradeSummary(doc));
+        });
+    }
+
+    /**
+     * Finds the scalar fields of an archived trade, skipping its embedded item
+     * lists.
+     *
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture containing the summary, or null if not archived
+     */
+    private CompletableFuture<TradeSummary> findArchivedSummary(long tradeId) {
+        return tradesArchive.findFirst(Filters.eq("tradeId", tradeId), SUMMARY_PROJECTION, (Bson) null)
+                .thenApply(doc -> doc != null ? new TradeSummary(doc) : null);
+    }
+
+    @Override
+    public CompletableFuture<List<Long>> findOpenTradeIds(UUID playerUUID) {
+        Bson filter = openTradesFilter(playerUUID);
+        return trades.find(filter, Projections.include("tradeId", "state"), null, 0).thenApply(docs -> {
+            // Apply buffered updates and drop trades that are no longer open
+            if (writeJournal != null) {
+                docs.forEach(doc -> writeJournal.overlay(doc.getLong("tradeId"), doc));
+                docs.removeIf(doc -> !isOpenState(doc.getString("state")));
+            }
+
+            // Extract trade IDs
+            return docs.stream()
+                    .map(doc -> doc.getLong("tradeId"))
+                    .collect(Collectors.toList());
+        });
+    }
+
+    @Override
+    public CompletableFuture<Boolean> hasOpenTrade(UUID player1, UUID player2) {
+        Bson filter = openTradeBetweenFilter(player1, player2);
+        return trades.findFirst(filter, Projections.include("tradeId", "state"), (Bson) null).thenApply(doc -> {
+            // Apply buffered updates; a buffered state change may have closed the trade
+            if (doc != null && writeJournal != null) {
+                writeJournal.overlay(doc.getLong("tradeId"), doc);
+                return isOpenState(doc.getString("state"));
+            }
+            return doc != null;
+        });
+    }
+
+    @Override
+    public CompletableFuture<List<TradeSummary>> findOpenTrades() {
+        return trades.find(allOpenTradesFilter(), SUMMARY_PROJECTION, null, 0).thenApply(docs -> {
+            if (writeJournal != null) {
+                docs.forEach(doc -> writeJournal.overlay(doc.getLong("tradeId"), doc));
+                docs.removeIf(doc -> !isOpenState(doc.getString("state")));
+            }
+            return docs.stream()
+                    .map(TradeSummary::new)
+                    .collect(Collectors.toList());
+        });
+    }
+
+    /**
+     * Reads the player's open trades, then the item lists of all of them in a
+     * single trade_items query, so the cost is two indexed round trips
+     * whatever the number of trades.
+     */
+    @Override
+    public CompletableFuture<List<TradeDocument>> findOpenTradesWithItems(UUID playerUUID) {
+        return trades.find(openTradesFilter(playerUUID), SUMMARY_PROJECTION, TradeDocument.class)
+                .thenCompose(found -> {
+                    // Apply buffered updates and drop trades that are no longer open
+                    Map<Long, TradeDocument> open = new LinkedHashMap<>();
+                    found.forEach(trade -> {
+                        if (writeJournal != null) {
+                            trade.applyFields(writeJournal.snapshot(trade.getTradeId()));
+                        }
+                        if (isOpenState(trade.getState().name())) {
+                            open.put(trade.getTradeId(), trade);
+                        }
+                    });
+                    if (open.isEmpty()) {
+                        return CompletableFuture.completedFuture(new ArrayList<>());
+                    }
+
+                    return findItems(open.keySet(), itemsOfTradesFilter(open.keySet())).thenApply(itemDocs -> {
+                        itemDocs.forEach(itemDoc -> {
+                            TradeDocument trade = open.get(itemDoc.getLong("tradeId"));
+                            if (trade == null) {
+                                return;
+                            }
+                            List<ItemStack> items = TradeDocument.deserializeItems(itemDoc.get("items"));
+                            if (itemDoc.getInteger("side") == 1) {
+                                trade.setPlayer1Items(items);
+                            } else {
+                                trade.setPlayer2Items(items);
+                            }
+                        });
+                        return new ArrayList<>(open.values());
+                    });
+                });
+    }
+
+    /**
+     * Reads the IDs from trades and then from the archive. A trade archived in
+     * between is in the archive by the second read, so none is missed. Both
+     * reads are covered by the tradeId indexes.
+     */
+    @Override
+    public CompletableFuture<List<Long>> findAllTradeIds() {
+        return trades.find(new Document(), TRADE_ID_PROJECTION, Sorts.ascending("tradeId"), 0)
+                .thenCompose(live -> tradesArchive.find(new Document(), TRADE_ID_PROJECTION,
+                        Sorts.ascending("tradeId"), 0).thenApply(archived -> {
+                            List<Long> ids = new ArrayList<>(live.size() + archived.size());
+                            live.forEach(doc -> ids.add(doc.getLong("tradeId")));
+                            archived.forEach(doc -> ids.add(doc.getLong("tradeId")));
+                            return ids;
+                        }));
+    }
+
+    /**
+     * Counts in the database while nothing is buffered. Otherwise a buffered
+     * state change may move a trade in or out of the count, so the player's
+     * trade states are read and overlaid instead.
+     */
+    @Override
+    public CompletableFuture<Long> countTrades(UUID playerUUID, TradeState state) {
+        if (writeJournal == null || !writeJournal.hasBufferedUpdates()) {
+            return trades.countDocuments(countFilter(playerUUID, state));
+        }
+        return trades.find(historyFilter(playerUUID), Projections.include("tradeId", "state"), null, 0)
+                .thenApply(docs -> docs.stream()
+                        .map(doc -> writeJournal.overlay(doc.getLong("tradeId"), doc))
+                        .filter(doc -> state.name().equals(doc.getString("state")))
+                        .count());
+    }
+
+    @Override
+    public CompletableFuture<List<TradeDocument>> findHistory(UUID playerUUID) {
+        return trades.find(historyFilter(playerUUID), SUMMARY_PROJECTION, TradeDocument.class).thenApply(history -> {
+            if (writeJournal != null) {
+                history.forEach(trade -> trade.applyFields(writeJournal.snapshot(trade.getTradeId())));
+            }
+            return history;
+        });
+    }
+
+    /**
+     * Pages are addressed by the lowest trade ID of the previous page, so each
+     * page is a single index range scan regardless of its depth.
+     */
+    @Override
+    public CompletableFuture<List<TradeDocument>> findArchivedHistory(UUID playerUUID, long beforeTradeId,
+            int limit) {
+        Bson filter = archivedHistoryFilter(playerUUID, beforeTradeId);
+        return tradesArchive.find(filter, SUMMARY_PROJECTION, new Document("tradeId", -1), limit)
+                .thenApply(docs -> docs.stream()
+                        .map(TradeDocument::new)
+                        .collect(Collectors.toList()));
+    }
+
+    @Override
+    public CompletableFuture<Void> updateState(long tradeId, TradeState state, Date expiresAt) {
+        Map<String, Object> fields = new LinkedHashMap<>();
+        fields.put("state", state.name());
+        fields.put("expiresAt", expiresAt);
+
+        // The items documents share the trade's expiry
+        return updateFields(tradeId, fields)
+                .thenCombine(tradeItems.bulkWrite(
+                        List.of(new UpdateManyModel<Document>(Filters.eq("tradeId", tradeId),
+                                Updates.set("expiresAt", expiresAt))),
+                        new BulkWriteOptions().ordered(false)), (v, itemsResult) -> v);
+    }
+
+    /**
+     * Goes through the write-behind journal when enabled, otherwise writes
+     * directly. When the journal refuses the update (buffer full), buffered
+     * fields of the trade are folded into the direct write.
+     */
+    @Override
+    public CompletableFuture<Void> updateFields(long tradeId, Map<String, Object> fields) {
+        if (writeJournal != null && writeJournal.enqueue(tradeId, fields)) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return drainBuffered(tradeId)
+                .thenCompose(buffered -> {
+                    Document set = new Document(buffered);
+                    set.putAll(fields);
+                    return trades.updateOne(Filters.eq("tradeId", tradeId), new Document("$set", set));
+                })
+                .thenApply(result -> null);
+    }
+
+    /**
+     * A single pipeline update lets the server pick the field by comparing
+     * player1 with the player. Buffered updates are folded into the same write.
+     */
+    @Override
+    public CompletableFuture<Void> updatePlayerField(long tradeId, UUID playerUUID, String player1Field,
+            String player2Field, Object value) {
+        return drainBuffered(tradeId)
+                .thenCompose(buffered -> trades.updateOne(
+                        Filters.eq("tradeId", tradeId),
+                        playerFieldPipeline(buffered, playerUUID, player1Field, player2Field, value)))
+                .thenApply(result -> null);
+    }
+
+    @Override
+    public CompletableFuture<Long> saveTrades(List<TradeDocument> tradeDocuments) {
+        // Prepare batch write operations, folding in buffered updates
+        List<CompletableFuture<WriteModel<Document>>> models = tradeDocuments.stream()
+                .map(trade -> drainBuffered(trade.getTradeId()).thenApply(buffered -> {
+                    Document fields = new Document(buffered)
+                            .append("state", trade.getState().name())
+                            .append("expiresAt", trade.getExpiresAt());
+                    return (WriteModel<Document>) new UpdateOneModel<Document>(
+                            Filters.eq("tradeId", trade.getTradeId()),
+                            new Document("$set", fields));
+                }))
+                .collect(Collectors.toList());
+
+        // Item lists are replaced in trade_items
+        List<WriteModel<Document>> itemWrites = new ArrayList<>();
+        tradeDocuments.forEach(trade -> {
+            itemWrites.add(itemsWrite(trade.getTradeId(), 1, trade.getPlayer1Items(), trade.getExpiresAt()));
+            itemWrites.add(itemsWrite(trade.getTradeId(), 2, trade.getPlayer2Items(), trade.getExpiresAt()));
+        });
+
+        return CompletableFuture.allOf(models.toArray(new CompletableFuture[0])).thenCompose(v -> {
+            List<WriteModel<Document>> writes = models.stream()
+                    .map(CompletableFuture::join)
+                    .collect(Collectors.toList());
+
+            // Execute batch write if there are operations to perform
+            if (writes.isEmpty()) {
+                return CompletableFuture.completedFuture(0L);
+            }
+            return executeBulkWrite(writes)
+                    .thenCombine(tradeItems.bulkWrite(itemWrites, new BulkWriteOptions().ordered(false)),
+                            (result, itemsResult) -> (long) result.getModifiedCount());
+        });
+    }
+
+    /**
+     * Buffered updates are folded into the write, so the completion is written
+     * directly and never overwritten by a later flush.
+     */
+    @Override
+    public CompletableFuture<Void> saveCompletion(TradeDocument trade) {
+        long tradeId = trade.getTradeId();
+        CompletableFuture<Void> tradeUpdate = drainBuffered(tradeId).thenCompose(buffered -> {
+            Document finalFields = new Document(buffered)
+                    .append("state", trade.getState().name())
+                    .append("itemsSentToPlayer1", trade.areItemsSentToPlayer1())
+                    .append("itemsSentToPlayer2", trade.areItemsSentToPlayer2())
+                    .append("expiresAt", trade.getExpiresAt());
+            return trades.updateOne(
+                    Filters.eq("tradeId", tradeId),
+                    new Document("$set", finalFields))
+                    .thenApply(result -> null);
+        });
+        CompletableFuture<BulkWriteResult> itemsUpdate = tradeItems.bulkWrite(List.of(
+                itemsWrite(tradeId, 1, trade.getPlayer1Items(), trade.getExpiresAt()),
+                itemsWrite(tradeId, 2, trade.getPlayer2Items(), trade.getExpiresAt())),
+                new BulkWriteOptions().ordered(false));
+
+        return tradeUpdate.thenCombine(itemsUpdate, (v, itemsResult) -> v);
+    }
+
+    @Override
+    public CompletableFuture<Void> storeItems(long tradeId, int side, List<ItemStack> items, Date expiresAt) {
+        // Replace the side's items document; the trade document is not touched
+        return tradeItems.replaceOne(itemsFilter(tradeId, side),
+                itemsDocument(tradeId, side, items, expiresAt),
+                new ReplaceOptions().upsert(true))
+                .thenApply(result -> null);
+    }
+
+    @Override
+    public CompletableFuture<List<ItemStack>> takeItems(long tradeId, int side) {
+        // Clear the items and return the previous value in a single operation
+        return migrateInlineItems(tradeId).thenCompose(moved -> tradeItems.findOneAndUpdate(
+                itemsFilter(tradeId, side),
+                List.of(new Document("$set", new Document("items",
+                        new Document("$literal", TradeDocument.serializeItems(new ArrayList<>()))))),
+                new FindOneAndUpdateOptions()
+                        .projection(Projections.include("items"))
+                        .returnDocument(ReturnDocument.BEFORE))
+                .thenApply(before -> before != null ? TradeDocument.deserializeItems(before.get("items"))
+                        : new ArrayList<ItemStack>()));
+    }
+
+    /**
+     * Reads items documents and, while TradeItemsMigration is still running,
+     * adds the inline lists of the given trades as documents of the same shape
+     * for sides that have no items document yet.
+     *
+     * @param tradeIds    IDs of the trades
+     * @param itemsFilter Filter selecting their items documents
+     * @return CompletableFuture containing {tradeId, side, items} documents
+     */
+    private CompletableFuture<List<Document>> findItems(Collection<Long> tradeIds, Bson itemsFilter) {
+        CompletableFuture<List<Document>> itemDocs = tradeItems.find(itemsFilter);
+        if (itemsMigrated.getAsBoolean()) {
+            return itemDocs;
+        }
+        return itemDocs.thenCombine(trades.find(inlineItemsFilter(tradeIds), INLINE_ITEMS_PROJECTION, null, 0),
+                (stored, inline) -> {
+                    // Items documents are newer than the inline lists they replace
+                    Set<String> storedSides = new HashSet<>();
+                    stored.forEach(doc -> storedSides.add(doc.getLong("tradeId") + ":" + doc.getInteger("side")));
+
+                    List<Document> merged = new ArrayList<>(stored);
+                    for (Document trade : inline) {
+                        long id = trade.getLong("tradeId");
+                        for (int side = 1; side <= 2; side++) {
+                            Object items = trade.get("player" + side + "Items");
+                            if (items != null && !storedSides.contains(id + ":" + side)) {
+                                merged.add(new Document("tradeId", id).append("side", side).append("items", items));
+                            }
+                        }
+                    }
+                    return merged;
+                });
+    }
+
+    /**
+     * Moves a trade's inline item lists to trade_items the same way
+     * TradeItemsMigration does, so items are always taken from trade_items and
+     * the migration can never copy back items that were already taken.
+     *
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture that completes once the trade has no inline
+     *         items left
+     */
+    private CompletableFuture<Void> migrateInlineItems(long tradeId) {
+        if (itemsMigrated.getAsBoolean()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return trades.findFirst(inlineItemsFilter(List.of(tradeId)), INLINE_ITEMS_PROJECTION, (Bson) null)
+                .thenCompose(inline -> {
+                    if (inline == null) {
+                        return CompletableFuture.completedFuture(null);
+                    }
+                    List<WriteModel<Document>> writes = new ArrayList<>();
+                    for (int side = 1; side <= 2; side++) {
+                        WriteModel<Document> write = TradeItemsMigration.itemsInsert(tradeId, side,
+                                inline.getString("player" + side + "Items"), inline.getDate("expiresAt"));
+                        if (write != null) {
+                            writes.add(write);
+                        }
+                    }
+                    // Copy first, then remove, like the migration
+                    CompletableFuture<?> copy = writes.isEmpty() ? CompletableFuture.completedFuture(null)
+                            : tradeItems.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+                    return copy.thenCompose(copied -> trades.updateOne(Filters.eq("tradeId", tradeId),
+                            Updates.combine(Updates.unset("player1Items"), Updates.unset("player2Items"))))
+                            .thenApply(result -> null);
+                });
+    }
+
+    @Override
+    public CompletableFuture<Void> delete(long tradeId) {
+        // Drop any buffered updates first
+        if (writeJournal != null) {
+            writeJournal.discard(tradeId);
+        }
+        return CompletableFuture.allOf(
+                trades.deleteOne(Filters.eq("tradeId", tradeId)),
+                tradeItems.deleteMany(Filters.eq("tradeId", tradeId)));
+    }
+
+    /**
+     * Builds the filter matching one side's items document.
+     *
+     * @param tradeId The ID of the trade
+     * @param side    1 for player1, 2 for player2
+     * @return Filter on (tradeId, side)
+     */
+    private static Bson itemsFilter(long tradeId, int side) {
+        return Filters.and(Filters.eq("tradeId", tradeId), Filters.eq("side", side));
+    }
+
+    /**
+     * Builds the trade_items document holding one side's items.
+     *
+     * @param tradeId   The ID of the trade
+     * @param side      1 for player1, 2 for player2
+     * @param items     Items to store
+     * @param expiresAt Expiry of the owning trade, or null if it never expires
+     * @return The items document
+     */
+    private static Document itemsDocument(long tradeId, int side, List<ItemStack> items, Date expiresAt) {
+        Document doc = new Document("tradeId", tradeId)
+                .append("side", side)
+                .append("items", TradeDocument.serializeItems(items));
+        // Expire together with the trade through the same TTL rule
+        if (expiresAt != null) {
+            doc.append("expiresAt", expiresAt);
+        }
+        return doc;
+    }
+
+    /**
+     * Builds an upsert replacing one side's items document.
+     *
+     * @param tradeId   The ID of the trade
+     * @param side      1 for player1, 2 for player2
+     * @param items     Items to store
+     * @param expiresAt Expiry of the owning trade, or null if it never expires
+     * @return Replace model for a bulk write on trade_items
+     */
+    private static ReplaceOneModel<Document> itemsWrite(long tradeId, int side, List<ItemStack> items,
+            Date expiresAt) {
+        return new ReplaceOneModel<>(itemsFilter(tradeId, side), itemsDocument(tradeId, side, items, expiresAt),
+                new ReplaceOptions().upsert(true));
+    }
+
+    /**
+     * Removes the buffered write-behind fields of a trade so they can be folded
+     * into a direct write.
+     *
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture containing the buffered fields, or an empty map
+     */
+    private CompletableFuture<Map<String, Object>> drainBuffered(long tradeId) {
+        return writeJournal != null ? writeJournal.drain(tradeId)
+                : CompletableFuture.completedFuture(Map.of());
+    }
+
+    /**
+     * Executes an unordered bulk write against the trades collection.
+     * Shared by saveTrades and the write-behind journal.
+     *
+     * @param writes Write operations to execute
+     * @return CompletableFuture containing the result of the bulk write
+     */
+    private CompletableFuture<BulkWriteResult> executeBulkWrite(List<WriteModel<Document>> writes) {
+        return trades.bulkWrite(writes, new BulkWriteOptions().ordered(false));
+    }
+
+    /**
+     * Builds an update pipeline that first applies any buffered fields and then
+     * sets {@code player1Field} or {@code player2Field} depending on whether the
+     * player is player1 of the trade.
+     *
+     * @param buffered     Buffered write-behind fields to apply first
+     * @param playerUUID   The player the field belongs to
+     * @param player1Field Field used when the player is player1
+     * @param player2Field Field used otherwise
+     * @param value        Value to set
+     * @return Update pipeline stages
+     */
+    private List<Document> playerFieldPipeline(Map<String, Object> buffered, UUID playerUUID,
+            String player1Field, String player2Field, Object value) {
+        List<Document> pipeline = new ArrayList<>();
+        if (!buffered.isEmpty()) {
+            Document literals = new Document();
+            buffered.forEach((field, bufferedValue) -> literals.append(field, new Document("$literal", bufferedValue)));
+            pipeline.add(new Document("$set", literals));
+        }
+
+        Document literal = new Document("$literal", value);
+        pipeline.add(new Document("$set", new Document()
+                .append(player1Field, playerCondition(playerUUID, literal, "$" + player1Field))
+                .append(player2Field, playerCondition(playerUUID, "$" + player2Field, literal))));
+        return pipeline;
+    }
+
+    /**
+     * Builds a server-side {@code $cond} expression that evaluates to
+     * {@code ifPlayer1} when the player is player1 of the trade and to
+     * {@code otherwise} when not.
+     *
+     * @param playerUUID The player to compare with player1
+     * @param ifPlayer1  Expression used when the player is player1
+     * @param otherwise  Expression used otherwise
+     * @return The $cond expression
+     */
+    private Document playerCondition(UUID playerUUID, Object ifPlayer1, Object otherwise) {
+        return new Document("$cond", Arrays.asList(
+                new Document("$eq", Arrays.asList("$player1", playerUUID.toString())),
+                ifPlayer1,
+                otherwise));
+    }
+
+    /**
+     * Checks whether a stored state name represents an open (PENDING or ACTIVE)
+     * trade.
+     *
+     * @param state State name as stored in the database
+     * @return True if the trade is still open
+     */
+    private boolean isOpenState(String state) {
+        return TradeState.PENDING.name().equals(state) || TradeState.ACTIVE.name().equals(state);
+    }
+}
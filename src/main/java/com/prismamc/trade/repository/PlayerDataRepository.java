@@ -0,0 +1,63 @@
+package com.prismamc.trade.repository;
+
+import com.prismamc.trade.model.PlayerData;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * PlayerDataRepository - Storage abstraction for player preferences
+ *
+ * PlayerDataManager keeps its cache and default values and goes through this
+ * interface for everything that is stored.
+ *
+ * Key Features:
+ * - Non-blocking API: every operation returns a CompletableFuture
+ * - Lookups by UUID, exact name, case-insensitive name and language
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public interface PlayerDataRepository {
+
+    /**
+     * Finds a player's data by UUID.
+     *
+     * @param uuid The UUID of the player
+     * @return CompletableFuture containing the data, or null if not found
+     */
+    CompletableFuture<PlayerData> findByUuid(UUID uuid);
+
+    /**
+     * Inserts or replaces a player's data.
+     *
+     * @param playerData The data to store
+     * @return CompletableFuture that completes once the data is stored
+     */
+    CompletableFuture<Void> save(PlayerData playerData);
+
+    /**
+     * Finds every player with the given language.
+     *
+     * @param language Language code
+     * @return CompletableFuture containing the matching players
+     */
+    CompletableFuture<List<PlayerData>> findByLanguage(String language);
+
+    /**
+     * Finds a player by exact (case-sensitive) name.
+     *
+     * @param playerName Player name
+     * @return CompletableFuture containing the data, or null if not found
+     */
+    CompletableFuture<PlayerData> findByName(String playerName);
+
+    /**
+     * Finds a player by name, ignoring case.
+     *
+     * @param playerName Player name
+     * @return CompletableFuture containing the data, or null if not found
+     */
+    CompletableFuture<PlayerData> findByNameIgnoreCase(String playerName);
+}
@@ -0,0 +1,321 @@
+package com.prismamc.trade.repository;
+
+import com.mongodb.client.MongoCollection;
+import com.mongodb.client.MongoDatabase;
+import com.mongodb.client.model.Filters;
+import com.mongodb.client.model.Projections;
+import com.mongodb.client.model.Sorts;
+import com.prismamc.trade.database.TradeArchiver;
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.bson.conversions.Bson;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Logger;
+
+/**
+ * QueryPlanAuditor - explain("executionStats") over every query the plugin
+ * issues
+ *
+ * Runs each query shape of the MongoDB repositories, the expiry backfill and
+ * the archiver against the live database with explain in executionStats mode.
+ * The filters come from the same static methods the repositories use. Sample
+ * values (a player UUID, a trade ID, a name) are taken from existing documents
+ * so the plans reflect real data. It then reports what the planner did with
+ * the indexes MongoDBManager creates.
+ *
+ * Key Features:
+ * - Flags COLLSCAN plans and blocking in-memory SORT stages
+ * - Flags shapes that examine many more documents than they return
+ * - Lists indexes no catalogued query uses, with their access count since the
+ * server started ($indexStats); TTL indexes are excluded
+ * - explain never modifies data, so it is safe on production databases
+ *
+ * Run at startup with mongodb.diagnostics.audit-queries or on demand with
+ * /tradeadmin explain.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class QueryPlanAuditor {
+
+    private static final List<String> AUDITED_COLLECTIONS = List.of("trades", "trade_items", "trades_archive",
+            "player_data", "messages");
+
+    private final MongoDatabase database;
+    private final Logger logger;
+    private final double maxExaminedRatio;
+
+    /**
+     * One query shape: a find or count against a collection.
+     */
+    private static final class QueryShape {
+        private final String name;
+        private final String collection;
+        private final Bson filter;
+        private final Bson projection;
+        private final Bson sort;
+        private final int limit;
+        private final boolean count;
+        private final String note;
+
+        private QueryShape(String name, String collection, Bson filter, Bson projection, Bson sort, int limit,
+                boolean count, String note) {
+            this.name = name;
+            this.collection = collection;
+            this.filter = filter;
+            this.projection = projection;
+            this.sort = sort;
+            this.limit = limit;
+            this.count = count;
+            this.note = note;
+        }
+    }
+
+    /**
+     * Constructs a new QueryPlanAuditor.
+     *
+     * @param database         Database holding the plugin collections
+     * @param logger           Logger for flagged shapes
+     * @param maxExaminedRatio Documents examined per document returned above
+     *                         which a shape is flagged
+     */
+    public QueryPlanAuditor(MongoDatabase database, Logger logger, double maxExaminedRatio) {
+        this.database = database;
+        this.logger = logger;
+        this.maxExaminedRatio = maxExaminedRatio;
+    }
+
+    /**
+     * Explains every query shape and builds the report. Blocks on the
+     * database; call it off the main thread.
+     *
+     * @return Report lines, one per query shape followed by unused indexes
+     */
+    public List<String> run() {
+        List<String> report = new ArrayList<>();
+        Map<String, Set<String>> usedIndexes = new HashMap<>();
+        List<QueryShape> shapes = catalogue();
+        int flagged = 0;
+
+        for (QueryShape shape : shapes) {
+            try {
+                List<String> findings = new ArrayList<>();
+                String line = explain(shape, usedIndexes.computeIfAbsent(shape.collection,
+                        name -> new LinkedHashSet<>()), findings);
+                if (findings.isEmpty()) {
+                    report.add("[OK] " + line);
+                } else {
+                    flagged++;
+                    String warning = "[WARN] " + line + " -> " + String.join("; ", findings);
+                    report.add(warning);
+                    logger.warning("Query plan: " + warning);
+                }
+                if (shape.note != null) {
+                    report.add("       note: " + shape.note);
+                }
+            } catch (Exception e) {
+                report.add("[ERROR] " + shape.name + ": " + e.getMessage());
+            }
+        }
+
+        for (String collection : AUDITED_COLLECTIONS) {
+            report.addAll(unusedIndexes(collection, usedIndexes.getOrDefault(collection, Set.of())));
+        }
+
+        report.add(String.format("%d query shapes audited, %d flagged", shapes.size(), flagged));
+        return report;
+    }
+
+    /**
+     * Builds the catalogue with sample values taken from the database.
+     */
+    private List<QueryShape> catalogue() {
+        Document sampleTrade = database.getCollection("trades").find()
+                .projection(Projections.include("tradeId", "player1", "player2"))
+                .sort(Sorts.descending("tradeId"))
+                .first();
+        long tradeId = sampleTrade != null ? sampleTrade.getLong("tradeId") : 1L;
+        UUID player = sampleTrade != null ? UUID.fromString(sampleTrade.getString("player1")) : UUID.randomUUID();
+        UUID other = sampleTrade != null ? UUID.fromString(sampleTrade.getString("player2")) : UUID.randomUUID();
+
+        Document samplePlayer = database.getCollection("player_data").find()
+                .projection(Projections.include("playerName", "language"))
+                .first();
+        String playerName = samplePlayer != null ? samplePlayer.getString("playerName") : "Steve";
+        String language = samplePlayer != null ? samplePlayer.getString("language") : "en";
+
+        Document sampleMessage = database.getCollection("messages").find()
+                .projection(Projections.include("key"))
+                .first();
+        String messageKey = sampleMessage != null ? sampleMessage.getString("key") : "trade.gui.title";
+
+        Bson tradeIdFilter = Filters.eq("tradeId", tradeId);
+        Bson summary = Projections.exclude("player1Items", "player2Items");
+        Bson openProjection = Projections.include("tradeId", "state");
+        Bson tradeIdOnly = Projections.fields(Projections.include("tradeId"), Projections.excludeId());
+        long archiveCutoff = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(30);
+
+        return List.of(
+                new QueryShape("trades.highestTradeId", "trades", new Document(), Projections.include("tradeId"),
+                        Sorts.descending("tradeId"), 1, false, null),
+                new QueryShape("trades.findById", "trades", tradeIdFilter, summary, null, 1, false, null),
+                new QueryShape("trade_items.findByTrade", "trade_items", tradeIdFilter, null, null, 0, false,
+                        null),
+                new QueryShape("trade_items.findBySide", "trade_items",
+                        Filters.and(tradeIdFilter, Filters.eq("side", 1)), null, null, 1, false, null),
+                new QueryShape("trades_archive.findById", "trades_archive", tradeIdFilter, null, null, 1, false,
+                        null),
+                new QueryShape("trades.openTrades", "trades", MongoTradeRepository.openTradesFilter(player),
+                        openProjection, null, 0, false, null),
+                new QueryShape("trades.openTradesWithItems", "trades", MongoTradeRepository.openTradesFilter(player),
+                        summary, null, 0, false, null),
+                new QueryShape("trade_items.findByTrades", "trade_items",
+                        MongoTradeRepository.itemsOfTradesFilter(List.of(tradeId, tradeId + 1)), null, null, 0, false,
+                        null),
+                new QueryShape("trades.inlineItems", "trades",
+                        MongoTradeRepository.inlineItemsFilter(List.of(tradeId, tradeId + 1)),
+                        Projections.include("tradeId", "player1Items", "player2Items", "expiresAt"), null, 0, false,
+                        null),
+                new QueryShape("trades.openTradeBetween", "trades",
+                        MongoTradeRepository.openTradeBetweenFilter(player, other), openProjection, null, 1, false,
+                        null),
+                new QueryShape("trades.allOpen", "trades", MongoTradeRepository.allOpenTradesFilter(), summary,
+                        null, 0, false, null),
+                new QueryShape("trades.allIds", "trades", new Document(), tradeIdOnly, Sorts.ascending("tradeId"),
+                        0, false, null),
+                new QueryShape("trades_archive.allIds", "trades_archive", new Document(), tradeIdOnly,
+                        Sorts.ascending("tradeId"), 0, false, null),
+                new QueryShape("trades.countByState", "trades",
+                        MongoTradeRepository.countFilter(player, TradeState.COMPLETED), null, null, 0, true, null),
+                new QueryShape("trades.history", "trades", MongoTradeRepository.historyFilter(player), summary,
+                        null, 0, false, "unsorted; MyTradesGUI receives trades in index order"),
+                new QueryShape("trades_archive.history", "trades_archive",
+                        MongoTradeRepository.archivedHistoryFilter(player, Long.MAX_VALUE), summary,
+                        Sorts.descending("tradeId"), 45, false, null),
+                new QueryShape("trades.backfillExpiry", "trades",
+                        MongoTradeRepository.backfillFilter(TradeState.PENDING), null, null, 0, false, null),
+                new QueryShape("trades.archiveCandidates", "trades", TradeArchiver.candidatesFilter(archiveCutoff),
+                        null, Sorts.ascending("tradeId"), 0, false, null),
+                new QueryShape("player_data.findByUuid", "player_data", Filters.eq("uuid", player.toString()),
+                        null, null, 1, false, null),
+                new QueryShape("player_data.findByName", "player_data", Filters.eq("playerName", playerName),
+                        null, null, 1, false, null),
+                new QueryShape("player_data.findByNameIgnoreCase", "player_data",
+                        MongoPlayerDataRepository.nameIgnoreCaseFilter(playerName), null, null, 1, false, null),
+                new QueryShape("player_data.findByLanguage", "player_data", Filters.eq("language", language),
+                        null, null, 0, false, null),
+                new QueryShape("messages.findByKey", "messages", Filters.eq("key", messageKey), null, null, 1,
+                        false, null));
+    }
+
+    /**
+     * Explains one shape, records the indexes its winning plan uses and adds
+     * findings for problems.
+     *
+     * @return Summary line of the plan
+     */
+    private String explain(QueryShape shape, Set<String> usedIndexes, List<String> findings) {
+        BsonDocument filter = shape.filter.toBsonDocument(BsonDocument.class, database.getCodecRegistry());
+        Document command;
+        if (shape.count) {
+            command = new Document("count", shape.collection).append("query", filter);
+        } else {
+            command = new Document("find", shape.collection).append("filter", filter);
+            if (shape.projection != null) {
+                command.append("projection", shape.projection.toBsonDocument(BsonDocument.class,
+                        database.getCodecRegistry()));
+            }
+            if (shape.sort != null) {
+                command.append("sort", shape.sort.toBsonDocument(BsonDocument.class, database.getCodecRegistry()));
+            }
+            if (shape.limit > 0) {
+                command.append("limit", shape.limit);
+            }
+        }
+
+        Document result = database.runCommand(new Document("explain", command)
+                .append("verbosity", "executionStats"));
+        Document stats = result.get("executionStats", Document.class);
+        Document winningPlan = result.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+
+        Set<String> stages = new LinkedHashSet<>();
+        Set<String> indexes = new LinkedHashSet<>();
+        collectPlan(winningPlan, stages, indexes);
+        usedIndexes.addAll(indexes);
+
+        long returned = ((Number) stats.get("nReturned")).longValue();
+        long docsExamined = ((Number) stats.get("totalDocsExamined")).longValue();
+        long keysExamined = ((Number) stats.get("totalKeysExamined")).longValue();
+        long millis = ((Number) stats.get("executionTimeMillis")).longValue();
+
+        if (stages.contains("COLLSCAN")) {
+            findings.add("COLLSCAN");
+        }
+        if (stages.contains("SORT")) {
+            findings.add("in-memory SORT");
+        }
+        if (!shape.count && docsExamined > maxExaminedRatio * Math.max(1L, returned)) {
+            findings.add(String.format("examined %d docs for %d returned", docsExamined, returned));
+        }
+
+        return String.format("%s: %s %s keys=%d docs=%d returned=%d %dms", shape.name,
+                String.join(">", stages), indexes.isEmpty() ? "(no index)" : indexes, keysExamined,
+                docsExamined, returned, millis);
+    }
+
+    /**
+     * Walks a plan tree (classic or slot-based layout) collecting stage and
+     * index names.
+     */
+    private static void collectPlan(Object node, Set<String> stages, Set<String> indexes) {
+        if (node instanceof Document doc) {
+            if (doc.get("stage") instanceof String stage) {
+                stages.add(stage);
+            }
+            if (doc.get("indexName") instanceof String indexName) {
+                indexes.add(indexName);
+            }
+            doc.values().forEach(value -> collectPlan(value, stages, indexes));
+        } else if (node instanceof List<?> list) {
+            list.forEach(value -> collectPlan(value, stages, indexes));
+        }
+    }
+
+    /**
+     * Lists the indexes of a collection that no catalogued query used.
+     */
+    private List<String> unusedIndexes(String collectionName, Set<String> used) {
+        List<String> lines = new ArrayList<>();
+        try {
+            MongoCollection<Document> collection = database.getCollection(collectionName);
+            Map<String, Long> accesses = new LinkedHashMap<>();
+            for (Document stats : collection.aggregate(List.of(new Document("$indexStats", new Document())))) {
+                Document access = stats.get("accesses", Document.class);
+                accesses.put(stats.getString("name"),
+                        access != null ? ((Number) access.get("ops")).longValue() : 0L);
+            }
+
+            for (Document index : collection.listIndexes()) {
+                String name = index.getString("name");
+                if (name.equals("_id_") || index.containsKey("expireAfterSeconds") || used.contains(name)) {
+                    continue;
+                }
+                lines.add(String.format("[UNUSED] %s.%s %s (ops since server start: %d)", collectionName, name,
+                        index.get("key", Document.class).toJson(), accesses.getOrDefault(name, 0L)));
+            }
+        } catch (Exception e) {
+            lines.add("[ERROR] index usage of " + collectionName + ": " + e.getMessage());
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,32 @@
+package com.prismamc.trade.repository;
+
+import org.bson.Document;
+import java.util.List;
+
+/**
+ * Snapshottable - In-memory repository whose contents EmbeddedStorage saves
+ * to disk
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public interface Snapshottable {
+
+    /**
+     * @return Every stored entry as a BSON document
+     */
+    List<Document> snapshot();
+
+    /**
+     * Replaces the stored entries with the given documents.
+     *
+     * @param documents Documents previously returned by snapshot
+     */
+    void restore(List<Document> documents);
+
+    /**
+     * @return Counter increased on every change, used to skip unchanged saves
+     */
+    long getModificationCount();
+}
@@ -0,0 +1,249 @@
+package com.prismamc.trade.repository;
+
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.model.TradeSummary;
+import org.bukkit.inventory.ItemStack;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * TradeRepository - Storage abstraction for trades and their items
+ *
+ * TradeManager keeps the trading rules, the cache and item delivery, and goes
+ * through this interface for everything that is stored. The implementation is
+ * chosen with storage.type in config.yml.
+ *
+ * Key Features:
+ * - Non-blocking API: every operation returns a CompletableFuture
+ * - Items are stored per side, separately from the trade's scalar fields
+ * - Field names and values of partial updates match TradeDocument.toDocument
+ * - Trades whose expiresAt has passed are removed by the implementation
+ *
+ * Implementations:
+ * - MongoTradeRepository: trades, trade_items and trades_archive collections
+ * - InMemoryTradeRepository: process memory only, nothing survives a restart
+ * - Embedded: the in-memory repository saved to the plugin folder by
+ * EmbeddedStorage
+ * - LogTradeRepository: append-only log on memory-mapped files (SegmentLog)
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public interface TradeRepository {
+
+    /**
+     * Finds the highest trade ID in use, used once to seed ID allocation.
+     *
+     * @return CompletableFuture containing the highest trade ID, or 0 if there
+     *         are no trades
+     */
+    CompletableFuture<Long> findHighestTradeId();
+
+    /**
+     * Atomically reserves a block of IDs from a named counter. The counter is
+     * raised to at least {@code floor} before it is advanced.
+     *
+     * @param counterName Name of the counter
+     * @param floor       Lowest value the counter may hold before the increment
+     * @param count       Number of IDs to reserve
+     * @return CompletableFuture containing the last ID of the reserved block
+     */
+    CompletableFuture<Long> reserveIds(String counterName, long floor, int count);
+
+    /**
+     * Sets expiresAt on trades stored without one, counting each state's window
+     * from the trade's creation time.
+     *
+     * @param windows Expiry windows in milliseconds keyed by state
+     * @return CompletableFuture containing the number of trades updated
+     */
+    CompletableFuture<Long> backfillExpiry(Map<TradeState, Long> windows);
+
+    /**
+     * Stores a new trade. Item lists are not stored (see storeItems).
+     *
+     * @param trade The trade to insert
+     * @return CompletableFuture that completes once the trade is stored
+     */
+    CompletableFuture<Void> insert(TradeDocument trade);
+
+    /**
+     * Finds a trade together with both sides' items. Archived trades are found
+     * as well.
+     *
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture containing the trade, or null if not found
+     */
+    CompletableFuture<TradeDocument> find(long tradeId);
+
+    /**
+     * Finds the scalar fields of a trade without its items. Archived trades
+     * are found as well, so null means the trade does not exist at all.
+     *
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture containing the summary, or null if not found
+     */
+    CompletableFuture<TradeSummary> findSummary(long tradeId);
+
+    /**
+     * Finds the IDs of a player's PENDING and ACTIVE trades.
+     *
+     * @param playerUUID The UUID of the player
+     * @return CompletableFuture containing the trade IDs
+     */
+    CompletableFuture<List<Long>> findOpenTradeIds(UUID playerUUID);
+
+    /**
+     * Checks whether two players share a PENDING or ACTIVE trade, in either
+     * direction.
+     *
+     * @param player1 UUID of the first player
+     * @param player2 UUID of the second player
+     * @return CompletableFuture containing true if such a trade exists
+     */
+    CompletableFuture<Boolean> hasOpenTrade(UUID player1, UUID player2);
+
+    /**
+     * Finds the scalar fields of every PENDING and ACTIVE trade, used to
+     * rebuild the per-player notification counters.
+     *
+     * @return CompletableFuture containing the open trades
+     */
+    CompletableFuture<List<TradeSummary>> findOpenTrades();
+
+    /**
+     * Finds a player's PENDING and ACTIVE trades with both sides' item lists,
+     * used to warm the trade cache when the player logs in.
+     *
+     * @param playerUUID The UUID of the player
+     * @return CompletableFuture containing the open trades
+     */
+    CompletableFuture<List<TradeDocument>> findOpenTradesWithItems(UUID playerUUID);
+
+    /**
+     * Lists the ID of every stored trade, archived trades included, used to
+     * seed the filter of known trade IDs.
+     *
+     * @return CompletableFuture containing the trade IDs
+     */
+    CompletableFuture<List<Long>> findAllTradeIds();
+
+    /**
+     * Counts a player's trades in the given state.
+     *
+     * @param playerUUID The UUID of the player
+     * @param state      The state to count
+     * @return CompletableFuture containing the number of trades
+     */
+    CompletableFuture<Long> countTrades(UUID playerUUID, TradeState state);
+
+    /**
+     * Finds every trade a player took part in, except archived trades. Item
+     * lists are left empty.
+     *
+     * @param playerUUID The UUID of the player
+     * @return CompletableFuture containing the trades
+     */
+    CompletableFuture<List<TradeDocument>> findHistory(UUID playerUUID);
+
+    /**
+     * Finds one page of a player's archived trades, newest first. Item lists
+     * are left empty.
+     *
+     * @param playerUUID    The UUID of the player
+     * @param beforeTradeId Only trades with a lower ID are returned
+     * @param limit         Maximum number of trades to return
+     * @return CompletableFuture containing the archived trades
+     */
+    CompletableFuture<List<TradeDocument>> findArchivedHistory(UUID playerUUID, long beforeTradeId, int limit);
+
+    /**
+     * Sets the state of a trade and the expiry of the trade and its items.
+     *
+     * @param tradeId   The ID of the trade
+     * @param state     The new state
+     * @param expiresAt The new expiry, or null if the trade never expires
+     * @return CompletableFuture that completes once the update is accepted
+     */
+    CompletableFuture<Void> updateState(long tradeId, TradeState state, Date expiresAt);
+
+    /**
+     * Sets scalar fields of a trade. Implementations may buffer the update, as
+     * long as later reads observe it.
+     *
+     * @param tradeId The ID of the trade
+     * @param fields  Field names and values to set
+     * @return CompletableFuture that completes once the update is accepted
+     */
+    CompletableFuture<Void> updateFields(long tradeId, Map<String, Object> fields);
+
+    /**
+     * Sets {@code player1Field} when the player is player1 of the trade and
+     * {@code player2Field} otherwise, without the caller reading the trade.
+     *
+     * @param tradeId      The ID of the trade
+     * @param playerUUID   The player the field belongs to
+     * @param player1Field Field used when the player is player1
+     * @param player2Field Field used otherwise
+     * @param value        Value to set
+     * @return CompletableFuture that completes once the update is written
+     */
+    CompletableFuture<Void> updatePlayerField(long tradeId, UUID playerUUID, String player1Field,
+            String player2Field, Object value);
+
+    /**
+     * Writes the state, expiry and both item lists of several trades.
+     *
+     * @param trades The trades to write
+     * @return CompletableFuture containing the number of trades modified
+     */
+    CompletableFuture<Long> saveTrades(List<TradeDocument> trades);
+
+    /**
+     * Writes the outcome of a completed trade: state, delivery flags, expiry and
+     * both item lists. Pending buffered updates never overwrite it.
+     *
+     * @param trade The completed trade
+     * @return CompletableFuture that completes once the trade is written
+     */
+    CompletableFuture<Void> saveCompletion(TradeDocument trade);
+
+    /**
+     * Replaces one side's items.
+     *
+     * @param tradeId   The ID of the trade
+     * @param side      1 for player1, 2 for player2
+     * @param items     Items to store
+     * @param expiresAt Expiry of the owning trade, or null if it never expires
+     * @return CompletableFuture that completes once the items are stored
+     */
+    CompletableFuture<Void> storeItems(long tradeId, int side, List<ItemStack> items, Date expiresAt);
+
+    /**
+     * Atomically clears one side's items and returns the previous items, so two
+     * concurrent callers can never both receive them.
+     *
+     * @param tradeId The ID of the trade
+     * @param side    1 for player1, 2 for player2
+     * @return CompletableFuture containing the removed items
+     */
+    CompletableFuture<List<ItemStack>> takeItems(long tradeId, int side);
+
+    /**
+     * Removes a trade and its items.
+     *
+     * @param tradeId The ID of the trade
+     * @return CompletableFuture that completes once the trade is removed
+     */
+    CompletableFuture<Void> delete(long tradeId);
+
+    /**
+     * Writes buffered updates and stops background tasks.
+     */
+    void close();
+}
@@ -0,0 +1,117 @@
+package com.prismamc.trade.utils;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram - Lock-free latency distribution
+ *
+ * Counts durations in power-of-two microsecond buckets (under 1µs, under 2µs,
+ * under 4µs, ... up to about 35 minutes). Percentiles are reported as the
+ * upper bound of the bucket they fall in, so they are accurate to within a
+ * factor of two. That is enough to tell a 1ms query from a 100ms one.
+ *
+ * Key Features:
+ * - record is a few LongAdder increments, safe from any driver thread
+ * - Count, mean, max and percentiles in milliseconds
+ * - reset clears the distribution (not atomic with concurrent records)
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class LatencyHistogram {
+
+    private static final int BUCKETS = 32;
+
+    private final LongAdder[] buckets;
+    private final LongAdder count;
+    private final LongAdder totalNanos;
+    private final LongAccumulator maxNanos;
+
+    public LatencyHistogram() {
+        this.buckets = new LongAdder[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+        this.count = new LongAdder();
+        this.totalNanos = new LongAdder();
+        this.maxNanos = new LongAccumulator(Math::max, 0L);
+    }
+
+    /**
+     * Records one duration.
+     *
+     * @param nanos Duration in nanoseconds
+     */
+    public void record(long nanos) {
+        long micros = Math.max(0L, nanos / 1000L);
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    /** @return Number of recorded durations */
+    public long getCount() {
+        return count.sum();
+    }
+
+    /** @return Mean duration in milliseconds (0 when empty) */
+    public double getMeanMillis() {
+        long n = count.sum();
+        return n == 0 ? 0.0 : totalNanos.sum() / (n * 1_000_000.0);
+    }
+
+    /** @return Longest recorded duration in milliseconds */
+    public double getMaxMillis() {
+        return maxNanos.get() / 1_000_000.0;
+    }
+
+    /**
+     * @param percentile Percentile between 0 and 100
+     * @return Upper bound in milliseconds of the bucket holding the percentile
+     */
+    public double getPercentileMillis(double percentile) {
+        long[] counts = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+            total += counts[i];
+        }
+        if (total == 0) {
+            return 0.0;
+        }
+
+        long rank = (long) Math.ceil(total * Math.min(100.0, Math.max(0.0, percentile)) / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts[i];
+            if (seen >= Math.max(1L, rank)) {
+                return Math.min((1L << i) / 1000.0, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+
+    /**
+     * @return One-line summary: count, mean, p50, p99 and max
+     */
+    public String summary() {
+        return String.format("n=%d avg=%.2fms p50=%.2fms p99=%.2fms max=%.2fms", getCount(), getMeanMillis(),
+                getPercentileMillis(50), getPercentileMillis(99), getMaxMillis());
+    }
+
+    /**
+     * Clears the distribution.
+     */
+    public void reset() {
+        for (LongAdder bucket : buckets) {
+            bucket.reset();
+        }
+        count.reset();
+        totalNanos.reset();
+        maxNanos.reset();
+    }
+}
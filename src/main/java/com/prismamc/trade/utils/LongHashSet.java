@@ -0,0 +1,163 @@
+package com.prismamc.trade.utils;
+
+/**
+ * LongHashSet - Compact set of primitive long values
+ *
+ * Values live in a single long[] with linear probing; 0 marks an empty slot
+ * and is tracked by a separate flag. Removal shifts the following entries of
+ * the probe run back, so the table never holds tombstones.
+ *
+ * Key Features:
+ * - 8 bytes per slot at most 75% full, versus a 16-byte Long object plus a
+ * reference per element for a List of boxed Longs
+ * - Starts at 4 slots, suiting the handful of trades most players have
+ *
+ * Not thread-safe; callers synchronize (for example inside
+ * ConcurrentHashMap.compute).
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class LongHashSet {
+
+    private static final int MIN_CAPACITY = 4;
+
+    private long[] slots;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet() {
+        this.slots = new long[MIN_CAPACITY];
+    }
+
+    /**
+     * @param value The value to add
+     * @return True if the value was not already present
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int mask = slots.length - 1;
+        for (int i = indexOf(value, mask); ; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return false;
+            }
+            if (slots[i] == 0) {
+                slots[i] = value;
+                if (++size > slots.length / 4 * 3) {
+                    resize(slots.length * 2);
+                }
+                return true;
+            }
+        }
+    }
+
+    /**
+     * @param value The value to look up
+     * @return True if the value is present
+     */
+    public boolean contains(long value) {
+        if (value == 0) {
+            return containsZero;
+        }
+        int mask = slots.length - 1;
+        for (int i = indexOf(value, mask); slots[i] != 0; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param value The value to remove
+     * @return True if the value was present
+     */
+    public boolean remove(long value) {
+        if (value == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int mask = slots.length - 1;
+        for (int i = indexOf(value, mask); slots[i] != 0; i = (i + 1) & mask) {
+            if (slots[i] == value) {
+                shiftBack(i, mask);
+                size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return Number of values
+     */
+    public int size() {
+        return size + (containsZero ? 1 : 0);
+    }
+
+    /**
+     * @return True if the set holds no values
+     */
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * @return The values, in no particular order
+     */
+    public long[] toArray() {
+        long[] values = new long[size()];
+        int n = 0;
+        if (containsZero) {
+            values[n++] = 0;
+        }
+        for (long slot : slots) {
+            if (slot != 0) {
+                values[n++] = slot;
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Closes the gap left at {@code gap} by moving back every later entry of
+     * the probe run that would otherwise become unreachable.
+     */
+    private void shiftBack(int gap, int mask) {
+        for (int i = (gap + 1) & mask; slots[i] != 0; i = (i + 1) & mask) {
+            int home = indexOf(slots[i], mask);
+            // Move the entry unless its home lies cyclically in (gap, i]
+            if (((i - home) & mask) >= ((i - gap) & mask)) {
+                slots[gap] = slots[i];
+                gap = i;
+            }
+        }
+        slots[gap] = 0;
+    }
+
+    private void resize(int capacity) {
+        long[] old = slots;
+        slots = new long[capacity];
+        int mask = capacity - 1;
+        for (long value : old) {
+            if (value != 0) {
+                int i = indexOf(value, mask);
+                while (slots[i] != 0) {
+                    i = (i + 1) & mask;
+                }
+                slots[i] = value;
+            }
+        }
+    }
+
+    private static int indexOf(long value, int mask) {
+        long h = value * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,227 @@
+package com.prismamc.trade.utils;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * LongObjectMap - Open-addressing map from primitive long keys to values
+ *
+ * Keys live in a long[] and values in a parallel Object[], probed linearly,
+ * so an entry costs two array slots instead of a boxed Long and a hash map
+ * node. Removed entries leave a tombstone, which keeps probe chains intact
+ * for concurrent readers and is reused by later inserts; tombstones are
+ * cleared whenever the table is rebuilt.
+ *
+ * Key Features:
+ * - About 16 bytes per slot at most 75% full, versus about 64 bytes per
+ * entry for a ConcurrentHashMap with Long keys
+ * - Lock-free reads concurrent with writes: a reader either sees an entry
+ * completely or not at all
+ * - The table doubles when full and is rebuilt in place when tombstones
+ * fill it
+ *
+ * Writes are not synchronized: callers must serialize put and remove (for
+ * example under the lock that guards the rest of their state). Reads need no
+ * lock.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class LongObjectMap<V> {
+
+    private static final Object TOMBSTONE = new Object();
+    private static final VarHandle KEYS = MethodHandles.arrayElementVarHandle(long[].class);
+    private static final VarHandle VALUES = MethodHandles.arrayElementVarHandle(Object[].class);
+    private static final int MIN_CAPACITY = 16;
+
+    // Replaced as a whole on resize; readers keep probing the table they read
+    private volatile Table table;
+    private volatile int size;
+
+    // Live entries plus tombstones; written only by the (serialized) writer
+    private int used;
+
+    /**
+     * Slot arrays of one table generation.
+     */
+    private static final class Table {
+        private final long[] keys;
+        private final Object[] values;
+        private final int mask;
+        private final int threshold;
+
+        private Table(int capacity) {
+            this.keys = new long[capacity];
+            this.values = new Object[capacity];
+            this.mask = capacity - 1;
+            this.threshold = capacity / 4 * 3;
+        }
+    }
+
+    /**
+     * Constructs a new LongObjectMap.
+     *
+     * @param expectedSize Number of entries to allocate room for
+     */
+    public LongObjectMap(int expectedSize) {
+        this.table = new Table(capacityFor(expectedSize));
+    }
+
+    /**
+     * @param key The key
+     * @return The value mapped to the key, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        Table t = table;
+        int i = indexOf(key, t.mask);
+        while (true) {
+            Object value = VALUES.getAcquire(t.values, i);
+            if (value == null) {
+                return null;
+            }
+            if (value != TOMBSTONE && (long) KEYS.getAcquire(t.keys, i) == key) {
+                // Re-reading the value detects a slot overwritten or reused for
+                // another key between the two reads; the slot is then read
+                // again rather than skipped, since it may still hold the key
+                if (VALUES.getAcquire(t.values, i) == value) {
+                    return (V) value;
+                }
+                continue;
+            }
+            i = (i + 1) & t.mask;
+        }
+    }
+
+    /**
+     * @param key The key
+     * @return True if the key is mapped
+     */
+    public boolean containsKey(long key) {
+        return get(key) != null;
+    }
+
+    /**
+     * Maps a key to a value. Writers must be serialized.
+     *
+     * @param key   The key
+     * @param value The value, not null
+     * @return The previous value, or null
+     */
+    @SuppressWarnings("unchecked")
+    public V put(long key, V value) {
+        Table t = table;
+        int reusable = -1;
+        for (int i = indexOf(key, t.mask); ; i = (i + 1) & t.mask) {
+            Object current = t.values[i];
+            if (current == null) {
+                if (reusable < 0) {
+                    if (used + 1 > t.threshold) {
+                        rebuild();
+                        return put(key, value);
+                    }
+                    used++;
+                    reusable = i;
+                }
+                // The key is published before the value
+                KEYS.setRelease(t.keys, reusable, key);
+                VALUES.setRelease(t.values, reusable, value);
+                size = size + 1;
+                return null;
+            }
+            if (current == TOMBSTONE) {
+                if (reusable < 0) {
+                    reusable = i;
+                }
+            } else if (t.keys[i] == key) {
+                VALUES.setRelease(t.values, i, value);
+                return (V) current;
+            }
+        }
+    }
+
+    /**
+     * Removes a key. Writers must be serialized.
+     *
+     * @param key The key
+     * @return The removed value, or null
+     */
+    public V remove(long key) {
+        return remove(key, null);
+    }
+
+    /**
+     * Removes a key if it is mapped to the given value. Writers must be
+     * serialized.
+     *
+     * @param key      The key
+     * @param expected Value the key must be mapped to, or null for any value
+     * @return The removed value, or null if nothing was removed
+     */
+    @SuppressWarnings("unchecked")
+    public V remove(long key, V expected) {
+        Table t = table;
+        for (int i = indexOf(key, t.mask); ; i = (i + 1) & t.mask) {
+            Object current = t.values[i];
+            if (current == null) {
+                return null;
+            }
+            if (current != TOMBSTONE && t.keys[i] == key) {
+                if (expected != null && current != expected) {
+                    return null;
+                }
+                VALUES.setRelease(t.values, i, TOMBSTONE);
+                size = size - 1;
+                return (V) current;
+            }
+        }
+    }
+
+    /**
+     * @return Number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return Number of slots in the current table
+     */
+    public int capacity() {
+        return table.keys.length;
+    }
+
+    /**
+     * Copies the live entries into a new table, doubled if they would leave
+     * it more than half full, and publishes it.
+     */
+    private void rebuild() {
+        Table old = table;
+        Table rebuilt = new Table(capacityFor(size * 2));
+        for (int i = 0; i < old.values.length; i++) {
+            Object value = old.values[i];
+            if (value != null && value != TOMBSTONE) {
+                int j = indexOf(old.keys[i], rebuilt.mask);
+                while (rebuilt.values[j] != null) {
+                    j = (j + 1) & rebuilt.mask;
+                }
+                rebuilt.keys[j] = old.keys[i];
+                rebuilt.values[j] = value;
+            }
+        }
+        used = size;
+        table = rebuilt;
+    }
+
+    private static int capacityFor(int expectedSize) {
+        long needed = Math.max(MIN_CAPACITY, (long) Math.ceil(expectedSize / 0.75));
+        return (int) Math.min(1 << 30, Long.highestOneBit(needed - 1) << 1);
+    }
+
+    // Mixes the key so sequential trade IDs do not form long probe runs
+    private static int indexOf(long key, int mask) {
+        long h = key * 0x9e3779b97f4a7c15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
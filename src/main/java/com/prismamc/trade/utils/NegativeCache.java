@@ -0,0 +1,113 @@
+package com.prismamc.trade.utils;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * NegativeCache - Short-lived memory of lookups that found nothing
+ *
+ * Remembers keys whose lookup returned no result, so repeated lookups of the
+ * same missing key (mistyped trade IDs or player names) are answered without
+ * a query until the entry expires. Callers invalidate a key as soon as it
+ * starts to exist.
+ *
+ * Key Features:
+ * - Entries expire after a fixed time, bounding how long a key created
+ * elsewhere (another server) stays hidden
+ * - Bounded entry count; expired entries are purged when the bound is
+ * reached, and new entries are skipped while it is still full
+ * - Stamps keep a lookup that started before an invalidation from recording
+ * its stale miss afterwards
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+public class NegativeCache<K> {
+
+    // Key -> time the entry expires (epoch millis)
+    private final ConcurrentHashMap<K, Long> entries;
+    private final long ttlMillis;
+    private final int maxEntries;
+    private final AtomicLong invalidations;
+
+    /**
+     * Constructs a new NegativeCache.
+     *
+     * @param ttlMillis  How long a miss is remembered (0 disables the cache)
+     * @param maxEntries Maximum number of remembered misses
+     */
+    public NegativeCache(long ttlMillis, int maxEntries) {
+        this.entries = new ConcurrentHashMap<>();
+        this.ttlMillis = ttlMillis;
+        this.maxEntries = maxEntries;
+        this.invalidations = new AtomicLong();
+    }
+
+    /**
+     * @param key The key
+     * @return True if a lookup of the key recently found nothing
+     */
+    public boolean contains(K key) {
+        Long expiresAt = entries.get(key);
+        if (expiresAt == null) {
+            return false;
+        }
+        if (expiresAt <= System.currentTimeMillis()) {
+            entries.remove(key, expiresAt);
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Takes a stamp before starting a lookup, to be passed to add.
+     *
+     * @return The current stamp
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Records that a lookup of the key found nothing, unless any key was
+     * invalidated since the lookup started.
+     *
+     * @param key   The key
+     * @param stamp Stamp taken before the lookup started
+     */
+    public void add(K key, long stamp) {
+        if (ttlMillis <= 0) {
+            return;
+        }
+        if (entries.size() >= maxEntries) {
+            long now = System.currentTimeMillis();
+            entries.values().removeIf(expiresAt -> expiresAt <= now);
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key, System.currentTimeMillis() + ttlMillis);
+        // An invalidation that raced with the put may have missed it
+        if (invalidations.get() != stamp) {
+            entries.remove(key);
+        }
+    }
+
+    /**
+     * Forgets a key, called once it exists.
+     *
+     * @param key The key
+     */
+    public void invalidate(K key) {
+        invalidations.incrementAndGet();
+        entries.remove(key);
+    }
+
+    /**
+     * @return Number of remembered misses, including expired ones not yet purged
+     */
+    public int size() {
+        return entries.size();
+    }
+}
@@ -0,0 +1,129 @@
+package com.prismamc.trade.database;
+
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import org.bson.BsonBinaryReader;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.codecs.DecoderContext;
+import org.bson.codecs.DocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.nio.ByteBuffer;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CodecBenchmark - TradeDocumentCodec versus the Document mapping
+ *
+ * JMH benchmark encoding and decoding the same trades once through
+ * TradeDocumentCodec and once through an intermediate org.bson.Document
+ * (DocumentCodec plus TradeDocument(Document) and toDocument), the path trades
+ * took before the codec was registered. Runs entirely in memory, so it
+ * measures the mapping cost without any network or server time.
+ *
+ * Run from the project directory after {@code mvn test-compile}:
+ *
+ * <pre>
+ * mvn dependency:build-classpath -Dmdep.outputFile=target/test.classpath
+ * java -cp "target/test-classes:target/classes:$(cat target/test.classpath)" \
+ *     org.openjdk.jmh.Main CodecBenchmark -prof gc
+ * </pre>
+ *
+ * The gc profiler adds the bytes allocated per operation
+ * (gc.alloc.rate.norm).
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    // Power of two, so the trade index wraps with a mask
+    private static final int TRADE_COUNT = 1024;
+
+    private final TradeDocumentCodec tradeCodec = new TradeDocumentCodec();
+    private final DocumentCodec documentCodec = new DocumentCodec();
+
+    private TradeDocument[] trades;
+    private byte[][] encoded;
+    private int next;
+
+    // Mix of states with and without an expiry, like a live trades collection
+    @Setup(Level.Trial)
+    public void setUp() {
+        TradeState[] states = TradeState.values();
+        long now = System.currentTimeMillis();
+        trades = new TradeDocument[TRADE_COUNT];
+        encoded = new byte[TRADE_COUNT][];
+        for (int i = 0; i < TRADE_COUNT; i++) {
+            TradeState state = states[i % states.length];
+            Date expiresAt = state == TradeState.COMPLETED ? null : new Date(now + 3_600_000L);
+            trades[i] = new TradeDocument(i + 1L, UUID.randomUUID(), UUID.randomUUID(), state, now - i,
+                    i % 2 == 0, i % 3 == 0, i % 2 == 1, i % 3 == 1, expiresAt);
+            encoded[i] = encodeWithCodec(trades[i]);
+        }
+    }
+
+    @Benchmark
+    public TradeDocument decodeCodec() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(encoded[nextIndex()]))) {
+            return tradeCodec.decode(reader, DecoderContext.builder().build());
+        }
+    }
+
+    @Benchmark
+    public TradeDocument decodeDocument() {
+        try (BsonBinaryReader reader = new BsonBinaryReader(ByteBuffer.wrap(encoded[nextIndex()]))) {
+            Document doc = documentCodec.decode(reader, DecoderContext.builder().build());
+            return new TradeDocument(doc);
+        }
+    }
+
+    @Benchmark
+    public byte[] encodeCodec() {
+        return encodeWithCodec(trades[nextIndex()]);
+    }
+
+    @Benchmark
+    public byte[] encodeDocument() {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            documentCodec.encode(writer, trades[nextIndex()].toDocument(), EncoderContext.builder().build());
+        }
+        return buffer.toByteArray();
+    }
+
+    private byte[] encodeWithCodec(TradeDocument trade) {
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        try (BsonBinaryWriter writer = new BsonBinaryWriter(buffer)) {
+            tradeCodec.encode(writer, trade, EncoderContext.builder().build());
+        }
+        return buffer.toByteArray();
+    }
+
+    // Cycles through the trades so every state is mapped
+    private int nextIndex() {
+        int index = next;
+        next = (index + 1) & (TRADE_COUNT - 1);
+        return index;
+    }
+}
@@ -0,0 +1,188 @@
+package com.prismamc.trade.manager;
+
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for CacheManager. Trades without items weigh the base weight of 256
+ * bytes, so a cache of 100 * 256 bytes holds 100 of them.
+ */
+class CacheManagerTest {
+
+    private static final int TRADE_WEIGHT = 256;
+    private static final long NO_EXPIRY = TimeUnit.HOURS.toMillis(1);
+
+    private CacheManager cache;
+
+    @AfterEach
+    void tearDown() {
+        if (cache != null) {
+            cache.shutdown();
+        }
+    }
+
+    @Test
+    void putGetReplaceAndRemove() {
+        cache = new CacheManager(100 * TRADE_WEIGHT, NO_EXPIRY, 1000);
+        TradeDocument first = trade(1L);
+        TradeDocument second = trade(1L);
+
+        cache.put(1L, first);
+        assertSame(first, cache.get(1L));
+        cache.put(1L, second);
+        assertSame(second, cache.get(1L));
+        assertEquals(1, cache.size());
+
+        cache.remove(1L);
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.getWeightedSize());
+    }
+
+    @Test
+    void staysWithinMaximumWeight() {
+        cache = new CacheManager(100 * TRADE_WEIGHT, NO_EXPIRY, 1000);
+        for (long tradeId = 1; tradeId <= 1000; tradeId++) {
+            cache.put(tradeId, trade(tradeId));
+        }
+
+        assertTrue(cache.getWeightedSize() <= cache.getMaximumWeight());
+        assertEquals(100, cache.size());
+    }
+
+    @Test
+    void frequentTradeSurvivesScan() {
+        cache = new CacheManager(100 * TRADE_WEIGHT, NO_EXPIRY, 1000);
+        TradeDocument hot = trade(1L);
+        cache.put(1L, hot);
+        for (int i = 0; i < 10; i++) {
+            cache.get(1L);
+        }
+
+        // One-off trades, many more than fit; more of them between two uses
+        // of the frequent trade than the cache holds, which flushes an LRU
+        for (long tradeId = 1000; tradeId < 2000; tradeId++) {
+            cache.put(tradeId, trade(tradeId));
+            if (tradeId % 150 == 0) {
+                assertSame(hot, cache.get(1L));
+            }
+        }
+
+        assertSame(hot, cache.get(1L));
+    }
+
+    @Test
+    void entriesExpireAfterAccessTimeout() throws InterruptedException {
+        cache = new CacheManager(100 * TRADE_WEIGHT, 50, 1000);
+        cache.put(1L, trade(1L));
+
+        Thread.sleep(100);
+
+        assertNull(cache.get(1L));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void concurrentMissesShareOneLoad() {
+        cache = new CacheManager(100 * TRADE_WEIGHT, NO_EXPIRY, 1000);
+        CompletableFuture<TradeDocument> load = new CompletableFuture<>();
+        AtomicInteger loads = new AtomicInteger();
+        Supplier<CompletableFuture<TradeDocument>> loader = () -> {
+            loads.incrementAndGet();
+            return load;
+        };
+
+        CompletableFuture<TradeDocument> first = cache.get(1L, "test", loader);
+        CompletableFuture<TradeDocument> second = cache.get(1L, "test", loader);
+        TradeDocument loaded = trade(1L);
+        load.complete(loaded);
+
+        assertEquals(1, loads.get());
+        assertSame(loaded, first.join());
+        assertSame(loaded, second.join());
+        assertSame(loaded, cache.get(1L));
+    }
+
+    @Test
+    void writeDuringLoadKeepsLoadedCopyOut() {
+        cache = new CacheManager(100 * TRADE_WEIGHT, NO_EXPIRY, 1000);
+        CompletableFuture<TradeDocument> load = new CompletableFuture<>();
+        CompletableFuture<TradeDocument> lookup = cache.get(1L, "test", () -> load);
+
+        TradeDocument written = trade(1L);
+        cache.put(1L, written);
+        load.complete(trade(1L));
+
+        assertNotNull(lookup.join());
+        assertSame(written, cache.get(1L));
+    }
+
+    @Test
+    void tradesPastTheirExpiryAreNotReturned() {
+        cache = new CacheManager(100 * TRADE_WEIGHT, NO_EXPIRY, 1000);
+        cache.put(1L, trade(1L, new Date(System.currentTimeMillis() - 1000)));
+
+        assertNull(cache.get(1L));
+        // Nor cached when loaded
+        CompletableFuture<TradeDocument> lookup = cache.get(2L, "test",
+                () -> CompletableFuture.completedFuture(trade(2L, new Date(System.currentTimeMillis() - 1000))));
+        assertNotNull(lookup.join());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void timingWheelDropsExpiredEntriesWithoutLookups() throws InterruptedException {
+        cache = new CacheManager(100 * TRADE_WEIGHT, 50, 50);
+        for (long tradeId = 1; tradeId <= 10; tradeId++) {
+            cache.put(tradeId, trade(tradeId));
+        }
+
+        // The wheel turns once a second
+        long deadline = System.currentTimeMillis() + 5000;
+        while (cache.size() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+
+        assertEquals(0, cache.size());
+        assertEquals(0L, cache.getWeightedSize());
+    }
+
+    @Test
+    void prefetchSkipsTradesWrittenMeanwhile() {
+        cache = new CacheManager(100 * TRADE_WEIGHT, NO_EXPIRY, 1000);
+        CompletableFuture<List<TradeDocument>> load = new CompletableFuture<>();
+        CompletableFuture<List<TradeDocument>> prefetch = cache.prefetch("test", () -> load);
+
+        TradeDocument written = trade(1L);
+        cache.put(1L, written);
+        load.complete(List.of(trade(1L), trade(2L)));
+
+        assertEquals(List.of(2L), prefetch.join().stream().map(TradeDocument::getTradeId).toList());
+        assertSame(written, cache.get(1L));
+        assertNotNull(cache.get(2L));
+    }
+
+    private static TradeDocument trade(long tradeId) {
+        return trade(tradeId, null);
+    }
+
+    private static TradeDocument trade(long tradeId, Date expiresAt) {
+        return new TradeDocument(tradeId, UUID.randomUUID(), UUID.randomUUID(), TradeState.PENDING,
+                System.currentTimeMillis(), false, false, false, false, expiresAt);
+    }
+}
@@ -0,0 +1,109 @@
+package com.prismamc.trade.manager;
+
+import com.prismamc.trade.manager.TradeManager.TradeNotificationData;
+import com.prismamc.trade.manager.TradeManager.TradeState;
+import com.prismamc.trade.model.TradeDocument;
+import com.prismamc.trade.model.TradeSummary;
+import org.junit.jupiter.api.Test;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Tests for OpenTradeIndex: tracking, transitions, expiry and rebuilds with
+ * changes made while the rebuild query runs.
+ */
+class OpenTradeIndexTest {
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+
+    @Test
+    void tracksOpenTradesOfBothPlayers() {
+        OpenTradeIndex index = new OpenTradeIndex();
+        index.track(2L, alice, bob, TradeState.ACTIVE, null);
+        index.track(1L, alice, carol, TradeState.PENDING, null);
+        index.track(3L, bob, carol, TradeState.COMPLETED, null);
+
+        assertEquals(List.of(1L, 2L), index.getOpenTradeIds(alice));
+        assertEquals(List.of(2L), index.getOpenTradeIds(bob));
+        assertEquals(List.of(1L), index.getTradeIds(carol, TradeState.PENDING));
+        assertCounts(1, 1, index.get(alice));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void transitionsMoveAndRemoveTrades() {
+        OpenTradeIndex index = new OpenTradeIndex();
+        index.track(1L, alice, bob, TradeState.PENDING, null);
+
+        index.updateState(1L, TradeState.ACTIVE, null);
+        assertEquals(List.of(), index.getTradeIds(alice, TradeState.PENDING));
+        assertEquals(List.of(1L), index.getTradeIds(alice, TradeState.ACTIVE));
+
+        index.updateState(1L, TradeState.COMPLETED, null);
+        assertEquals(List.of(), index.getOpenTradeIds(alice));
+        assertCounts(0, 0, index.get(bob));
+        assertEquals(0, index.size());
+
+        index.track(2L, alice, bob, TradeState.PENDING, null);
+        index.remove(2L);
+        assertEquals(List.of(), index.getOpenTradeIds(bob));
+    }
+
+    @Test
+    void readsIgnoreExpiredTrades() {
+        OpenTradeIndex index = new OpenTradeIndex();
+        long now = System.currentTimeMillis();
+        index.track(1L, alice, bob, TradeState.PENDING, new Date(now - 1000));
+        index.track(2L, alice, bob, TradeState.PENDING, new Date(now + 60_000));
+
+        assertEquals(List.of(2L), index.getOpenTradeIds(alice));
+        assertCounts(1, 0, index.get(bob));
+    }
+
+    @Test
+    void rebuildReplaysChangesMadeDuringTheQuery() {
+        OpenTradeIndex index = new OpenTradeIndex();
+        index.track(1L, alice, bob, TradeState.PENDING, null);
+
+        index.beginRebuild();
+        // Made after the query read its trades
+        index.track(3L, alice, carol, TradeState.PENDING, null);
+        index.remove(2L);
+        index.updateState(1L, TradeState.ACTIVE, null);
+        index.rebuild(List.of(summary(1L, alice, bob, TradeState.PENDING), summary(2L, bob, carol,
+                TradeState.PENDING)));
+
+        assertEquals(List.of(1L), index.getTradeIds(alice, TradeState.ACTIVE));
+        assertEquals(List.of(3L), index.getTradeIds(alice, TradeState.PENDING));
+        assertEquals(List.of(1L), index.getOpenTradeIds(bob));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void abortedRebuildStopsRecording() {
+        OpenTradeIndex index = new OpenTradeIndex();
+        index.beginRebuild();
+        index.abortRebuild();
+        index.track(1L, alice, bob, TradeState.PENDING, null);
+
+        // Nothing recorded is replayed on top of the next query's result
+        index.rebuild(List.of());
+
+        assertEquals(0, index.size());
+    }
+
+    private static TradeSummary summary(long tradeId, UUID player1, UUID player2, TradeState state) {
+        return new TradeSummary(new TradeDocument(tradeId, player1, player2, state, System.currentTimeMillis(),
+                false, false, false, false, null));
+    }
+
+    private static void assertCounts(int pending, int active, TradeNotificationData counts) {
+        assertEquals(pending, counts.getPendingCount());
+        assertEquals(active, counts.getActiveCount());
+    }
+}
@@ -0,0 +1,184 @@
+package com.prismamc.trade.manager;
+
+import com.mongodb.MongoException;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.model.UpdateOneModel;
+import com.mongodb.client.model.WriteModel;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for TradeWriteJournal against a stub bulk writer. The periodic
+ * flusher is given a long interval, so every flush here is explicit.
+ */
+class TradeWriteJournalTest {
+
+    private static final Logger LOGGER = Logger.getLogger(TradeWriteJournalTest.class.getName());
+    private static final long NO_PERIODIC_FLUSH = TimeUnit.HOURS.toMillis(1);
+
+    private final List<List<WriteModel<Document>>> bulkWrites = new CopyOnWriteArrayList<>();
+    private TradeWriteJournal journal;
+
+    @AfterEach
+    void tearDown() {
+        if (journal != null) {
+            journal.shutdown();
+        }
+    }
+
+    @Test
+    void flushCoalescesUpdatesOfOneTrade() {
+        journal = newJournal(writes -> acknowledge(writes), 100, 1000);
+
+        journal.enqueue(1L, Map.of("state", "PENDING", "player1Accepted", true));
+        journal.enqueue(1L, Map.of("state", "ACTIVE"));
+
+        assertEquals(1, journal.flush());
+        assertEquals(1, bulkWrites.size());
+        assertEquals(new Document("state", "ACTIVE").append("player1Accepted", true), setFields(0, 0));
+        assertFalse(journal.hasBufferedUpdates());
+    }
+
+    @Test
+    void flushSplitsBatches() {
+        journal = newJournal(writes -> acknowledge(writes), 2, 1000);
+
+        for (long tradeId = 1; tradeId <= 5; tradeId++) {
+            journal.enqueue(tradeId, Map.of("state", "ACTIVE"));
+        }
+
+        assertEquals(5, journal.flush());
+        assertEquals(List.of(2, 2, 1), bulkWrites.stream().map(List::size).toList());
+    }
+
+    @Test
+    void overlayAppliesBufferedFields() {
+        journal = newJournal(writes -> acknowledge(writes), 100, 1000);
+        journal.enqueue(1L, Map.of("state", "ACTIVE"));
+
+        Document doc = journal.overlay(1L, new Document("tradeId", 1L).append("state", "PENDING"));
+
+        assertEquals("ACTIVE", doc.getString("state"));
+        assertEquals(Map.of(), buffered(2L));
+    }
+
+    @Test
+    void enqueueRefusesNewTradesWhenFull() throws Exception {
+        CompletableFuture<BulkWriteResult> stalled = new CompletableFuture<>();
+        CompletableFuture<Void> writeStarted = new CompletableFuture<>();
+        journal = newJournal(writes -> {
+            writeStarted.complete(null);
+            return stalled;
+        }, 100, 2);
+        // A write that never returns holds every later flush back
+        journal.enqueue(0L, Map.of("state", "ACTIVE"));
+        CompletableFuture.runAsync(journal::flush);
+        writeStarted.get(5, TimeUnit.SECONDS);
+
+        assertTrue(journal.enqueue(1L, Map.of("state", "ACTIVE")));
+        assertTrue(journal.enqueue(2L, Map.of("state", "ACTIVE")));
+        assertFalse(journal.enqueue(3L, Map.of("state", "ACTIVE")));
+        // Trades already buffered keep coalescing
+        assertTrue(journal.enqueue(1L, Map.of("state", "COMPLETED")));
+        assertEquals(2, journal.getPendingCount());
+
+        stalled.complete(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+    }
+
+    @Test
+    void enqueueRefusesAfterShutdown() {
+        journal = newJournal(writes -> acknowledge(writes), 100, 1000);
+        journal.enqueue(1L, Map.of("state", "ACTIVE"));
+
+        journal.shutdown();
+
+        assertEquals(1, bulkWrites.size());
+        assertFalse(journal.enqueue(2L, Map.of("state", "ACTIVE")));
+    }
+
+    @Test
+    void failedFlushRequeuesWithoutOverridingNewerValues() {
+        journal = newJournal(writes -> {
+            // Enqueued while the failing write is in flight
+            journal.enqueue(1L, Map.of("state", "COMPLETED"));
+            return CompletableFuture.failedFuture(new MongoException("connection lost"));
+        }, 100, 1000);
+        journal.enqueue(1L, Map.of("state", "ACTIVE", "player2Accepted", true));
+
+        assertEquals(0, journal.flush());
+
+        assertEquals(Map.of("state", "COMPLETED", "player2Accepted", true), buffered(1L));
+    }
+
+    @Test
+    void failedFlushSkipsDiscardedTrades() {
+        journal = newJournal(writes -> {
+            journal.discard(1L);
+            return CompletableFuture.failedFuture(new MongoException("connection lost"));
+        }, 100, 1000);
+        journal.enqueue(1L, Map.of("state", "ACTIVE"));
+        journal.enqueue(2L, Map.of("state", "ACTIVE"));
+
+        journal.flush();
+
+        assertEquals(Map.of(), buffered(1L));
+        assertEquals(Map.of("state", "ACTIVE"), buffered(2L));
+    }
+
+    @Test
+    void drainWaitsForWriteInFlight() throws Exception {
+        CompletableFuture<BulkWriteResult> write = new CompletableFuture<>();
+        CompletableFuture<Void> writeStarted = new CompletableFuture<>();
+        journal = newJournal(writes -> {
+            writeStarted.complete(null);
+            return write;
+        }, 100, 1000);
+        journal.enqueue(1L, Map.of("state", "ACTIVE"));
+
+        CompletableFuture<Integer> flush = CompletableFuture.supplyAsync(journal::flush);
+        writeStarted.get(5, TimeUnit.SECONDS);
+        journal.enqueue(1L, Map.of("player1Accepted", true));
+        CompletableFuture<Map<String, Object>> drained = journal.drain(1L);
+
+        assertFalse(drained.isDone());
+        write.complete(BulkWriteResult.acknowledged(0, 1, 0, 1, List.of(), List.of()));
+        assertEquals(Map.of("player1Accepted", true), drained.get(5, TimeUnit.SECONDS));
+        assertEquals(1, flush.get(5, TimeUnit.SECONDS));
+    }
+
+    private TradeWriteJournal newJournal(
+            Function<List<WriteModel<Document>>, CompletableFuture<BulkWriteResult>> writer,
+            int maxBatchSize, int maxBufferedTrades) {
+        return new TradeWriteJournal(LOGGER, writes -> {
+            bulkWrites.add(writes);
+            return writer.apply(writes);
+        }, NO_PERIODIC_FLUSH, maxBatchSize, maxBufferedTrades, maxBufferedTrades);
+    }
+
+    private static CompletableFuture<BulkWriteResult> acknowledge(List<WriteModel<Document>> writes) {
+        return CompletableFuture.completedFuture(
+                BulkWriteResult.acknowledged(0, writes.size(), 0, writes.size(), List.of(), List.of()));
+    }
+
+    private Map<String, Object> buffered(long tradeId) {
+        return journal.overlay(tradeId, new Document());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Document setFields(int bulkWrite, int write) {
+        UpdateOneModel<Document> update = (UpdateOneModel<Document>) bulkWrites.get(bulkWrite).get(write);
+        return (Document) ((Document) update.getUpdate()).get("$set");
+    }
+}
@@ -0,0 +1,139 @@
+package com.prismamc.trade.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FootprintBenchmark - Cost of the trade cache maps
+ *
+ * JMH benchmark filling the structures behind the trade cache with a given
+ * number of trades, once with the boxed collections used before and once with
+ * the primitive ones. Values are one shared object, so only the maps' own
+ * overhead is measured.
+ *
+ * Key Features:
+ * - Trade cache lookups: ConcurrentHashMap of Long keys versus LongObjectMap
+ * - Player trades index (two entries per trade, ten trades per player): Map
+ * of UUID to List of Long versus Map of UUID to LongHashSet
+ * - Time to fill each structure and to look every trade up once
+ *
+ * Run like CodecBenchmark, with the gc profiler for memory:
+ *
+ * <pre>
+ * java -cp "target/test-classes:target/classes:$(cat target/test.classpath)" \
+ *     org.openjdk.jmh.Main FootprintBenchmark -prof gc
+ * </pre>
+ *
+ * For the fill benchmarks, gc.alloc.rate.norm is the bytes allocated to build
+ * one structure: what it retains plus the arrays discarded while resizing.
+ *
+ * @author Mansitoh
+ * @version 1.0.0
+ * @since 1.0.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = { "-Xmx2g" })
+public class FootprintBenchmark {
+
+    private static final Object VALUE = new Object();
+    private static final int TRADES_PER_PLAYER = 10;
+
+    @Param({ "1000000" })
+    private int tradeCount;
+
+    private UUID[] players;
+    private Map<Long, Object> boxedCache;
+    private LongObjectMap<Object> primitiveCache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        players = new UUID[Math.max(1, tradeCount / TRADES_PER_PLAYER)];
+        for (int i = 0; i < players.length; i++) {
+            players[i] = new UUID(0L, i);
+        }
+        boxedCache = fillBoxedCache();
+        primitiveCache = fillPrimitiveCache();
+    }
+
+    @Benchmark
+    public Map<Long, Object> fillBoxedCache() {
+        Map<Long, Object> map = new ConcurrentHashMap<>();
+        for (long tradeId = 1; tradeId <= tradeCount; tradeId++) {
+            map.put(tradeId, VALUE);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public LongObjectMap<Object> fillPrimitiveCache() {
+        LongObjectMap<Object> map = new LongObjectMap<>(0);
+        for (long tradeId = 1; tradeId <= tradeCount; tradeId++) {
+            map.put(tradeId, VALUE);
+        }
+        return map;
+    }
+
+    @Benchmark
+    public long lookupBoxedCache() {
+        long found = 0;
+        for (long tradeId = 1; tradeId <= tradeCount; tradeId++) {
+            if (boxedCache.get(tradeId) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public long lookupPrimitiveCache() {
+        long found = 0;
+        for (long tradeId = 1; tradeId <= tradeCount; tradeId++) {
+            if (primitiveCache.get(tradeId) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public Map<UUID, List<Long>> fillBoxedIndex() {
+        Map<UUID, List<Long>> index = new ConcurrentHashMap<>();
+        for (long tradeId = 1; tradeId <= tradeCount; tradeId++) {
+            index.computeIfAbsent(players[(int) (tradeId % players.length)], k -> new ArrayList<>()).add(tradeId);
+            index.computeIfAbsent(players[(int) ((tradeId + 1) % players.length)], k -> new ArrayList<>())
+                    .add(tradeId);
+        }
+        return index;
+    }
+
+    @Benchmark
+    public Map<UUID, LongHashSet> fillPrimitiveIndex() {
+        Map<UUID, LongHashSet> index = new ConcurrentHashMap<>();
+        for (long tradeId = 1; tradeId <= tradeCount; tradeId++) {
+            index.computeIfAbsent(players[(int) (tradeId % players.length)], k -> new LongHashSet()).add(tradeId);
+            index.computeIfAbsent(players[(int) ((tradeId + 1) % players.length)], k -> new LongHashSet())
+                    .add(tradeId);
+        }
+        return index;
+    }
+}
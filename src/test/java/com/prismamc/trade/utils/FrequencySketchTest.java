@@ -0,0 +1,68 @@
+package com.prismamc.trade.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for FrequencySketch: counting, saturation, ranking and aging.
+ */
+class FrequencySketchTest {
+
+    @Test
+    void countsIncrements() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+
+        assertEquals(0, sketch.frequency(42L));
+        for (int i = 0; i < 5; i++) {
+            sketch.increment(42L);
+        }
+
+        assertEquals(5, sketch.frequency(42L));
+        assertEquals(0, sketch.frequency(43L));
+    }
+
+    @Test
+    void saturatesAtFifteen() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (int i = 0; i < 100; i++) {
+            sketch.increment(7L);
+        }
+
+        assertEquals(15, sketch.frequency(7L));
+    }
+
+    @Test
+    void ranksHotKeysAboveColdOnes() {
+        FrequencySketch sketch = new FrequencySketch(1024);
+        for (long key = 1; key <= 1000; key++) {
+            sketch.increment(key);
+            if (key % 100 == 0) {
+                for (int i = 0; i < 10; i++) {
+                    sketch.increment(key);
+                }
+            }
+        }
+
+        for (long hot = 100; hot <= 1000; hot += 100) {
+            assertTrue(sketch.frequency(hot) > sketch.frequency(hot + 1), "key " + hot);
+        }
+    }
+
+    @Test
+    void halvesCountersAfterTheSamplePeriod() {
+        // 16 counters' worth of longs: the sample period is 160 increments
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 12; i++) {
+            sketch.increment(1L);
+        }
+        assertEquals(12, sketch.frequency(1L));
+
+        for (long key = 1_000; key < 1_148; key++) {
+            sketch.increment(key);
+        }
+
+        assertTrue(sketch.frequency(1L) <= 12 / 2 + 2, "frequency " + sketch.frequency(1L));
+    }
+}
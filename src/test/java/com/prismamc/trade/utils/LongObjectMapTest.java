@@ -0,0 +1,113 @@
+package com.prismamc.trade.utils;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests for LongObjectMap: map semantics, growth, tombstone reuse and reads
+ * concurrent with a writer.
+ */
+class LongObjectMapTest {
+
+    @Test
+    void putGetAndReplace() {
+        LongObjectMap<String> map = new LongObjectMap<>(0);
+
+        assertNull(map.put(1L, "a"));
+        assertNull(map.put(0L, "zero"));
+        assertNull(map.put(Long.MIN_VALUE, "min"));
+        assertEquals("a", map.put(1L, "b"));
+
+        assertEquals("b", map.get(1L));
+        assertEquals("zero", map.get(0L));
+        assertEquals("min", map.get(Long.MIN_VALUE));
+        assertNull(map.get(2L));
+        assertFalse(map.containsKey(2L));
+        assertEquals(3, map.size());
+    }
+
+    @Test
+    void removeOnlyMatchingValue() {
+        LongObjectMap<String> map = new LongObjectMap<>(0);
+        map.put(1L, "a");
+
+        assertNull(map.remove(1L, "other"));
+        assertEquals("a", map.get(1L));
+        assertEquals("a", map.remove(1L, "a"));
+        assertNull(map.remove(1L));
+        assertFalse(map.containsKey(1L));
+        assertEquals(0, map.size());
+    }
+
+    @Test
+    void growsAndKeepsEveryEntry() {
+        LongObjectMap<Long> map = new LongObjectMap<>(0);
+        for (long key = 1; key <= 100_000; key++) {
+            map.put(key, key);
+        }
+
+        assertEquals(100_000, map.size());
+        assertTrue(map.capacity() * 3 / 4 >= map.size());
+        for (long key = 1; key <= 100_000; key++) {
+            assertEquals(key, map.get(key));
+        }
+    }
+
+    @Test
+    void churnDoesNotGrowTheTable() {
+        LongObjectMap<Long> map = new LongObjectMap<>(0);
+        for (long key = 1; key <= 100_000; key++) {
+            map.put(key, key);
+            if (key > 8) {
+                assertEquals(key - 8, map.remove(key - 8));
+            }
+        }
+
+        // Tombstones are cleared by rebuilding at the size the live entries need
+        assertEquals(8, map.size());
+        assertTrue(map.capacity() <= 32, "capacity " + map.capacity());
+        for (long key = 99_993; key <= 100_000; key++) {
+            assertEquals(key, map.get(key));
+        }
+    }
+
+    @Test
+    void readersAlwaysSeeEntriesNotBeingWritten() throws Exception {
+        LongObjectMap<Long> map = new LongObjectMap<>(0);
+        for (long key = 1; key <= 100; key++) {
+            map.put(key, key);
+        }
+
+        AtomicBoolean running = new AtomicBoolean(true);
+        CompletableFuture<Long> reader = CompletableFuture.supplyAsync(() -> {
+            long misses = 0;
+            while (running.get()) {
+                for (long key = 1; key <= 100; key++) {
+                    Long value = map.get(key);
+                    if (value == null || value != key) {
+                        misses++;
+                    }
+                }
+            }
+            return misses;
+        });
+
+        // Grows, rebuilds and reuses tombstones around the stable keys
+        for (long key = 1_000; key < 500_000; key++) {
+            map.put(key, key);
+            if (key % 4 != 0) {
+                map.remove(key);
+            }
+        }
+        running.set(false);
+
+        assertEquals(0L, reader.get(10, TimeUnit.SECONDS));
+    }
+}